@@ -1,20 +1,21 @@
 #!/bin/bash
 set -e
 
+# Java services build from this directory so their images can include ./feed-security.
 echo "=== Building Post Service ==="
-podman build -t localhost/postservice:dev ./postservice
+podman build -t localhost/postservice:dev -f postservice/Dockerfile .
 podman save -o /tmp/postservice-dev.tar localhost/postservice:dev
 
 echo "=== Building Timeline Service ==="
-podman build -t localhost/timelineservice:dev ./timelineservice
+podman build -t localhost/timelineservice:dev -f timelineservice/Dockerfile .
 podman save -o /tmp/timelineservice-dev.tar localhost/timelineservice:dev
 
 echo "=== Building User Service ==="
-podman build -t localhost/userservice:dev ./userservice
+podman build -t localhost/userservice:dev -f userservice/Dockerfile .
 podman save -o /tmp/userservice-dev.tar localhost/userservice:dev
 
 echo "=== Building API Gateway ==="
-podman build -t localhost/gateway:dev ./gateway
+podman build -t localhost/gateway:dev -f gateway/Dockerfile .
 podman save -o /tmp/gateway-dev.tar localhost/gateway:dev
 
 echo "=== Building Feeds Web App ==="
@@ -39,6 +40,14 @@ helm upgrade --install ngf oci://ghcr.io/nginx/charts/nginx-gateway-fabric \
   --set-json 'nginx.service.nodePorts=[{"port":30080,"listenerPort":80},{"port":30443,"listenerPort":443}]'
 kubectl -n nginx-gateway wait --for=condition=available deployment/ngf-nginx-gateway-fabric --timeout=180s
 
+echo "=== Creating the postservice client secret (once) ==="
+# Shared by Keycloak (realm import) and postservice (client_credentials); generated here so no
+# credential is committed. Reused on later deploys so both sides keep agreeing.
+kubectl get namespace feed >/dev/null 2>&1 || kubectl create namespace feed
+kubectl -n feed get secret postservice-client-secret >/dev/null 2>&1 || \
+  kubectl -n feed create secret generic postservice-client-secret \
+    --from-literal=POSTSERVICE_CLIENT_SECRET="$(openssl rand -hex 32)"
+
 echo "=== Applying K8s manifests ==="
 kubectl apply -k k8s/
 
@@ -0,0 +1,30 @@
+package com.dhruvsharma.feed.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Answers from the {@link VerifiedJwtCache} and verifies with the delegate only on a miss.
+ * Concurrent misses for the same token each verify it; the result is identical either way.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final VerifiedJwtCache cache;
+
+    public CachingJwtDecoder(JwtDecoder delegate, VerifiedJwtCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Jwt jwt = cache.get(token);
+        if (jwt == null) {
+            jwt = delegate.decode(token);
+            cache.put(token, jwt);
+        }
+        return jwt;
+    }
+}
@@ -0,0 +1,33 @@
+package com.dhruvsharma.feed.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Answers from the {@link VerifiedJwtCache} and verifies with the delegate only on a miss.
+ * A hit completes without leaving the event loop thread; concurrent misses for the same token
+ * each verify it, with the same result.
+ */
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder {
+
+    private final ReactiveJwtDecoder delegate;
+    private final VerifiedJwtCache cache;
+
+    public CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, VerifiedJwtCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        return Mono.defer(() -> {
+            Jwt cached = cache.get(token);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return delegate.decode(token).doOnNext(jwt -> cache.put(token, jwt));
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package com.dhruvsharma.feed.security;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Extracts realm roles from Keycloak JWT token.
+ *
+ * Keycloak JWT structure:
+ * {
+ *   "realm_access": {
+ *     "roles": ["feed_user", "feed_admin"]
+ *   }
+ * }
+ *
+ * Maps to: ROLE_feed_user, ROLE_feed_admin
+ *
+ * Tokens carry only a handful of distinct role lists, so each list is converted once and the
+ * same immutable authorities are shared by every token that has it.
+ */
+public class KeycloakRealmRoleConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+    /**
+     * Distinct role lists remembered. The realm has a few roles (feed_user, feed_admin and
+     * Keycloak's defaults), so real tokens carry a handful of lists; the bound only keeps the map
+     * small if the issuer ever mints per-user lists. Lists past it are converted on every call.
+     */
+    static final int MAX_ROLE_LISTS = 256;
+
+    private final Map<List<String>, List<GrantedAuthority>> byRoles = new ConcurrentHashMap<>();
+    private final int maxRoleLists;
+
+    public KeycloakRealmRoleConverter() {
+        this(MAX_ROLE_LISTS);
+    }
+
+    KeycloakRealmRoleConverter(int maxRoleLists) {
+        this.maxRoleLists = maxRoleLists;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
+        if (realmAccess == null || !realmAccess.containsKey("roles")) {
+            return Collections.emptyList();
+        }
+
+        List<String> roles = (List<String>) realmAccess.get("roles");
+        List<GrantedAuthority> authorities = byRoles.get(roles);
+        if (authorities == null) {
+            authorities = roles.stream()
+                    .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                    .toList();
+            if (byRoles.size() < maxRoleLists) {
+                byRoles.putIfAbsent(List.copyOf(roles), authorities);
+            }
+        }
+        return authorities;
+    }
+}
@@ -0,0 +1,84 @@
+package com.dhruvsharma.feed.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bearer tokens that already passed signature and claim validation, so a client sending the
+ * same access token on every request pays for RSA verification and parsing once per token
+ * instead of once per request (and once per hop: the gateway and each service keep their own).
+ *
+ * Keyed by the SHA-256 of the compact token, so the cache never holds the credential itself and
+ * a lookup compares 32 bytes. An entry expires at the token's exp, or after
+ * feed.security.jwt-cache.max-ttl if that is sooner, which also bounds how long a token signed
+ * with a since-removed key keeps being accepted. Tokens without exp and failed verifications
+ * are never cached.
+ *
+ * Each service registers one as a bean from its feed.security.jwt-cache.* properties.
+ */
+public class VerifiedJwtCache {
+
+    private final Cache<Digest, Jwt> verified;
+    private final Duration maxTtl;
+
+    public VerifiedJwtCache(MeterRegistry meterRegistry, long maxSize, Duration maxTtl) {
+        this.maxTtl = maxTtl;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((Digest key, Jwt jwt) -> ttl(jwt)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "security.verified-jwts");
+    }
+
+    /** The verified token, or null if it has not been verified here or has expired. */
+    public Jwt get(String token) {
+        return verified.getIfPresent(Digest.of(token));
+    }
+
+    /** Records a token the decoder has just verified. */
+    public void put(String token, Jwt jwt) {
+        if (!ttl(jwt).isZero()) {
+            verified.put(Digest.of(token), jwt);
+        }
+    }
+
+    private Duration ttl(Jwt jwt) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            return Duration.ZERO;
+        }
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        if (remaining.isNegative()) {
+            return Duration.ZERO;
+        }
+        return remaining.compareTo(maxTtl) < 0 ? remaining : maxTtl;
+    }
+
+    private record Digest(long a, long b, long c, long d) {
+
+        static Digest of(String token) {
+            ByteBuffer hash;
+            try {
+                hash = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                        .digest(token.getBytes(StandardCharsets.US_ASCII)));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            return new Digest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.dhruvsharma.feed.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caching of verified tokens (blocking and reactive decoders) and of converted role lists, with
+ * a stand-in verifier; no Keycloak needed.
+ */
+class VerifiedJwtCacheTests {
+
+    private final VerifiedJwtCache cache = new VerifiedJwtCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+
+    @Test
+    void repeatedTokenIsVerifiedOnce() {
+        AtomicInteger verifications = new AtomicInteger();
+        JwtDecoder delegate = token -> {
+            verifications.incrementAndGet();
+            return jwt(token, Instant.now().plusSeconds(300));
+        };
+        JwtDecoder decoder = new CachingJwtDecoder(delegate, cache);
+
+        Jwt first = decoder.decode("token-a");
+        assertSame(first, decoder.decode("token-a"));
+        decoder.decode("token-b");
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void reactiveDecoderAnswersARepeatedTokenFromTheCache() {
+        AtomicInteger verifications = new AtomicInteger();
+        ReactiveJwtDecoder delegate = token -> Mono.fromSupplier(() -> {
+            verifications.incrementAndGet();
+            return jwt(token, Instant.now().plusSeconds(300));
+        });
+        ReactiveJwtDecoder decoder = new CachingReactiveJwtDecoder(delegate, cache);
+
+        Jwt first = decoder.decode("token-a").block();
+        assertSame(first, decoder.decode("token-a").block());
+        ReactiveJwtDecoder rejecting = token -> Mono.error(new BadJwtException("bad signature"));
+        assertThrows(BadJwtException.class, () -> new CachingReactiveJwtDecoder(rejecting, cache).decode("forged").block());
+        assertEquals(1, verifications.get());
+        assertNull(cache.get("forged"));
+    }
+
+    @Test
+    void failuresAndTokensWithoutExpiryAreNotCached() {
+        JwtDecoder rejecting = token -> {
+            throw new BadJwtException("bad signature");
+        };
+        assertThrows(BadJwtException.class, () -> new CachingJwtDecoder(rejecting, cache).decode("forged"));
+        assertNull(cache.get("forged"));
+
+        cache.put("no-exp", jwt("no-exp", null));
+        assertNull(cache.get("no-exp"));
+        cache.put("expired", jwt("expired", Instant.now().minusSeconds(1)));
+        assertNull(cache.get("expired"));
+    }
+
+    @Test
+    void roleConverterSharesAuthoritiesPerRoleList() {
+        KeycloakRealmRoleConverter converter = new KeycloakRealmRoleConverter();
+        Jwt alice = jwt("alice", Instant.now().plusSeconds(60));
+        Jwt bob = jwt("bob", Instant.now().plusSeconds(60));
+
+        Collection<GrantedAuthority> authorities = converter.convert(alice);
+        assertEquals(List.of("ROLE_feed_user", "ROLE_offline_access"),
+                authorities.stream().map(GrantedAuthority::getAuthority).toList());
+        assertSame(authorities, converter.convert(bob));
+    }
+
+    @Test
+    void roleListsPastTheCapAreConvertedButNotRemembered() {
+        KeycloakRealmRoleConverter converter = new KeycloakRealmRoleConverter(1);
+        Jwt user = jwt("user", Instant.now().plusSeconds(60));
+        Jwt admin = jwt("admin", Instant.now().plusSeconds(60), List.of("feed_admin"));
+
+        Collection<GrantedAuthority> userAuthorities = converter.convert(user);
+        Collection<GrantedAuthority> adminAuthorities = converter.convert(admin);
+
+        assertSame(userAuthorities, converter.convert(user));
+        assertEquals(List.of("ROLE_feed_admin"), adminAuthorities.stream().map(GrantedAuthority::getAuthority).toList());
+        assertNotSame(adminAuthorities, converter.convert(admin));
+        assertEquals(adminAuthorities, converter.convert(admin));
+    }
+
+    @Test
+    void tokenWithoutRealmRolesHasNoAuthorities() {
+        Jwt jwt = Jwt.withTokenValue("client").header("alg", "RS256").subject("client").build();
+
+        assertTrue(new KeycloakRealmRoleConverter().convert(jwt).isEmpty());
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return jwt(token, expiresAt, List.of("feed_user", "offline_access"));
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt, List<String> roles) {
+        Jwt.Builder builder = Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject(token)
+                .claim("realm_access", Map.of("roles", roles));
+        if (expiresAt != null) {
+            builder.issuedAt(expiresAt.minusSeconds(600)).expiresAt(expiresAt);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.dhruvsharma.feed.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * A 200 response body with the representation headers needed to replay it. expiresAtNanos is
+ * on the System.nanoTime() clock.
+ */
+public record CachedResponse(HttpHeaders headers, byte[] body, long storedAtNanos, long expiresAtNanos) {
+
+    /** Bytes charged against the cache's size bound: the body plus a rough header overhead. */
+    int weight() {
+        return body.length + 256;
+    }
+}
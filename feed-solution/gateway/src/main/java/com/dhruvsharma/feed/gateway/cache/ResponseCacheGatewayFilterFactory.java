@@ -0,0 +1,351 @@
+package com.dhruvsharma.feed.gateway.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Caches 200 responses to GET requests on the routes it is applied to, for a short TTL, and
+ * collapses concurrent identical misses into one upstream call: the first request (leader)
+ * goes upstream and streams its response as usual while a copy is captured; requests for the
+ * same key that arrive meanwhile wait for that copy instead of calling the backend.
+ *
+ * Route args (shortcut: {@code ResponseCache=USER,PT2S,256KB}):
+ * - scope: USER keys entries by JWT subject, for per-user pages such as the home timeline;
+ *   SHARED keys them by the caller's roles only, for responses that are the same for every
+ *   caller (a backend's role checks still hold: callers with other roles get other entries).
+ * - ttl: how long an entry is served; capped by the response's max-age and at 5 minutes.
+ * - maxEntrySize: larger bodies are passed through and not cached.
+ *
+ * The key also covers the path, query, Accept and Accept-Encoding. Responses are not cached
+ * when the backend says no-store or no-cache (or private, for SHARED), sets a cookie, or
+ * streams (text/event-stream, application/x-ndjson). Requests with Cache-Control: no-cache
+ * or a Range bypass the cache. A replayed response keeps the backend's representation headers
+ * (Content-Type, ETag, ...) and gets Age and X-Cache; If-None-Match against the cached ETag is
+ * answered with 304.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    public enum Scope {
+        USER, SHARED
+    }
+
+    public static class Config {
+        private Scope scope = Scope.USER;
+        private Duration ttl = Duration.ofSeconds(1);
+        private DataSize maxEntrySize = DataSize.ofKilobytes(256);
+
+        public Scope getScope() {
+            return scope;
+        }
+
+        public void setScope(Scope scope) {
+            this.scope = scope;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public DataSize getMaxEntrySize() {
+            return maxEntrySize;
+        }
+
+        public void setMaxEntrySize(DataSize maxEntrySize) {
+            this.maxEntrySize = maxEntrySize;
+        }
+    }
+
+    /** Headers replayed from a cached response; everything else is hop-by-hop or per-request. */
+    private static final List<String> REPLAYED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_ENCODING, HttpHeaders.CONTENT_LANGUAGE, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED,
+            HttpHeaders.CACHE_CONTROL, HttpHeaders.VARY);
+    private static final List<MediaType> STREAMING_TYPES = List.of(MediaType.TEXT_EVENT_STREAM,
+            MediaType.APPLICATION_NDJSON);
+    private static final Pattern MAX_AGE = Pattern.compile("(?:^|[,\\s])(?:max-age|s-maxage)=(\\d{1,9})");
+
+    private final ResponseCacheStore store;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheStore store) {
+        super(Config.class);
+        this.store = store;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("scope", "ttl", "maxEntrySize");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // Must run before NettyWriteResponseFilter so that it writes through the capturing response.
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (!cacheableRequest(request)) {
+                store.bypassed();
+                return chain.filter(exchange);
+            }
+            return key(exchange, config)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(key -> key.isPresent() ? serve(exchange, chain, config, key.get()) : bypass(exchange, chain));
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> bypass(ServerWebExchange exchange, GatewayFilterChain chain) {
+        store.bypassed();
+        return chain.filter(exchange);
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                             ResponseCacheStore.Key key) {
+        CachedResponse cached = store.get(key);
+        if (cached != null && cached.expiresAtNanos() - System.nanoTime() > 0) {
+            return replay(exchange, cached, "HIT");
+        }
+        Sinks.One<CachedResponse> flight = Sinks.one();
+        Sinks.One<CachedResponse> leader = store.join(key, flight);
+        if (leader == null) {
+            return lead(exchange, chain, config, key, flight);
+        }
+        return leader.asMono()
+                .timeout(store.coalesceTimeout())
+                .map(Optional::of)
+                .onErrorReturn(Optional.empty())
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(response -> response.isPresent()
+                        ? replay(exchange, response.get(), "COALESCED")
+                        : chain.filter(exchange));
+    }
+
+    /**
+     * Forwards the request and captures the body as it streams to the client. Followers are
+     * released when the body completes, or with nothing (they call upstream themselves) if the
+     * response is not cacheable, too large, fails or is cancelled.
+     */
+    private Mono<Void> lead(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                            ResponseCacheStore.Key key, Sinks.One<CachedResponse> flight) {
+        AtomicBoolean finished = new AtomicBoolean();
+        ServerHttpResponse original = exchange.getResponse();
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(original) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                long ttlNanos = ttlNanos(getStatusCode(), getHeaders(), config);
+                if (ttlNanos <= 0) {
+                    release();
+                    return super.writeWith(body);
+                }
+                int limit = (int) Math.min(Integer.MAX_VALUE, config.getMaxEntrySize().toBytes());
+                BodyCapture capture = new BodyCapture(limit);
+                Flux<? extends DataBuffer> tee = Flux.from(body)
+                        .doOnNext(capture::append)
+                        .doOnComplete(() -> {
+                            if (capture.overflowed()) {
+                                release();
+                                return;
+                            }
+                            long now = System.nanoTime();
+                            CachedResponse response = new CachedResponse(replayedHeaders(getHeaders()),
+                                    capture.bytes(), now, now + ttlNanos);
+                            store.put(key, response);
+                            if (finished.compareAndSet(false, true)) {
+                                store.finish(key, flight, response);
+                            }
+                        });
+                return super.writeWith(tee);
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                release();
+                return super.writeAndFlushWith(body);
+            }
+
+            private void release() {
+                if (finished.compareAndSet(false, true)) {
+                    store.finish(key, flight, null);
+                }
+            }
+        };
+        return chain.filter(exchange.mutate().response(capturing).build())
+                .doFinally(signal -> {
+                    if (finished.compareAndSet(false, true)) {
+                        store.finish(key, flight, null);
+                    }
+                });
+    }
+
+    private static Mono<Void> replay(ServerWebExchange exchange, CachedResponse cached, String outcome) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        cached.headers().forEach(headers::put);
+        headers.set(HttpHeaders.AGE,
+                Long.toString(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - cached.storedAtNanos())));
+        headers.set("X-Cache", outcome);
+        String etag = cached.headers().getETag();
+        if (etag != null && exchange.checkNotModified(etag)) {
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static boolean cacheableRequest(ServerHttpRequest request) {
+        if (request.getMethod() != HttpMethod.GET || request.getHeaders().containsHeader(HttpHeaders.RANGE)) {
+            return false;
+        }
+        String cacheControl = request.getHeaders().getCacheControl();
+        if (cacheControl != null && (cacheControl.contains("no-cache") || cacheControl.contains("no-store"))) {
+            return false;
+        }
+        List<MediaType> accept;
+        try {
+            accept = request.getHeaders().getAccept();
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        // Streams (SSE, NDJSON) are never cached; */* alone does not ask for one.
+        for (MediaType type : accept) {
+            if (!type.isWildcardType() && STREAMING_TYPES.stream().anyMatch(type::isCompatibleWith)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Empty for anonymous requests, which are never cached. */
+    private Mono<ResponseCacheStore.Key> key(ServerWebExchange exchange, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route == null ? "" : route.getId();
+        String rawQuery = request.getURI().getRawQuery();
+        String pathAndQuery = rawQuery == null ? request.getURI().getRawPath() : request.getURI().getRawPath() + '?' + rawQuery;
+        HttpHeaders headers = request.getHeaders();
+        String accept = String.join(",", headers.getOrEmpty(HttpHeaders.ACCEPT));
+        String acceptEncoding = String.join(",", headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING));
+        return exchange.getPrincipal()
+                .filter(Authentication.class::isInstance)
+                .cast(Authentication.class)
+                .map(auth -> {
+                    String scope = config.getScope() == Scope.USER
+                            ? "user:" + auth.getName() + '#' + store.generation(auth.getName())
+                            : "roles:" + auth.getAuthorities().stream()
+                                    .map(GrantedAuthority::getAuthority)
+                                    .sorted()
+                                    .collect(Collectors.joining(","));
+                    return new ResponseCacheStore.Key(routeId, scope, pathAndQuery, accept, acceptEncoding);
+                });
+    }
+
+    /** How long this response may be served from the cache; 0 if it must not be cached. */
+    private static long ttlNanos(HttpStatusCode status, HttpHeaders headers, Config config) {
+        if (status == null || status.value() != HttpStatus.OK.value() || headers.containsHeader(HttpHeaders.SET_COOKIE)) {
+            return 0;
+        }
+        MediaType contentType = headers.getContentType();
+        if (contentType != null && STREAMING_TYPES.stream().anyMatch(contentType::isCompatibleWith)) {
+            return 0;
+        }
+        Duration ttl = config.getTtl().compareTo(ResponseCacheStore.MAX_TTL) < 0 ? config.getTtl() : ResponseCacheStore.MAX_TTL;
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null) {
+            if (cacheControl.contains("no-store") || cacheControl.contains("no-cache")
+                    || (config.getScope() == Scope.SHARED && cacheControl.contains("private"))) {
+                return 0;
+            }
+            Matcher maxAge = MAX_AGE.matcher(cacheControl);
+            if (maxAge.find()) {
+                Duration allowed = Duration.ofSeconds(Long.parseLong(maxAge.group(1)));
+                ttl = allowed.compareTo(ttl) < 0 ? allowed : ttl;
+            }
+        }
+        return ttl.toNanos();
+    }
+
+    private static HttpHeaders replayedHeaders(HttpHeaders source) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : REPLAYED_HEADERS) {
+            List<String> values = source.get(name);
+            if (values != null && !values.isEmpty()) {
+                headers.put(name, List.copyOf(values));
+            }
+        }
+        return headers;
+    }
+
+    /** Copies a response body as it passes, up to limit bytes; beyond that it gives up. */
+    private static final class BodyCapture {
+        private final int limit;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private boolean overflowed;
+
+        BodyCapture(int limit) {
+            this.limit = limit;
+        }
+
+        void append(DataBuffer buffer) {
+            if (overflowed) {
+                return;
+            }
+            int count = buffer.readableByteCount();
+            if (bytes.size() + count > limit) {
+                overflowed = true;
+                bytes.reset();
+                return;
+            }
+            byte[] chunk = new byte[count];
+            int position = buffer.readPosition();
+            buffer.read(chunk);
+            buffer.readPosition(position);
+            bytes.write(chunk, 0, count);
+        }
+
+        boolean overflowed() {
+            return overflowed;
+        }
+
+        byte[] bytes() {
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.dhruvsharma.feed.gateway.cache;
+
+import java.security.Principal;
+import java.util.Optional;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Drops the caller's user-scoped cached responses when they send a write (POST, PUT, PATCH,
+ * DELETE) through the gateway: once when it arrives and again when it completes, so a GET
+ * that raced the write cannot leave a pre-write page behind. Other users still see cached
+ * pages for up to their TTL.
+ */
+@Component
+public class ResponseCacheInvalidationFilter implements GlobalFilter, Ordered {
+
+    private final ResponseCacheStore store;
+
+    public ResponseCacheInvalidationFilter(ResponseCacheStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        if (method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS) {
+            return chain.filter(exchange);
+        }
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(subject -> {
+                    subject.ifPresent(store::invalidateUser);
+                    return chain.filter(exchange).doFinally(signal -> subject.ifPresent(store::invalidateUser));
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,144 @@
+package com.dhruvsharma.feed.gateway.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Responses cached by {@link ResponseCacheGatewayFilterFactory}, shared by every route that
+ * uses the filter and bounded by total body bytes (feed.gateway.response-cache.max-bytes).
+ *
+ * Also tracks the upstream calls in flight per key, so concurrent misses for the same key
+ * wait for one call instead of each making their own, and a generation per user: user-scoped
+ * keys include it, and {@link ResponseCacheInvalidationFilter} bumps it whenever the user
+ * writes, so a user never reads a cached page from before their own post or follow.
+ * Generations come from one counter and only go up: a user whose generation was evicted to
+ * make room (feed.gateway.response-cache.max-users) reads the highest evicted generation, which
+ * is never below one they had, so eviction cannot bring a pre-write page back.
+ */
+@Component
+public class ResponseCacheStore {
+
+    /** Upper bound on any entry's TTL; user generations are kept at least this long. */
+    static final Duration MAX_TTL = Duration.ofMinutes(5);
+
+    public record Key(String routeId, String scope, String pathAndQuery, String accept, String acceptEncoding) {
+    }
+
+    private final Cache<Key, CachedResponse> responses;
+    private final Cache<String, Long> generations;
+    private final AtomicLong lastGeneration = new AtomicLong();
+    /** Highest generation evicted for size; what users without a stored generation read. */
+    private final AtomicLong evictedFloor = new AtomicLong();
+    private final ConcurrentHashMap<Key, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Duration coalesceTimeout;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter bypassed;
+
+    public ResponseCacheStore(MeterRegistry meterRegistry,
+                              @Value("${feed.gateway.response-cache.max-bytes:64MB}") DataSize maxBytes,
+                              @Value("${feed.gateway.response-cache.coalesce-timeout:PT5S}") Duration coalesceTimeout,
+                              @Value("${feed.gateway.response-cache.max-users:1000000}") long maxUsers) {
+        this.coalesceTimeout = coalesceTimeout;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxBytes.toBytes())
+                .weigher((Key key, CachedResponse response) -> response.weight())
+                .expireAfter(Expiry.creating((Key key, CachedResponse response) ->
+                        Duration.ofNanos(Math.max(0, response.expiresAtNanos() - System.nanoTime()))))
+                .recordStats()
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(MAX_TTL)
+                // Evict on the writing thread, so the floor is raised before invalidateUser returns.
+                .executor(Runnable::run)
+                .evictionListener((String subject, Long generation, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE && generation != null) {
+                        evictedFloor.accumulateAndGet(generation, Math::max);
+                    }
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "gateway.responses");
+        this.hits = outcome(meterRegistry, "hit");
+        this.misses = outcome(meterRegistry, "miss");
+        this.coalesced = outcome(meterRegistry, "coalesced");
+        this.bypassed = outcome(meterRegistry, "bypass");
+    }
+
+    CachedResponse get(Key key) {
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+        }
+        return cached;
+    }
+
+    void put(Key key, CachedResponse response) {
+        responses.put(key, response);
+    }
+
+    /**
+     * Registers a call for key: returns null if the caller is now the leader and must call
+     * {@link #finish} with the flight when done, or the leader's pending result to wait on.
+     */
+    Sinks.One<CachedResponse> join(Key key, Sinks.One<CachedResponse> flight) {
+        Sinks.One<CachedResponse> leader = inFlight.putIfAbsent(key, flight);
+        if (leader == null) {
+            misses.increment();
+        } else {
+            coalesced.increment();
+        }
+        return leader;
+    }
+
+    /** Ends the leader's flight; response null means followers make their own calls. */
+    void finish(Key key, Sinks.One<CachedResponse> flight, CachedResponse response) {
+        inFlight.remove(key, flight);
+        if (response == null) {
+            flight.tryEmitEmpty();
+        } else {
+            flight.tryEmitValue(response);
+        }
+    }
+
+    Duration coalesceTimeout() {
+        return coalesceTimeout;
+    }
+
+    void bypassed() {
+        bypassed.increment();
+    }
+
+    long generation(String subject) {
+        Long generation = generations.getIfPresent(subject);
+        return generation == null ? evictedFloor.get() : generation;
+    }
+
+    /** Makes every user-scoped entry of subject unreachable; they age out on their own. */
+    public void invalidateUser(String subject) {
+        generations.put(subject, lastGeneration.incrementAndGet());
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("gateway.response-cache.requests")
+                .description("GET requests on cached routes by cache outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,12 @@
+package com.dhruvsharma.feed.gateway.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled tasks (backend DNS refresh).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
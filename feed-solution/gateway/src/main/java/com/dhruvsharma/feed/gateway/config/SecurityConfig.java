@@ -1,11 +1,9 @@
 package com.dhruvsharma.feed.gateway.config;
 
-import java.util.Collection;
-import java.util.Collections;
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -13,9 +11,9 @@ import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
 import org.springframework.security.web.server.SecurityWebFilterChain;
@@ -23,6 +21,11 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsConfigurationSource;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 
+import com.dhruvsharma.feed.security.CachingReactiveJwtDecoder;
+import com.dhruvsharma.feed.security.KeycloakRealmRoleConverter;
+import com.dhruvsharma.feed.security.VerifiedJwtCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
 import reactor.core.publisher.Mono;
 
 /**
@@ -76,6 +79,24 @@ public class SecurityConfig {
         return new ReactiveJwtAuthenticationConverterAdapter(converter);
     }
 
+    /** Verified bearer tokens, shared by the decoder below (feed.security.jwt-cache.*). */
+    @Bean
+    public VerifiedJwtCache verifiedJwtCache(MeterRegistry meterRegistry,
+                                             @Value("${feed.security.jwt-cache.max-size:10000}") long maxSize,
+                                             @Value("${feed.security.jwt-cache.max-ttl:PT5M}") Duration maxTtl) {
+        return new VerifiedJwtCache(meterRegistry, maxSize, maxTtl);
+    }
+
+    /**
+     * The jwk-set-uri decoder Spring Boot would create (RS256, exp/nbf validation), behind the
+     * verified-token cache so a repeated bearer token skips signature verification.
+     */
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(@Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+                                         VerifiedJwtCache verifiedJwtCache) {
+        return new CachingReactiveJwtDecoder(NimbusReactiveJwtDecoder.withJwkSetUri(jwkSetUri).build(), verifiedJwtCache);
+    }
+
     /**
      * CORS configuration allowing frontend origins.
      * In production, restrict origins to actual frontend domain.
@@ -97,25 +118,4 @@ public class SecurityConfig {
         source.registerCorsConfiguration("/**", config);
         return source;
     }
-
-    /**
-     * Extracts realm roles from Keycloak JWT and converts to Spring Security
-     * GrantedAuthority objects with the ROLE_ prefix.
-     */
-    static class KeycloakRealmRoleConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
-
-        @Override
-        @SuppressWarnings("unchecked")
-        public Collection<GrantedAuthority> convert(Jwt jwt) {
-            Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
-            if (realmAccess == null || !realmAccess.containsKey("roles")) {
-                return Collections.emptyList();
-            }
-
-            List<String> roles = (List<String>) realmAccess.get("roles");
-            return roles.stream()
-                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                    .collect(Collectors.toList());
-        }
-    }
 }
@@ -0,0 +1,123 @@
+package com.dhruvsharma.feed.gateway.loadbalancer;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One backend pod (or URL) of a {@link BackendPool} and the load it is seen to carry: requests
+ * outstanding and a peak-sensitive moving average of response time (peak EWMA).
+ *
+ * A response slower than the average replaces it at once; faster ones move it towards
+ * themselves, by at least 1/{@value #WINDOW_SAMPLES} per response and by more the longer it has
+ * been since the last one (time constant "decay"). So a pod that stalls (GC pause, noisy
+ * neighbour) is avoided immediately, while a busy healthy pod forgets a blip within a few
+ * responses rather than a few decay periods. A failure counts as a response of at least
+ * {@value #FAILURE_PENALTY_MS} ms, so a pod refusing connections is not mistaken for a fast one.
+ *
+ * The first successful response of a pod pays for connection setup and a cold client, so it
+ * only marks the pod as measured; averaging starts with the second.
+ */
+public final class BackendInstance {
+
+    static final long FAILURE_PENALTY_MS = 1_000;
+
+    /** Responses the average spans at most, however close together they arrive. */
+    static final int WINDOW_SAMPLES = 10;
+
+    /** Cost of a pod with requests in flight but no response yet: above any measured one. */
+    private static final double UNMEASURED_PENALTY = 1e13;
+
+    private final URI uri;
+    private final String baseUrl;
+    private final double decayNanos;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private double ewmaNanos;
+    private int samples;
+    private boolean warm;
+    private long stampNanos = System.nanoTime();
+
+    BackendInstance(URI uri, long decayNanos) {
+        this.uri = uri;
+        this.baseUrl = uri.getScheme() + "://" + uri.getRawAuthority();
+        this.decayNanos = decayNanos;
+    }
+
+    public URI uri() {
+        return uri;
+    }
+
+    /** scheme://host:port, for appending a request's path and query. */
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    int outstanding() {
+        return outstanding.get();
+    }
+
+    /** Counts a request as sent; returns its start time for {@link #finish}. */
+    long start() {
+        outstanding.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /** Counts a request as done and folds its response time in; returns that time in nanos. */
+    long finish(long startNanos, boolean failed) {
+        long now = System.nanoTime();
+        outstanding.decrementAndGet();
+        long elapsed = now - startNanos;
+        if (failed) {
+            elapsed = Math.max(elapsed, TimeUnit.MILLISECONDS.toNanos(FAILURE_PENALTY_MS));
+            observe(elapsed, now);
+        } else if (warmedUp()) {
+            observe(elapsed, now);
+        }
+        return elapsed;
+    }
+
+    /** False for the first successful response only. */
+    private synchronized boolean warmedUp() {
+        boolean was = warm;
+        warm = true;
+        return was;
+    }
+
+    synchronized void observe(long rttNanos, long nowNanos) {
+        double decayed = ewmaNanos * retained(nowNanos);
+        samples = Math.min(samples + 1, WINDOW_SAMPLES);
+        if (rttNanos > decayed) {
+            ewmaNanos = rttNanos;
+        } else {
+            double w = Math.min(retained(nowNanos), 1 - 1.0 / samples);
+            ewmaNanos = w * ewmaNanos + (1 - w) * rttNanos;
+        }
+        stampNanos = nowNanos;
+    }
+
+    /**
+     * Expected wait for one more request: the latency average, decayed towards zero over idle
+     * time so that a pod marked slow is probed again, times the requests it would queue behind.
+     */
+    double cost(long nowNanos) {
+        int inFlight = outstanding.get();
+        double latency;
+        synchronized (this) {
+            latency = ewmaNanos * retained(nowNanos);
+        }
+        if (latency == 0 && inFlight > 0) {
+            return UNMEASURED_PENALTY + inFlight;
+        }
+        return latency * (inFlight + 1);
+    }
+
+    /** Share of the average kept after the time since the last sample. */
+    private double retained(long nowNanos) {
+        return Math.exp(-Math.max(0, nowNanos - stampNanos) / decayNanos);
+    }
+
+    @Override
+    public String toString() {
+        return uri.toString();
+    }
+}
@@ -0,0 +1,156 @@
+package com.dhruvsharma.feed.gateway.loadbalancer;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The instances of one backend service and the choice between them.
+ *
+ * Instances come from a comma-separated list of sources: http(s)://host:port is one instance
+ * as written (a Kubernetes Service name still goes through kube-proxy), dns://host:port is one
+ * instance per address the name resolves to (a headless Service lists every ready pod). DNS
+ * sources are resolved again on {@link #refresh()}; instances that stay keep their statistics.
+ *
+ * {@link #choose} takes two instances at random and returns the one with the lower
+ * {@link BackendInstance#cost} ("power of two choices"): nearly as good as scanning for the
+ * least loaded one, without sending every request to the same pod between updates.
+ */
+public class BackendPool {
+
+    private static final Logger log = LoggerFactory.getLogger(BackendPool.class);
+
+    private static final String DNS_SCHEME = "dns";
+
+    private final String name;
+    private final List<URI> sources;
+    private final long decayNanos;
+    private final LatencyWindow latencies = new LatencyWindow();
+    private volatile List<BackendInstance> instances = List.of();
+
+    public BackendPool(String name, String sources, long decayNanos) {
+        this.name = name;
+        this.sources = parse(name, sources);
+        this.decayNanos = decayNanos;
+        refresh();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public List<BackendInstance> instances() {
+        return instances;
+    }
+
+    public int size() {
+        return instances.size();
+    }
+
+    /**
+     * The instance to send the next request to, other than excluded (a hedge goes to a second
+     * pod) when there is another; null if the pool is empty.
+     */
+    public BackendInstance choose(BackendInstance excluded) {
+        List<BackendInstance> current = instances;
+        int size = current.size();
+        if (size == 0) {
+            return null;
+        }
+        int skip = excluded == null ? -1 : current.indexOf(excluded);
+        int candidates = skip < 0 ? size : size - 1;
+        if (candidates <= 1) {
+            return current.get(skip == 0 && size > 1 ? 1 : 0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int a = random.nextInt(candidates);
+        int b = random.nextInt(candidates - 1);
+        if (b >= a) {
+            b++;
+        }
+        BackendInstance first = current.get(skip >= 0 && a >= skip ? a + 1 : a);
+        BackendInstance second = current.get(skip >= 0 && b >= skip ? b + 1 : b);
+        long now = System.nanoTime();
+        return first.cost(now) <= second.cost(now) ? first : second;
+    }
+
+    /** Counts a request to instance as sent; pass the result to {@link #finish}. */
+    public long start(BackendInstance instance) {
+        return instance.start();
+    }
+
+    /** Records a request's outcome on its instance and, if it succeeded, in the pool's latencies. */
+    public void finish(BackendInstance instance, long startNanos, boolean failed) {
+        long elapsed = instance.finish(startNanos, failed);
+        if (!failed) {
+            latencies.record(elapsed);
+        }
+    }
+
+    /** Recent response time at quantile (0..1) across the pool in nanos, or -1 if none yet. */
+    public long latencyPercentile(double quantile) {
+        return latencies.percentile(quantile);
+    }
+
+    /**
+     * Re-resolves DNS sources. If one fails to resolve the pool keeps its current instances, so a
+     * DNS hiccup does not empty it.
+     */
+    public synchronized void refresh() {
+        Map<URI, BackendInstance> previous = new HashMap<>();
+        for (BackendInstance instance : instances) {
+            previous.put(instance.uri(), instance);
+        }
+        Set<URI> resolved = new LinkedHashSet<>();
+        for (URI source : sources) {
+            if (!DNS_SCHEME.equals(source.getScheme())) {
+                resolved.add(source);
+                continue;
+            }
+            try {
+                for (InetAddress address : InetAddress.getAllByName(source.getHost())) {
+                    resolved.add(new URI("http", null, address.getHostAddress(), source.getPort(), null, null, null));
+                }
+            } catch (UnknownHostException | URISyntaxException e) {
+                log.warn("Could not resolve {} for backend {}; keeping the current instances", source, name, e);
+                return;
+            }
+        }
+        List<BackendInstance> next = new ArrayList<>(resolved.size());
+        for (URI uri : resolved) {
+            BackendInstance instance = previous.get(uri);
+            next.add(instance != null ? instance : new BackendInstance(uri, decayNanos));
+        }
+        if (!next.equals(instances)) {
+            log.info("Backend {} instances: {}", name, next);
+        }
+        instances = List.copyOf(next);
+    }
+
+    private static List<URI> parse(String name, String sources) {
+        List<URI> parsed = new ArrayList<>();
+        for (String source : sources.split(",")) {
+            String trimmed = source.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            URI uri = URI.create(trimmed);
+            if (uri.getHost() == null || (DNS_SCHEME.equals(uri.getScheme()) && uri.getPort() < 0)) {
+                throw new IllegalArgumentException("Backend " + name + ": expected http(s)://host[:port] or dns://host:port, got " + trimmed);
+            }
+            parsed.add(uri);
+        }
+        return List.copyOf(parsed);
+    }
+}
@@ -0,0 +1,52 @@
+package com.dhruvsharma.feed.gateway.loadbalancer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The backend pools routes can address as balanced://&lt;name&gt;, one per entry of
+ * feed.gateway.load-balancer.backends (name: sources, see {@link BackendPool}). DNS sources are
+ * re-resolved every feed.gateway.load-balancer.refresh-interval-ms.
+ */
+@Component
+public class BackendPools {
+
+    private final Map<String, BackendPool> pools = new LinkedHashMap<>();
+
+    public BackendPools(Environment environment,
+                        MeterRegistry meterRegistry,
+                        @Value("${feed.gateway.load-balancer.decay:PT10S}") Duration decay) {
+        Map<String, String> backends = Binder.get(environment)
+                .bind("feed.gateway.load-balancer.backends", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+        backends.forEach((name, sources) -> {
+            BackendPool pool = new BackendPool(name, sources, decay.toNanos());
+            pools.put(name, pool);
+            Gauge.builder("gateway.load-balancer.instances", pool, BackendPool::size)
+                    .description("Instances of a backend the gateway balances across")
+                    .tag("backend", name)
+                    .register(meterRegistry);
+        });
+    }
+
+    /** The pool named name, or null if none is configured. */
+    public BackendPool get(String name) {
+        return pools.get(name);
+    }
+
+    @Scheduled(fixedDelayString = "${feed.gateway.load-balancer.refresh-interval-ms:10000}")
+    public void refresh() {
+        pools.values().forEach(BackendPool::refresh);
+    }
+}
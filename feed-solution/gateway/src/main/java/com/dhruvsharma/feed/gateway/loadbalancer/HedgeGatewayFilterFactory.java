@@ -0,0 +1,60 @@
+package com.dhruvsharma.feed.gateway.loadbalancer;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks a balanced:// route's GET and HEAD requests for hedging by {@link LoadBalancingFilter}:
+ * if the chosen instance has not answered within the pool's recent p95 response time (at most
+ * maxDelay, which is also used until there are samples), the request is sent to a second
+ * instance too. At p95 that is about one extra request in twenty.
+ *
+ * Shortcut: {@code Hedge=PT0.25S}.
+ */
+@Component
+public class HedgeGatewayFilterFactory extends AbstractGatewayFilterFactory<HedgeGatewayFilterFactory.Config> {
+
+    static final String HEDGE_ATTR = HedgeGatewayFilterFactory.class.getName() + ".config";
+
+    public static class Config {
+        private Duration maxDelay = Duration.ofMillis(250);
+        private double quantile = 0.95;
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public double getQuantile() {
+            return quantile;
+        }
+
+        public void setQuantile(double quantile) {
+            this.quantile = quantile;
+        }
+    }
+
+    public HedgeGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("maxDelay", "quantile");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            exchange.getAttributes().put(HEDGE_ATTR, config);
+            return chain.filter(exchange);
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package com.dhruvsharma.feed.gateway.loadbalancer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Sends an idempotent request to one instance of a pool and, if it has not answered after
+ * hedgeDelay, the same request to a second instance; the first response wins and the other
+ * request is cancelled. A request that fails outright is also covered by the hedge, so a dead
+ * pod costs the delay instead of an error.
+ *
+ * Responses are buffered whole, so it is for small responses (JSON pages), not streams or
+ * downloads. Uses the gateway's own reactor-netty client (its connection pool and timeouts).
+ */
+@Component
+public class HedgingClient {
+
+    /** A buffered upstream response. */
+    public record UpstreamResponse(BackendInstance instance, int status, HttpHeaders headers, byte[] body) {
+    }
+
+    private static final byte[] NO_BODY = new byte[0];
+
+    private final HttpClient httpClient;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+
+    public HedgingClient(HttpClient httpClient, MeterRegistry meterRegistry) {
+        this.httpClient = httpClient;
+        this.hedgesSent = hedges(meterRegistry, "sent");
+        this.hedgesWon = hedges(meterRegistry, "won");
+    }
+
+    /**
+     * pathAndQuery is the raw path and query ("/api/v1/timelines?limit=20") sent to each
+     * instance. A null hedgeDelay, or a pool of one, sends a single request.
+     */
+    public Mono<UpstreamResponse> send(BackendPool pool, HttpMethod method, String pathAndQuery,
+                                       HttpHeaders headers, Duration hedgeDelay) {
+        BackendInstance first = pool.choose(null);
+        if (first == null) {
+            return Mono.error(new IllegalStateException("No instances of backend " + pool.name()));
+        }
+        Mono<UpstreamResponse> primary = call(pool, first, method, pathAndQuery, headers);
+        if (hedgeDelay == null || pool.size() < 2) {
+            return primary;
+        }
+        Mono<UpstreamResponse> hedge = Mono.delay(hedgeDelay)
+                .then(Mono.defer(() -> {
+                    hedgesSent.increment();
+                    return call(pool, pool.choose(first), method, pathAndQuery, headers);
+                }));
+        return Mono.firstWithValue(primary, hedge)
+                .doOnNext(response -> {
+                    if (response.instance() != first) {
+                        hedgesWon.increment();
+                    }
+                });
+    }
+
+    private Mono<UpstreamResponse> call(BackendPool pool, BackendInstance instance, HttpMethod method,
+                                        String pathAndQuery, HttpHeaders headers) {
+        return Mono.defer(() -> {
+            long start = pool.start(instance);
+            // Recorded before the response is passed on, so the next choice already sees it;
+            // doFinally only covers errors and cancelled losers.
+            AtomicBoolean recorded = new AtomicBoolean();
+            return httpClient
+                    .headers(h -> headers.forEach((name, values) -> h.set(name, values)))
+                    .request(io.netty.handler.codec.http.HttpMethod.valueOf(method.name()))
+                    .uri(instance.baseUrl() + pathAndQuery)
+                    .responseSingle((response, body) -> body.asByteArray()
+                            .defaultIfEmpty(NO_BODY)
+                            .map(bytes -> {
+                                HttpHeaders responseHeaders = new HttpHeaders();
+                                for (Map.Entry<String, String> header : response.responseHeaders()) {
+                                    responseHeaders.add(header.getKey(), header.getValue());
+                                }
+                                if (recorded.compareAndSet(false, true)) {
+                                    pool.finish(instance, start, response.status().code() >= 500);
+                                }
+                                return new UpstreamResponse(instance, response.status().code(), responseHeaders, bytes);
+                            }))
+                    // A cancelled loser took at least this long; that is still worth recording.
+                    .doFinally(signal -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            pool.finish(instance, start, signal == SignalType.ON_ERROR);
+                        }
+                    });
+        });
+    }
+
+    private static Counter hedges(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.load-balancer.hedges")
+                .description("Hedged requests sent to a second instance, and those it answered first")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
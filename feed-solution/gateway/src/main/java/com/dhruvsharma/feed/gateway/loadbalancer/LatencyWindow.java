@@ -0,0 +1,50 @@
+package com.dhruvsharma.feed.gateway.loadbalancer;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The last {@value #SIZE} response times of a pool, for the hedging delay. Recording is one
+ * array store; a percentile sorts a copy, at most every {@value #RECOMPUTE_MS} ms.
+ */
+final class LatencyWindow {
+
+    static final int SIZE = 1024;
+    static final long RECOMPUTE_MS = 100;
+
+    private final AtomicLongArray samples = new AtomicLongArray(SIZE);
+    private final AtomicLong recorded = new AtomicLong();
+    private volatile long cachedNanos = -1;
+    private volatile double cachedQuantile;
+    private volatile long computedAt;
+
+    void record(long nanos) {
+        samples.set((int) (recorded.getAndIncrement() & (SIZE - 1)), nanos);
+    }
+
+    /** The quantile (0..1) of recent response times in nanos, or -1 before any response. */
+    long percentile(double quantile) {
+        long now = System.nanoTime();
+        if (cachedNanos >= 0 && cachedQuantile == quantile
+                && now - computedAt < TimeUnit.MILLISECONDS.toNanos(RECOMPUTE_MS)) {
+            return cachedNanos;
+        }
+        int count = (int) Math.min(recorded.get(), SIZE);
+        if (count == 0) {
+            return -1;
+        }
+        long[] copy = new long[count];
+        for (int i = 0; i < count; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(quantile * count) - 1;
+        long value = copy[Math.max(0, Math.min(count - 1, index))];
+        cachedQuantile = quantile;
+        computedAt = now;
+        cachedNanos = value;
+        return value;
+    }
+}
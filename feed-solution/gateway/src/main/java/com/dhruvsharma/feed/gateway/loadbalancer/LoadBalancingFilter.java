@@ -0,0 +1,157 @@
+package com.dhruvsharma.feed.gateway.loadbalancer;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Resolves balanced://&lt;backend&gt; route URIs to one instance of the named {@link BackendPool},
+ * chosen by least outstanding requests weighted by peak-EWMA latency, in place of a single
+ * Kubernetes Service URL that kube-proxy spreads round-robin regardless of pod latency.
+ *
+ * Runs where Spring Cloud LoadBalancer's filter would, after the request URL is built. A request
+ * normally continues to the Netty routing filter with the instance's URL; its time to response
+ * headers is recorded, and an error or 5xx counts as a failure. Requests marked by
+ * {@link HedgeGatewayFilterFactory} (GET/HEAD, not streams, pool of two or more) are sent by
+ * {@link HedgingClient} instead and the winning response is written here.
+ */
+@Component
+public class LoadBalancingFilter implements GlobalFilter, Ordered {
+
+    public static final String SCHEME = "balanced";
+    public static final int ORDER = RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 150;
+
+    private static final List<MediaType> STREAMING_TYPES = List.of(MediaType.TEXT_EVENT_STREAM,
+            MediaType.APPLICATION_NDJSON);
+
+    private final BackendPools pools;
+    private final HedgingClient hedgingClient;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFilters;
+
+    public LoadBalancingFilter(BackendPools pools, HedgingClient hedgingClient,
+                               ObjectProvider<List<HttpHeadersFilter>> headersFilters) {
+        this.pools = pools;
+        this.hedgingClient = hedgingClient;
+        this.headersFilters = headersFilters;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        if (url == null || !SCHEME.equals(url.getScheme())) {
+            return chain.filter(exchange);
+        }
+        BackendPool pool = pools.get(url.getHost());
+        if (pool == null || pool.size() == 0) {
+            return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "No instances of backend " + url.getHost()));
+        }
+        ServerWebExchangeUtils.addOriginalRequestUrl(exchange, url);
+
+        Duration hedgeDelay = hedgeDelay(exchange, pool);
+        if (hedgeDelay != null) {
+            return hedged(exchange, chain, pool, url, hedgeDelay);
+        }
+        BackendInstance instance = pool.choose(null);
+        URI target = UriComponentsBuilder.fromUri(url)
+                .scheme(instance.uri().getScheme())
+                .host(instance.uri().getHost())
+                .port(instance.uri().getPort())
+                .build(true)
+                .toUri();
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, target);
+        long start = pool.start(instance);
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    boolean failed = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                    pool.finish(instance, start, failed);
+                });
+    }
+
+    /** The delay before a hedge for this request, or null if it is not to be hedged. */
+    private static Duration hedgeDelay(ServerWebExchange exchange, BackendPool pool) {
+        HedgeGatewayFilterFactory.Config config = exchange.getAttribute(HedgeGatewayFilterFactory.HEDGE_ATTR);
+        ServerHttpRequest request = exchange.getRequest();
+        if (config == null || pool.size() < 2
+                || (request.getMethod() != HttpMethod.GET && request.getMethod() != HttpMethod.HEAD)) {
+            return null;
+        }
+        for (String accept : request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT)) {
+            for (MediaType type : STREAMING_TYPES) {
+                if (accept.contains(type.getSubtype())) {
+                    return null;
+                }
+            }
+        }
+        long percentile = pool.latencyPercentile(config.getQuantile());
+        Duration max = config.getMaxDelay();
+        return percentile < 0 || percentile > max.toNanos() ? max : Duration.ofNanos(percentile);
+    }
+
+    private Mono<Void> hedged(ServerWebExchange exchange, GatewayFilterChain chain, BackendPool pool, URI url,
+                              Duration hedgeDelay) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpHeaders headers = new HttpHeaders();
+        HttpHeadersFilter.filterRequest(headersFilters.getIfAvailable(), exchange).forEach(headers::put);
+        headers.remove(HttpHeaders.HOST);
+        if (exchange.getAttributeOrDefault(PRESERVE_HOST_HEADER_ATTRIBUTE, false)) {
+            String host = request.getHeaders().getFirst(HttpHeaders.HOST);
+            if (host != null) {
+                headers.set(HttpHeaders.HOST, host);
+            }
+        }
+        String pathAndQuery = url.getRawQuery() == null ? url.getRawPath() : url.getRawPath() + '?' + url.getRawQuery();
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        return hedgingClient.send(pool, request.getMethod(), pathAndQuery, headers, hedgeDelay)
+                .onErrorMap(e -> !(e instanceof ResponseStatusException),
+                        e -> new ResponseStatusException(HttpStatus.BAD_GATEWAY, "No instance of " + pool.name() + " answered", e))
+                .flatMap(upstream -> write(exchange, upstream))
+                .then(chain.filter(exchange));
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, HedgingClient.UpstreamResponse upstream) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(upstream.status()));
+        HttpHeaders filtered = HttpHeadersFilter.filter(headersFilters.getIfAvailable(), upstream.headers(), exchange,
+                HttpHeadersFilter.Type.RESPONSE);
+        HttpHeaders headers = response.getHeaders();
+        filtered.forEach(headers::put);
+        if (exchange.getRequest().getMethod() == HttpMethod.HEAD) {
+            return response.setComplete();
+        }
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.setContentLength(upstream.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(upstream.body())));
+    }
+}
@@ -0,0 +1,92 @@
+package com.dhruvsharma.feed.gateway.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory rate limiter for Spring Cloud Gateway's RequestRateLimiter filter, in place of the
+ * Redis one: each caller (the filter's key, the JWT subject) gets a {@link TokenBucket} per
+ * route. A refused request is answered 429 by the filter with Retry-After, in whole seconds.
+ *
+ * Limits default to feed.gateway.rate-limit.replenish-rate / burst-capacity and can be set per
+ * route with the filter args local-rate-limiter.replenish-rate, .burst-capacity and
+ * .requested-tokens. The buckets live in this gateway pod only: with N replicas a caller gets
+ * up to N times the limit, which is still enough to keep one client from saturating a service.
+ */
+@Component
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    public static class Config {
+        private int replenishRate;
+        private int burstCapacity;
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public void setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+        }
+    }
+
+    private final Config defaultConfig = new Config();
+    private final RateLimitBuckets buckets;
+    private final MeterRegistry meterRegistry;
+
+    public LocalRateLimiter(ConfigurationService configurationService,
+                            MeterRegistry meterRegistry,
+                            @Value("${feed.gateway.rate-limit.replenish-rate:20}") int replenishRate,
+                            @Value("${feed.gateway.rate-limit.burst-capacity:40}") int burstCapacity,
+                            @Value("${feed.gateway.rate-limit.max-keys:100000}") long maxKeys) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.defaultConfig.setReplenishRate(replenishRate);
+        this.defaultConfig.setBurstCapacity(burstCapacity);
+        this.buckets = new RateLimitBuckets(meterRegistry, maxKeys);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        int rate = config.getReplenishRate() > 0 ? config.getReplenishRate() : defaultConfig.getReplenishRate();
+        int burst = config.getBurstCapacity() > 0 ? config.getBurstCapacity() : Math.max(rate, defaultConfig.getBurstCapacity());
+        long result = buckets.tryAcquire(routeId, id, rate, burst, Math.max(1, config.getRequestedTokens()));
+        if (result >= 0) {
+            return Mono.just(new Response(true, Map.of(REMAINING_HEADER, Long.toString(result))));
+        }
+        meterRegistry.counter("gateway.rate-limit.rejected", "route", routeId).increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(-result + TimeUnit.SECONDS.toNanos(1) - 1));
+        return Mono.just(new Response(false, Map.of(
+                REMAINING_HEADER, "0",
+                HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))));
+    }
+}
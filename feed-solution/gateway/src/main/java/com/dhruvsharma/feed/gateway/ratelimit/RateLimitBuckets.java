@@ -0,0 +1,48 @@
+package com.dhruvsharma.feed.gateway.ratelimit;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * The token buckets of {@link LocalRateLimiter}, one per route and caller.
+ *
+ * A bucket that has not been touched for its refill time (burst / rate) is full, the same as a
+ * new one, so it expires then and only callers seen recently take memory. The number of buckets
+ * is also capped (feed.gateway.rate-limit.max-keys); past that the least recently used callers
+ * are dropped early and start again with a full bucket.
+ */
+public class RateLimitBuckets {
+
+    record Key(String routeId, String subject) {
+    }
+
+    private final Cache<Key, TokenBucket> buckets;
+
+    public RateLimitBuckets(MeterRegistry meterRegistry, long maxKeys) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfter(Expiry.accessing((Key key, TokenBucket bucket) -> Duration.ofNanos(bucket.refillNanos())))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "gateway.rate-limit.buckets");
+    }
+
+    /** {@link TokenBucket#tryAcquire} on the bucket of routeId and subject, created full if new. */
+    public long tryAcquire(String routeId, String subject, int replenishRate, int burstCapacity, int tokens) {
+        long now = System.nanoTime();
+        Key key = new Key(routeId, subject);
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(replenishRate, burstCapacity, now));
+        if (!bucket.hasLimits(replenishRate, burstCapacity)) {
+            // The route's limits were changed (routes refreshed); start over under the new ones.
+            bucket = new TokenBucket(replenishRate, burstCapacity, now);
+            buckets.put(key, bucket);
+        }
+        return bucket.tryAcquire(tokens, now);
+    }
+}
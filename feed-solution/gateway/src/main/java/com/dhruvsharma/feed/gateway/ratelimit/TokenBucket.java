@@ -0,0 +1,61 @@
+package com.dhruvsharma.feed.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket holding at most burstCapacity tokens and refilled at replenishRate
+ * tokens per second.
+ *
+ * The whole state is one long, the time at which the bucket would be full again (the generic
+ * cell rate algorithm's "theoretical arrival time"): taking n tokens pushes it n refill
+ * intervals forward, and a request is refused if that would put it more than burstCapacity
+ * intervals ahead of now. One compare-and-set per request, no timer and no lock, so concurrent
+ * requests of one user never block each other. Times are System.nanoTime() values.
+ */
+public final class TokenBucket {
+
+    private final int replenishRate;
+    private final int burstCapacity;
+    private final long nanosPerToken;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(int replenishRate, int burstCapacity, long nowNanos) {
+        if (replenishRate < 1 || burstCapacity < 1) {
+            throw new IllegalArgumentException("replenishRate and burstCapacity must be at least 1");
+        }
+        this.replenishRate = replenishRate;
+        this.burstCapacity = burstCapacity;
+        this.nanosPerToken = 1_000_000_000L / replenishRate;
+        this.capacityNanos = nanosPerToken * burstCapacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes tokens if the bucket has them. Returns the tokens left (>= 0) if it did, otherwise
+     * minus the nanoseconds until enough will have been refilled (< 0).
+     */
+    public long tryAcquire(int tokens, long nowNanos) {
+        long cost = nanosPerToken * tokens;
+        while (true) {
+            long current = fullAt.get();
+            long next = (current - nowNanos > 0 ? current : nowNanos) + cost;
+            long ahead = next - nowNanos;
+            if (ahead > capacityNanos) {
+                return -(ahead - capacityNanos);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return (capacityNanos - ahead) / nanosPerToken;
+            }
+        }
+    }
+
+    /** Idle this long, the bucket is full again: dropping it then loses nothing. */
+    public long refillNanos() {
+        return capacityNanos;
+    }
+
+    boolean hasLimits(int replenishRate, int burstCapacity) {
+        return this.replenishRate == replenishRate && this.burstCapacity == burstCapacity;
+    }
+}
@@ -0,0 +1,194 @@
+package com.dhruvsharma.feed.gateway.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.dhruvsharma.feed.gateway.cache.ResponseCacheGatewayFilterFactory.Scope;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Hits, coalesced misses and per-user invalidation of the gateway response cache, with mock
+ * exchanges and a stand-in backend that counts its calls; no network.
+ */
+class ResponseCacheTests {
+
+    private static final String HOME = "/api/v1/timelines?limit=20";
+    private static final String PRIVATE_2S = "private, max-age=2";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ResponseCacheStore store = new ResponseCacheStore(meterRegistry, DataSize.ofMegabytes(1),
+            Duration.ofSeconds(5), 10);
+    private final ResponseCacheGatewayFilterFactory factory = new ResponseCacheGatewayFilterFactory(store);
+    private final ResponseCacheInvalidationFilter invalidation = new ResponseCacheInvalidationFilter(store);
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Test
+    void repeatedGetIsAHitAndIfNoneMatchGets304() {
+        GatewayFilter filter = filter(Scope.USER);
+        GatewayFilterChain backend = backend(PRIVATE_2S, Mono.empty());
+
+        ServerWebExchange first = get(HOME, "alice");
+        filter.filter(first, backend).block();
+        ServerWebExchange second = get(HOME, "alice");
+        filter.filter(second, backend).block();
+
+        assertEquals(1, upstreamCalls.get());
+        assertNull(first.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(body(first), body(second));
+        assertEquals(PRIVATE_2S, second.getResponse().getHeaders().getCacheControl());
+
+        ServerWebExchange revalidate = exchange(MockServerHttpRequest.get(HOME)
+                .accept(MediaType.APPLICATION_JSON).ifNoneMatch("\"page-1\""), "alice");
+        filter.filter(revalidate, backend).block();
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidate.getResponse().getStatusCode());
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void usersDoNotShareUserScopedEntries() {
+        GatewayFilter filter = filter(Scope.USER);
+        GatewayFilterChain backend = backend(PRIVATE_2S, Mono.empty());
+
+        filter.filter(get(HOME, "alice"), backend).block();
+        filter.filter(get(HOME, "bob"), backend).block();
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void concurrentMissesShareOneUpstreamCall() throws Exception {
+        GatewayFilter filter = filter(Scope.USER);
+        Sinks.Empty<Void> release = Sinks.empty();
+        GatewayFilterChain backend = backend(PRIVATE_2S, release.asMono());
+
+        ServerWebExchange leader = get(HOME, "alice");
+        ServerWebExchange follower = get(HOME, "alice");
+        CompletableFuture<Void> led = filter.filter(leader, backend).toFuture();
+        CompletableFuture<Void> followed = filter.filter(follower, backend).toFuture();
+        release.tryEmitEmpty();
+        led.get(5, TimeUnit.SECONDS);
+        followed.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("COALESCED", follower.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(body(leader), body(follower));
+        assertEquals(1.0, meterRegistry.get("gateway.response-cache.requests")
+                .tag("outcome", "coalesced").counter().count());
+    }
+
+    @Test
+    void ownWriteMakesTheNextGetAMiss() {
+        GatewayFilter filter = filter(Scope.USER);
+        GatewayFilterChain backend = backend(PRIVATE_2S, Mono.empty());
+        filter.filter(get(HOME, "alice"), backend).block();
+        filter.filter(get(HOME, "bob"), backend).block();
+
+        ServerWebExchange post = exchange(MockServerHttpRequest.post("/api/v1/posts"), "alice");
+        invalidation.filter(post, exchange -> Mono.empty()).block();
+
+        ServerWebExchange afterWrite = get(HOME, "alice");
+        filter.filter(afterWrite, backend).block();
+        ServerWebExchange otherUser = get(HOME, "bob");
+        filter.filter(otherUser, backend).block();
+
+        assertEquals(3, upstreamCalls.get());
+        assertNull(afterWrite.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", otherUser.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    @Test
+    void noStoreAndPrivateUnderSharedAreNotCached() {
+        // Spring Security's default when a service sets no Cache-Control of its own.
+        GatewayFilterChain noStore = backend("no-cache, no-store, max-age=0, must-revalidate", Mono.empty());
+        filter(Scope.USER).filter(get(HOME, "alice"), noStore).block();
+        filter(Scope.USER).filter(get(HOME, "alice"), noStore).block();
+        assertEquals(2, upstreamCalls.get());
+
+        GatewayFilterChain privatePage = backend(PRIVATE_2S, Mono.empty());
+        filter(Scope.SHARED).filter(get("/api/v1/users/7", "alice"), privatePage).block();
+        filter(Scope.SHARED).filter(get("/api/v1/users/7", "alice"), privatePage).block();
+        assertEquals(4, upstreamCalls.get());
+
+        GatewayFilterChain sharedPage = backend("max-age=1", Mono.empty());
+        filter(Scope.SHARED).filter(get("/api/v1/timelines/global", "alice"), sharedPage).block();
+        filter(Scope.SHARED).filter(get("/api/v1/timelines/global", "bob"), sharedPage).block();
+        assertEquals(5, upstreamCalls.get());
+    }
+
+    @Test
+    void generationsOnlyGoUpEvenWhenEvictedForSize() {
+        long before = store.generation("alice");
+        store.invalidateUser("alice");
+        long afterWrite = store.generation("alice");
+        assertNotEquals(before, afterWrite);
+
+        // Ten generations are kept; writes by many other users push alice's out.
+        for (int i = 0; i < 1_000; i++) {
+            store.invalidateUser("user-" + i);
+        }
+
+        assertTrue(store.generation("alice") >= afterWrite, "alice back at " + store.generation("alice"));
+        assertNotEquals(before, store.generation("carol"));
+    }
+
+    private GatewayFilter filter(Scope scope) {
+        ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config();
+        config.setScope(scope);
+        config.setTtl(Duration.ofSeconds(10));
+        return factory.apply(config);
+    }
+
+    /** Answers 200 with a body naming the call, once before completes. */
+    private GatewayFilterChain backend(String cacheControl, Mono<Void> before) {
+        return exchange -> before.then(Mono.defer(() -> {
+            int call = upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.getHeaders().setCacheControl(cacheControl);
+            response.getHeaders().setETag("\"page-" + call + "\"");
+            byte[] body = ("{\"call\":" + call + "}").getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }));
+    }
+
+    private static ServerWebExchange get(String uri, String subject) {
+        return exchange(MockServerHttpRequest.get(uri).accept(MediaType.APPLICATION_JSON), subject);
+    }
+
+    private static ServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, String subject) {
+        return MockServerWebExchange.from(request).mutate()
+                .principal(Mono.<Principal>just(new TestingAuthenticationToken(subject, null, "ROLE_user")))
+                .build();
+    }
+
+    private static String body(ServerWebExchange exchange) {
+        return ((MockServerHttpResponse) exchange.getResponse()).getBodyAsString().block();
+    }
+}
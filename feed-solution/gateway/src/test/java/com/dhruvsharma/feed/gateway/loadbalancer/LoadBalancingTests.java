@@ -0,0 +1,124 @@
+package com.dhruvsharma.feed.gateway.loadbalancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Instance choice and hedging against stub backends on localhost, one slow and one fast.
+ */
+class LoadBalancingTests {
+
+    private static final long DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final List<HttpServer> servers = new ArrayList<>();
+    private final HedgingClient client = new HedgingClient(HttpClient.create(), new SimpleMeterRegistry());
+
+    @AfterEach
+    void stopStubs() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    void prefersTheFasterInstance() throws IOException {
+        AtomicInteger fastHits = new AtomicInteger();
+        AtomicInteger slowHits = new AtomicInteger();
+        String fast = stub("fast", 0, fastHits);
+        String slow = stub("slow", 100, slowHits);
+        BackendPool pool = new BackendPool("stub", fast + "," + slow, DECAY_NANOS);
+
+        for (int i = 0; i < 40; i++) {
+            send(pool, null);
+        }
+        // Each instance may be tried once before it has a latency; after that the slow one
+        // costs far more until its average decays.
+        assertTrue(slowHits.get() <= 2, "slow instance got " + slowHits.get() + " requests");
+        assertEquals(40, fastHits.get() + slowHits.get());
+        pool.instances().forEach(instance -> assertEquals(0, instance.outstanding()));
+    }
+
+    @Test
+    void hedgesToASecondInstanceWhenTheFirstIsSlow() throws IOException, InterruptedException {
+        String slow = stub("slow", 2_000, new AtomicInteger());
+        String fast = stub("fast", 0, new AtomicInteger());
+        BackendPool pool = new BackendPool("stub", slow + "," + fast, DECAY_NANOS);
+        // Make the slow stub look like the better choice, so the first request goes there.
+        long now = System.nanoTime();
+        pool.instances().get(0).observe(TimeUnit.MILLISECONDS.toNanos(1), now);
+        pool.instances().get(1).observe(TimeUnit.MILLISECONDS.toNanos(50), now);
+
+        long started = System.nanoTime();
+        HedgingClient.UpstreamResponse response = send(pool, Duration.ofMillis(50));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertEquals("fast", new String(response.body(), StandardCharsets.UTF_8));
+        assertTrue(elapsedMs < 1_000, "hedged request took " + elapsedMs + " ms");
+        // The losing request is cancelled and no longer counted as outstanding.
+        Thread.sleep(100);
+        assertEquals(0, pool.instances().get(0).outstanding());
+    }
+
+    @Test
+    void hedgeCoversAnInstanceThatRefusesConnections() throws IOException {
+        String down;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            down = "http://127.0.0.1:" + socket.getLocalPort();
+        }
+        AtomicInteger hits = new AtomicInteger();
+        String up = stub("up", 0, hits);
+        BackendPool pool = new BackendPool("stub", down + "," + up, DECAY_NANOS);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, send(pool, Duration.ofMillis(20)).status());
+        }
+        assertEquals(10, hits.get());
+    }
+
+    private HedgingClient.UpstreamResponse send(BackendPool pool, Duration hedgeDelay) {
+        return client.send(pool, HttpMethod.GET, "/", new HttpHeaders(), hedgeDelay).block(Duration.ofSeconds(5));
+    }
+
+    /** Starts a stub answering every request with name after delayMs; returns its base URL. */
+    private String stub(String name, long delayMs, AtomicInteger hits) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            hits.incrementAndGet();
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = name.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        servers.add(server);
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+}
@@ -0,0 +1,75 @@
+package com.dhruvsharma.feed.gateway.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Burst, refill and concurrent use of the lock-free token bucket.
+ */
+class TokenBucketTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstThenRefillsAtRate() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(10, 5, now);
+        for (int i = 4; i >= 0; i--) {
+            assertEquals(i, bucket.tryAcquire(1, now));
+        }
+        // Empty: the next token is 100 ms away.
+        assertEquals(-SECOND / 10, bucket.tryAcquire(1, now));
+        assertEquals(-SECOND / 20, bucket.tryAcquire(1, now + SECOND / 20));
+        assertEquals(0, bucket.tryAcquire(1, now + SECOND / 10));
+
+        // A refused request takes nothing; idle for the refill time, the bucket is full again.
+        long later = now + SECOND / 10 + bucket.refillNanos();
+        assertEquals(4, bucket.tryAcquire(1, later));
+        assertEquals(2, bucket.tryAcquire(2, later));
+        assertTrue(bucket.tryAcquire(3, later) < 0);
+        assertEquals(0, bucket.tryAcquire(2, later));
+    }
+
+    @Test
+    void handlesNegativeNanoTime() {
+        long now = -5 * SECOND;
+        TokenBucket bucket = new TokenBucket(1, 1, now);
+        assertEquals(0, bucket.tryAcquire(1, now));
+        assertEquals(-SECOND, bucket.tryAcquire(1, now));
+        assertEquals(0, bucket.tryAcquire(1, now + SECOND));
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws InterruptedException {
+        long now = System.nanoTime();
+        TokenBucket bucket = new TokenBucket(1, 1_000, now);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 500; i++) {
+                    if (bucket.tryAcquire(1, now) >= 0) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1_000, allowed.get());
+    }
+}
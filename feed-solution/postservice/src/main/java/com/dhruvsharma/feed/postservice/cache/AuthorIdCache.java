@@ -0,0 +1,100 @@
+package com.dhruvsharma.feed.postservice.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.dhruvsharma.feed.postservice.client.UserServiceClient;
+import com.dhruvsharma.feed.postservice.client.dto.UserResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Keycloak subject -> internal user id (Pattern B), so creating a post does not call
+ * userservice /me every time. Concurrent misses for the same subject share one lookup.
+ *
+ * Registered users are cached for feed.posts.author-ids.ttl (the mapping never changes once
+ * assigned). Unregistered subjects are cached for the much shorter negative-ttl, so a user who
+ * signs up right after a rejected post is unblocked quickly. Lookup failures are not cached.
+ */
+@Component
+public class AuthorIdCache {
+
+    /** Stored for subjects userservice does not know; internal ids are positive. */
+    private static final long NOT_REGISTERED = -1L;
+
+    private final Cache<String, Long> ids;
+    private final UserServiceClient userServiceClient;
+    private final Timer foundTimer;
+    private final Timer notRegisteredTimer;
+    private final Timer failedTimer;
+
+    public AuthorIdCache(UserServiceClient userServiceClient,
+                         MeterRegistry meterRegistry,
+                         @Value("${feed.posts.author-ids.ttl:PT1H}") Duration ttl,
+                         @Value("${feed.posts.author-ids.negative-ttl:PT30S}") Duration negativeTtl,
+                         @Value("${feed.posts.author-ids.max-size:100000}") long maxSize) {
+        this.userServiceClient = userServiceClient;
+        this.ids = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((String sub, Long id) -> id == NOT_REGISTERED ? negativeTtl : ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, ids, "post.author-ids");
+        this.foundTimer = lookupTimer(meterRegistry, "found");
+        this.notRegisteredTimer = lookupTimer(meterRegistry, "not_registered");
+        this.failedTimer = lookupTimer(meterRegistry, "error");
+    }
+
+    /**
+     * Returns the internal user id for the subject, or empty if the user has not signed up.
+     * On a miss, a token userservice rejects is 401/403 (from {@link UserServiceClient}), any
+     * other 4xx is 502, and a 5xx, timeout or full bulkhead is 503.
+     */
+    public Optional<Long> authorId(String keycloakSubId, String authorizationHeader) {
+        long id;
+        try {
+            id = ids.get(keycloakSubId, sub -> lookup(authorizationHeader));
+        } catch (HttpClientErrorException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+                    "Could not resolve the author; user service refused the lookup.", e);
+        } catch (RestClientException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Could not resolve the author; user service unavailable.", e);
+        }
+        return id == NOT_REGISTERED ? Optional.empty() : Optional.of(id);
+    }
+
+    private long lookup(String authorizationHeader) {
+        long start = System.nanoTime();
+        try {
+            Optional<Long> id = userServiceClient.getCurrentUser(authorizationHeader).map(UserResponse::getId);
+            (id.isPresent() ? foundTimer : notRegisteredTimer).record(System.nanoTime() - start,
+                    TimeUnit.NANOSECONDS);
+            return id.orElse(NOT_REGISTERED);
+        } catch (RuntimeException e) {
+            failedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private static Timer lookupTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("post.author-ids.lookup")
+                .description("userservice /me lookups made on author id cache misses")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,84 @@
+package com.dhruvsharma.feed.postservice.client;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Bearer token for postservice's own calls (client_credentials grant on the postservice
+ * Keycloak client). Used where no end-user token is at hand, e.g. fan-out from the outbox relay.
+ * The token is reused until shortly before it expires.
+ */
+@Component
+public class ServiceTokenProvider {
+
+    private static final Duration REFRESH_MARGIN = Duration.ofSeconds(30);
+
+    record TokenResponse(@JsonProperty("access_token") String accessToken,
+                         @JsonProperty("expires_in") long expiresIn) {
+    }
+
+    private record CachedToken(String header, Instant refreshAt) {
+    }
+
+    private final RestTemplate restTemplate;
+    private final String tokenUri;
+    private final String clientId;
+    private final String clientSecret;
+    private volatile CachedToken cached;
+
+    public ServiceTokenProvider(RestTemplate restTemplate,
+                                @Value("${feed.service-auth.token-uri}") String tokenUri,
+                                @Value("${feed.service-auth.client-id}") String clientId,
+                                @Value("${feed.service-auth.client-secret}") String clientSecret) {
+        this.restTemplate = restTemplate;
+        this.tokenUri = tokenUri;
+        this.clientId = clientId;
+        this.clientSecret = clientSecret;
+    }
+
+    /**
+     * Returns "Bearer &lt;token&gt;". Throws RestClientException if Keycloak cannot issue one.
+     */
+    public String authorizationHeader() {
+        CachedToken token = cached;
+        if (token != null && Instant.now().isBefore(token.refreshAt())) {
+            return token.header();
+        }
+        synchronized (this) {
+            token = cached;
+            if (token == null || !Instant.now().isBefore(token.refreshAt())) {
+                token = fetch();
+                cached = token;
+            }
+            return token.header();
+        }
+    }
+
+    private CachedToken fetch() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        headers.setBasicAuth(clientId, clientSecret);
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("grant_type", "client_credentials");
+        TokenResponse response = restTemplate.postForObject(tokenUri, new HttpEntity<>(form, headers), TokenResponse.class);
+        if (response == null || response.accessToken() == null) {
+            throw new RestClientException("Token endpoint returned no access token");
+        }
+        Duration lifetime = Duration.ofSeconds(response.expiresIn());
+        Instant refreshAt = Instant.now().plus(lifetime.compareTo(REFRESH_MARGIN.multipliedBy(2)) > 0
+                ? lifetime.minus(REFRESH_MARGIN) : lifetime.dividedBy(2));
+        return new CachedToken("Bearer " + response.accessToken(), refreshAt);
+    }
+}
@@ -8,9 +8,12 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import com.dhruvsharma.feed.postservice.client.dto.FollowPageResponse;
 import com.dhruvsharma.feed.postservice.client.dto.UserResponse;
 
 /**
@@ -31,7 +34,10 @@ public class UserServiceClient {
 
     /**
      * Returns the current user (internal id, username, etc.) by forwarding the Bearer token.
-     * Returns empty if userservice returns 404 (user not registered) or 401.
+     * Returns empty if userservice returns 404 (user not registered). If it rejects the token
+     * (401/403) that status is thrown as a ResponseStatusException, since the caller has to fix
+     * the token; other failures throw RestClientException so callers can tell "not registered"
+     * from "userservice unavailable".
      */
     public Optional<UserResponse> getCurrentUser(String authorizationHeader) {
         if (authorizationHeader == null || authorizationHeader.isBlank()) {
@@ -48,8 +54,47 @@ public class UserServiceClient {
                     UserResponse.class
             );
             return Optional.ofNullable(response.getBody());
-        } catch (RestClientException e) {
+        } catch (HttpClientErrorException.NotFound e) {
             return Optional.empty();
+        } catch (HttpClientErrorException.Unauthorized | HttpClientErrorException.Forbidden e) {
+            throw rejected(e);
         }
     }
+
+    /**
+     * Returns one page of the user's follower ids (ascending), starting after the given id.
+     * Returns empty if the user is unknown and throws 401/403 as for {@link #getCurrentUser};
+     * other failures throw RestClientException so the outbox relay retries the fan-out instead
+     * of dropping it.
+     */
+    public Optional<FollowPageResponse> getFollowers(Long userId, Long after, int limit, String authorizationHeader) {
+        if (authorizationHeader == null || authorizationHeader.isBlank()) {
+            return Optional.empty();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, authorizationHeader);
+        HttpEntity<Void> entity = new HttpEntity<>(headers);
+        String url = UriComponentsBuilder.fromUriString(userServiceBaseUrl + "api/v1/users/{id}/followers")
+                .queryParamIfPresent("after", Optional.ofNullable(after))
+                .queryParam("limit", limit)
+                .buildAndExpand(userId)
+                .toUriString();
+        try {
+            ResponseEntity<FollowPageResponse> response = restTemplate.exchange(
+                    url,
+                    HttpMethod.GET,
+                    entity,
+                    FollowPageResponse.class
+            );
+            return Optional.ofNullable(response.getBody());
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        } catch (HttpClientErrorException.Unauthorized | HttpClientErrorException.Forbidden e) {
+            throw rejected(e);
+        }
+    }
+
+    private static ResponseStatusException rejected(HttpClientErrorException e) {
+        return new ResponseStatusException(e.getStatusCode(), "User service rejected the token.", e);
+    }
 }
@@ -0,0 +1,28 @@
+package com.dhruvsharma.feed.postservice.config;
+
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Background executors. The fan-out consumer spreads each batch of post events across
+ * fanoutExecutor, so one author with many followers does not serialize the batch.
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Bean(name = "fanoutExecutor")
+    public Executor fanoutExecutor(@Value("${feed.fanout.threads:4}") int threads,
+                                   @Value("${feed.fanout.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("fanout-");
+        executor.initialize();
+        return executor;
+    }
+}
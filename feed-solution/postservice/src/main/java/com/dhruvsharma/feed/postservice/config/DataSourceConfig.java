@@ -0,0 +1,69 @@
+package com.dhruvsharma.feed.postservice.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.dhruvsharma.feed.postservice.sharding.HashShardRouter;
+import com.dhruvsharma.feed.postservice.sharding.ShardRouter;
+import com.dhruvsharma.feed.postservice.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * postsdb, optionally split into shards: shard 0 is spring.datasource.url and
+ * feed.posts.shards.urls lists shards 1..n-1 (comma-separated JDBC URLs, same credentials).
+ * Shard 0 also holds the unsharded tables; with no extra shards this is a single pool. Every
+ * pool takes the spring.datasource.hikari.* settings.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Shard 0's pool, built from spring.datasource.* with spring.datasource.hikari.* bound onto
+     * it as Spring Boot's own pool would be. The other shards' pools are copies of it.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource shardZeroPool(DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("shard-0");
+        return pool;
+    }
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(HikariDataSource shardZeroPool,
+                                             @Value("${feed.posts.shards.urls:}") List<String> shardUrls) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(shardZeroPool);
+        for (String shardUrl : shardUrls) {
+            if (!shardUrl.isBlank()) {
+                shards.add(pool(shardZeroPool, "shard-" + shards.size(), shardUrl.trim()));
+            }
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    public ShardRouter shardRouter(ShardRoutingDataSource dataSource) {
+        return new HashShardRouter(dataSource.shardCount());
+    }
+
+    /** A pool with template's settings (credentials, sizes, timeouts) for another URL. */
+    private static HikariDataSource pool(HikariConfig template, String name, String url) {
+        HikariDataSource pool = new HikariDataSource();
+        template.copyStateTo(pool);
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        return pool;
+    }
+}
@@ -1,28 +1,34 @@
 package com.dhruvsharma.feed.postservice.config;
 
-import javax.sql.DataSource;
-
 import org.flywaydb.core.Flyway;
 import org.springframework.stereotype.Component;
 
+import com.dhruvsharma.feed.postservice.sharding.ShardRouting;
+import com.dhruvsharma.feed.postservice.sharding.ShardRoutingDataSource;
+
 import jakarta.annotation.PostConstruct;
 
+/**
+ * Applies the same migrations to every postsdb shard, so each shard has the full schema.
+ */
 @Component
 public class DatabaseMigrationRunner {
 
-    private final DataSource dataSource;
+    private final ShardRoutingDataSource dataSource;
 
-    public DatabaseMigrationRunner(DataSource dataSource) {
+    public DatabaseMigrationRunner(ShardRoutingDataSource dataSource) {
         this.dataSource = dataSource;
     }
 
     @PostConstruct
     public void migrate() {
-        Flyway.configure()
-                .dataSource(dataSource)
-                .locations("classpath:db/migration")
-                .baselineOnMigrate(true)
-                .load()
-                .migrate();
+        for (int shard = 0; shard < dataSource.shardCount(); shard++) {
+            ShardRouting.onShard(shard, () -> Flyway.configure()
+                    .dataSource(dataSource)
+                    .locations("classpath:db/migration")
+                    .baselineOnMigrate(true)
+                    .load()
+                    .migrate());
+        }
     }
 }
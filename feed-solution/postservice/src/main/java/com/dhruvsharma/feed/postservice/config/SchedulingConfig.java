@@ -0,0 +1,12 @@
+package com.dhruvsharma.feed.postservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled tasks (post event outbox purge, posts partition maintenance).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,53 @@
+package com.dhruvsharma.feed.postservice.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.dhruvsharma.feed.postservice.dto.AttachmentResponse;
+import com.dhruvsharma.feed.postservice.service.AttachmentService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@RestController
+public class AttachmentController {
+
+    private final AttachmentService attachmentService;
+
+    public AttachmentController(AttachmentService attachmentService) {
+        this.attachmentService = attachmentService;
+    }
+
+    /**
+     * Uploads one image or video as the raw request body (Content-Type: image/png, video/mp4, ...),
+     * not multipart. Streamed to the blob store; reference the returned id when creating a post.
+     */
+    @PostMapping("/api/v1/posts/attachments")
+    public AttachmentResponse uploadAttachment(@AuthenticationPrincipal Jwt jwt,
+                                               @RequestHeader("Authorization") String authorization,
+                                               @RequestHeader("Content-Type") MediaType contentType,
+                                               @RequestHeader(value = "Content-Length", defaultValue = "-1") long contentLength,
+                                               InputStream body) throws IOException {
+        return attachmentService.upload(jwt.getSubject(), authorization, contentType, contentLength, body);
+    }
+
+    /**
+     * Serves an attachment's bytes. Supports HEAD, Range requests (for video seeking and resumed
+     * downloads) and If-None-Match; the ETag is the content hash, so responses are cacheable forever.
+     */
+    @GetMapping("/api/v1/posts/attachments/{attachmentId}")
+    public void downloadAttachment(@PathVariable long attachmentId,
+                                   HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
+        attachmentService.download(attachmentId, request, response);
+    }
+}
@@ -1,12 +1,23 @@
 package com.dhruvsharma.feed.postservice.controller;
 
+import java.io.InputStream;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.dhruvsharma.feed.postservice.dto.ImportStatusResponse;
 import com.dhruvsharma.feed.postservice.dto.PostCreationResponse;
 import com.dhruvsharma.feed.postservice.dto.PostRequest;
+import com.dhruvsharma.feed.postservice.ingest.PostImporter;
 import com.dhruvsharma.feed.postservice.service.PostService;
 
 @RestController
@@ -20,11 +31,43 @@ public class PostSubmissionController {
 
     /**
      * Creates a new post. Author is resolved via userservice (JWT forwarded) to get
-     * internal user id (Pattern B); that id is persisted in posts.author_id.
+     * internal user id (Pattern B), cached per JWT subject; that id is persisted in posts.author_id.
      */
     @PostMapping("/api/v1/posts")
-    public PostCreationResponse createPost(@RequestBody PostRequest post,
+    public PostCreationResponse createPost(@AuthenticationPrincipal Jwt jwt,
+                                           @RequestBody PostRequest post,
                                            @RequestHeader("Authorization") String authorization) {
-        return postService.createPost(post, authorization);
+        return postService.createPost(post, jwt.getSubject(), authorization);
+    }
+
+    /**
+     * Bulk-loads posts (feed_admin only) from a streamed body via COPY, for backfills and
+     * migrations. NDJSON: one {"authorId", "content", "createdAt"} object per line. CSV: header
+     * row naming author_id, content and optionally created_at. authorId is the internal user id.
+     *
+     * Progress is committed every feed.posts.import.commit-every records. To resume after a
+     * failure, re-send the body starting at any record up to rowsCommitted and pass that record's
+     * index as offset; already committed records are skipped.
+     */
+    @PostMapping(value = "/api/v1/posts/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ImportStatusResponse importPosts(@RequestParam String importId,
+                                            @RequestParam(defaultValue = "0") long offset,
+                                            @RequestHeader("Content-Type") MediaType contentType,
+                                            InputStream body) {
+        PostImporter.Format format = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? PostImporter.Format.CSV
+                : PostImporter.Format.NDJSON;
+        return postService.importPosts(importId, offset, format, body);
+    }
+
+    /**
+     * Returns progress of a bulk import: status (RUNNING, DONE, FAILED), rowsCommitted (the
+     * resume offset) and the last error.
+     */
+    @GetMapping("/api/v1/posts/import/{importId}")
+    public ResponseEntity<ImportStatusResponse> getImportStatus(@PathVariable String importId) {
+        return postService.getImportStatus(importId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 }
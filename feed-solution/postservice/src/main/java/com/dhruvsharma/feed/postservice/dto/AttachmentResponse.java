@@ -0,0 +1,21 @@
+package com.dhruvsharma.feed.postservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * An uploaded attachment; pass id in PostRequest.attachmentIds, fetch the bytes from
+ * GET /api/v1/posts/attachments/{id}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentResponse {
+    private Long id;
+    private String contentType;
+    private long sizeBytes;
+    private String sha256;
+}
@@ -0,0 +1,25 @@
+package com.dhruvsharma.feed.postservice.dto;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * State of a bulk import. rowsCommitted is the offset to resume from; rowsSkipped is how many
+ * already-committed records at the start of the last request's body were skipped.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportStatusResponse {
+    private String importId;
+    private String status;
+    private long rowsCommitted;
+    private long rowsSkipped;
+    private String error;
+    private Instant updatedAt;
+}
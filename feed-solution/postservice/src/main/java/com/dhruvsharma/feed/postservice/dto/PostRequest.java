@@ -1,5 +1,7 @@
 package com.dhruvsharma.feed.postservice.dto;
 
+import java.util.List;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -11,4 +13,6 @@ import lombok.Setter;
 @AllArgsConstructor
 public class PostRequest {
     private String content;
+    /** Ids returned by POST /api/v1/posts/attachments, uploaded by the same user; optional. */
+    private List<Long> attachmentIds;
 }
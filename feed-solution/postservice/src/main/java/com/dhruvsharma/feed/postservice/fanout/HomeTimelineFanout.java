@@ -0,0 +1,136 @@
+package com.dhruvsharma.feed.postservice.fanout;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.dhruvsharma.feed.postservice.client.ServiceTokenProvider;
+import com.dhruvsharma.feed.postservice.client.UserServiceClient;
+import com.dhruvsharma.feed.postservice.client.dto.FollowPageResponse;
+import com.dhruvsharma.feed.postservice.notification.TimelineChangeNotifier;
+import com.dhruvsharma.feed.postservice.outbox.PostEvent;
+import com.dhruvsharma.feed.postservice.outbox.PostEventConsumer;
+import com.dhruvsharma.feed.postservice.repository.HomeTimelineRepository;
+
+/**
+ * Fan-out on write: for each post_created event from the outbox, pushes the post id into the
+ * home timeline of the author and of every follower, so timelineservice reads a home timeline
+ * as one range scan. Posts in a batch are fanned out in parallel on fanoutExecutor; follower
+ * pages are read with postservice's own service token since the author's JWT is long gone.
+ *
+ * Delivery is at least once: if userservice cannot be reached the batch fails and the relay
+ * retries it, and pushes are idempotent (ON CONFLICT DO NOTHING).
+ *
+ * Authors whose follower count exceeds the celebrity threshold are skipped (only their own
+ * timeline is written); timelineservice merges their posts in at read time instead of
+ * writing millions of rows per post.
+ */
+@Component
+public class HomeTimelineFanout implements PostEventConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(HomeTimelineFanout.class);
+
+    private final UserServiceClient userServiceClient;
+    private final ServiceTokenProvider serviceTokenProvider;
+    private final Executor fanoutExecutor;
+    private final HomeTimelineRepository homeTimelineRepository;
+    private final TimelineChangeNotifier timelineChangeNotifier;
+    private final boolean enabled;
+    private final long celebrityThreshold;
+    private final int batchSize;
+    private final int maxEntriesPerUser;
+    private final int trimEvery;
+    /** Posts fanned out by this pod; every trimEvery-th one also trims its recipients' lists. */
+    private final AtomicLong fannedOut = new AtomicLong();
+
+    public HomeTimelineFanout(UserServiceClient userServiceClient,
+                              ServiceTokenProvider serviceTokenProvider,
+                              @Qualifier("fanoutExecutor") Executor fanoutExecutor,
+                              HomeTimelineRepository homeTimelineRepository,
+                              TimelineChangeNotifier timelineChangeNotifier,
+                              @Value("${feed.fanout.enabled:true}") boolean enabled,
+                              @Value("${feed.fanout.celebrity-threshold:10000}") long celebrityThreshold,
+                              @Value("${feed.fanout.batch-size:1000}") int batchSize,
+                              @Value("${feed.fanout.max-entries-per-user:800}") int maxEntriesPerUser,
+                              @Value("${feed.fanout.trim-every:16}") int trimEvery) {
+        this.userServiceClient = userServiceClient;
+        this.serviceTokenProvider = serviceTokenProvider;
+        this.fanoutExecutor = fanoutExecutor;
+        this.homeTimelineRepository = homeTimelineRepository;
+        this.timelineChangeNotifier = timelineChangeNotifier;
+        this.enabled = enabled;
+        this.celebrityThreshold = celebrityThreshold;
+        this.batchSize = batchSize;
+        this.maxEntriesPerUser = maxEntriesPerUser;
+        this.trimEvery = Math.max(1, trimEvery);
+    }
+
+    @Override
+    public String name() {
+        return "home-timeline-fanout";
+    }
+
+    @Override
+    public void accept(List<PostEvent> events) {
+        if (!enabled) {
+            return;
+        }
+        String authorizationHeader = serviceTokenProvider.authorizationHeader();
+        CompletableFuture<?>[] fanouts = events.stream()
+                .filter(event -> PostEvent.POST_CREATED.equals(event.type()))
+                .map(event -> CompletableFuture.runAsync(() -> fanOut(event, authorizationHeader), fanoutExecutor))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(fanouts).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void fanOut(PostEvent event, String authorizationHeader) {
+        long postId = event.postId();
+        // Trimming walks maxEntriesPerUser index entries per user, so amortize it across posts;
+        // lists overshoot the bound by about trimEvery entries. A counter rather than the post id
+        // picks the posts: the low bits of Snowflake ids are mostly zero, so postId % trimEvery would
+        // trim on nearly every post.
+        boolean trim = fannedOut.incrementAndGet() % trimEvery == 0;
+        write(new long[] {event.authorId()}, event, trim);
+
+        Long after = null;
+        do {
+            FollowPageResponse page = userServiceClient
+                    .getFollowers(event.authorId(), after, batchSize, authorizationHeader)
+                    .orElse(null);
+            if (page == null || page.getIds() == null) {
+                return;
+            }
+            if (after == null && page.getTotal() > celebrityThreshold) {
+                log.debug("Skipping fan-out for post {}: author {} has {} followers",
+                        postId, event.authorId(), page.getTotal());
+                return;
+            }
+            write(page.getIds(), event, trim);
+            after = page.getNextCursor();
+        } while (after != null);
+    }
+
+    private void write(long[] userIds, PostEvent event, boolean trim) {
+        // Failures propagate so the relay retries the batch; pushes already made are no-ops the second time.
+        homeTimelineRepository.push(userIds, event.postId(), event.postCreatedAt());
+        if (trim) {
+            homeTimelineRepository.trim(userIds, maxEntriesPerUser);
+        }
+        timelineChangeNotifier.homeTimelinesChanged(event.postId(), userIds);
+    }
+}
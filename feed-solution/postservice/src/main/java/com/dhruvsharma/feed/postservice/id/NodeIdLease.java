@@ -0,0 +1,168 @@
+package com.dhruvsharma.feed.postservice.id;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * The Snowflake node id of this process. It comes from feed.ids.node-id, else from the pod
+ * ordinal (the trailing -N of a StatefulSet pod's HOSTNAME), else it is leased from shard 0:
+ * the process takes the session advisory lock of the first free id out of 1024 on a connection
+ * it keeps for its lifetime. Deployment replicas therefore never share an id, however many there
+ * are. Startup fails if no id can be leased.
+ *
+ * The lock goes with the connection. {@link #check()} tests the connection every few seconds;
+ * once it is gone, {@link #nodeId()} throws until the same id is leased again, or a new one if
+ * another process took it in the meantime. Configured and ordinal ids are not locked, so a
+ * service must not mix them with leased ids.
+ */
+@Component
+public class NodeIdLease {
+
+    private static final Logger log = LoggerFactory.getLogger(NodeIdLease.class);
+
+    private static final String LOCK_PREFIX = "snowflake_node:";
+    private static final Pattern POD_ORDINAL = Pattern.compile("-(\\d{1,4})$");
+
+    private final DataSource dataSource;
+    private final boolean leased;
+    /** The node id, or -1 while the lease is lost. */
+    private volatile int nodeId;
+    /** Holds the advisory lock; null when the id is configured or the lease is lost. */
+    private Connection connection;
+    /** Id whose lease was lost last; tried first on renewal so the id stays stable if it can. */
+    private int lastLeased = -1;
+
+    public NodeIdLease(@Qualifier("shardZeroPool") DataSource dataSource,
+                       @Value("${feed.ids.node-id:-1}") int configuredNodeId,
+                       @Value("${HOSTNAME:}") String hostname) {
+        this.dataSource = dataSource;
+        int resolved = resolveNodeId(configuredNodeId, hostname);
+        this.leased = resolved < 0;
+        if (!leased) {
+            this.nodeId = resolved;
+            log.info("Snowflake node id {} (configured or pod ordinal)", resolved);
+            return;
+        }
+        this.nodeId = -1;
+        try {
+            claim(-1);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not lease a Snowflake node id", e);
+        }
+    }
+
+    /** The current node id; throws while a lost lease has not been renewed. */
+    public int nodeId() {
+        int id = nodeId;
+        if (id < 0) {
+            throw new IllegalStateException("Snowflake node id lease lost; no ids until it is renewed");
+        }
+        return id;
+    }
+
+    /** Renews the lease if its connection (and with it the lock) is gone. */
+    @Scheduled(fixedDelayString = "${feed.ids.lease-check-interval-ms:5000}",
+               initialDelayString = "${feed.ids.lease-check-interval-ms:5000}")
+    public synchronized void check() {
+        if (!leased) {
+            return;
+        }
+        int previous = nodeId;
+        if (connection != null) {
+            try {
+                if (connection.isValid(2)) {
+                    return;
+                }
+            } catch (SQLException e) {
+                // Same as invalid.
+            }
+            log.warn("Lost the lease connection for Snowflake node id {}", previous);
+            nodeId = -1;
+            closeQuietly(connection);
+            connection = null;
+            lastLeased = previous;
+        }
+        try {
+            claim(lastLeased);
+        } catch (SQLException | IllegalStateException e) {
+            log.warn("Could not renew the Snowflake node id lease; retrying", e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (connection != null) {
+            nodeId = -1;
+            closeQuietly(connection);
+            connection = null;
+        }
+    }
+
+    private synchronized void claim(int preferred) throws SQLException {
+        int ids = SnowflakeIdGenerator.MAX_NODE_ID + 1;
+        int start = preferred >= 0 ? preferred : ThreadLocalRandom.current().nextInt(ids);
+        Connection con = dataSource.getConnection();
+        try {
+            for (int i = 0; i < ids; i++) {
+                int candidate = (start + i) % ids;
+                if (tryLock(con, candidate)) {
+                    connection = con;
+                    nodeId = candidate;
+                    log.info("Leased Snowflake node id {}", candidate);
+                    return;
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(con);
+            throw e;
+        }
+        closeQuietly(con);
+        throw new IllegalStateException("All " + ids + " Snowflake node ids are leased by other processes");
+    }
+
+    private static boolean tryLock(Connection con, int candidate) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT pg_try_advisory_lock(hashtext(?))")) {
+            ps.setString(1, LOCK_PREFIX + candidate);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection con) {
+        try {
+            con.close();
+        } catch (SQLException e) {
+            log.debug("Could not close the node id lease connection", e);
+        }
+    }
+
+    /** The configured id, else the pod ordinal, else -1 (lease one). */
+    static int resolveNodeId(int configured, String hostname) {
+        if (configured >= 0) {
+            return configured;
+        }
+        Matcher ordinal = POD_ORDINAL.matcher(hostname == null ? "" : hostname);
+        // Deployment pod names end in a 5-character hash, which is too long to match.
+        if (ordinal.find() && Integer.parseInt(ordinal.group(1)) <= SnowflakeIdGenerator.MAX_NODE_ID) {
+            return Integer.parseInt(ordinal.group(1));
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,94 @@
+package com.dhruvsharma.feed.postservice.id;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Time-ordered 64-bit ids: 41 bits of milliseconds since {@link #EPOCH}, 10 bits of node id,
+ * 12 bits of sequence. Ids from one node strictly increase; across nodes they are ordered by
+ * millisecond. Allocation needs no database round trip and no lock: the last (millis, sequence)
+ * pair lives in one AtomicLong advanced by CAS.
+ *
+ * The node id comes from {@link NodeIdLease}: configured, a pod ordinal, or leased from the
+ * database, so two live processes never share one.
+ *
+ * Clock skew: if the clock steps back, or more than 4096 ids are taken in one millisecond, ids
+ * continue from the last timestamp (running ahead of the clock) rather than repeating. Running
+ * ahead by more than feed.ids.max-clock-drift fails instead, since the clock is then badly off.
+ * After a restart the clock must not be behind the previous run's last id.
+ */
+@Component
+public class SnowflakeIdGenerator {
+
+    /** 2025-01-01T00:00:00Z; 41 bits of milliseconds last until 2094. */
+    public static final long EPOCH = 1735689600000L;
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final IntSupplier nodeId;
+    private final long maxDriftMillis;
+    private final LongSupplier clock;
+    /** (millis since EPOCH) << SEQUENCE_BITS | sequence of the last id handed out. */
+    private final AtomicLong last = new AtomicLong();
+
+    @Autowired
+    public SnowflakeIdGenerator(NodeIdLease lease,
+                                @Value("${feed.ids.max-clock-drift:PT5S}") Duration maxDrift) {
+        this(lease::nodeId, maxDrift, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(int nodeId, Duration maxDrift, LongSupplier clock) {
+        this(() -> nodeId, maxDrift, clock);
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+    }
+
+    private SnowflakeIdGenerator(IntSupplier nodeId, Duration maxDrift, LongSupplier clock) {
+        this.nodeId = nodeId;
+        this.maxDriftMillis = maxDrift.toMillis();
+        this.clock = clock;
+    }
+
+    public long nextId() {
+        long nodeBits = (long) nodeId.getAsInt() << SEQUENCE_BITS;
+        while (true) {
+            long now = clock.getAsLong() - EPOCH;
+            long prev = last.get();
+            long next;
+            if (now > prev >>> SEQUENCE_BITS) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // Same millisecond or clock behind: the sequence carries into the timestamp when it wraps.
+                next = prev + 1;
+                long ahead = (next >>> SEQUENCE_BITS) - now;
+                if (ahead > maxDriftMillis) {
+                    throw new IllegalStateException("Clock is " + ahead + " ms behind the last issued id");
+                }
+            }
+            if (last.compareAndSet(prev, next)) {
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /** Millisecond at which the id was issued (to within the allowed clock drift). */
+    public static Instant instantOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH);
+    }
+
+    /** Smallest id any node can issue at or after the instant; for id range scans by time. */
+    public static long minIdAt(Instant instant) {
+        return Math.max(0, instant.toEpochMilli() - EPOCH) << (NODE_BITS + SEQUENCE_BITS);
+    }
+}
@@ -0,0 +1,100 @@
+package com.dhruvsharma.feed.postservice.ingest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader: comma-separated, fields optionally double-quoted, "" inside quotes
+ * for a literal quote, and line breaks allowed inside quoted fields. Reads one record at a time.
+ */
+class CsvRecordReader {
+
+    private final Reader in;
+    private final StringBuilder field = new StringBuilder();
+    private int pushedBack = -2;
+
+    CsvRecordReader(Reader in) {
+        this.in = in;
+    }
+
+    /** Returns the next record's fields, or null at end of input. Blank lines are skipped. */
+    List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean sawAny = false;
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                if (quoted) {
+                    throw new IllegalArgumentException("Unterminated quoted field");
+                }
+                if (!sawAny) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(n);
+                    }
+                } else {
+                    field.append((char) c);
+                }
+                continue;
+            }
+            switch (c) {
+                case '"' -> {
+                    quoted = true;
+                    sawAny = true;
+                }
+                case ',' -> {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    sawAny = true;
+                }
+                case '\r' -> {
+                    int n = read();
+                    if (n != '\n') {
+                        unread(n);
+                    }
+                    if (sawAny) {
+                        fields.add(field.toString());
+                        return fields;
+                    }
+                }
+                case '\n' -> {
+                    if (sawAny) {
+                        fields.add(field.toString());
+                        return fields;
+                    }
+                }
+                default -> {
+                    field.append((char) c);
+                    sawAny = true;
+                }
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+}
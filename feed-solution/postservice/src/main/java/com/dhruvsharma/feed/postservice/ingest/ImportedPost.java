@@ -0,0 +1,13 @@
+package com.dhruvsharma.feed.postservice.ingest;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One record of a bulk import. authorId is the internal user id (not resolved against
+ * userservice); createdAt defaults to the import time.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ImportedPost(Long authorId, String content, Instant createdAt) {
+}
@@ -0,0 +1,359 @@
+package com.dhruvsharma.feed.postservice.ingest;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.dhruvsharma.feed.postservice.dto.ImportStatusResponse;
+import com.dhruvsharma.feed.postservice.id.SnowflakeIdGenerator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Loads posts from a streamed NDJSON or CSV body with COPY ... FROM STDIN. Records are parsed
+ * and re-encoded as COPY CSV on the fly, so memory use does not depend on the body size.
+ *
+ * Every commit-every records the COPY is ended and committed together with the import's
+ * rows_committed counter in post_imports, so a failed or interrupted import resumes from the
+ * last committed record: the client re-sends the body from any earlier record and passes that
+ * record's index as offset; records below rows_committed are skipped. A session advisory lock
+ * keeps two uploads of the same import from interleaving.
+ *
+ * Imported posts bypass the write path on purpose: no NOTIFY and no post_created outbox event,
+ * so no home timeline fan-out. With sharded postsdb all imported posts go to shard 0, which
+ * readers query like any other shard. Posts dated before the first created_at partition land
+ * in posts_legacy; a record dated past the newest partition fails the import with a 400.
+ */
+@Component
+public class PostImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(PostImporter.class);
+
+    public enum Format { NDJSON, CSV }
+
+    private static final Pattern IMPORT_ID = Pattern.compile("[A-Za-z0-9._-]{1,128}");
+
+    private static final String COPY_SQL =
+            "COPY posts (id, author_id, content, created_at) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String START_SQL = """
+            INSERT INTO post_imports (import_id, status) VALUES (?, 'RUNNING')
+            ON CONFLICT (import_id) DO UPDATE SET status = 'RUNNING', error = NULL, updated_at = now()
+            RETURNING rows_committed""";
+
+    private static final String PROGRESS_SQL =
+            "UPDATE post_imports SET rows_committed = rows_committed + ?, updated_at = now() WHERE import_id = ?";
+
+    private static final String FINISH_SQL =
+            "UPDATE post_imports SET status = ?, error = ?, updated_at = now() WHERE import_id = ?";
+
+    /** What Postgres raises (check_violation) for a row no posts partition accepts. */
+    private static final String NO_PARTITION_STATE = "23514";
+
+    private static final String STATUS_SQL =
+            "SELECT import_id, status, rows_committed, error, updated_at FROM post_imports WHERE import_id = ?";
+
+    /** Reads records of either format one at a time. */
+    private interface RecordSource {
+        ImportedPost next() throws IOException;
+    }
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final SnowflakeIdGenerator idGenerator;
+    private final int commitEvery;
+    private final Counter importedRows;
+
+    public PostImporter(DataSource dataSource,
+                        JdbcTemplate jdbcTemplate,
+                        ObjectMapper objectMapper,
+                        SnowflakeIdGenerator idGenerator,
+                        MeterRegistry meterRegistry,
+                        @Value("${feed.posts.import.commit-every:100000}") int commitEvery) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.idGenerator = idGenerator;
+        this.commitEvery = commitEvery;
+        this.importedRows = Counter.builder("post.import.rows")
+                .description("Posts committed by bulk imports")
+                .register(meterRegistry);
+    }
+
+    public ImportStatusResponse importPosts(String importId, long offset, Format format, InputStream body) {
+        if (!IMPORT_ID.matcher(importId).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "importId must match " + IMPORT_ID.pattern());
+        }
+        if (offset < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "offset must not be negative");
+        }
+        try (Connection con = dataSource.getConnection()) {
+            if (!tryLock(con, importId)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Import " + importId + " is already running.");
+            }
+            try {
+                return run(con, importId, offset, format, body);
+            } finally {
+                unlock(con, importId);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Import " + importId + " failed", e);
+        }
+    }
+
+    public Optional<ImportStatusResponse> status(String importId) {
+        return jdbcTemplate.query(STATUS_SQL, (rs, i) -> toStatus(rs, 0), importId).stream().findFirst();
+    }
+
+    private ImportStatusResponse run(Connection con, String importId, long offset, Format format, InputStream body)
+            throws SQLException {
+        con.setAutoCommit(false);
+        // Set once finish() has committed the final status; until then the finally rolls back.
+        boolean settled = false;
+        try {
+            long committed = start(con, importId);
+            if (offset > committed) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "offset " + offset
+                        + " is past the " + committed + " committed records; resume from at most " + committed);
+            }
+            CopyManager copyManager = con.unwrap(PGConnection.class).getCopyAPI();
+            long index = offset;
+            long skipped = 0;
+            long startNanos = System.nanoTime();
+            long sessionRows = 0;
+            PGCopyOutputStream copy = null;
+            try {
+                // Inside the try so a bad CSV header marks the import FAILED like a bad record.
+                RecordSource source = open(format, body);
+                for (; index < committed; index++, skipped++) {
+                    if (source.next() == null) {
+                        break;
+                    }
+                }
+                boolean more = true;
+                while (more) {
+                    copy = new PGCopyOutputStream(copyManager.copyIn(COPY_SQL), 1 << 16);
+                    Writer out = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8), 1 << 16);
+                    int rows = 0;
+                    while (rows < commitEvery) {
+                        ImportedPost post = source.next();
+                        if (post == null) {
+                            more = false;
+                            break;
+                        }
+                        writeRow(out, post);
+                        index++;
+                        rows++;
+                    }
+                    out.flush();
+                    copy.endCopy();
+                    if (rows > 0) {
+                        progress(con, importId, rows);
+                        con.commit();
+                        importedRows.increment(rows);
+                        sessionRows += rows;
+                        committed += rows;
+                        double seconds = (System.nanoTime() - startNanos) / 1e9;
+                        log.info("Import {}: {} rows committed ({} this request, {} rows/s)", importId, committed,
+                                sessionRows, Math.round(sessionRows / Math.max(seconds, 1e-3)));
+                    }
+                }
+            } catch (IOException | SQLException | RuntimeException e) {
+                if (copy != null && copy.isActive()) {
+                    copy.cancelCopy();
+                }
+                con.rollback();
+                boolean pastPartitions = isPastNewestPartition(e);
+                String reason = e instanceof IOException ? "Upload interrupted: " + e.getMessage()
+                        : e instanceof ResponseStatusException status ? status.getReason()
+                        : pastPartitions ? "a post is dated past the newest posts partition; partitions are only"
+                                + " created feed.posts.partitions.ahead past now"
+                        : e.getMessage();
+                String where = e instanceof SQLException ? "Chunk ending before record " + index : "Record " + index;
+                finish(con, importId, "FAILED", where + ": " + reason);
+                settled = true;
+                if (e instanceof ImportRecordException || e instanceof JacksonException) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Record " + index + ": " + e.getMessage() + " (" + committed + " records committed)", e);
+                }
+                if (pastPartitions) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            where + ": " + reason + " (" + committed + " records committed)", e);
+                }
+                if (e instanceof IOException io) {
+                    throw new UncheckedIOException(io);
+                }
+                if (e instanceof SQLException sql) {
+                    throw sql;
+                }
+                throw (RuntimeException) e;
+            }
+            finish(con, importId, "DONE", null);
+            settled = true;
+            return new ImportStatusResponse(importId, "DONE", committed, skipped, null, Instant.now());
+        } finally {
+            if (!settled) {
+                con.rollback();
+            }
+            con.setAutoCommit(true);
+        }
+    }
+
+    private static boolean isPastNewestPartition(Exception e) {
+        return e instanceof SQLException sql && NO_PARTITION_STATE.equals(sql.getSQLState())
+                && sql.getMessage() != null && sql.getMessage().contains("no partition of relation");
+    }
+
+    private RecordSource open(Format format, InputStream body) throws IOException {
+        if (format == Format.NDJSON) {
+            MappingIterator<ImportedPost> records = objectMapper.readerFor(ImportedPost.class).readValues(body);
+            return () -> records.hasNextValue() ? records.nextValue() : null;
+        }
+        CsvRecordReader csv = new CsvRecordReader(
+                new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 1 << 16));
+        List<String> header = csv.next();
+        if (header == null) {
+            return () -> null;
+        }
+        int author = header.indexOf("author_id");
+        int content = header.indexOf("content");
+        int createdAt = header.indexOf("created_at");
+        if (author < 0 || content < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "CSV header must name author_id and content (created_at optional)");
+        }
+        return () -> {
+            List<String> fields = csv.next();
+            if (fields == null) {
+                return null;
+            }
+            if (fields.size() != header.size()) {
+                throw new ImportRecordException("expected " + header.size() + " fields, got " + fields.size());
+            }
+            try {
+                String created = createdAt < 0 ? "" : fields.get(createdAt);
+                return new ImportedPost(Long.valueOf(fields.get(author)), fields.get(content),
+                        created.isEmpty() ? null : Instant.parse(created));
+            } catch (RuntimeException e) {
+                throw new ImportRecordException(e.getMessage());
+            }
+        };
+    }
+
+    /**
+     * Quotes every text field; numbers and ISO timestamps need no escaping. Ids are issued at
+     * import time, so they order imported posts by when they were loaded, not by created_at.
+     */
+    private void writeRow(Writer out, ImportedPost post) throws IOException {
+        if (post.authorId() == null || post.authorId() <= 0) {
+            throw new ImportRecordException("authorId must be a positive user id");
+        }
+        if (post.content() == null || post.content().isBlank()) {
+            throw new ImportRecordException("content must not be blank");
+        }
+        Instant createdAt = post.createdAt() != null ? post.createdAt() : Instant.now();
+        out.write(Long.toString(idGenerator.nextId()));
+        out.write(',');
+        out.write(Long.toString(post.authorId()));
+        out.write(",\"");
+        out.write(post.content().replace("\"", "\"\""));
+        out.write("\",");
+        out.write(createdAt.truncatedTo(ChronoUnit.MICROS).toString());
+        out.write('\n');
+    }
+
+    private long start(Connection con, String importId) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(START_SQL)) {
+            ps.setString(1, importId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                long committed = rs.getLong(1);
+                con.commit();
+                return committed;
+            }
+        }
+    }
+
+    private void progress(Connection con, String importId, int rows) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(PROGRESS_SQL)) {
+            ps.setLong(1, rows);
+            ps.setString(2, importId);
+            ps.executeUpdate();
+        }
+    }
+
+    private void finish(Connection con, String importId, String status, String error) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(FINISH_SQL)) {
+            ps.setString(1, status);
+            ps.setString(2, error);
+            ps.setString(3, importId);
+            ps.executeUpdate();
+        }
+        con.commit();
+    }
+
+    private static boolean tryLock(Connection con, String importId) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT pg_try_advisory_lock(hashtext(?))")) {
+            ps.setString(1, "post_import:" + importId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static void unlock(Connection con, String importId) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT pg_advisory_unlock(hashtext(?))")) {
+            ps.setString(1, "post_import:" + importId);
+            ps.execute();
+        }
+    }
+
+    private static ImportStatusResponse toStatus(ResultSet rs, long skipped) throws SQLException {
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return new ImportStatusResponse(rs.getString("import_id"), rs.getString("status"),
+                rs.getLong("rows_committed"), skipped, rs.getString("error"),
+                updatedAt == null ? null : updatedAt.toInstant());
+    }
+
+    /** A record that cannot be imported; reported to the client as 400 with its index. */
+    static class ImportRecordException extends RuntimeException {
+        ImportRecordException(String message) {
+            super(message);
+        }
+    }
+}
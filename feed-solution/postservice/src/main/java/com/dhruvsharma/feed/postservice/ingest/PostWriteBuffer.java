@@ -0,0 +1,266 @@
+package com.dhruvsharma.feed.postservice.ingest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.dhruvsharma.feed.postservice.notification.TimelineChangeNotifier;
+import com.dhruvsharma.feed.postservice.outbox.PostEventRelay;
+import com.dhruvsharma.feed.postservice.outbox.PostEventRepository;
+import com.dhruvsharma.feed.postservice.repository.PostRepository;
+import com.dhruvsharma.feed.postservice.repository.entity.Post;
+import com.dhruvsharma.feed.postservice.sharding.ShardRouter;
+import com.dhruvsharma.feed.postservice.sharding.ShardRouting;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Writes new posts. With feed.posts.group-commit.enabled, concurrent writes are queued and
+ * flushed together: one multi-row INSERT, its NOTIFYs and its post_created outbox rows in a
+ * single transaction, so one commit (one WAL fsync) covers many posts. A batch is flushed when it
+ * reaches max-batch posts or max-delay after its first post was queued, whichever comes first.
+ *
+ * Each caller blocks until its own post is committed and gets its own id. If a batch fails,
+ * its posts are retried one per transaction so only the offending post's caller sees the error.
+ * With group commit off, each write is its own transaction on the caller's thread.
+ *
+ * Posts go to the postsdb shard the {@link ShardRouter} picks for their author; a batch spanning
+ * shards is committed as one transaction per shard.
+ */
+@Component
+public class PostWriteBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(PostWriteBuffer.class);
+
+    private record PendingPost(Post post, String authorSub,
+                               CompletableFuture<Long> id, long queuedAtNanos) {
+    }
+
+    private final PostRepository postRepository;
+    private final TimelineChangeNotifier timelineChangeNotifier;
+    private final PostEventRepository postEventRepository;
+    private final PostEventRelay postEventRelay;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final int flusherCount;
+    private final BlockingQueue<PendingPost> queue;
+    private final List<Thread> flushers = new ArrayList<>();
+    private final DistributionSummary batchSize;
+    private final Timer flushTimer;
+    private final Timer queueWait;
+    private volatile boolean running;
+
+    public PostWriteBuffer(PostRepository postRepository,
+                           TimelineChangeNotifier timelineChangeNotifier,
+                           PostEventRepository postEventRepository,
+                           PostEventRelay postEventRelay,
+                           ShardRouter shardRouter,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${feed.posts.group-commit.enabled:false}") boolean enabled,
+                           @Value("${feed.posts.group-commit.max-batch:256}") int maxBatch,
+                           @Value("${feed.posts.group-commit.max-delay:PT0.005S}") Duration maxDelay,
+                           @Value("${feed.posts.group-commit.flushers:2}") int flusherCount,
+                           @Value("${feed.posts.group-commit.queue-capacity:10000}") int queueCapacity) {
+        this.postRepository = postRepository;
+        this.timelineChangeNotifier = timelineChangeNotifier;
+        this.postEventRepository = postEventRepository;
+        this.postEventRelay = postEventRelay;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.flusherCount = flusherCount;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = DistributionSummary.builder("post.group-commit.batch.size")
+                .description("Posts per group-commit flush")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("post.group-commit.flush")
+                .description("Time to insert and commit one batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("post.group-commit.queue.wait")
+                .description("Time the oldest post in a batch waited before its flush started")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < flusherCount; i++) {
+            Thread flusher = new Thread(this::runFlusher, "post-flush-" + i);
+            flusher.setDaemon(true);
+            flusher.start();
+            flushers.add(flusher);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread flusher : flushers) {
+            flusher.interrupt();
+        }
+        for (Thread flusher : flushers) {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        List<PendingPost> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    /**
+     * Persists the post (setting createdAt is the caller's job) with its outbox event and
+     * signals timelineservice. Returns the new post id once committed.
+     */
+    public long write(Post post, String authorSub) {
+        PendingPost pending = new PendingPost(post, authorSub,
+                new CompletableFuture<>(), System.nanoTime());
+        if (!enabled) {
+            writeBatch(shardRouter.shardFor(post.getAuthorId()), List.of(pending));
+            return post.getId();
+        }
+        if (!queue.offer(pending)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many posts in flight; retry shortly.");
+        }
+        try {
+            return pending.id().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void runFlusher() {
+        List<PendingPost> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                PendingPost first = queue.take();
+                batch.add(first);
+                long deadline = first.queuedAtNanos() + maxDelayNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, maxBatch - batch.size());
+                        break;
+                    }
+                    PendingPost next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+                continue;
+            }
+            try {
+                flush(batch);
+            } finally {
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<PendingPost> batch) {
+        batchSize.record(batch.size());
+        queueWait.record(System.nanoTime() - batch.get(0).queuedAtNanos(), TimeUnit.NANOSECONDS);
+        Map<Integer, List<PendingPost>> byShard = new LinkedHashMap<>();
+        for (PendingPost pending : batch) {
+            byShard.computeIfAbsent(shardRouter.shardFor(pending.post().getAuthorId()), s -> new ArrayList<>())
+                    .add(pending);
+        }
+        byShard.forEach(this::flushShard);
+    }
+
+    private void flushShard(int shard, List<PendingPost> batch) {
+        try {
+            flushTimer.record(() -> writeBatch(shard, batch));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).id().completeExceptionally(e);
+                return;
+            }
+            log.warn("Group commit of {} posts failed; retrying them one by one", batch.size(), e);
+            for (PendingPost pending : batch) {
+                try {
+                    writeBatch(shard, List.of(pending));
+                    pending.id().complete(pending.post().getId());
+                } catch (RuntimeException single) {
+                    pending.id().completeExceptionally(single);
+                }
+            }
+            return;
+        }
+        for (PendingPost pending : batch) {
+            pending.id().complete(pending.post().getId());
+        }
+    }
+
+    /**
+     * One transaction on the posts' shard: rows plus outbox events. timelineservice LISTENs on
+     * shard 0 only, so for other shards the NOTIFYs are sent on shard 0 once the rows have committed.
+     */
+    private void writeBatch(int shard, List<PendingPost> batch) {
+        ShardRouting.onShard(shard, () -> transactionTemplate.executeWithoutResult(status -> {
+            List<Post> posts = new ArrayList<>(batch.size());
+            for (PendingPost pending : batch) {
+                posts.add(pending.post());
+            }
+            postRepository.insertAll(posts);
+            postEventRepository.appendPostCreated(posts);
+            if (shard == 0) {
+                notifyCreated(batch);
+            }
+        }));
+        if (shard != 0) {
+            notifyCreated(batch);
+        }
+        postEventRelay.wakeUp();
+    }
+
+    private void notifyCreated(List<PendingPost> batch) {
+        for (PendingPost pending : batch) {
+            Post post = pending.post();
+            timelineChangeNotifier.postCreated(post.getId(), post.getAuthorId(), pending.authorSub());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.dhruvsharma.feed.postservice.media;
+
+import java.time.Instant;
+
+/**
+ * An uploaded media file: metadata row in attachments, bytes in the {@link BlobStore} under sha256.
+ */
+public record Attachment(long id, String sha256, String contentType, long sizeBytes, long uploaderId, Instant createdAt) {
+}
@@ -0,0 +1,60 @@
+package com.dhruvsharma.feed.postservice.media;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Attachment metadata. Lives on shard 0 (the default binding) whatever shard the posts
+ * referencing it are on.
+ */
+@Repository
+public class AttachmentRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO attachments (id, sha256, content_type, size_bytes, uploader_id, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)""";
+
+    private static final String FIND_SQL = """
+            SELECT id, sha256, content_type, size_bytes, uploader_id, created_at
+            FROM attachments WHERE id = ?""";
+
+    private static final String COUNT_OWNED_SQL =
+            "SELECT count(*) FROM attachments WHERE id = ANY(?) AND uploader_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AttachmentRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(Attachment attachment) {
+        jdbcTemplate.update(INSERT_SQL, attachment.id(), attachment.sha256(), attachment.contentType(),
+                attachment.sizeBytes(), attachment.uploaderId(), Timestamp.from(attachment.createdAt()));
+    }
+
+    public Optional<Attachment> findById(long id) {
+        return jdbcTemplate.query(FIND_SQL, AttachmentRepository::map, id).stream().findFirst();
+    }
+
+    /** How many of the (distinct) ids exist and were uploaded by the user. */
+    public int countOwnedBy(Collection<Long> ids, long uploaderId) {
+        Integer count = jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(COUNT_OWNED_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            ps.setLong(2, uploaderId);
+            return ps;
+        }, rs -> rs.next() ? rs.getInt(1) : 0);
+        return count == null ? 0 : count;
+    }
+
+    private static Attachment map(ResultSet rs, int rowNum) throws SQLException {
+        return new Attachment(rs.getLong("id"), rs.getString("sha256"), rs.getString("content_type"),
+                rs.getLong("size_bytes"), rs.getLong("uploader_id"), rs.getTimestamp("created_at").toInstant());
+    }
+}
@@ -0,0 +1,132 @@
+package com.dhruvsharma.feed.postservice.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Content-addressed files under feed.attachments.dir: a blob is stored once at
+ * {@code <dir>/<sha[0..2]>/<sha[2..4]>/<sha>} however many attachments refer to it, and is
+ * never modified, so readers need no locking.
+ *
+ * An upload is streamed through one direct buffer into a temporary file in the same directory
+ * tree while it is hashed, forced to disk, then renamed into place. The body never sits in the
+ * heap, and a crash leaves at most a stray .part file, removed at the next start once it is old.
+ *
+ * With more than one postservice replica the directory must be shared storage.
+ */
+@Component
+public class BlobStore {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobStore.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Duration STALE_UPLOAD = Duration.ofDays(1);
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    public record StoredBlob(String sha256, long size) {
+    }
+
+    private final Path root;
+    private final Path uploads;
+
+    public BlobStore(@Value("${feed.attachments.dir:/var/lib/feed/attachments}") String dir) {
+        this.root = Path.of(dir).toAbsolutePath();
+        this.uploads = root.resolve("tmp");
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(uploads);
+        Instant cutoff = Instant.now().minus(STALE_UPLOAD);
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(uploads, "*.part")) {
+            for (Path part : parts) {
+                if (Files.getLastModifiedTime(part).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(part);
+                    log.info("Removed abandoned upload {}", part);
+                }
+            }
+        }
+    }
+
+    /**
+     * Streams the body into the store and returns its hash and size. Fails with 413 as soon as
+     * more than maxBytes have been read, and with 400 for an empty body.
+     */
+    public StoredBlob write(InputStream body, long maxBytes) throws IOException {
+        Path part = Files.createTempFile(uploads, "upload-", ".part");
+        try {
+            MessageDigest sha256 = sha256();
+            long size = 0;
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            try (ReadableByteChannel in = Channels.newChannel(body);
+                 FileChannel out = FileChannel.open(part, StandardOpenOption.WRITE)) {
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    size += buffer.remaining();
+                    if (size > maxBytes) {
+                        throw new ResponseStatusException(HttpStatus.CONTENT_TOO_LARGE,
+                                "Attachment is larger than " + maxBytes + " bytes");
+                    }
+                    sha256.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                out.force(true);
+            }
+            if (size == 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Attachment is empty");
+            }
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            Path blob = path(hash);
+            if (!Files.exists(blob)) {
+                Files.createDirectories(blob.getParent());
+                // rename(2): a concurrent upload of the same bytes just replaces an identical file.
+                Files.move(part, blob, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return new StoredBlob(hash, size);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    public Path path(String sha256) {
+        if (!SHA256_HEX.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("Not a SHA-256 hex digest: " + sha256);
+        }
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.dhruvsharma.feed.postservice.notification;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Signals timeline changes to timelineservice pods via Postgres NOTIFY on postsdb, so every pod
+ * holding a cached timeline hears about it without a message broker. NOTIFY is transactional:
+ * a notification issued inside a transaction is delivered only if it commits.
+ *
+ * Channels and payloads:
+ * - post_created: "postId,authorId,authorSub" (authorSub = Keycloak subject, for read-your-writes routing)
+ * - home_timeline_changed: "postId:userId,userId,..." for users whose home timeline gained the post
+ */
+@Component
+public class TimelineChangeNotifier {
+
+    public static final String POST_CREATED_CHANNEL = "post_created";
+    public static final String HOME_TIMELINE_CHANGED_CHANNEL = "home_timeline_changed";
+
+    /** Postgres rejects NOTIFY payloads of 8000 bytes or more. */
+    private static final int MAX_PAYLOAD_CHARS = 7900;
+
+    private static final RowCallbackHandler IGNORE = rs -> { };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TimelineChangeNotifier(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Call inside the transaction that inserts the post. */
+    public void postCreated(long postId, long authorId, String authorSub) {
+        notify(POST_CREATED_CHANNEL, postId + "," + authorId + "," + authorSub);
+    }
+
+    /** Splits the ids across as many notifications as needed to stay under the payload limit. */
+    public void homeTimelinesChanged(long postId, long[] userIds) {
+        String prefix = postId + ":";
+        StringBuilder payload = new StringBuilder(prefix);
+        for (long userId : userIds) {
+            String id = Long.toString(userId);
+            if (payload.length() + id.length() + 1 > MAX_PAYLOAD_CHARS) {
+                notify(HOME_TIMELINE_CHANGED_CHANNEL, payload.toString());
+                payload.setLength(0);
+                payload.append(prefix);
+            }
+            if (payload.length() > prefix.length()) {
+                payload.append(',');
+            }
+            payload.append(id);
+        }
+        if (payload.length() > prefix.length()) {
+            notify(HOME_TIMELINE_CHANGED_CHANNEL, payload.toString());
+        }
+    }
+
+    private void notify(String channel, String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", IGNORE, channel, payload);
+    }
+}
@@ -0,0 +1,12 @@
+package com.dhruvsharma.feed.postservice.outbox;
+
+import java.time.Instant;
+
+/**
+ * An outbox row (post_events). Consumers receive these in (txId, id) order; delivery is
+ * at-least-once, so handling must be idempotent.
+ */
+public record PostEvent(long txId, long id, String type, long postId, long authorId, Instant postCreatedAt) {
+
+    public static final String POST_CREATED = "post_created";
+}
@@ -0,0 +1,23 @@
+package com.dhruvsharma.feed.postservice.outbox;
+
+import java.util.List;
+
+/**
+ * Receives post events from {@link PostEventRelay}. Every bean implementing this is registered;
+ * its name keys the stored offset, so it must stay stable across deployments.
+ *
+ * accept is called with consecutive batches in order. Returning normally commits the offset past
+ * the batch; throwing makes the relay retry the same batch after a backoff. After
+ * feed.outbox.relay.max-attempts failures in a row the events are offered one at a time, and
+ * those still rejected are parked in post_event_dead_letters instead of being retried again.
+ *
+ * Each postsdb shard has its own relay loop, so accept may run concurrently for different
+ * shards. It runs on a thread bound to the events' shard (ShardRouting); work on shard 0 tables
+ * must run on another thread or rebind to shard 0.
+ */
+public interface PostEventConsumer {
+
+    String name();
+
+    void accept(List<PostEvent> events);
+}
@@ -0,0 +1,315 @@
+package com.dhruvsharma.feed.postservice.outbox;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.dhruvsharma.feed.postservice.sharding.ShardRouting;
+import com.dhruvsharma.feed.postservice.sharding.ShardRoutingDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Delivers post_events to every {@link PostEventConsumer}, in (txId, id) order and in batches,
+ * at least once. Each consumer has its own loop and stored offset per postsdb shard (every shard
+ * has its own outbox, written with its posts), so a slow or failing consumer or shard does not
+ * hold back the others. Order holds within a shard; across shards events interleave.
+ *
+ * Across replicas, one pod delivers per consumer and shard: the loop holds a session advisory
+ * lock on a dedicated connection (one pooled connection per consumer and shard) and only reads
+ * while it has it.
+ * If that connection drops, the lock is released and another pod takes over from the stored offset.
+ *
+ * Reads hit the (tx_id, id) index from the offset onward; the loop sleeps poll-interval when
+ * there is nothing new and is woken early by {@link #wakeUp()} after a local commit. Events
+ * become visible once every older writing transaction has finished, so a long-running write
+ * (e.g. a bulk import chunk) delays delivery until it commits.
+ *
+ * A batch the consumer rejects max-attempts times in a row is retried one event at a time;
+ * events that still fail are parked in post_event_dead_letters and the offset moves past the
+ * batch, so one poison event does not stop the consumer for good.
+ */
+@Component
+public class PostEventRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(PostEventRelay.class);
+
+    private static final String LOCK_PREFIX = "post_events:";
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final ShardRoutingDataSource dataSource;
+    private final PostEventRepository repository;
+    private final List<PostEventConsumer> consumers;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long pollIntervalMs;
+    private final Duration retention;
+    private final List<ConsumerLoop> loops = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+
+    public PostEventRelay(ShardRoutingDataSource dataSource,
+                          PostEventRepository repository,
+                          List<PostEventConsumer> consumers,
+                          MeterRegistry meterRegistry,
+                          @Value("${feed.outbox.relay.enabled:true}") boolean enabled,
+                          @Value("${feed.outbox.relay.batch-size:500}") int batchSize,
+                          @Value("${feed.outbox.relay.max-attempts:20}") int maxAttempts,
+                          @Value("${feed.outbox.relay.poll-interval:PT0.5S}") Duration pollInterval,
+                          @Value("${feed.outbox.retention:P1D}") Duration retention) {
+        this.dataSource = dataSource;
+        this.repository = repository;
+        this.consumers = consumers;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.pollIntervalMs = pollInterval.toMillis();
+        this.retention = retention;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (PostEventConsumer consumer : consumers) {
+            for (int shard = 0; shard < dataSource.shardCount(); shard++) {
+                ConsumerLoop loop = new ConsumerLoop(consumer, shard);
+                Thread thread = new Thread(loop, "post-event-relay-" + consumer.name() + "-" + shard);
+                thread.setDaemon(true);
+                loop.thread = thread;
+                loops.add(loop);
+                thread.start();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (ConsumerLoop loop : loops) {
+            loop.thread.interrupt();
+        }
+        for (ConsumerLoop loop : loops) {
+            loop.thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /** Signals that new events were committed; loops on this pod read them without waiting for the next poll. */
+    public void wakeUp() {
+        for (ConsumerLoop loop : loops) {
+            loop.wake.release();
+        }
+    }
+
+    /**
+     * Deletes delivered events past retention; harmless if several pods run it. Consumers of this
+     * pod that have no offset yet hold the purge back, as if they were at the start.
+     */
+    @Scheduled(fixedDelayString = "${feed.outbox.purge-interval-ms:3600000}",
+               initialDelayString = "${feed.outbox.purge-interval-ms:3600000}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        List<String> names = consumers.stream().map(PostEventConsumer::name).toList();
+        for (int shard = 0; shard < dataSource.shardCount(); shard++) {
+            try {
+                int deleted = ShardRouting.onShard(shard, () -> repository.purge(retention, names));
+                if (deleted > 0) {
+                    log.info("Purged {} delivered post events older than {} on shard {}", deleted, retention, shard);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Post event purge failed on shard {}", shard, e);
+            }
+        }
+    }
+
+    private final class ConsumerLoop implements Runnable {
+
+        private final PostEventConsumer consumer;
+        private final int shard;
+        private final Semaphore wake = new Semaphore(0);
+        private final Timer deliveries;
+        private final Counter delivered;
+        private final Counter failures;
+        private final Counter parked;
+        private Thread thread;
+
+        ConsumerLoop(PostEventConsumer consumer, int shard) {
+            this.consumer = consumer;
+            this.shard = shard;
+            this.deliveries = Timer.builder("post.outbox.delivery")
+                    .description("Time for a consumer to accept one batch of post events")
+                    .tag("consumer", consumer.name())
+                    .tag("shard", Integer.toString(shard))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.delivered = Counter.builder("post.outbox.delivered")
+                    .description("Post events delivered to the consumer")
+                    .tag("consumer", consumer.name())
+                    .tag("shard", Integer.toString(shard))
+                    .register(meterRegistry);
+            this.failures = Counter.builder("post.outbox.failures")
+                    .description("Batches the consumer rejected (retried)")
+                    .tag("consumer", consumer.name())
+                    .tag("shard", Integer.toString(shard))
+                    .register(meterRegistry);
+            this.parked = Counter.builder("post.outbox.parked")
+                    .description("Post events the consumer kept rejecting, moved to post_event_dead_letters")
+                    .tag("consumer", consumer.name())
+                    .tag("shard", Integer.toString(shard))
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public void run() {
+            // Every connection this thread takes (lock, reads, offsets) comes from its shard.
+            ShardRouting.onShard(shard, this::relay);
+        }
+
+        private void relay() {
+            long backoff = pollIntervalMs;
+            while (running) {
+                try (Connection lockConnection = dataSource.getConnection()) {
+                    if (!tryLock(lockConnection)) {
+                        // Another pod delivers this consumer; check again later in case it goes away.
+                        sleep(Math.max(pollIntervalMs, 1000) * 5);
+                        continue;
+                    }
+                    log.info("Delivering post events from shard {} to {}", shard, consumer.name());
+                    try {
+                        deliver(lockConnection);
+                        backoff = pollIntervalMs;
+                    } finally {
+                        // The connection goes back to the pool; it must not keep the session lock.
+                        unlock(lockConnection);
+                    }
+                } catch (SQLException | DataAccessException e) {
+                    if (!running) {
+                        return;
+                    }
+                    log.warn("Post event relay for {} on shard {} failed, retrying in {} ms", consumer.name(), shard, backoff, e);
+                    sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+                }
+            }
+        }
+
+        /** Runs while this pod holds the consumer's lock; returns when stopping or the lock connection is gone. */
+        private void deliver(Connection lockConnection) throws SQLException {
+            repository.register(consumer.name());
+            PostEventRepository.Offset offset = repository.offset(consumer.name());
+            long backoff = pollIntervalMs;
+            int attempts = 0;
+            while (running) {
+                if (!lockConnection.isValid(1)) {
+                    log.warn("Lost relay lock connection for {} on shard {}", consumer.name(), shard);
+                    return;
+                }
+                List<PostEvent> events = repository.fetchAfter(offset, batchSize);
+                if (events.isEmpty()) {
+                    awaitWake();
+                    continue;
+                }
+                int accepted;
+                try {
+                    deliveries.record(() -> consumer.accept(events));
+                    accepted = events.size();
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    if (++attempts < maxAttempts) {
+                        log.warn("Consumer {} failed on {} post events after {} (attempt {} of {}), retrying in {} ms",
+                                consumer.name(), events.size(), offset, attempts, maxAttempts, backoff, e);
+                        sleep(backoff);
+                        backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+                        continue;
+                    }
+                    log.error("Consumer {} failed {} times on {} post events after {}; delivering them one at a time",
+                            consumer.name(), attempts, events.size(), offset, e);
+                    accepted = deliverOneByOne(events);
+                }
+                attempts = 0;
+                backoff = pollIntervalMs;
+                delivered.increment(accepted);
+                PostEvent last = events.get(events.size() - 1);
+                offset = new PostEventRepository.Offset(last.txId(), last.id());
+                repository.saveOffset(consumer.name(), offset);
+            }
+        }
+
+        /** Gives each event one more try on its own and parks the ones that fail; returns how many were accepted. */
+        private int deliverOneByOne(List<PostEvent> events) {
+            int accepted = 0;
+            for (PostEvent event : events) {
+                try {
+                    consumer.accept(List.of(event));
+                    accepted++;
+                } catch (RuntimeException e) {
+                    repository.park(consumer.name(), event, e.toString());
+                    parked.increment();
+                    log.error("Consumer {} rejected {} on shard {}; parked in post_event_dead_letters",
+                            consumer.name(), event, shard, e);
+                }
+            }
+            return accepted;
+        }
+
+        private boolean tryLock(Connection connection) throws SQLException {
+            try (PreparedStatement ps = connection.prepareStatement("SELECT pg_try_advisory_lock(hashtext(?))")) {
+                ps.setString(1, LOCK_PREFIX + consumer.name());
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() && rs.getBoolean(1);
+                }
+            }
+        }
+
+        private void unlock(Connection connection) {
+            try (PreparedStatement ps = connection.prepareStatement("SELECT pg_advisory_unlock(hashtext(?))")) {
+                ps.setString(1, LOCK_PREFIX + consumer.name());
+                ps.execute();
+            } catch (SQLException e) {
+                // A broken connection has already released the lock with its session.
+                log.debug("Could not release relay lock for {}", consumer.name(), e);
+            }
+        }
+
+        private void awaitWake() {
+            try {
+                wake.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                wake.drainPermits();
+            } catch (InterruptedException e) {
+                // stop() interrupts; the loop condition ends delivery.
+            }
+        }
+
+        private void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                // stop() interrupts; the loop condition ends delivery.
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.dhruvsharma.feed.postservice.outbox;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.dhruvsharma.feed.postservice.repository.entity.Post;
+
+/**
+ * post_events (outbox), post_event_offsets and post_event_dead_letters. Offsets are (tx_id, id) pairs; xid8 values are
+ * passed as text since JDBC has no type for them.
+ */
+@Repository
+public class PostEventRepository {
+
+    private static final String APPEND_SQL = """
+            INSERT INTO post_events (event_type, post_id, author_id, post_created_at)
+            SELECT ?, * FROM unnest(?::bigint[], ?::bigint[], ?::timestamptz[])""";
+
+    /**
+     * Only rows written by transactions older than every running one: those are final, so
+     * nothing can later commit with a smaller (tx_id, id).
+     */
+    private static final String FETCH_SQL = """
+            SELECT tx_id::text, id, event_type, post_id, author_id, post_created_at FROM post_events
+            WHERE (tx_id, id) > (?::xid8, ?)
+              AND tx_id < pg_snapshot_xmin(pg_current_snapshot())
+            ORDER BY tx_id, id
+            LIMIT ?""";
+
+    private static final String OFFSET_SQL =
+            "SELECT last_tx_id::text, last_event_id FROM post_event_offsets WHERE consumer = ?";
+
+    private static final String SAVE_OFFSET_SQL = """
+            INSERT INTO post_event_offsets (consumer, last_tx_id, last_event_id) VALUES (?, ?::xid8, ?)
+            ON CONFLICT (consumer) DO UPDATE
+            SET last_tx_id = EXCLUDED.last_tx_id, last_event_id = EXCLUDED.last_event_id, updated_at = now()""";
+
+    /** Adds the consumer at the start of the outbox unless it already has an offset. */
+    private static final String REGISTER_SQL =
+            "INSERT INTO post_event_offsets (consumer) VALUES (?) ON CONFLICT (consumer) DO NOTHING";
+
+    /**
+     * Deletes events every consumer has passed, once they are older than the retention period.
+     * A consumer given in the array without an offset row is at the start, so nothing is deleted.
+     */
+    private static final String PURGE_SQL = """
+            DELETE FROM post_events e
+            WHERE e.recorded_at < now() - ?::interval
+              AND NOT EXISTS (
+                  SELECT 1 FROM post_event_offsets o
+                  WHERE (o.last_tx_id, o.last_event_id) < (e.tx_id, e.id))
+              AND NOT EXISTS (
+                  SELECT 1 FROM unnest(?::varchar[]) c(consumer)
+                  WHERE NOT EXISTS (SELECT 1 FROM post_event_offsets o WHERE o.consumer = c.consumer))""";
+
+    private static final String PARK_SQL = """
+            INSERT INTO post_event_dead_letters
+                (consumer, tx_id, event_id, event_type, post_id, author_id, post_created_at, error)
+            VALUES (?, ?::xid8, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (consumer, tx_id, event_id) DO NOTHING""";
+
+    private static final RowMapper<PostEvent> EVENT_MAPPER = (rs, i) -> new PostEvent(
+            Long.parseLong(rs.getString(1)), rs.getLong(2), rs.getString(3), rs.getLong(4), rs.getLong(5),
+            rs.getTimestamp(6).toInstant());
+
+    /** (txId, id) position; ZERO precedes every event. */
+    public record Offset(long txId, long eventId) {
+        public static final Offset ZERO = new Offset(0, 0);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostEventRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Records post_created events for the posts; call in the transaction that inserts them. */
+    public void appendPostCreated(List<Post> posts) {
+        int n = posts.size();
+        if (n == 0) {
+            return;
+        }
+        Long[] postIds = new Long[n];
+        Long[] authorIds = new Long[n];
+        Timestamp[] createdAts = new Timestamp[n];
+        for (int i = 0; i < n; i++) {
+            Post post = posts.get(i);
+            postIds[i] = post.getId();
+            authorIds[i] = post.getAuthorId();
+            createdAts[i] = Timestamp.from(post.getCreatedAt());
+        }
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(APPEND_SQL);
+            ps.setString(1, PostEvent.POST_CREATED);
+            ps.setArray(2, con.createArrayOf("bigint", postIds));
+            ps.setArray(3, con.createArrayOf("bigint", authorIds));
+            ps.setArray(4, con.createArrayOf("timestamptz", createdAts));
+            return ps;
+        });
+    }
+
+    public List<PostEvent> fetchAfter(Offset offset, int limit) {
+        return jdbcTemplate.query(FETCH_SQL, EVENT_MAPPER, Long.toString(offset.txId()), offset.eventId(), limit);
+    }
+
+    public Offset offset(String consumer) {
+        return jdbcTemplate.query(OFFSET_SQL,
+                        (rs, i) -> new Offset(Long.parseLong(rs.getString(1)), rs.getLong(2)), consumer)
+                .stream().findFirst().orElse(Offset.ZERO);
+    }
+
+    public void saveOffset(String consumer, Offset offset) {
+        jdbcTemplate.update(SAVE_OFFSET_SQL, consumer, Long.toString(offset.txId()), offset.eventId());
+    }
+
+    /** Stores an offset at the start for a consumer seen for the first time, so purge waits for it. */
+    public void register(String consumer) {
+        jdbcTemplate.update(REGISTER_SQL, consumer);
+    }
+
+    /** Records an event the consumer gave up on; parking it twice keeps the first row. */
+    public void park(String consumer, PostEvent event, String error) {
+        jdbcTemplate.update(PARK_SQL, consumer, Long.toString(event.txId()), event.id(), event.type(),
+                event.postId(), event.authorId(), Timestamp.from(event.postCreatedAt()), error);
+    }
+
+    /** Purges events that every offset row and every one of consumers has passed. */
+    public int purge(Duration retention, List<String> consumers) {
+        return jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(PURGE_SQL);
+            ps.setString(1, retention.toSeconds() + " seconds");
+            ps.setArray(2, con.createArrayOf("varchar", consumers.toArray()));
+            return ps;
+        });
+    }
+}
@@ -0,0 +1,216 @@
+package com.dhruvsharma.feed.postservice.partition;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.dhruvsharma.feed.postservice.sharding.ShardRouting;
+import com.dhruvsharma.feed.postservice.sharding.ShardRoutingDataSource;
+
+/**
+ * Keeps the created_at range partitions of posts (V7) ahead of time and expires old ones, on
+ * every shard.
+ *
+ * Partitions are created for feed.posts.partitions.ahead past now, each one interval long,
+ * continuing from the newest existing upper bound. A new partition is created as a plain table
+ * and then attached, which only takes a SHARE UPDATE EXCLUSIVE lock on posts, so inserts and
+ * reads are not blocked. An insert dated past the last partition fails, so ahead must cover
+ * several maintenance runs.
+ *
+ * With feed.posts.retention set, partitions whose whole range is older than retention are
+ * detached with DETACH CONCURRENTLY (again without blocking reads or writes), then archived
+ * (moved to schema posts_archive for dumping) or dropped. Home timeline entries of removed
+ * posts no longer join and drop out of timelines.
+ *
+ * One pod maintains each shard at a time, under a session advisory lock.
+ */
+@Component
+public class PostPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(PostPartitionMaintenance.class);
+
+    private static final String LOCK_KEY = "posts:partition-maintenance";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    /**
+     * Partitions of posts with the upper bound of their range. posts_legacy starts at MINVALUE and
+     * the bounds are never MAXVALUE, so the upper bound is always a timestamp.
+     */
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname,
+                   substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \\(''([^'']+)''\\)')::timestamptz AS upper_bound,
+                   i.inhdetachpending
+            FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'posts'::regclass
+            ORDER BY upper_bound""";
+
+    public enum Interval { MONTH, WEEK }
+
+    public enum RetentionAction { ARCHIVE, DROP }
+
+    private final ShardRoutingDataSource dataSource;
+    private final Interval interval;
+    private final Duration ahead;
+    private final Duration retention;
+    private final RetentionAction retentionAction;
+    private final Duration lockTimeout;
+    private final Clock clock;
+
+    @Autowired
+    public PostPartitionMaintenance(ShardRoutingDataSource dataSource,
+                                    @Value("${feed.posts.partitions.interval:MONTH}") Interval interval,
+                                    @Value("${feed.posts.partitions.ahead:P90D}") Duration ahead,
+                                    @Value("${feed.posts.retention:P0D}") Duration retention,
+                                    @Value("${feed.posts.partitions.retention-action:ARCHIVE}") RetentionAction retentionAction,
+                                    @Value("${feed.posts.partitions.lock-timeout:PT5S}") Duration lockTimeout) {
+        this(dataSource, interval, ahead, retention, retentionAction, lockTimeout, Clock.systemUTC());
+    }
+
+    PostPartitionMaintenance(ShardRoutingDataSource dataSource, Interval interval, Duration ahead, Duration retention,
+                             RetentionAction retentionAction, Duration lockTimeout, Clock clock) {
+        this.dataSource = dataSource;
+        this.interval = interval;
+        this.ahead = ahead;
+        this.retention = retention;
+        this.retentionAction = retentionAction;
+        this.lockTimeout = lockTimeout;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${feed.posts.partitions.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        for (int shard = 0; shard < dataSource.shardCount(); shard++) {
+            int target = shard;
+            ShardRouting.onShard(target, () -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    maintain(connection, target);
+                } catch (SQLException e) {
+                    log.warn("Post partition maintenance failed on shard {}", target, e);
+                }
+            });
+        }
+    }
+
+    private void maintain(Connection connection, int shard) throws SQLException {
+        if (!advisoryLock(connection, "pg_try_advisory_lock")) {
+            return;
+        }
+        try {
+            // DDL waits for conflicting locks; give up rather than queue every query on posts behind it.
+            execute(connection, "SET lock_timeout = " + lockTimeout.toMillis());
+            List<Partition> partitions = partitions(connection);
+            createAhead(connection, partitions, shard);
+            if (retention.isPositive()) {
+                expire(connection, partitions, shard);
+            }
+        } finally {
+            // The connection goes back to the pool; it must not keep the setting or the session lock.
+            try {
+                execute(connection, "RESET lock_timeout");
+                advisoryLock(connection, "pg_advisory_unlock");
+            } catch (SQLException e) {
+                log.debug("Could not reset partition maintenance session on shard {}", shard, e);
+            }
+        }
+    }
+
+    private void createAhead(Connection connection, List<Partition> partitions, int shard) throws SQLException {
+        if (partitions.isEmpty()) {
+            log.warn("posts on shard {} has no partitions; has migration V7 run?", shard);
+            return;
+        }
+        Instant horizon = clock.instant().plus(ahead);
+        Instant from = partitions.get(partitions.size() - 1).upperBound();
+        while (from.isBefore(horizon)) {
+            Instant to = next(from);
+            String name = "posts_p" + PARTITION_SUFFIX.format(from);
+            execute(connection, "CREATE TABLE IF NOT EXISTS " + name + " (LIKE posts INCLUDING DEFAULTS)");
+            execute(connection, "ALTER TABLE posts ATTACH PARTITION " + name
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            log.info("Created posts partition {} [{}, {}) on shard {}", name, from, to, shard);
+            from = to;
+        }
+    }
+
+    private void expire(Connection connection, List<Partition> partitions, int shard) throws SQLException {
+        Instant cutoff = clock.instant().minus(retention);
+        for (Partition partition : partitions) {
+            if (!partition.detachPending() && partition.upperBound().isAfter(cutoff)) {
+                continue;
+            }
+            String name = quoteIdentifier(partition.name());
+            // A detach interrupted half way (e.g. by a restart) leaves the partition pending; finish it.
+            execute(connection, "ALTER TABLE posts DETACH PARTITION " + name
+                    + (partition.detachPending() ? " FINALIZE" : " CONCURRENTLY"));
+            if (retentionAction == RetentionAction.DROP) {
+                execute(connection, "DROP TABLE " + name);
+            } else {
+                execute(connection, "ALTER TABLE " + name + " SET SCHEMA posts_archive");
+            }
+            log.info("Expired posts partition {} (before {}) on shard {}: {}",
+                    partition.name(), partition.upperBound(), shard, retentionAction);
+        }
+    }
+
+    private Instant next(Instant from) {
+        ZonedDateTime start = from.atZone(ZoneOffset.UTC);
+        return switch (interval) {
+            case MONTH -> start.plusMonths(1).toInstant();
+            case WEEK -> start.plusWeeks(1).toInstant();
+        };
+    }
+
+    private static List<Partition> partitions(Connection connection) throws SQLException {
+        List<Partition> partitions = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(PARTITIONS_SQL)) {
+            while (rs.next()) {
+                Timestamp upperBound = rs.getTimestamp(2);
+                if (upperBound != null) {
+                    partitions.add(new Partition(rs.getString(1), upperBound.toInstant(), rs.getBoolean(3)));
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT " + function + "(hashtext(?))")) {
+            ps.setString(1, LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static String quoteIdentifier(String name) {
+        return '"' + name.replace("\"", "\"\"") + '"';
+    }
+
+    private record Partition(String name, Instant upperBound, boolean detachPending) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.dhruvsharma.feed.postservice.repository;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Writes to home_timeline_entries. Plain JDBC because rows are keyed by a composite key and
+ * written in bulk (one statement per follower batch), which CrudRepository does not model.
+ */
+@Repository
+public class HomeTimelineRepository {
+
+    private static final String PUSH_SQL = """
+            INSERT INTO home_timeline_entries (user_id, post_id, created_at)
+            SELECT u, ?, ? FROM unnest(?) AS u
+            ON CONFLICT DO NOTHING""";
+
+    /**
+     * For each user, find the entry at position maxEntries (newest first) through the primary
+     * key index and delete it and everything older.
+     */
+    private static final String TRIM_SQL = """
+            DELETE FROM home_timeline_entries h
+            USING (
+                SELECT u.user_id, c.created_at, c.post_id
+                FROM unnest(?) AS u(user_id)
+                CROSS JOIN LATERAL (
+                    SELECT e.created_at, e.post_id FROM home_timeline_entries e
+                    WHERE e.user_id = u.user_id
+                    ORDER BY e.created_at DESC, e.post_id DESC
+                    OFFSET ? LIMIT 1
+                ) c
+            ) cutoff
+            WHERE h.user_id = cutoff.user_id
+              AND (h.created_at, h.post_id) <= (cutoff.created_at, cutoff.post_id)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public HomeTimelineRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Prepends the post to every listed user's home timeline in a single INSERT.
+     */
+    public void push(long[] userIds, long postId, Instant createdAt) {
+        if (userIds.length == 0) {
+            return;
+        }
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(PUSH_SQL);
+            ps.setLong(1, postId);
+            ps.setTimestamp(2, Timestamp.from(createdAt));
+            ps.setArray(3, toSqlArray(con, userIds));
+            return ps;
+        });
+    }
+
+    /**
+     * Bounds each listed user's home timeline to the newest maxEntries rows.
+     */
+    public void trim(long[] userIds, int maxEntries) {
+        if (userIds.length == 0) {
+            return;
+        }
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(TRIM_SQL);
+            ps.setArray(1, toSqlArray(con, userIds));
+            ps.setInt(2, maxEntries);
+            return ps;
+        });
+    }
+
+    private static Array toSqlArray(java.sql.Connection con, long[] ids) throws java.sql.SQLException {
+        Long[] boxed = new Long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            boxed[i] = ids[i];
+        }
+        return con.createArrayOf("bigint", boxed);
+    }
+}
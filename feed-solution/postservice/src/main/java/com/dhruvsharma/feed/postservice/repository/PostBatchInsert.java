@@ -0,0 +1,16 @@
+package com.dhruvsharma.feed.postservice.repository;
+
+import java.util.List;
+
+import com.dhruvsharma.feed.postservice.repository.entity.Post;
+
+/**
+ * Custom fragment of {@link PostRepository} for writing many posts in one statement.
+ */
+public interface PostBatchInsert {
+    /**
+     * Inserts all posts with one multi-row INSERT. Ids are assigned by the caller
+     * (SnowflakeIdGenerator). Must run inside the caller's transaction.
+     */
+    void insertAll(List<Post> posts);
+}
@@ -0,0 +1,70 @@
+package com.dhruvsharma.feed.postservice.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.StringJoiner;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.dhruvsharma.feed.postservice.repository.entity.Post;
+
+/**
+ * Binds each column as one array parameter so the statement text (and its cached plan) is the
+ * same for any batch size. unnest would flatten a bigint[][], so each post's attachment ids
+ * travel as one array literal and are cast back per row.
+ */
+class PostBatchInsertImpl implements PostBatchInsert {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO posts (id, content, author_id, created_at, attachment_ids)
+            SELECT id, content, author_id, created_at, attachment_ids::bigint[]
+            FROM unnest(?::bigint[], ?::text[], ?::bigint[], ?::timestamptz[], ?::text[])
+                AS t(id, content, author_id, created_at, attachment_ids)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    PostBatchInsertImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<Post> posts) {
+        int n = posts.size();
+        if (n == 0) {
+            return;
+        }
+        Long[] idArray = new Long[n];
+        String[] contents = new String[n];
+        Long[] authors = new Long[n];
+        Timestamp[] createdAts = new Timestamp[n];
+        String[] attachmentIds = new String[n];
+        for (int i = 0; i < n; i++) {
+            Post post = posts.get(i);
+            idArray[i] = post.getId();
+            contents[i] = post.getContent();
+            authors[i] = post.getAuthorId();
+            createdAts[i] = Timestamp.from(post.getCreatedAt());
+            attachmentIds[i] = toArrayLiteral(post.getAttachmentIds());
+        }
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(INSERT_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", idArray));
+            ps.setArray(2, con.createArrayOf("text", contents));
+            ps.setArray(3, con.createArrayOf("bigint", authors));
+            ps.setArray(4, con.createArrayOf("timestamptz", createdAts));
+            ps.setArray(5, con.createArrayOf("text", attachmentIds));
+            return ps;
+        });
+    }
+
+    private static String toArrayLiteral(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return "{}";
+        }
+        StringJoiner literal = new StringJoiner(",", "{", "}");
+        for (Long id : ids) {
+            literal.add(id.toString());
+        }
+        return literal.toString();
+    }
+}
@@ -4,5 +4,5 @@ import org.springframework.data.repository.CrudRepository;
 
 import com.dhruvsharma.feed.postservice.repository.entity.Post;
 
-public interface PostRepository extends CrudRepository<Post, Long> {
+public interface PostRepository extends CrudRepository<Post, Long>, PostBatchInsert {
 }
@@ -1,5 +1,8 @@
 package com.dhruvsharma.feed.postservice.repository.entity;
 
+import java.time.Instant;
+import java.util.List;
+
 import org.springframework.data.annotation.Id;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -19,4 +22,8 @@ public class Post {
     private String content;
     /** Internal user id (users.id). Resolved via userservice API at create time. */
     private Long authorId;
+    /** Set by the service (microsecond precision) so fan-out entries carry the same keyset as the post row. */
+    private Instant createdAt;
+    /** attachments.id of the post's media, in display order; empty for text-only posts. */
+    private List<Long> attachmentIds;
 }
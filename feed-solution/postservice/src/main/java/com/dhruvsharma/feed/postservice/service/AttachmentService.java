@@ -0,0 +1,25 @@
+package com.dhruvsharma.feed.postservice.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.http.MediaType;
+
+import com.dhruvsharma.feed.postservice.dto.AttachmentResponse;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public interface AttachmentService {
+    /**
+     * Stores a media file streamed as the request body and records it as uploaded by the caller.
+     * contentLength is the declared Content-Length, or -1 when the body is chunked.
+     */
+    AttachmentResponse upload(String keycloakSubId, String authorizationHeader, MediaType contentType,
+                              long contentLength, InputStream body) throws IOException;
+
+    /**
+     * Writes the attachment's bytes (or the requested range) to the response; 404 if unknown.
+     */
+    void download(long attachmentId, HttpServletRequest request, HttpServletResponse response) throws IOException;
+}
@@ -1,11 +1,29 @@
 package com.dhruvsharma.feed.postservice.service;
 
+import java.io.InputStream;
+import java.util.Optional;
+
+import com.dhruvsharma.feed.postservice.dto.ImportStatusResponse;
 import com.dhruvsharma.feed.postservice.dto.PostCreationResponse;
 import com.dhruvsharma.feed.postservice.dto.PostRequest;
+import com.dhruvsharma.feed.postservice.ingest.PostImporter;
 
 public interface PostService {
     /**
-     * Creates a post. Resolves the author via userservice (forwarded JWT) to get internal user id (Pattern B).
+     * Creates a post. Resolves the author's Keycloak subject to the internal user id (Pattern B),
+     * from the local cache or via userservice with the forwarded JWT.
+     */
+    PostCreationResponse createPost(PostRequest post, String keycloakSubId, String authorizationHeader);
+
+    /**
+     * Bulk-loads posts from a streamed body (admin backfills). Author ids are taken as given.
+     * Resumable: records before the import's rowsCommitted are skipped, with offset being the
+     * index of the body's first record.
+     */
+    ImportStatusResponse importPosts(String importId, long offset, PostImporter.Format format, InputStream body);
+
+    /**
+     * Returns progress of a bulk import.
      */
-    PostCreationResponse createPost(PostRequest post, String authorizationHeader);
+    Optional<ImportStatusResponse> getImportStatus(String importId);
 }
@@ -0,0 +1,97 @@
+package com.dhruvsharma.feed.postservice.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.dhruvsharma.feed.postservice.cache.AuthorIdCache;
+import com.dhruvsharma.feed.postservice.dto.AttachmentResponse;
+import com.dhruvsharma.feed.postservice.id.SnowflakeIdGenerator;
+import com.dhruvsharma.feed.postservice.media.Attachment;
+import com.dhruvsharma.feed.postservice.media.AttachmentRepository;
+import com.dhruvsharma.feed.postservice.media.BlobStore;
+import com.dhruvsharma.feed.postservice.media.RangeTransfer;
+import com.dhruvsharma.feed.postservice.service.AttachmentService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@Service
+public class AttachmentServiceImpl implements AttachmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentServiceImpl.class);
+
+    private final AuthorIdCache authorIdCache;
+    private final AttachmentRepository attachmentRepository;
+    private final BlobStore blobStore;
+    private final SnowflakeIdGenerator idGenerator;
+    private final long maxBytes;
+    private final List<MediaType> allowedTypes;
+
+    public AttachmentServiceImpl(AuthorIdCache authorIdCache,
+                                 AttachmentRepository attachmentRepository,
+                                 BlobStore blobStore,
+                                 SnowflakeIdGenerator idGenerator,
+                                 @Value("${feed.attachments.max-size:100MB}") DataSize maxSize,
+                                 @Value("${feed.attachments.allowed-types:image/jpeg,image/png,image/gif,image/webp,video/mp4,video/webm}")
+                                 List<MediaType> allowedTypes) {
+        this.authorIdCache = authorIdCache;
+        this.attachmentRepository = attachmentRepository;
+        this.blobStore = blobStore;
+        this.idGenerator = idGenerator;
+        this.maxBytes = maxSize.toBytes();
+        this.allowedTypes = allowedTypes;
+    }
+
+    /**
+     * The body goes straight from the request stream to the blob store; a declared
+     * Content-Length over the limit is rejected before anything is read.
+     */
+    @Override
+    public AttachmentResponse upload(String keycloakSubId, String authorizationHeader, MediaType contentType,
+                                     long contentLength, InputStream body) throws IOException {
+        MediaType type = new MediaType(contentType.getType(), contentType.getSubtype());
+        if (allowedTypes.stream().noneMatch(allowed -> allowed.equalsTypeAndSubtype(type))) {
+            throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                    "Attachments must be one of " + allowedTypes);
+        }
+        if (contentLength > maxBytes) {
+            throw new ResponseStatusException(HttpStatus.CONTENT_TOO_LARGE,
+                    "Attachment is larger than " + maxBytes + " bytes");
+        }
+        long uploaderId = authorIdCache.authorId(keycloakSubId, authorizationHeader)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                        "User not registered. Please log in again to complete registration."));
+        BlobStore.StoredBlob blob = blobStore.write(body, maxBytes);
+        Attachment attachment = new Attachment(idGenerator.nextId(), blob.sha256(), type.toString(), blob.size(),
+                uploaderId, Instant.now().truncatedTo(ChronoUnit.MICROS));
+        attachmentRepository.insert(attachment);
+        return new AttachmentResponse(attachment.id(), attachment.contentType(), attachment.sizeBytes(), attachment.sha256());
+    }
+
+    @Override
+    public void download(long attachmentId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Attachment attachment = attachmentRepository.findById(attachmentId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Attachment not found"));
+        Path blob = blobStore.path(attachment.sha256());
+        if (!Files.isRegularFile(blob)) {
+            log.error("Blob {} of attachment {} is missing from the store", attachment.sha256(), attachmentId);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Attachment not found");
+        }
+        RangeTransfer.send(blob, attachment.sizeBytes(), attachment.contentType(), '"' + attachment.sha256() + '"',
+                request, response);
+    }
+}
@@ -1,33 +1,88 @@
 package com.dhruvsharma.feed.postservice.service.impl;
 
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import com.dhruvsharma.feed.postservice.client.UserServiceClient;
+import com.dhruvsharma.feed.postservice.cache.AuthorIdCache;
+import com.dhruvsharma.feed.postservice.dto.ImportStatusResponse;
 import com.dhruvsharma.feed.postservice.dto.PostCreationResponse;
 import com.dhruvsharma.feed.postservice.dto.PostRequest;
-import com.dhruvsharma.feed.postservice.repository.PostRepository;
+import com.dhruvsharma.feed.postservice.id.SnowflakeIdGenerator;
+import com.dhruvsharma.feed.postservice.ingest.PostImporter;
+import com.dhruvsharma.feed.postservice.ingest.PostWriteBuffer;
+import com.dhruvsharma.feed.postservice.media.AttachmentRepository;
 import com.dhruvsharma.feed.postservice.repository.entity.Post;
 import com.dhruvsharma.feed.postservice.service.PostService;
 
 @Service
 public class PostServiceImpl implements PostService {
-    private final PostRepository postRepository;
-    private final UserServiceClient userServiceClient;
+    private final AuthorIdCache authorIdCache;
+    private final PostWriteBuffer postWriteBuffer;
+    private final PostImporter postImporter;
+    private final SnowflakeIdGenerator idGenerator;
+    private final AttachmentRepository attachmentRepository;
+    private final int maxAttachmentsPerPost;
 
-    public PostServiceImpl(PostRepository postRepository, UserServiceClient userServiceClient) {
-        this.postRepository = postRepository;
-        this.userServiceClient = userServiceClient;
+    public PostServiceImpl(AuthorIdCache authorIdCache, PostWriteBuffer postWriteBuffer, PostImporter postImporter,
+                           SnowflakeIdGenerator idGenerator, AttachmentRepository attachmentRepository,
+                           @Value("${feed.attachments.max-per-post:4}") int maxAttachmentsPerPost) {
+        this.authorIdCache = authorIdCache;
+        this.postWriteBuffer = postWriteBuffer;
+        this.postImporter = postImporter;
+        this.idGenerator = idGenerator;
+        this.attachmentRepository = attachmentRepository;
+        this.maxAttachmentsPerPost = maxAttachmentsPerPost;
     }
 
+    /**
+     * Not transactional itself: the write (insert, NOTIFY, outbox event) is one transaction in
+     * PostWriteBuffer, possibly shared with other concurrent posts. The id is allocated here,
+     * before the insert, so it needs no round trip.
+     */
     @Override
-    public PostCreationResponse createPost(PostRequest post, String authorizationHeader) {
-        Long authorUserId = userServiceClient.getCurrentUser(authorizationHeader)
-                .map(u -> u.getId())
+    public PostCreationResponse createPost(PostRequest post, String keycloakSubId, String authorizationHeader) {
+        Long authorUserId = authorIdCache.authorId(keycloakSubId, authorizationHeader)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
                         "User not registered. Please log in again to complete registration."));
-        Post savedPost = postRepository.save(new Post(null, post.getContent(), authorUserId));
-        return new PostCreationResponse(savedPost.getId());
+        List<Long> attachmentIds = checkAttachments(post.getAttachmentIds(), authorUserId);
+        // Postgres stores microseconds; truncate so the fanned-out keyset matches the stored row.
+        Instant createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        long postId = postWriteBuffer.write(
+                new Post(idGenerator.nextId(), post.getContent(), authorUserId, createdAt, attachmentIds), keycloakSubId);
+        return new PostCreationResponse(postId);
+    }
+
+    /** A post may only reference distinct attachments its author uploaded. */
+    private List<Long> checkAttachments(List<Long> attachmentIds, long authorUserId) {
+        if (attachmentIds == null || attachmentIds.isEmpty()) {
+            return List.of();
+        }
+        if (attachmentIds.size() > maxAttachmentsPerPost) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A post can have at most " + maxAttachmentsPerPost + " attachments");
+        }
+        if (attachmentIds.contains(null) || attachmentIds.stream().distinct().count() != attachmentIds.size()
+                || attachmentRepository.countOwnedBy(attachmentIds, authorUserId) != attachmentIds.size()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown or duplicate attachment ids");
+        }
+        return List.copyOf(attachmentIds);
+    }
+
+    @Override
+    public ImportStatusResponse importPosts(String importId, long offset, PostImporter.Format format, InputStream body) {
+        return postImporter.importPosts(importId, offset, format, body);
+    }
+
+    @Override
+    public Optional<ImportStatusResponse> getImportStatus(String importId) {
+        return postImporter.status(importId);
     }
 }
@@ -0,0 +1,11 @@
+package com.dhruvsharma.feed.postservice.sharding;
+
+/**
+ * Chooses the postsdb shard a new post is written to. All of an author's posts written under
+ * one router land on one shard; readers do not depend on the placement (they query every
+ * shard), so a router can be swapped, e.g. for a directory that supports adding shards online.
+ */
+public interface ShardRouter {
+
+    int shardFor(long authorId);
+}
@@ -0,0 +1,3 @@
+-- Keyset pagination index for timeline reads: ORDER BY created_at DESC, id DESC
+-- with a (created_at, id) < (?, ?) row comparison walks this index backwards.
+CREATE INDEX IF NOT EXISTS idx_posts_created_at_id ON posts (created_at, id);
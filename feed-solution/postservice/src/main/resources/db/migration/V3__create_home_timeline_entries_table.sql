@@ -0,0 +1,12 @@
+-- Materialized home timelines (fan-out on write). One row per (follower, post),
+-- trimmed to a bounded length per user by postservice after each fan-out batch.
+-- The primary key doubles as the keyset index for timeline range reads.
+CREATE TABLE IF NOT EXISTS home_timeline_entries (
+    user_id BIGINT NOT NULL,
+    post_id BIGINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (user_id, created_at, post_id)
+);
+
+-- Posts by fan-out-exempt (high follower count) authors are merged in at read time.
+CREATE INDEX IF NOT EXISTS idx_posts_author_created_at_id ON posts (author_id, created_at, id);
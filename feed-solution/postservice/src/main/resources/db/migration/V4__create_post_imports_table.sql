@@ -0,0 +1,10 @@
+-- Progress of bulk post imports (POST /api/v1/posts/import). rows_committed is the resume
+-- offset: records [0, rows_committed) of the import are durably in posts.
+CREATE TABLE IF NOT EXISTS post_imports (
+    import_id VARCHAR(128) PRIMARY KEY,
+    status VARCHAR(16) NOT NULL,
+    rows_committed BIGINT NOT NULL DEFAULT 0,
+    error TEXT,
+    started_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
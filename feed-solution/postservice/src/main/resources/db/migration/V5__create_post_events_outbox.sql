@@ -0,0 +1,22 @@
+-- Transactional outbox: one row per post, written in the same transaction as the posts insert.
+-- tx_id is the writing transaction's id. The relay reads in (tx_id, id) order and only rows with
+-- tx_id below the oldest running transaction, so a row can never appear behind a consumer's offset.
+CREATE TABLE IF NOT EXISTS post_events (
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    tx_id XID8 NOT NULL DEFAULT pg_current_xact_id(),
+    event_type VARCHAR(32) NOT NULL,
+    post_id BIGINT NOT NULL,
+    author_id BIGINT NOT NULL,
+    post_created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    recorded_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_post_events_tx_id_id ON post_events (tx_id, id);
+
+-- Per-consumer delivery position: everything up to and including (last_tx_id, last_event_id) was delivered.
+CREATE TABLE IF NOT EXISTS post_event_offsets (
+    consumer VARCHAR(64) PRIMARY KEY,
+    last_tx_id XID8 NOT NULL DEFAULT '0',
+    last_event_id BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
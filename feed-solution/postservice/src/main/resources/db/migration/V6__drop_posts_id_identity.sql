@@ -0,0 +1,4 @@
+-- Post ids are now issued by postservice (SnowflakeIdGenerator: time-ordered, per-node).
+-- Existing identity ids are far below any generated id, so ordering by id is preserved.
+-- Dropping the default makes an insert without an id fail instead of drawing from the old sequence.
+ALTER TABLE posts ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,54 @@
+-- Range-partition posts by created_at so time-bounded reads touch only the partitions in range
+-- and old posts are removed by detaching whole partitions instead of DELETE + vacuum.
+--
+-- The existing table becomes partition posts_legacy covering everything before the first
+-- monthly boundary after its newest row; it is attached in place, not copied. Attaching scans it
+-- once and builds the (id, created_at) key, so expect this migration to take a while on a large
+-- table. Partitions after that are created ahead of time by PostPartitionMaintenance, which
+-- also detaches partitions past feed.posts.retention.
+--
+-- The primary key must include the partition key, so it becomes (id, created_at). Ids stay unique
+-- because they are issued by SnowflakeIdGenerator, never by the database.
+SET LOCAL timezone = 'UTC';
+
+ALTER TABLE posts RENAME TO posts_legacy;
+ALTER INDEX posts_pkey RENAME TO posts_legacy_pkey;
+ALTER INDEX idx_posts_author_id RENAME TO idx_posts_legacy_author_id;
+ALTER INDEX idx_posts_created_at_id RENAME TO idx_posts_legacy_created_at_id;
+ALTER INDEX idx_posts_author_created_at_id RENAME TO idx_posts_legacy_author_created_at_id;
+
+CREATE TABLE posts (
+    id BIGINT NOT NULL,
+    content TEXT NOT NULL,
+    author_id BIGINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Same keyset indexes as before, created on every partition. idx_posts_author_id is not
+-- recreated: (author_id, created_at, id) covers author_id lookups.
+CREATE INDEX idx_posts_created_at_id ON posts (created_at, id);
+CREATE INDEX idx_posts_author_created_at_id ON posts (author_id, created_at, id);
+
+-- Partitions past retention are moved here when feed.posts.partitions.retention-action=ARCHIVE.
+CREATE SCHEMA IF NOT EXISTS posts_archive;
+
+DO $$
+DECLARE
+    cutoff TIMESTAMPTZ;
+    month_start TIMESTAMPTZ;
+BEGIN
+    SELECT greatest(date_trunc('month', max(created_at)) + INTERVAL '1 month', date_trunc('month', now()))
+    INTO cutoff
+    FROM posts_legacy;
+
+    EXECUTE format('ALTER TABLE posts ATTACH PARTITION posts_legacy FOR VALUES FROM (MINVALUE) TO (%L)', cutoff);
+
+    FOR i IN 0..2 LOOP
+        month_start := cutoff + make_interval(months => i);
+        EXECUTE format('CREATE TABLE %I PARTITION OF posts FOR VALUES FROM (%L) TO (%L)',
+                       'posts_p' || to_char(month_start, 'YYYYMMDD'),
+                       month_start,
+                       month_start + INTERVAL '1 month');
+    END LOOP;
+END $$;
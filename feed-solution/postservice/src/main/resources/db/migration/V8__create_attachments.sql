@@ -0,0 +1,15 @@
+-- Media attachment metadata. The bytes live in the blob store (feed.attachments.dir) under their
+-- SHA-256, so identical uploads share one file; each upload still gets its own row and id.
+-- Kept on shard 0 only, like post_imports.
+CREATE TABLE IF NOT EXISTS attachments (
+    id BIGINT PRIMARY KEY,
+    sha256 CHAR(64) NOT NULL,
+    content_type VARCHAR(127) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    uploader_id BIGINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Attachments of a post, in display order. A constant default is a catalog-only change, so this
+-- does not rewrite existing partitions.
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS attachment_ids BIGINT[] NOT NULL DEFAULT '{}';
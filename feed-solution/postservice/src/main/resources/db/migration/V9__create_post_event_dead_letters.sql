@@ -0,0 +1,16 @@
+-- Post events a consumer kept rejecting. After feed.outbox.relay.max-attempts failed deliveries of a
+-- batch the relay retries its events one at a time, parks the ones that still fail here and moves
+-- the consumer's offset past the batch. Rows keep the whole event so they can be re-inserted into
+-- post_events once the consumer is fixed.
+CREATE TABLE IF NOT EXISTS post_event_dead_letters (
+    consumer VARCHAR(64) NOT NULL,
+    tx_id XID8 NOT NULL,
+    event_id BIGINT NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    post_id BIGINT NOT NULL,
+    author_id BIGINT NOT NULL,
+    post_created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    error TEXT,
+    parked_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (consumer, tx_id, event_id)
+);
@@ -0,0 +1,120 @@
+package com.dhruvsharma.feed.postservice.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import com.dhruvsharma.feed.postservice.client.UserServiceClient;
+import com.dhruvsharma.feed.postservice.client.dto.UserResponse;
+import com.dhruvsharma.feed.postservice.config.RestTemplateConfig;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Throughput of postservice -> userservice /me calls against a local stub userservice, comparing
+ * the previous bare RestTemplate (HttpURLConnection, JDK keep-alive cache of 5 per host) with the
+ * pooled client from RestTemplateConfig. 64 concurrent callers; the stub adds latencyMicros per call.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=com.dhruvsharma.feed.postservice.benchmark.UserServiceClientBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+public class UserServiceClientBenchmark {
+
+    private static final byte[] ME = """
+            {"id":42,"keycloakSubId":"5f0c2a9e-0000-4000-8000-000000000042","username":"bench","email":"bench@example.com"}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"simple", "pooled"})
+    public String client;
+
+    @Param({"500"})
+    public long latencyMicros;
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private CloseableHttpClient httpClient;
+    private UserServiceClient userServiceClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        serverThreads = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(serverThreads);
+        server.createContext("/api/v1/users/me", exchange -> {
+            try {
+                Thread.sleep(Duration.ofNanos(latencyMicros * 1000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, ME.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(ME);
+            }
+        });
+        server.start();
+
+        RestTemplate restTemplate;
+        if ("pooled".equals(client)) {
+            RestTemplateConfig config = new RestTemplateConfig();
+            httpClient = config.interServiceHttpClient(200, 100, Duration.ofSeconds(1), Duration.ofSeconds(2),
+                    Duration.ofMillis(500), Duration.ofSeconds(30));
+            restTemplate = config.restTemplate(httpClient,
+                    config.downstreamBulkhead(64, Duration.ofMillis(100), new SimpleMeterRegistry()));
+        } else {
+            restTemplate = new RestTemplate();
+        }
+        userServiceClient = new UserServiceClient(restTemplate, "http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Benchmark
+    public UserResponse getCurrentUser() {
+        return userServiceClient.getCurrentUser("Bearer benchmark").orElseThrow();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserServiceClientBenchmark.class.getSimpleName()).build()).run();
+    }
+}
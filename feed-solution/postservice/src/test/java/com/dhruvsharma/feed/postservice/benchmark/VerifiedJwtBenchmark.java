@@ -0,0 +1,108 @@
+package com.dhruvsharma.feed.postservice.benchmark;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import com.dhruvsharma.feed.security.CachingJwtDecoder;
+import com.dhruvsharma.feed.security.KeycloakRealmRoleConverter;
+import com.dhruvsharma.feed.security.VerifiedJwtCache;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost of authenticating a bearer token the service has seen before: full RS256 verification
+ * and claim validation (what every request paid before VerifiedJwtCache) against a cache hit,
+ * both followed by the JwtAuthenticationConverter from SecurityConfig. The token is shaped like
+ * a Keycloak access token (2048-bit key, realm roles, about 1 KB).
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=com.dhruvsharma.feed.postservice.benchmark.VerifiedJwtBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VerifiedJwtBenchmark {
+
+    private String token;
+    private JwtDecoder verifying;
+    private JwtDecoder caching;
+    private JwtAuthenticationConverter converter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JOSEException {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("bench").generate();
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer("http://keycloak:8080/realms/feed")
+                .subject(UUID.randomUUID().toString())
+                .audience("account")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(Duration.ofHours(1))))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("azp", "feed-frontend")
+                .claim("scope", "openid profile email")
+                .claim("preferred_username", "bench")
+                .claim("email", "bench@example.com")
+                .claim("realm_access", Map.of("roles", List.of("feed_user", "offline_access", "uma_authorization")))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        token = jwt.serialize();
+
+        verifying = NimbusJwtDecoder.withPublicKey(key.toRSAPublicKey()).build();
+        caching = new CachingJwtDecoder(verifying,
+                new VerifiedJwtCache(new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(5)));
+        caching.decode(token);
+        converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(new KeycloakRealmRoleConverter());
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken verify() {
+        return converter.convert(verifying.decode(token));
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken cacheHit() {
+        return converter.convert(caching.decode(token));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(VerifiedJwtBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+package com.dhruvsharma.feed.postservice.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withResourceNotFound;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withUnauthorizedRequest;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.dhruvsharma.feed.postservice.cache.AuthorIdCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * How userservice answers to /me surface to postservice callers, against a mocked userservice.
+ */
+class UserServiceClientTests {
+
+    private static final String ME = "http://userservice/api/v1/users/me";
+    private static final String TOKEN = "Bearer t";
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final MockRestServiceServer userservice = MockRestServiceServer.bindTo(restTemplate).build();
+    private final UserServiceClient client = new UserServiceClient(restTemplate, "http://userservice");
+    private final AuthorIdCache authorIds = new AuthorIdCache(client, new SimpleMeterRegistry(),
+            Duration.ofHours(1), Duration.ofSeconds(30), 1000);
+
+    @Test
+    void forwardsTheTokenAndReadsTheUser() {
+        userservice.expect(requestTo(ME))
+                .andExpect(header(HttpHeaders.AUTHORIZATION, TOKEN))
+                .andRespond(withSuccess("{\"id\":42,\"username\":\"alice\"}", MediaType.APPLICATION_JSON));
+
+        assertEquals(42L, authorIds.authorId("sub", TOKEN).orElseThrow());
+        userservice.verify();
+    }
+
+    @Test
+    void notRegisteredIsEmpty() {
+        userservice.expect(requestTo(ME)).andRespond(withResourceNotFound());
+
+        assertTrue(client.getCurrentUser(TOKEN).isEmpty());
+    }
+
+    @Test
+    void rejectedTokenIsPassedOnAsUnauthorized() {
+        userservice.expect(requestTo(ME)).andRespond(withUnauthorizedRequest());
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> authorIds.authorId("sub", TOKEN));
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+    }
+
+    @Test
+    void forbiddenIsPassedOnAsForbidden() {
+        userservice.expect(requestTo(ME)).andRespond(withStatus(HttpStatus.FORBIDDEN));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> authorIds.authorId("sub", TOKEN));
+        assertEquals(HttpStatus.FORBIDDEN, e.getStatusCode());
+    }
+
+    @Test
+    void otherClientErrorsAreBadGateway() {
+        userservice.expect(requestTo(ME)).andRespond(withStatus(HttpStatus.BAD_REQUEST));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> authorIds.authorId("sub", TOKEN));
+        assertEquals(HttpStatus.BAD_GATEWAY, e.getStatusCode());
+    }
+
+    @Test
+    void serverErrorsAreServiceUnavailable() {
+        userservice.expect(requestTo(ME)).andRespond(withServerError());
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> authorIds.authorId("sub", TOKEN));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertTrue(e.getCause() instanceof HttpServerErrorException);
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        userservice.expect(requestTo(ME)).andRespond(withUnauthorizedRequest());
+        userservice.expect(requestTo(ME))
+                .andRespond(withSuccess("{\"id\":42,\"username\":\"alice\"}", MediaType.APPLICATION_JSON));
+
+        assertThrows(ResponseStatusException.class, () -> authorIds.authorId("sub", TOKEN));
+        assertEquals(42L, authorIds.authorId("sub", TOKEN).orElseThrow());
+        userservice.verify();
+    }
+}
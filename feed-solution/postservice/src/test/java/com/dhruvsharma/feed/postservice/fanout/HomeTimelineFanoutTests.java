@@ -0,0 +1,52 @@
+package com.dhruvsharma.feed.postservice.fanout;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.dhruvsharma.feed.postservice.client.ServiceTokenProvider;
+import com.dhruvsharma.feed.postservice.client.UserServiceClient;
+import com.dhruvsharma.feed.postservice.notification.TimelineChangeNotifier;
+import com.dhruvsharma.feed.postservice.outbox.PostEvent;
+import com.dhruvsharma.feed.postservice.repository.HomeTimelineRepository;
+
+/**
+ * How often fan-out trims home timelines, with stand-in userservice and repository; no database needed.
+ */
+class HomeTimelineFanoutTests {
+
+    private final UserServiceClient userServiceClient = mock(UserServiceClient.class);
+    private final HomeTimelineRepository homeTimelineRepository = mock(HomeTimelineRepository.class);
+
+    @Test
+    void trimsOncePerTrimEveryPostsEvenWhenIdsShareTheirLowBits() {
+        when(userServiceClient.getFollowers(anyLong(), any(), anyInt(), any())).thenReturn(Optional.empty());
+        ServiceTokenProvider tokens = mock(ServiceTokenProvider.class);
+        when(tokens.authorizationHeader()).thenReturn("Bearer service");
+        HomeTimelineFanout fanout = new HomeTimelineFanout(userServiceClient, tokens, Runnable::run,
+                homeTimelineRepository, mock(TimelineChangeNotifier.class), true, 10_000, 1000, 800, 16);
+
+        // First id of successive milliseconds: the 12 sequence bits are all zero.
+        List<PostEvent> events = new ArrayList<>();
+        for (int i = 1; i <= 64; i++) {
+            long postId = (long) i << 22;
+            events.add(new PostEvent(1, i, PostEvent.POST_CREATED, postId, 10, Instant.parse("2026-01-01T00:00:00Z")));
+        }
+        fanout.accept(events);
+
+        verify(homeTimelineRepository, times(64)).push(any(), anyLong(), any());
+        verify(homeTimelineRepository, times(4)).trim(any(), eq(800));
+    }
+}
@@ -0,0 +1,106 @@
+package com.dhruvsharma.feed.postservice.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Ordering, uniqueness and clock-skew behaviour with a controllable clock.
+ */
+class SnowflakeIdGeneratorTests {
+
+    private static final long START = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+
+    private final AtomicLong millis = new AtomicLong(START);
+
+    @Test
+    void encodesTimestampNodeAndSequence() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, Duration.ofSeconds(5), millis::get);
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertEquals(Instant.ofEpochMilli(START), SnowflakeIdGenerator.instantOf(first));
+        assertEquals(5, (first >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_NODE_ID);
+        assertEquals(first + 1, second);
+        assertTrue(first >= SnowflakeIdGenerator.minIdAt(Instant.ofEpochMilli(START)));
+    }
+
+    @Test
+    void sequenceOverflowBorrowsTheNextMillisecond() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, Duration.ofSeconds(5), millis::get);
+        long previous = 0;
+        for (int i = 0; i < (1 << SnowflakeIdGenerator.SEQUENCE_BITS) + 1; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        assertEquals(Instant.ofEpochMilli(START + 1), SnowflakeIdGenerator.instantOf(previous));
+    }
+
+    @Test
+    void clockStepBackKeepsIdsIncreasingWithinDrift() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, Duration.ofSeconds(5), millis::get);
+        long before = generator.nextId();
+        millis.addAndGet(-2_000);
+        long after = generator.nextId();
+
+        assertTrue(after > before);
+        assertEquals(SnowflakeIdGenerator.instantOf(before), SnowflakeIdGenerator.instantOf(after));
+    }
+
+    @Test
+    void clockStepBackBeyondDriftFails() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, Duration.ofSeconds(5), millis::get);
+        generator.nextId();
+        millis.addAndGet(-10_000);
+
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+
+    @Test
+    void concurrentCallersGetDistinctIds() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, Duration.ofSeconds(5), System::currentTimeMillis);
+        int threads = 8;
+        int perThread = 50_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            Callable<long[]> task = () -> {
+                long[] ids = new long[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = generator.nextId();
+                }
+                return ids;
+            };
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(task));
+            }
+            long[] all = new long[threads * perThread];
+            int pos = 0;
+            for (Future<long[]> result : results) {
+                long[] ids = result.get();
+                for (int i = 1; i < ids.length; i++) {
+                    assertTrue(ids[i] > ids[i - 1]);
+                }
+                System.arraycopy(ids, 0, all, pos, ids.length);
+                pos += ids.length;
+            }
+            assertEquals(all.length, Arrays.stream(all).distinct().count());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
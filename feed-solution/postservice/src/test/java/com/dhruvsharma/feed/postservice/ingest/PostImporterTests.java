@@ -0,0 +1,143 @@
+package com.dhruvsharma.feed.postservice.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.dhruvsharma.feed.postservice.id.SnowflakeIdGenerator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * How a failing import is recorded in post_imports, with a stand-in connection; no database needed.
+ */
+class PostImporterTests {
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final Connection con = mock(Connection.class);
+    private final CopyManager copyManager = mock(CopyManager.class);
+    /** One statement per SQL text, so each can be checked on its own. */
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    private PostImporter importer;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(con);
+        when(con.prepareStatement(anyString())).thenAnswer(call -> statements.computeIfAbsent(call.getArgument(0),
+                sql -> newStatement()));
+        PGConnection pg = mock(PGConnection.class);
+        when(con.unwrap(PGConnection.class)).thenReturn(pg);
+        when(pg.getCopyAPI()).thenReturn(copyManager);
+        when(copyManager.copyIn(anyString())).thenReturn(mock(CopyIn.class));
+        importer = new PostImporter(dataSource, mock(JdbcTemplate.class), JsonMapper.builder().build(),
+                mock(SnowflakeIdGenerator.class), new SimpleMeterRegistry(), 100);
+    }
+
+    @Test
+    void badCsvHeaderMarksTheImportFailed() throws SQLException {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> importer.importPosts("bad-header", 0, PostImporter.Format.CSV, body("user,text\n1,hello\n")));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        PreparedStatement finish = finish();
+        verify(finish).setString(1, "FAILED");
+        verify(finish).setString(eq(2), startsWith("Record 0: CSV header must name author_id and content"));
+        verify(copyManager, never()).copyIn(anyString());
+        verify(statement("SELECT pg_advisory_unlock")).execute();
+    }
+
+    @Test
+    void recordWithTheWrongFieldCountMarksTheImportFailed() throws SQLException {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> importer.importPosts(
+                "short-row", 0, PostImporter.Format.CSV, body("author_id,content\n1,hello\n2\n")));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        assertTrue(e.getReason().startsWith("Record 1: expected 2 fields, got 1"), e.getReason());
+        PreparedStatement finish = finish();
+        verify(finish).setString(1, "FAILED");
+        verify(finish).setString(2, "Record 1: expected 2 fields, got 1");
+        verify(con).rollback();
+    }
+
+    @Test
+    void postDatedPastTheNewestPartitionFailsTheImportClearly() throws SQLException {
+        CopyIn copyIn = mock(CopyIn.class);
+        when(copyManager.copyIn(anyString())).thenReturn(copyIn);
+        when(copyIn.endCopy()).thenThrow(new SQLException(
+                "ERROR: no partition of relation \"posts\" found for row", "23514"));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> importer.importPosts(
+                "far-future", 0, PostImporter.Format.CSV,
+                body("author_id,content,created_at\n1,hello,2099-01-01T00:00:00Z\n")));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        assertEquals("Chunk ending before record 1: a post is dated past the newest posts partition; partitions are"
+                + " only created feed.posts.partitions.ahead past now (0 records committed)", e.getReason());
+        PreparedStatement finish = finish();
+        verify(finish).setString(1, "FAILED");
+        verify(finish).setString(eq(2), startsWith("Chunk ending before record 1: a post is dated past the newest"));
+        // One rollback for the failed chunk; the FAILED status is committed and auto-commit restored.
+        verify(con).rollback();
+        verify(con).setAutoCommit(true);
+    }
+
+    private PreparedStatement finish() {
+        return statement("UPDATE post_imports SET status");
+    }
+
+    private PreparedStatement statement(String prefix) {
+        return statements.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(prefix))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no statement starting with " + prefix));
+    }
+
+    /** Answers the lock and start queries: lock granted, nothing committed yet. */
+    private static PreparedStatement newStatement() {
+        try {
+            PreparedStatement ps = mock(PreparedStatement.class);
+            ResultSet rs = mock(ResultSet.class);
+            when(ps.executeQuery()).thenReturn(rs);
+            when(rs.next()).thenReturn(true);
+            when(rs.getBoolean(1)).thenReturn(true);
+            when(rs.getLong(1)).thenReturn(0L);
+            return ps;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ByteArrayInputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
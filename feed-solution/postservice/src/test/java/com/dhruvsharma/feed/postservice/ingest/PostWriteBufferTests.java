@@ -0,0 +1,203 @@
+package com.dhruvsharma.feed.postservice.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.dhruvsharma.feed.postservice.notification.TimelineChangeNotifier;
+import com.dhruvsharma.feed.postservice.outbox.PostEventRelay;
+import com.dhruvsharma.feed.postservice.outbox.PostEventRepository;
+import com.dhruvsharma.feed.postservice.repository.PostRepository;
+import com.dhruvsharma.feed.postservice.repository.entity.Post;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Batching, per-caller results and failure isolation of group commit, with stand-in
+ * repositories and transactions; no database needed.
+ */
+class PostWriteBufferTests {
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final TimelineChangeNotifier notifier = mock(TimelineChangeNotifier.class);
+    private final PostEventRepository postEventRepository = mock(PostEventRepository.class);
+    private final PostEventRelay relay = mock(PostEventRelay.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    /** Every list passed to insertAll, in call order. */
+    private final List<List<Long>> inserts = Collections.synchronizedList(new ArrayList<>());
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private PostWriteBuffer buffer;
+
+    PostWriteBufferTests() {
+        doAnswer(call -> {
+            List<Post> posts = call.getArgument(0);
+            inserts.add(posts.stream().map(Post::getId).toList());
+            return null;
+        }).when(postRepository).insertAll(anyList());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (buffer != null) {
+            buffer.stop();
+        }
+        callers.shutdownNow();
+    }
+
+    @Test
+    void withGroupCommitOffEachPostIsItsOwnTransaction() {
+        buffer = buffer(false, 8, Duration.ofMillis(5), 1, 100);
+
+        assertEquals(1L, buffer.write(post(1, 10), "alice"));
+        assertEquals(2L, buffer.write(post(2, 10), "alice"));
+
+        assertEquals(List.of(List.of(1L), List.of(2L)), inserts);
+        verify(notifier).postCreated(1L, 10L, "alice");
+        verify(relay, times(2)).wakeUp();
+    }
+
+    @Test
+    void concurrentWritesShareOneInsertAndEachCallerGetsItsOwnId() throws Exception {
+        buffer = buffer(true, 4, Duration.ofSeconds(5), 1, 100);
+        buffer.start();
+
+        List<Future<Long>> ids = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            Post post = post(id, 10);
+            ids.add(callers.submit(() -> buffer.write(post, "alice")));
+        }
+
+        // max-batch is reached long before max-delay, so the four posts are one flush.
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i + 1L, ids.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, inserts.size());
+        assertEquals(4, inserts.get(0).size());
+        verify(postEventRepository, times(1)).appendPostCreated(anyList());
+        verify(notifier, times(4)).postCreated(anyLong(), eq(10L), eq("alice"));
+        assertEquals(4.0, meterRegistry.get("post.group-commit.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void partialBatchIsFlushedAfterMaxDelay() throws Exception {
+        buffer = buffer(true, 256, Duration.ofMillis(20), 1, 100);
+        buffer.start();
+
+        long start = System.nanoTime();
+        assertEquals(7L, callers.submit(() -> buffer.write(post(7, 10), null)).get(5, TimeUnit.SECONDS));
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(15));
+        assertEquals(List.of(List.of(7L)), inserts);
+        verify(notifier).postCreated(eq(7L), eq(10L), isNull());
+    }
+
+    @Test
+    void failedBatchIsRetriedOnePerTransactionSoOnlyTheBadPostFails() throws Exception {
+        doAnswer(call -> {
+            List<Post> posts = call.getArgument(0);
+            inserts.add(posts.stream().map(Post::getId).toList());
+            if (posts.stream().anyMatch(p -> p.getId() == 3L)) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            return null;
+        }).when(postRepository).insertAll(anyList());
+        buffer = buffer(true, 4, Duration.ofSeconds(5), 1, 100);
+        buffer.start();
+
+        List<Future<Long>> ids = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            Post post = post(id, 10);
+            ids.add(callers.submit(() -> buffer.write(post, "alice")));
+        }
+
+        assertEquals(1L, ids.get(0).get(5, TimeUnit.SECONDS));
+        assertEquals(2L, ids.get(1).get(5, TimeUnit.SECONDS));
+        ExecutionException failed = assertThrows(ExecutionException.class, () -> ids.get(2).get(5, TimeUnit.SECONDS));
+        assertTrue(failed.getCause() instanceof DataIntegrityViolationException);
+        assertEquals(4L, ids.get(3).get(5, TimeUnit.SECONDS));
+        // One failed batch of four, then four single-post transactions.
+        assertEquals(5, inserts.size());
+        verify(notifier, times(3)).postCreated(anyLong(), eq(10L), eq("alice"));
+    }
+
+    @Test
+    void batchSpanningShardsCommitsOncePerShard() throws Exception {
+        buffer = buffer(true, 4, Duration.ofSeconds(5), 1, 100);
+        buffer.start();
+
+        List<Future<Long>> ids = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            Post post = post(id, id);
+            ids.add(callers.submit(() -> buffer.write(post, null)));
+        }
+        for (Future<Long> id : ids) {
+            id.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(2, inserts.size());
+        for (List<Long> insert : inserts) {
+            long shard = insert.get(0) % 2;
+            assertTrue(insert.stream().allMatch(id -> id % 2 == shard), "mixed shards in " + insert);
+        }
+    }
+
+    @Test
+    void fullQueueRejectsWithServiceUnavailable() throws Exception {
+        // Enabled but no flusher started: the first post waits in the queue.
+        buffer = buffer(true, 4, Duration.ofMillis(5), 1, 1);
+        CountDownLatch queued = new CountDownLatch(1);
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> {
+            queued.countDown();
+            return buffer.write(post(1, 10), null);
+        }, callers);
+        assertTrue(queued.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+                () -> buffer.write(post(2, 10), null));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+
+        // Shutdown flushes what is still queued.
+        buffer.stop();
+        assertEquals(1L, first.get(5, TimeUnit.SECONDS));
+    }
+
+    private PostWriteBuffer buffer(boolean enabled, int maxBatch, Duration maxDelay, int flushers, int capacity) {
+        return new PostWriteBuffer(postRepository, notifier, postEventRepository, relay,
+                authorId -> (int) (authorId % 2), mock(PlatformTransactionManager.class), meterRegistry,
+                enabled, maxBatch, maxDelay, flushers, capacity);
+    }
+
+    private static Post post(long id, long authorId) {
+        return new Post(id, "post " + id, authorId, Instant.parse("2026-01-01T00:00:00Z"), List.of());
+    }
+}
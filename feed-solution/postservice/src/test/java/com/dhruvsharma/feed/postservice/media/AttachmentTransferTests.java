@@ -0,0 +1,128 @@
+package com.dhruvsharma.feed.postservice.media;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Blob store writes and Range handling of downloads, against a temporary directory.
+ */
+class AttachmentTransferTests {
+
+    @TempDir
+    Path dir;
+
+    private BlobStore store;
+    private final byte[] content = new byte[200_000];
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new BlobStore(dir.toString());
+        store.init();
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+    }
+
+    @Test
+    void identicalUploadsShareOneBlob() throws Exception {
+        BlobStore.StoredBlob first = store.write(new ByteArrayInputStream(content), 1_000_000);
+        BlobStore.StoredBlob second = store.write(new ByteArrayInputStream(content), 1_000_000);
+
+        assertEquals(first.sha256(), second.sha256());
+        assertEquals(content.length, first.size());
+        assertArrayEquals(content, Files.readAllBytes(store.path(first.sha256())));
+        try (var parts = Files.list(dir.resolve("tmp"))) {
+            assertEquals(0, parts.count());
+        }
+    }
+
+    @Test
+    void oversizedUploadIsRejectedAndDiscarded() throws Exception {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> store.write(new ByteArrayInputStream(content), 1000));
+
+        assertEquals(HttpStatus.CONTENT_TOO_LARGE, e.getStatusCode());
+        try (var parts = Files.list(dir.resolve("tmp"))) {
+            assertEquals(0, parts.count());
+        }
+    }
+
+    @Test
+    void servesWholeFileAndByteRanges() throws Exception {
+        Path blob = store.path(store.write(new ByteArrayInputStream(content), 1_000_000).sha256());
+
+        MockHttpServletResponse whole = send(blob, request(null));
+        assertEquals(200, whole.getStatus());
+        assertArrayEquals(content, whole.getContentAsByteArray());
+
+        MockHttpServletResponse range = send(blob, request("bytes=100-199"));
+        assertEquals(206, range.getStatus());
+        assertEquals("bytes 100-199/200000", range.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), range.getContentAsByteArray());
+
+        MockHttpServletResponse suffix = send(blob, request("bytes=-10"));
+        assertArrayEquals(Arrays.copyOfRange(content, content.length - 10, content.length), suffix.getContentAsByteArray());
+
+        MockHttpServletResponse unsatisfiable = send(blob, request("bytes=300000-"));
+        assertEquals(416, unsatisfiable.getStatus());
+        assertEquals("bytes */200000", unsatisfiable.getHeader("Content-Range"));
+    }
+
+    @Test
+    void honoursValidators() throws Exception {
+        Path blob = store.path(store.write(new ByteArrayInputStream(content), 1_000_000).sha256());
+
+        MockHttpServletRequest cached = request(null);
+        cached.addHeader("If-None-Match", "\"etag\"");
+        assertEquals(304, send(blob, cached).getStatus());
+
+        MockHttpServletRequest stale = request("bytes=0-9");
+        stale.addHeader("If-Range", "\"other\"");
+        MockHttpServletResponse full = send(blob, stale);
+        assertEquals(200, full.getStatus());
+        assertEquals(content.length, full.getContentAsByteArray().length);
+    }
+
+    @Test
+    void handsRangeToSendfileWhenTheConnectorSupportsIt() throws Exception {
+        Path blob = store.path(store.write(new ByteArrayInputStream(content), 1_000_000).sha256());
+        MockHttpServletRequest request = request("bytes=10-19");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+
+        MockHttpServletResponse response = send(blob, request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(20L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    private MockHttpServletResponse send(Path blob, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RangeTransfer.send(blob, content.length, "image/png", "\"etag\"", request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String range) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/posts/attachments/1");
+        if (range != null) {
+            request.addHeader("Range", range);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,172 @@
+package com.dhruvsharma.feed.postservice.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import com.dhruvsharma.feed.postservice.outbox.PostEventRepository.Offset;
+import com.dhruvsharma.feed.postservice.sharding.ShardRoutingDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Retry cap, dead-lettering and purge bookkeeping of the relay, with a stand-in repository and a
+ * lock connection that always wins; no database needed.
+ */
+class PostEventRelayTests {
+
+    private static final Duration RETENTION = Duration.ofDays(1);
+
+    private final PostEventRepository repository = mock(PostEventRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<PostEvent> batch = List.of(event(1), event(2), event(3));
+    private final Offset afterBatch = new Offset(7, 3);
+
+    private PostEventRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.offset("fanout")).thenReturn(Offset.ZERO);
+        when(repository.fetchAfter(eq(Offset.ZERO), anyInt())).thenReturn(batch);
+        when(repository.fetchAfter(eq(afterBatch), anyInt())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (relay != null) {
+            relay.stop();
+        }
+    }
+
+    @Test
+    void poisonEventIsParkedAfterMaxAttemptsAndTheRestAreDelivered() {
+        RecordingConsumer consumer = new RecordingConsumer(2, Integer.MAX_VALUE);
+        relay = relay(consumer, 3);
+        relay.start();
+
+        verify(repository, timeout(5000)).saveOffset("fanout", afterBatch);
+        verify(repository).park(eq("fanout"), eq(event(2)), anyString());
+        // Three tries of the whole batch, then one per event.
+        assertEquals(List.of(3, 3, 3, 1, 1, 1), consumer.batchSizes());
+        assertEquals(1.0, meterRegistry.get("post.outbox.parked").counter().count());
+        assertEquals(2.0, meterRegistry.get("post.outbox.delivered").counter().count());
+        assertEquals(3.0, meterRegistry.get("post.outbox.failures").counter().count());
+    }
+
+    @Test
+    void failuresBelowTheCapAreRetriedWithoutParking() {
+        RecordingConsumer consumer = new RecordingConsumer(2, 2);
+        relay = relay(consumer, 3);
+        relay.start();
+
+        verify(repository, timeout(5000)).saveOffset("fanout", afterBatch);
+        verify(repository, never()).park(anyString(), any(), anyString());
+        assertEquals(List.of(3, 3, 3), consumer.batchSizes());
+        assertEquals(3.0, meterRegistry.get("post.outbox.delivered").counter().count());
+    }
+
+    @Test
+    void consumerIsRegisteredBeforeItsOffsetIsRead() {
+        relay = relay(new RecordingConsumer(-1, 0), 3);
+        relay.start();
+
+        verify(repository, timeout(5000)).saveOffset("fanout", afterBatch);
+        InOrder order = inOrder(repository);
+        order.verify(repository).register("fanout");
+        order.verify(repository).offset("fanout");
+    }
+
+    @Test
+    void purgeWaitsForEveryConsumerOfThisPod() {
+        relay = relay(new RecordingConsumer(-1, 0), 3);
+
+        relay.purge();
+
+        verify(repository).purge(RETENTION, List.of("fanout"));
+    }
+
+    private PostEventRelay relay(PostEventConsumer consumer, int maxAttempts) {
+        return new PostEventRelay(new ShardRoutingDataSource(List.of(lockingDataSource())), repository,
+                List.of(consumer), meterRegistry, true, 500, maxAttempts, Duration.ofMillis(1), RETENTION);
+    }
+
+    /** Every connection is valid and wins the advisory lock. */
+    private static DataSource lockingDataSource() {
+        try {
+            DataSource dataSource = mock(DataSource.class);
+            Connection connection = mock(Connection.class);
+            PreparedStatement ps = mock(PreparedStatement.class);
+            ResultSet rs = mock(ResultSet.class);
+            when(dataSource.getConnection()).thenReturn(connection);
+            when(connection.prepareStatement(anyString())).thenReturn(ps);
+            when(connection.isValid(anyInt())).thenReturn(true);
+            when(ps.executeQuery()).thenReturn(rs);
+            when(rs.next()).thenReturn(true);
+            when(rs.getBoolean(1)).thenReturn(true);
+            return dataSource;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static PostEvent event(long id) {
+        return new PostEvent(7, id, PostEvent.POST_CREATED, 100 + id, 10, Instant.parse("2026-01-01T00:00:00Z"));
+    }
+
+    /** Rejects any batch holding the poison event id, the first failures times it sees it. */
+    private static final class RecordingConsumer implements PostEventConsumer {
+
+        private final long poisonId;
+        private final int failures;
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        private int failed;
+
+        RecordingConsumer(long poisonId, int failures) {
+            this.poisonId = poisonId;
+            this.failures = failures;
+        }
+
+        @Override
+        public String name() {
+            return "fanout";
+        }
+
+        @Override
+        public void accept(List<PostEvent> events) {
+            batchSizes.add(events.size());
+            if (failed < failures && events.stream().anyMatch(e -> e.id() == poisonId)) {
+                failed++;
+                throw new IllegalStateException("cannot handle post event " + poisonId);
+            }
+        }
+
+        List<Integer> batchSizes() {
+            return List.copyOf(batchSizes);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.dhruvsharma.feed.postservice.partition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import com.dhruvsharma.feed.postservice.partition.PostPartitionMaintenance.Interval;
+import com.dhruvsharma.feed.postservice.partition.PostPartitionMaintenance.RetentionAction;
+import com.dhruvsharma.feed.postservice.sharding.ShardRoutingDataSource;
+
+/**
+ * Partitions created ahead and expired by PostPartitionMaintenance, with a stand-in connection
+ * that records the DDL it is given; no database needed. When FEED_TEST_POSTGRES_URL is set, V7
+ * and a maintenance run are also applied for real in a scratch schema, e.g.
+ * {@code FEED_TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/postsdb?user=feedsvc&password=feedsvcpass}
+ */
+class PostPartitionMaintenanceTests {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T00:00:00Z");
+    private static final String SCRATCH_SCHEMA = "posts_partition_test";
+
+    /** Every statement run through createStatement().execute, in order. */
+    private final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void createsOneIntervalAtATimeUntilAheadIsCovered() throws SQLException {
+        ShardRoutingDataSource dataSource = shards(true, List.of(
+                new Row("posts_legacy", "2026-10-01T00:00:00Z", false),
+                new Row("posts_p20261001", "2026-11-01T00:00:00Z", false)));
+
+        maintenance(dataSource, Interval.MONTH, Duration.ofDays(90), Duration.ZERO, RetentionAction.DROP).maintain();
+
+        // Horizon is 2027-01-16, so the partition starting 2027-01-01 is the last one needed.
+        assertEquals(List.of(
+                "CREATE TABLE IF NOT EXISTS posts_p20261101 (LIKE posts INCLUDING DEFAULTS)",
+                "ALTER TABLE posts ATTACH PARTITION posts_p20261101 FOR VALUES FROM ('2026-11-01T00:00:00Z') TO ('2026-12-01T00:00:00Z')",
+                "CREATE TABLE IF NOT EXISTS posts_p20261201 (LIKE posts INCLUDING DEFAULTS)",
+                "ALTER TABLE posts ATTACH PARTITION posts_p20261201 FOR VALUES FROM ('2026-12-01T00:00:00Z') TO ('2027-01-01T00:00:00Z')",
+                "CREATE TABLE IF NOT EXISTS posts_p20270101 (LIKE posts INCLUDING DEFAULTS)",
+                "ALTER TABLE posts ATTACH PARTITION posts_p20270101 FOR VALUES FROM ('2027-01-01T00:00:00Z') TO ('2027-02-01T00:00:00Z')"),
+                ddl());
+        assertEquals("SET lock_timeout = 5000", executed.get(0));
+        assertEquals("RESET lock_timeout", executed.get(executed.size() - 1));
+    }
+
+    @Test
+    void weeklyPartitionsAreAWeekLong() throws SQLException {
+        ShardRoutingDataSource dataSource = shards(true, List.of(
+                new Row("posts_legacy", "2026-10-19T00:00:00Z", false)));
+
+        maintenance(dataSource, Interval.WEEK, Duration.ofDays(7), Duration.ZERO, RetentionAction.DROP).maintain();
+
+        assertEquals(List.of(
+                "CREATE TABLE IF NOT EXISTS posts_p20261019 (LIKE posts INCLUDING DEFAULTS)",
+                "ALTER TABLE posts ATTACH PARTITION posts_p20261019 FOR VALUES FROM ('2026-10-19T00:00:00Z') TO ('2026-10-26T00:00:00Z')"),
+                ddl());
+    }
+
+    @Test
+    void partitionsWhollyPastRetentionAreDetachedConcurrentlyAndDropped() throws SQLException {
+        ShardRoutingDataSource dataSource = shards(true, List.of(
+                new Row("posts_legacy", "2026-08-01T00:00:00Z", false),
+                new Row("posts_p20260801", "2026-09-01T00:00:00Z", false),
+                new Row("posts_p20260901", "2026-10-01T00:00:00Z", false),
+                new Row("posts_p20261001", "2027-02-01T00:00:00Z", false)));
+
+        // Cutoff 2026-09-18: posts_p20260901 still holds posts inside retention and stays.
+        maintenance(dataSource, Interval.MONTH, Duration.ofDays(30), Duration.ofDays(30), RetentionAction.DROP)
+                .maintain();
+
+        assertEquals(List.of(
+                "ALTER TABLE posts DETACH PARTITION \"posts_legacy\" CONCURRENTLY",
+                "DROP TABLE \"posts_legacy\"",
+                "ALTER TABLE posts DETACH PARTITION \"posts_p20260801\" CONCURRENTLY",
+                "DROP TABLE \"posts_p20260801\""),
+                ddl());
+    }
+
+    @Test
+    void interruptedDetachIsFinalizedAndArchived() throws SQLException {
+        ShardRoutingDataSource dataSource = shards(true, List.of(
+                new Row("posts_p20260901", "2026-10-01T00:00:00Z", true),
+                new Row("posts_p20261001", "2027-02-01T00:00:00Z", false)));
+
+        maintenance(dataSource, Interval.MONTH, Duration.ofDays(30), Duration.ofDays(365), RetentionAction.ARCHIVE)
+                .maintain();
+
+        assertEquals(List.of(
+                "ALTER TABLE posts DETACH PARTITION \"posts_p20260901\" FINALIZE",
+                "ALTER TABLE \"posts_p20260901\" SET SCHEMA posts_archive"),
+                ddl());
+    }
+
+    @Test
+    void nothingIsDoneWhileAnotherPodHoldsTheLock() throws SQLException {
+        ShardRoutingDataSource dataSource = shards(false, List.of(
+                new Row("posts_legacy", "2026-08-01T00:00:00Z", false)));
+
+        maintenance(dataSource, Interval.MONTH, Duration.ofDays(90), Duration.ofDays(30), RetentionAction.DROP)
+                .maintain();
+
+        assertTrue(executed.isEmpty(), executed.toString());
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "FEED_TEST_POSTGRES_URL", matches = ".+")
+    void migrationAndMaintenanceAgainstLocalPostgres() {
+        String url = System.getenv("FEED_TEST_POSTGRES_URL");
+        SingleConnectionDataSource connection = new SingleConnectionDataSource(url, true);
+        JdbcTemplate jdbc = new JdbcTemplate(connection);
+        jdbc.execute("DROP SCHEMA IF EXISTS " + SCRATCH_SCHEMA + " CASCADE");
+        try {
+            migrate(url, "6");
+            jdbc.execute("SET search_path TO " + SCRATCH_SCHEMA);
+            jdbc.update("INSERT INTO posts (id, content, author_id, created_at) VALUES (1, 'old', 1, now() - interval '400 days')");
+            migrate(url, "7");
+
+            // V7: the old row is in posts_legacy, three months follow, and nothing past them is accepted.
+            assertEquals(4, partitionCount(jdbc));
+            assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM posts_legacy", Integer.class));
+            assertThrows(DataIntegrityViolationException.class, () -> jdbc.update(
+                    "INSERT INTO posts (id, content, author_id, created_at) VALUES (2, 'late', 1, now() + interval '200 days')"));
+
+            Clock later = Clock.offset(Clock.systemUTC(), Duration.ofDays(200));
+            new PostPartitionMaintenance(new ShardRoutingDataSource(List.of(connection)), Interval.MONTH,
+                    Duration.ofDays(90), Duration.ofDays(30), RetentionAction.DROP, Duration.ofSeconds(5), later)
+                    .maintain();
+
+            assertNull(jdbc.queryForObject("SELECT to_regclass('posts_legacy')::text", String.class));
+            assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM posts", Integer.class));
+            jdbc.update("INSERT INTO posts (id, content, author_id, created_at) VALUES (3, 'ahead', 1, ?)",
+                    Timestamp.from(later.instant().plus(Duration.ofDays(80))));
+            assertFalse(jdbc.queryForObject("""
+                    SELECT EXISTS (SELECT 1 FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                                   WHERE i.inhparent = 'posts'::regclass AND i.inhdetachpending)""", Boolean.class));
+        } finally {
+            jdbc.execute("DROP SCHEMA IF EXISTS " + SCRATCH_SCHEMA + " CASCADE");
+            connection.destroy();
+        }
+    }
+
+    private static void migrate(String url, String target) {
+        Flyway.configure()
+                .dataSource(new DriverManagerDataSource(url))
+                .schemas(SCRATCH_SCHEMA)
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    private static int partitionCount(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT count(*) FROM pg_inherits WHERE inhparent = 'posts'::regclass", Integer.class);
+    }
+
+    private PostPartitionMaintenance maintenance(ShardRoutingDataSource dataSource, Interval interval, Duration ahead,
+                                                 Duration retention, RetentionAction action) {
+        return new PostPartitionMaintenance(dataSource, interval, ahead, retention, action, Duration.ofSeconds(5),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    /** Partition DDL only, without the session settings around it. */
+    private List<String> ddl() {
+        return executed.stream().filter(sql -> !sql.contains("lock_timeout")).toList();
+    }
+
+    private ShardRoutingDataSource shards(boolean lockWon, List<Row> partitions) throws SQLException {
+        Statement statement = mock(Statement.class);
+        doAnswer(call -> executed.add(call.getArgument(0))).when(statement).execute(anyString());
+        ResultSet listing = listing(partitions);
+        when(statement.executeQuery(anyString())).thenReturn(listing);
+
+        ResultSet lock = mock(ResultSet.class);
+        when(lock.next()).thenReturn(true);
+        when(lock.getBoolean(1)).thenReturn(lockWon);
+        PreparedStatement lockStatement = mock(PreparedStatement.class);
+        when(lockStatement.executeQuery()).thenReturn(lock);
+
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.prepareStatement(anyString())).thenReturn(lockStatement);
+        DataSource shard = mock(DataSource.class);
+        when(shard.getConnection()).thenReturn(connection);
+        return new ShardRoutingDataSource(List.of(shard));
+    }
+
+    private static ResultSet listing(List<Row> rows) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        int[] cursor = {-1};
+        when(rs.next()).thenAnswer(call -> ++cursor[0] < rows.size());
+        when(rs.getString(1)).thenAnswer(call -> rows.get(cursor[0]).name());
+        when(rs.getTimestamp(2)).thenAnswer(call -> Timestamp.from(Instant.parse(rows.get(cursor[0]).upperBound())));
+        when(rs.getBoolean(3)).thenAnswer(call -> rows.get(cursor[0]).detachPending());
+        return rs;
+    }
+
+    private record Row(String name, String upperBound, boolean detachPending) {
+    }
+}
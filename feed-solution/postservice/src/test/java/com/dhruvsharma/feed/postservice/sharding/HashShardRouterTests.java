@@ -0,0 +1,46 @@
+package com.dhruvsharma.feed.postservice.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Author placement is stable and spreads sequential ids evenly.
+ */
+class HashShardRouterTests {
+
+    @Test
+    void singleShardTakesEveryAuthor() {
+        HashShardRouter router = new HashShardRouter(1);
+
+        assertEquals(0, router.shardFor(42));
+        assertEquals(0, router.shardFor(-1));
+    }
+
+    @Test
+    void sequentialAuthorsSpreadEvenlyAndStably() {
+        HashShardRouter router = new HashShardRouter(4);
+        int[] counts = new int[4];
+        for (long authorId = 1; authorId <= 40_000; authorId++) {
+            int shard = router.shardFor(authorId);
+            assertEquals(shard, router.shardFor(authorId));
+            counts[shard]++;
+        }
+        for (int count : counts) {
+            assertTrue(Math.abs(count - 10_000) < 500, "uneven shard: " + count);
+        }
+    }
+
+    @Test
+    void placementIsPinned() {
+        // timelineservice's copy of the router expects these; change both together.
+        HashShardRouter router = new HashShardRouter(4);
+
+        assertEquals(0, router.shardFor(1));
+        assertEquals(3, router.shardFor(2));
+        assertEquals(2, router.shardFor(3));
+        assertEquals(1, router.shardFor(4));
+        assertEquals(0, router.shardFor(7_300_000_000_000_000_000L));
+    }
+}
@@ -0,0 +1,90 @@
+package com.dhruvsharma.feed.postservice.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Thread-bound shard selection and the connections it routes, with stand-in shard pools.
+ */
+class ShardRoutingTests {
+
+    @Test
+    void unboundThreadsUseShardZero() {
+        assertEquals(0, ShardRouting.currentShard());
+    }
+
+    @Test
+    void nestedBindingsRestoreTheOuterShard() {
+        ShardRouting.onShard(2, () -> {
+            assertEquals(2, ShardRouting.currentShard());
+            ShardRouting.onShard(1, () -> assertEquals(1, ShardRouting.currentShard()));
+            assertEquals(2, ShardRouting.currentShard());
+        });
+
+        assertEquals(0, ShardRouting.currentShard());
+    }
+
+    @Test
+    void failingWorkStillUnbinds() {
+        assertThrows(IllegalStateException.class, () -> ShardRouting.onShard(1, () -> {
+            throw new IllegalStateException("query failed");
+        }));
+
+        assertEquals(0, ShardRouting.currentShard());
+    }
+
+    @Test
+    void bindingIsPerThread() {
+        int other = ShardRouting.onShard(1, () -> CompletableFuture.supplyAsync(ShardRouting::currentShard).join());
+
+        assertEquals(0, other);
+    }
+
+    @Test
+    void routingDataSourceHandsOutConnectionsOfTheBoundShard() throws SQLException {
+        Connection zero = mock(Connection.class);
+        Connection one = mock(Connection.class);
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(List.of(shard(zero), shard(one)));
+
+        assertSame(zero, routing.getConnection());
+        assertSame(one, ShardRouting.onShard(1, () -> connection(routing)));
+        assertEquals(2, routing.shardCount());
+    }
+
+    @Test
+    void unknownShardIsAnError() {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(List.of(shard(mock(Connection.class))));
+
+        assertThrows(IllegalStateException.class, () -> ShardRouting.onShard(3, () -> connection(routing)));
+    }
+
+    private static DataSource shard(Connection connection) {
+        try {
+            DataSource dataSource = mock(DataSource.class);
+            when(dataSource.getConnection()).thenReturn(connection);
+            return dataSource;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Connection connection(DataSource dataSource) {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.dhruvsharma.feed.timelineservice.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.dhruvsharma.feed.timelineservice.client.UserServiceClient;
+import com.dhruvsharma.feed.timelineservice.client.dto.UserSummaryResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Short-lived local cache of author usernames. A timeline page resolves all of its distinct
+ * authors with at most one batch call to userservice; hot authors are usually already cached.
+ * Entries expire quickly since usernames can change and there is no invalidation signal.
+ */
+@Component
+public class AuthorCache {
+
+    private final Cache<Long, String> usernames;
+    private final UserServiceClient userServiceClient;
+
+    public AuthorCache(UserServiceClient userServiceClient,
+                       MeterRegistry meterRegistry,
+                       @Value("${feed.timeline.authors.ttl:PT5M}") Duration ttl,
+                       @Value("${feed.timeline.authors.max-size:100000}") long maxSize) {
+        this.userServiceClient = userServiceClient;
+        this.usernames = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usernames, "timeline.authors");
+    }
+
+    /**
+     * Returns usernames for the given distinct author ids, fetching every miss in one request.
+     * Authors userservice does not know (or cannot be reached for) are absent from the result.
+     */
+    public Map<Long, String> usernames(Set<Long> authorIds, String authorizationHeader) {
+        if (authorIds.isEmpty()) {
+            return Map.of();
+        }
+        return usernames.getAll(authorIds, missing -> {
+            Map<Long, String> loaded = new HashMap<>();
+            userServiceClient.getUsers(Set.copyOf(missing), authorizationHeader).ifPresent(batch -> {
+                for (UserSummaryResponse user : batch.getUsers()) {
+                    loaded.put(user.getId(), user.getUsername());
+                }
+            });
+            return loaded;
+        });
+    }
+}
@@ -0,0 +1,147 @@
+package com.dhruvsharma.feed.timelineservice.cache;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.dhruvsharma.feed.timelineservice.notification.HomeTimelinesChangedNotification;
+import com.dhruvsharma.feed.timelineservice.notification.NotificationsResetEvent;
+import com.dhruvsharma.feed.timelineservice.notification.PostCreatedNotification;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * In-process cache of timeline heads (first pages) in front of the repository.
+ *
+ * Caffeine's W-TinyLFU policy decides admission and eviction by access frequency, bounded by an
+ * approximate byte weight. Entries expire after a per-kind TTL, but are normally removed much
+ * earlier by precise invalidation driven by postservice NOTIFY events:
+ * - home_timeline_changed invalidates exactly the fanned-out users' heads;
+ * - post_created invalidates the global head and the heads of users who merged that author
+ *   in at read time (fan-out-exempt authors).
+ * Pages after a cursor are not cached: keyset pages are immutable seeks and cheap to read.
+ *
+ * An invalidation of a key that is loading waits for the load and then removes its result. A
+ * head's exempt readers are only known once it has loaded, so post_created events that arrive
+ * during a home load are collected for that load, and a head that merged one of their authors
+ * is returned to its caller but not kept.
+ *
+ * Hit ratio, evictions and load latency are exported as cache.* metrics (name=timeline.heads).
+ */
+@Component
+public class TimelineCache {
+
+    /** Key for the global (all posts) head; internal user ids are positive. */
+    public static final long GLOBAL = -1L;
+
+    private final Cache<Long, TimelineHead> heads;
+    private final Cache<String, Long> userIds;
+    /** Exempt author id -> users whose cached head merged that author's posts. */
+    private final ConcurrentHashMap<Long, Set<Long>> readersByExemptAuthor = new ConcurrentHashMap<>();
+    /** User id of a home head being loaded -> authors who posted since its load started. */
+    private final ConcurrentHashMap<Long, Set<Long>> postedDuringLoad = new ConcurrentHashMap<>();
+
+    public TimelineCache(MeterRegistry meterRegistry,
+                         @Value("${feed.timeline.cache.max-weight-bytes:67108864}") long maxWeightBytes,
+                         @Value("${feed.timeline.cache.home-ttl:PT10M}") Duration homeTtl,
+                         @Value("${feed.timeline.cache.global-ttl:PT1M}") Duration globalTtl,
+                         @Value("${feed.timeline.cache.user-id-max-size:100000}") long userIdMaxSize) {
+        this.heads = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long key, TimelineHead head) -> head.weight())
+                .expireAfter(Expiry.creating((Long key, TimelineHead head) -> key == GLOBAL ? globalTtl : homeTtl))
+                .removalListener(this::onHeadRemoved)
+                .recordStats()
+                .build();
+        // Keycloak subject -> internal user id never changes once registered, so only size-bound it.
+        this.userIds = Caffeine.newBuilder()
+                .maximumSize(userIdMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, heads, "timeline.heads");
+        CaffeineCacheMetrics.monitor(meterRegistry, userIds, "timeline.user-ids");
+    }
+
+    /**
+     * Returns the cached head for the user, loading it on a miss. Concurrent misses for the
+     * same user share one load.
+     */
+    public TimelineHead home(long internalUserId, Function<Long, TimelineHead> loader) {
+        boolean[] stale = {false};
+        TimelineHead cached = heads.get(internalUserId, id -> {
+            Set<Long> posted = ConcurrentHashMap.newKeySet();
+            postedDuringLoad.put(id, posted);
+            try {
+                TimelineHead head = loader.apply(id);
+                for (long author : head.exemptAuthors()) {
+                    readersByExemptAuthor.computeIfAbsent(author, k -> ConcurrentHashMap.newKeySet()).add(id);
+                    stale[0] |= posted.contains(author);
+                }
+                return head;
+            } finally {
+                postedDuringLoad.remove(id);
+            }
+        });
+        if (stale[0]) {
+            heads.invalidate(internalUserId);
+        }
+        return cached;
+    }
+
+    public TimelineHead global(Supplier<TimelineHead> loader) {
+        return heads.get(GLOBAL, key -> loader.get());
+    }
+
+    /**
+     * Resolves a Keycloak subject to the internal user id. A null from the loader (user not
+     * registered) is not cached, so registration takes effect immediately.
+     */
+    public Long userId(String keycloakSubId, Function<String, Long> loader) {
+        return userIds.get(keycloakSubId, loader);
+    }
+
+    @EventListener
+    public void onPostCreated(PostCreatedNotification notification) {
+        postedDuringLoad.values().forEach(posted -> posted.add(notification.authorId()));
+        heads.invalidate(GLOBAL);
+        Set<Long> readers = readersByExemptAuthor.remove(notification.authorId());
+        if (readers != null) {
+            heads.invalidateAll(readers);
+        }
+    }
+
+    @EventListener
+    public void onHomeTimelinesChanged(HomeTimelinesChangedNotification notification) {
+        for (long userId : notification.userIds()) {
+            heads.invalidate(userId);
+        }
+    }
+
+    @EventListener
+    public void onNotificationsReset(NotificationsResetEvent event) {
+        heads.invalidateAll();
+    }
+
+    private void onHeadRemoved(Long key, TimelineHead head, RemovalCause cause) {
+        if (key == null || head == null) {
+            return;
+        }
+        for (long author : head.exemptAuthors()) {
+            readersByExemptAuthor.computeIfPresent(author, (k, readers) -> {
+                readers.remove(key);
+                return readers.isEmpty() ? null : readers;
+            });
+        }
+    }
+}
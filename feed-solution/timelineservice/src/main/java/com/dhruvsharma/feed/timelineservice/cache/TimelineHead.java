@@ -0,0 +1,25 @@
+package com.dhruvsharma.feed.timelineservice.cache;
+
+import java.util.List;
+
+import com.dhruvsharma.feed.timelineservice.repository.entity.Post;
+
+/**
+ * The newest maxPageSize + 1 posts of one timeline. Any first-page request with
+ * limit <= maxPageSize is answered by slicing, so one entry serves every page size.
+ *
+ * @param exemptAuthors fan-out-exempt authors merged into this head at load time; a post by
+ *                      any of them invalidates the entry
+ */
+public record TimelineHead(List<Post> posts, long[] exemptAuthors) {
+
+    /** Rough retained size in bytes, used as the cache weight. */
+    int weight() {
+        int bytes = 64 + exemptAuthors.length * 8;
+        for (Post post : posts) {
+            bytes += 96 + (post.getContent() == null ? 0 : post.getContent().length() * 2)
+                    + (post.getAttachmentIds() == null ? 0 : post.getAttachmentIds().size() * 24);
+        }
+        return bytes;
+    }
+}
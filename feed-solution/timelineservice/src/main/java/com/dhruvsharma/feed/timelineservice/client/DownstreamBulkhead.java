@@ -0,0 +1,64 @@
+package com.dhruvsharma.feed.timelineservice.client;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caps concurrent in-flight calls per downstream (host:port). When a downstream slows down,
+ * callers wait at most maxWait for a slot and then fail fast with ResourceAccessException
+ * (a RestClientException, so existing "service unavailable" handling applies) instead of
+ * piling up threads and connections behind it. Semaphores park rather than pin, so this is
+ * safe to call from virtual threads.
+ */
+public class DownstreamBulkhead implements ClientHttpRequestInterceptor {
+
+    private final ConcurrentHashMap<String, Semaphore> permits = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> rejections = new ConcurrentHashMap<>();
+    private final int maxConcurrent;
+    private final long maxWaitNanos;
+    private final MeterRegistry meterRegistry;
+
+    public DownstreamBulkhead(int maxConcurrent, Duration maxWait, MeterRegistry meterRegistry) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String downstream = request.getURI().getAuthority();
+        Semaphore semaphore = permits.computeIfAbsent(downstream, d -> new Semaphore(maxConcurrent));
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted waiting for a call slot to " + downstream);
+        }
+        if (!acquired) {
+            rejections.computeIfAbsent(downstream, d -> Counter.builder("http.client.bulkhead.rejected")
+                    .description("Inter-service calls rejected because the downstream was at its concurrency cap")
+                    .tag("downstream", d)
+                    .register(meterRegistry)).increment();
+            throw new ResourceAccessException(downstream + " is at its concurrency limit (" + maxConcurrent + ")");
+        }
+        try {
+            return execution.execute(request, body);
+        } finally {
+            semaphore.release();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.dhruvsharma.feed.timelineservice.client;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.dhruvsharma.feed.timelineservice.client.dto.FollowPageResponse;
+import com.dhruvsharma.feed.timelineservice.client.dto.UserBatchResponse;
+import com.dhruvsharma.feed.timelineservice.client.dto.UserResponse;
+
+/**
+ * Calls userservice to resolve the authenticated user and their follow graph (Pattern B).
+ * Forwards the caller's JWT so userservice authorizes the lookup as that user. Responses are
+ * requested as CBOR.
+ */
+@Component
+public class UserServiceClient {
+
+    private final RestTemplate restTemplate;
+    private final String userServiceBaseUrl;
+
+    public UserServiceClient(RestTemplate restTemplate,
+                             @Value("${feed.userservice.url}") String userServiceBaseUrl) {
+        this.restTemplate = restTemplate;
+        this.userServiceBaseUrl = userServiceBaseUrl.endsWith("/") ? userServiceBaseUrl : userServiceBaseUrl + "/";
+    }
+
+    /**
+     * Returns the current user (internal id, username, etc.) by forwarding the Bearer token.
+     * Returns empty if userservice returns 404 (user not registered) or 401.
+     */
+    public Optional<UserResponse> getCurrentUser(String authorizationHeader) {
+        return get(userServiceBaseUrl + "api/v1/users/me", authorizationHeader, UserResponse.class);
+    }
+
+    /**
+     * Returns ids the user follows that have at least minFollowers followers themselves.
+     * Used to find fan-out-exempt authors whose posts are merged into the home timeline at read time.
+     */
+    public Optional<FollowPageResponse> getFolloweesWithMinFollowers(Long userId, long minFollowers, int limit,
+                                                                     String authorizationHeader) {
+        String url = UriComponentsBuilder.fromUriString(userServiceBaseUrl + "api/v1/users/{id}/followees")
+                .queryParam("minFollowers", minFollowers)
+                .queryParam("limit", limit)
+                .buildAndExpand(userId)
+                .toUriString();
+        return get(url, authorizationHeader, FollowPageResponse.class);
+    }
+
+    /**
+     * Returns the first page (up to limit) of ids the user follows, ascending.
+     */
+    public Optional<FollowPageResponse> getFollowees(Long userId, int limit, String authorizationHeader) {
+        return getFollowPage("followees", userId, limit, authorizationHeader);
+    }
+
+    /**
+     * Returns the first page (up to limit) of ids following the user, ascending.
+     */
+    public Optional<FollowPageResponse> getFollowers(Long userId, int limit, String authorizationHeader) {
+        return getFollowPage("followers", userId, limit, authorizationHeader);
+    }
+
+    private Optional<FollowPageResponse> getFollowPage(String direction, Long userId, int limit,
+                                                       String authorizationHeader) {
+        String url = UriComponentsBuilder.fromUriString(userServiceBaseUrl + "api/v1/users/{id}/" + direction)
+                .queryParam("limit", limit)
+                .buildAndExpand(userId)
+                .toUriString();
+        return get(url, authorizationHeader, FollowPageResponse.class);
+    }
+
+    /**
+     * Resolves display info for many users with one request (GET /api/v1/users/batch?ids=).
+     */
+    public Optional<UserBatchResponse> getUsers(Collection<Long> ids, String authorizationHeader) {
+        String url = UriComponentsBuilder.fromUriString(userServiceBaseUrl + "api/v1/users/batch")
+                .queryParam("ids", ids)
+                .toUriString();
+        return get(url, authorizationHeader, UserBatchResponse.class);
+    }
+
+    private <T> Optional<T> get(String url, String authorizationHeader, Class<T> type) {
+        if (authorizationHeader == null || authorizationHeader.isBlank()) {
+            return Optional.empty();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, authorizationHeader);
+        // CBOR is smaller and cheaper to parse than JSON; an older userservice still answers JSON.
+        headers.setAccept(List.of(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_JSON));
+        HttpEntity<Void> entity = new HttpEntity<>(headers);
+        try {
+            ResponseEntity<T> response = restTemplate.exchange(url, HttpMethod.GET, entity, type);
+            return Optional.ofNullable(response.getBody());
+        } catch (RestClientException e) {
+            return Optional.empty();
+        }
+    }
+}
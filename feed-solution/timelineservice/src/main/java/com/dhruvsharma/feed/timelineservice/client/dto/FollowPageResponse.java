@@ -0,0 +1,24 @@
+package com.dhruvsharma.feed.timelineservice.client.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One page of followee (or follower) ids from userservice, ascending by id.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FollowPageResponse {
+    private long[] ids;
+    /** Pass as ?after= for the next page; null on the last page. */
+    private Long nextCursor;
+    /** Total followee/follower count for the user, independent of paging. */
+    private long total;
+}
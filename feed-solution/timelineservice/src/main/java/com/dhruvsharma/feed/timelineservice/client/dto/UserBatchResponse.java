@@ -0,0 +1,20 @@
+package com.dhruvsharma.feed.timelineservice.client.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserBatchResponse {
+    /** Users found among the requested ids; unknown ids are omitted. */
+    private List<UserSummaryResponse> users;
+}
@@ -0,0 +1,20 @@
+package com.dhruvsharma.feed.timelineservice.client.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserResponse {
+    private Long id;
+    private String keycloakSubId;
+    private String username;
+    private String email;
+}
@@ -0,0 +1,21 @@
+package com.dhruvsharma.feed.timelineservice.client.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Public display fields of a user, as returned by batch lookups (no email or Keycloak subject).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserSummaryResponse {
+    private Long id;
+    private String username;
+}
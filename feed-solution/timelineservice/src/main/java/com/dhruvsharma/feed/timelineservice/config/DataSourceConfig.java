@@ -0,0 +1,134 @@
+package com.dhruvsharma.feed.timelineservice.config;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.dhruvsharma.feed.timelineservice.datasource.ReadYourWrites;
+import com.dhruvsharma.feed.timelineservice.datasource.ReplicaRoutingDataSource;
+import com.dhruvsharma.feed.timelineservice.sharding.HashShardRouter;
+import com.dhruvsharma.feed.timelineservice.sharding.ScatterGather;
+import com.dhruvsharma.feed.timelineservice.sharding.ShardRouter;
+import com.dhruvsharma.feed.timelineservice.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Primary plus optional read replicas (feed.datasource.replicas, comma-separated JDBC URLs using
+ * the primary's credentials). With no replicas configured every connection goes to the primary.
+ * Every pool takes the spring.datasource.hikari.* settings.
+ *
+ * postsdb may be split into shards (feed.posts.shards.urls, JDBC URLs of shards 1..n-1, same
+ * credentials); the primary above is shard 0. Only shard 0 has read replicas.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${feed.datasource.read-your-writes-window:PT5S}") Duration window) {
+        return new ReadYourWrites(window);
+    }
+
+    /**
+     * The primary's pool, built from spring.datasource.* with spring.datasource.hikari.* bound
+     * onto it as Spring Boot's own pool would be. Replica and shard pools are copies of it.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryPool(DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("primary");
+        return pool;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryPool,
+            @Value("${feed.datasource.replicas:}") List<String> replicaUrls,
+            @Value("${feed.datasource.max-replica-lag:PT1S}") Duration maxLag,
+            ReadYourWrites readYourWrites) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String replicaUrl : replicaUrls) {
+            if (!replicaUrl.isBlank()) {
+                replicas.add(pool(primaryPool, "replica-" + replicas.size(), replicaUrl.trim()));
+            }
+        }
+        return new ReplicaRoutingDataSource(primaryPool, replicas, maxLag, readYourWrites, DataSourceConfig::currentSubject);
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(
+            ReplicaRoutingDataSource replicaRoutingDataSource,
+            HikariDataSource primaryPool,
+            @Value("${feed.posts.shards.urls:}") List<String> shardUrls) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(replicaRoutingDataSource);
+        for (String shardUrl : shardUrls) {
+            if (!shardUrl.isBlank()) {
+                shards.add(pool(primaryPool, "shard-" + shards.size(), shardUrl.trim()));
+            }
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    public ScatterGather scatterGather(ShardRoutingDataSource shardRoutingDataSource,
+                                       @Value("${feed.posts.shards.query-threads:16}") int threads,
+                                       @Value("${feed.posts.shards.query-timeout:PT2S}") Duration timeout) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("shard-query-");
+        executor.setDaemon(true);
+        executor.initialize();
+        return new ScatterGather(shardRoutingDataSource.shardCount(), executor, timeout);
+    }
+
+    /** Must match postservice's router (same shard list, same order) to find an author's posts. */
+    @Bean
+    public ShardRouter shardRouter(ShardRoutingDataSource shardRoutingDataSource) {
+        return new HashShardRouter(shardRoutingDataSource.shardCount());
+    }
+
+    /**
+     * The DataSource everything else (repositories, JdbcTemplate, Flyway) uses. Defers fetching a
+     * physical connection until the first statement, by which point the transaction's read-only
+     * flag and shard are bound and the routing decisions can use them.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+
+    /** A pool with template's settings (credentials, sizes, timeouts) for another URL. */
+    private static HikariDataSource pool(HikariConfig template, String name, String url) {
+        HikariDataSource pool = new HikariDataSource();
+        template.copyStateTo(pool);
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        return pool;
+    }
+
+    private static String currentSubject() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+}
@@ -0,0 +1,73 @@
+package com.dhruvsharma.feed.timelineservice.config;
+
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import com.dhruvsharma.feed.timelineservice.client.DownstreamBulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Shared client for calls to other services (userservice): pooled keep-alive connections,
+ * bounded connect/read/pool-wait timeouts, and a per-downstream concurrency cap.
+ */
+@Configuration
+public class RestTemplateConfig {
+
+    @Bean
+    public CloseableHttpClient interServiceHttpClient(
+            @Value("${feed.http.max-connections:200}") int maxConnections,
+            @Value("${feed.http.max-connections-per-downstream:100}") int maxPerDownstream,
+            @Value("${feed.http.connect-timeout:PT1S}") Duration connectTimeout,
+            @Value("${feed.http.read-timeout:PT2S}") Duration readTimeout,
+            @Value("${feed.http.pool-acquire-timeout:PT0.5S}") Duration poolAcquireTimeout,
+            @Value("${feed.http.keep-alive:PT30S}") Duration keepAlive) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(readTimeout))
+                .setTimeToLive(TimeValue.of(Duration.ofMinutes(5)))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(poolAcquireTimeout))
+                .setResponseTimeout(Timeout.of(readTimeout))
+                .setConnectionKeepAlive(TimeValue.of(keepAlive))
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxPerDownstream)
+                        .setDefaultConnectionConfig(connectionConfig)
+                        .build())
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(keepAlive))
+                .build();
+    }
+
+    @Bean
+    public DownstreamBulkhead downstreamBulkhead(@Value("${feed.http.bulkhead.max-concurrent:64}") int maxConcurrent,
+                                                 @Value("${feed.http.bulkhead.max-wait:PT0.1S}") Duration maxWait,
+                                                 MeterRegistry meterRegistry) {
+        return new DownstreamBulkhead(maxConcurrent, maxWait, meterRegistry);
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient interServiceHttpClient, DownstreamBulkhead downstreamBulkhead) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(interServiceHttpClient));
+        restTemplate.getInterceptors().add(downstreamBulkhead);
+        return restTemplate;
+    }
+}
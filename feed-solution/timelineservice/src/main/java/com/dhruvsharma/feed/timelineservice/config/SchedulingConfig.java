@@ -0,0 +1,12 @@
+package com.dhruvsharma.feed.timelineservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled tasks (live subscription heartbeats).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
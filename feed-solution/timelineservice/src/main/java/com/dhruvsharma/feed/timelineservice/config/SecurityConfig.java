@@ -1,25 +1,26 @@
 package com.dhruvsharma.feed.timelineservice.config;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.time.Duration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.convert.converter.Converter;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import com.dhruvsharma.feed.security.CachingJwtDecoder;
+import com.dhruvsharma.feed.security.KeycloakRealmRoleConverter;
+import com.dhruvsharma.feed.security.VerifiedJwtCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Security configuration for the Timeline Service.
  *
@@ -72,32 +73,21 @@ public class SecurityConfig {
         return converter;
     }
 
+    /** Verified bearer tokens, shared by the decoder below (feed.security.jwt-cache.*). */
+    @Bean
+    public VerifiedJwtCache verifiedJwtCache(MeterRegistry meterRegistry,
+                                             @Value("${feed.security.jwt-cache.max-size:10000}") long maxSize,
+                                             @Value("${feed.security.jwt-cache.max-ttl:PT5M}") Duration maxTtl) {
+        return new VerifiedJwtCache(meterRegistry, maxSize, maxTtl);
+    }
+
     /**
-     * Extracts realm roles from Keycloak JWT token.
-     *
-     * Keycloak JWT structure:
-     * {
-     *   "realm_access": {
-     *     "roles": ["feed_user", "feed_admin"]
-     *   }
-     * }
-     *
-     * Maps to: ROLE_feed_user, ROLE_feed_admin
+     * The jwk-set-uri decoder Spring Boot would create (RS256, exp/nbf validation), behind the
+     * verified-token cache so a repeated bearer token skips signature verification.
      */
-    static class KeycloakRealmRoleConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
-
-        @Override
-        @SuppressWarnings("unchecked")
-        public Collection<GrantedAuthority> convert(Jwt jwt) {
-            Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
-            if (realmAccess == null || !realmAccess.containsKey("roles")) {
-                return Collections.emptyList();
-            }
-
-            List<String> roles = (List<String>) realmAccess.get("roles");
-            return roles.stream()
-                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                    .collect(Collectors.toList());
-        }
+    @Bean
+    public JwtDecoder jwtDecoder(@Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+                                 VerifiedJwtCache verifiedJwtCache) {
+        return new CachingJwtDecoder(NimbusJwtDecoder.withJwkSetUri(jwkSetUri).build(), verifiedJwtCache);
     }
 }
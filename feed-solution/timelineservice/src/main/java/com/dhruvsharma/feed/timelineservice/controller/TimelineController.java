@@ -1,29 +1,206 @@
 package com.dhruvsharma.feed.timelineservice.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.dhruvsharma.feed.timelineservice.dto.PostDTO;
+import com.dhruvsharma.feed.timelineservice.dto.RankedTimelineResponse;
 import com.dhruvsharma.feed.timelineservice.dto.TimelineResponse;
 import com.dhruvsharma.feed.timelineservice.service.TimelineService;
 
+import jakarta.servlet.http.HttpServletResponse;
+import tools.jackson.databind.ObjectMapper;
+
 @RestController
 public class TimelineController {
 
+    /** Rows written between explicit flushes of a streamed response. */
+    private static final int FLUSH_EVERY = 64;
+
+    private static final byte[] NEWLINE = {'\n'};
+    private static final byte[] SSE_ID = "id: ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SSE_DATA = "\ndata: ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SSE_END = "\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * How long pages may be reused by caches in front of us (the gateway caches these routes).
+     * Without an explicit value Spring Security sends no-store and nothing is cached. Home pages
+     * are the caller's own; global and search pages are the same for everyone.
+     *
+     * Page bodies are negotiated on Accept: JSON by default, CBOR for Accept: application/cbor
+     * (Spring MVC registers the CBOR converter after the JSON one, so a wildcard or missing
+     * Accept gets JSON). Cacheable pages therefore say Vary: Accept, and their ETags are weak.
+     */
+    private static final String HOME_CACHE = CacheControl.maxAge(2, TimeUnit.SECONDS).cachePrivate().getHeaderValue();
+    private static final String SHARED_CACHE = CacheControl.maxAge(1, TimeUnit.SECONDS).getHeaderValue();
+
     private final TimelineService timelineService;
+    private final ObjectMapper objectMapper;
 
-    public TimelineController(TimelineService timelineService) {
+    public TimelineController(TimelineService timelineService, ObjectMapper objectMapper) {
         this.timelineService = timelineService;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Returns the timeline of all posts. The authenticated user is identified
-     * from the JWT token (Keycloak subject claim).
+     * Returns one page of the authenticated user's home timeline, newest first. The user is
+     * identified from the JWT token (Keycloak subject claim) and resolved to the internal user
+     * id via userservice (JWT forwarded). Pass the returned nextCursor as ?cursor= to read the
+     * following page.
+     *
+     * Responses carry an ETag; a matching If-None-Match gets 304 with no body. Cacheable
+     * privately for 2s.
      */
     @GetMapping("/api/v1/timelines")
-    public TimelineResponse getTimeline(@AuthenticationPrincipal Jwt jwt) {
+    public TimelineResponse getTimeline(@AuthenticationPrincipal Jwt jwt,
+                                        @RequestHeader("Authorization") String authorization,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "20") int limit,
+                                        WebRequest request,
+                                        HttpServletResponse response) {
         String userId = jwt.getSubject();
-        return timelineService.getTimeline(userId);
+        Optional<TimelineResponse> page = timelineService.getTimeline(userId, authorization, cursor, limit,
+                request::checkNotModified);
+        cacheable(response, HOME_CACHE);
+        return page.orElse(null);
+    }
+
+    /**
+     * Ranked home timeline: the top limit posts among the newest home timeline candidates,
+     * scored by the ranking pipeline (recency decay, author affinity, content quality). Not
+     * paginated.
+     */
+    @GetMapping("/api/v1/timelines/ranked")
+    public RankedTimelineResponse getRankedTimeline(@AuthenticationPrincipal Jwt jwt,
+                                                    @RequestHeader("Authorization") String authorization,
+                                                    @RequestParam(defaultValue = "20") int limit) {
+        return timelineService.getRankedTimeline(jwt.getSubject(), authorization, limit);
+    }
+
+    /**
+     * Live home timeline: a server-sent event stream that receives a "post" event (PostDTO JSON,
+     * id = post id) for every new post added to the caller's home timeline. Read the current
+     * page with GET /api/v1/timelines first, then subscribe for updates instead of polling.
+     */
+    @GetMapping(value = "/api/v1/timelines/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@AuthenticationPrincipal Jwt jwt,
+                                @RequestHeader("Authorization") String authorization) {
+        return timelineService.subscribe(jwt.getSubject(), authorization);
+    }
+
+    /**
+     * Full-text search: one page of the posts containing every term of q, newest first. Words
+     * match plain words, hashtags and mentions; "#tag" and "@name" match only hashtags and
+     * mentions. Paginate with nextCursor as for the other timelines. Cacheable for 1s.
+     */
+    @GetMapping("/api/v1/timelines/search")
+    public TimelineResponse search(@RequestHeader("Authorization") String authorization,
+                                   @RequestParam String q,
+                                   @RequestParam(required = false) String cursor,
+                                   @RequestParam(defaultValue = "20") int limit,
+                                   HttpServletResponse response) {
+        TimelineResponse page = timelineService.search(q, cursor, limit, authorization);
+        cacheable(response, SHARED_CACHE);
+        return page;
+    }
+
+    /**
+     * Returns one page of all posts, newest first (not personalized). Supports If-None-Match;
+     * cacheable for 1s.
+     */
+    @GetMapping("/api/v1/timelines/global")
+    public TimelineResponse getGlobalTimeline(@RequestHeader("Authorization") String authorization,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "20") int limit,
+                                              WebRequest request,
+                                              HttpServletResponse response) {
+        Optional<TimelineResponse> page = timelineService.getGlobalTimeline(cursor, limit, authorization,
+                request::checkNotModified);
+        cacheable(response, SHARED_CACHE);
+        return page.orElse(null);
+    }
+
+    /**
+     * Streams up to limit posts of the global timeline as newline-delimited JSON
+     * (Accept: application/x-ndjson). Each PostDTO is written as soon as its row is read from
+     * the database cursor; nothing is buffered, so heap use is independent of limit.
+     */
+    @GetMapping(value = "/api/v1/timelines/global", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamGlobalTimelineNdjson(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> stream(out, cursor, limit, false));
+    }
+
+    /**
+     * Same as the NDJSON stream, framed as server-sent events (Accept: text/event-stream).
+     * Each event id is the post id.
+     */
+    @GetMapping(value = "/api/v1/timelines/global", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamGlobalTimelineSse(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(out -> stream(out, cursor, limit, true));
+    }
+
+    private static void cacheable(HttpServletResponse response, String cacheControl) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    private void stream(OutputStream out, String cursor, int limit, boolean sse) throws IOException {
+        int[] written = {0};
+        try {
+            timelineService.streamGlobalTimeline(cursor, limit, post -> {
+                try {
+                    write(out, post, sse);
+                    if (++written[0] % FLUSH_EVERY == 0) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Client went away; unwinding closes the database cursor.
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    private void write(OutputStream out, PostDTO post, boolean sse) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(post);
+        if (sse) {
+            out.write(SSE_ID);
+            out.write(Long.toString(post.getId()).getBytes(StandardCharsets.US_ASCII));
+            out.write(SSE_DATA);
+            out.write(json);
+            out.write(SSE_END);
+        } else {
+            out.write(json);
+            out.write(NEWLINE);
+        }
     }
 }
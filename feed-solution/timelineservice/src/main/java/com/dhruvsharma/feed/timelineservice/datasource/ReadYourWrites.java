@@ -0,0 +1,96 @@
+package com.dhruvsharma.feed.timelineservice.datasource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import com.dhruvsharma.feed.timelineservice.notification.HomeTimelinesChangedNotification;
+import com.dhruvsharma.feed.timelineservice.notification.PostCreatedNotification;
+
+/**
+ * Remembers which callers (JWT subjects) wrote recently so their reads stay on the primary
+ * until replicas have had time to catch up. Posts are written by postservice, so authors are
+ * pinned when the post_created notification arrives.
+ *
+ * The same window applies to data rather than callers: the timeline heads a notification just
+ * changed ({@link #homeTimeline}, {@link #author}, {@link #GLOBAL_TIMELINE}) are pinned too, so
+ * the cache reload that follows the invalidation reads the primary and every other head load
+ * can use a replica. The listeners run before the cache's, so a reload never sees the
+ * invalidation without the pin.
+ */
+public class ReadYourWrites {
+
+    /** Key pinned whenever any post is created. */
+    public static final String GLOBAL_TIMELINE = "timeline:global";
+
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+
+    public ReadYourWrites(Duration window) {
+        this(window, System::nanoTime);
+    }
+
+    ReadYourWrites(Duration window, LongSupplier nanoClock) {
+        this.windowNanos = window.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /** Key pinned when fan-out adds a post to the user's home timeline. */
+    public static String homeTimeline(long userId) {
+        return "timeline:home:" + userId;
+    }
+
+    /** Key pinned when the author creates a post (merged into followers' heads at read time). */
+    public static String author(long authorId) {
+        return "timeline:author:" + authorId;
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onPostCreated(PostCreatedNotification notification) {
+        wrote(notification.authorSub());
+        wrote(author(notification.authorId()));
+        wrote(GLOBAL_TIMELINE);
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onHomeTimelinesChanged(HomeTimelinesChangedNotification notification) {
+        for (long userId : notification.userIds()) {
+            wrote(homeTimeline(userId));
+        }
+    }
+
+    public void wrote(String caller) {
+        if (caller != null && windowNanos > 0) {
+            pinnedUntil.put(caller, nanoClock.getAsLong() + windowNanos);
+        }
+    }
+
+    public boolean isPinned(String caller) {
+        if (caller == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(caller);
+        if (until == null) {
+            return false;
+        }
+        if (until - nanoClock.getAsLong() > 0) {
+            return true;
+        }
+        pinnedUntil.remove(caller, until);
+        return false;
+    }
+
+    /** Drops expired pins; called from the replica lag probe so the map stays small. */
+    void purgeExpired() {
+        long now = nanoClock.getAsLong();
+        pinnedUntil.values().removeIf(until -> until - now <= 0);
+    }
+}
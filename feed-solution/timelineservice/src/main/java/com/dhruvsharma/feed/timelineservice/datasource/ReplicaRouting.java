@@ -0,0 +1,41 @@
+package com.dhruvsharma.feed.timelineservice.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override for {@link ReplicaRoutingDataSource}: work run through
+ * {@link #onPrimary(Supplier)} reads from the primary even inside read-only transactions.
+ * Use it for reads that must not be served stale, e.g. reloading state right after a write.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY.remove();
+            } else {
+                PRIMARY.set(previous);
+            }
+        }
+    }
+
+    public static void onPrimary(Runnable work) {
+        onPrimary(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    static boolean primaryRequired() {
+        return PRIMARY.get() != null;
+    }
+}
@@ -1,5 +1,8 @@
 package com.dhruvsharma.feed.timelineservice.dto;
 
+import java.time.Instant;
+import java.util.List;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -13,4 +16,9 @@ public class PostDTO {
     private Long id;
     private String content;
     private Long authorId;
+    /** Author display name, hydrated for paged timeline responses; null in streamed and live events. */
+    private String authorUsername;
+    private Instant createdAt;
+    /** Fetch each from GET /api/v1/posts/attachments/{id}; empty for text-only posts. */
+    private List<Long> attachmentIds;
 }
@@ -0,0 +1,20 @@
+package com.dhruvsharma.feed.timelineservice.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankedTimelineResponse {
+    /** Highest-scoring posts first. */
+    private List<PostDTO> posts;
+    /** Wall time per ranking stage in microseconds, in pipeline order. */
+    private Map<String, Long> stageMicros;
+}
@@ -13,4 +13,6 @@ import lombok.Setter;
 @AllArgsConstructor
 public class TimelineResponse {
     private List<PostDTO> posts;
+    /** Pass back as ?cursor= to fetch the next (older) page; null when there are no more posts. */
+    private String nextCursor;
 }
@@ -0,0 +1,197 @@
+package com.dhruvsharma.feed.timelineservice.live;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.dhruvsharma.feed.timelineservice.datasource.ReplicaRouting;
+import com.dhruvsharma.feed.timelineservice.dto.PostDTO;
+import com.dhruvsharma.feed.timelineservice.notification.HomeTimelinesChangedNotification;
+import com.dhruvsharma.feed.timelineservice.notification.PostCreatedNotification;
+import com.dhruvsharma.feed.timelineservice.repository.ShardedTimelineRepository;
+import com.dhruvsharma.feed.timelineservice.repository.entity.Post;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PreDestroy;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Pushes new posts to open home timeline subscriptions (server-sent events).
+ *
+ * Fed by the pod's single LISTEN connection: home_timeline_changed names the post and the users
+ * it was fanned out to; post_created covers fan-out-exempt authors, whose followers registered
+ * interest when they subscribed. Each post is loaded and serialized once per pod, then written
+ * to every matching emitter. Idle subscriptions hold no thread (async servlet response); writes
+ * run on virtual threads so a slow client never stalls the notification thread.
+ */
+@Component
+public class LiveTimelineHub {
+
+    private final ShardedTimelineRepository timelineRepository;
+    private final ObjectMapper objectMapper;
+    private final long emitterTimeoutMs;
+    private final int maxSubscribers;
+
+    private final ConcurrentHashMap<Long, Set<Subscription>> byUser = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Subscription>> byExemptAuthor = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    /** Serialized post JSON by id: one home_timeline_changed per fan-out batch reuses it. */
+    private final Cache<Long, String> recentPosts = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    public LiveTimelineHub(ShardedTimelineRepository timelineRepository,
+                           ObjectMapper objectMapper,
+                           @Value("${feed.timeline.live.emitter-timeout:PT30M}") Duration emitterTimeout,
+                           @Value("${feed.timeline.live.max-subscribers:50000}") int maxSubscribers) {
+        this.timelineRepository = timelineRepository;
+        this.objectMapper = objectMapper;
+        this.emitterTimeoutMs = emitterTimeout.toMillis();
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * Opens a subscription for the user. exemptAuthors are followees that are not fanned out;
+     * their posts are delivered from post_created instead.
+     */
+    public SseEmitter subscribe(long internalUserId, long[] exemptAuthors) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many live subscriptions.");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscription subscription = new Subscription(internalUserId, exemptAuthors, emitter);
+        byUser.computeIfAbsent(internalUserId, k -> ConcurrentHashMap.newKeySet()).add(subscription);
+        for (long author : exemptAuthors) {
+            byExemptAuthor.computeIfAbsent(author, k -> ConcurrentHashMap.newKeySet()).add(subscription);
+        }
+        emitter.onCompletion(() -> unregister(subscription));
+        emitter.onTimeout(() -> unregister(subscription));
+        emitter.onError(e -> unregister(subscription));
+        return emitter;
+    }
+
+    @EventListener
+    public void onHomeTimelinesChanged(HomeTimelinesChangedNotification notification) {
+        String json = null;
+        for (long userId : notification.userIds()) {
+            Set<Subscription> targets = byUser.get(userId);
+            if (targets == null || targets.isEmpty()) {
+                continue;
+            }
+            if (json == null) {
+                json = load(notification.postId(), () -> timelineRepository.findById(notification.postId()));
+                if (json == null) {
+                    return;
+                }
+            }
+            publish(targets, notification.postId(), json);
+        }
+    }
+
+    @EventListener
+    public void onPostCreated(PostCreatedNotification notification) {
+        Set<Subscription> targets = byExemptAuthor.get(notification.authorId());
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        String json = load(notification.postId(),
+                () -> timelineRepository.findNewById(notification.postId(), notification.authorId()));
+        if (json != null) {
+            publish(targets, notification.postId(), json);
+        }
+    }
+
+    /** Comment frames keep idle connections open through proxies and surface dead clients. */
+    @Scheduled(fixedDelayString = "${feed.timeline.live.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Set<Subscription> targets : byUser.values()) {
+            for (Subscription subscription : targets) {
+                sender.execute(() -> send(subscription, SseEmitter.event().comment("ping")));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        byUser.values().forEach(targets -> targets.forEach(s -> s.emitter().complete()));
+        sender.shutdown();
+    }
+
+    private String load(long postId, Supplier<Optional<Post>> find) {
+        // Primary: the post was committed a moment ago and may not have reached a replica yet.
+        return recentPosts.get(postId, id -> ReplicaRouting.onPrimary(find)
+                .map(p -> objectMapper.writeValueAsString(
+                        new PostDTO(p.getId(), p.getContent(), p.getAuthorId(), null, p.getCreatedAt(),
+                                p.getAttachmentIds())))
+                .orElse(null));
+    }
+
+    private void publish(Set<Subscription> targets, long postId, String json) {
+        for (Subscription subscription : targets) {
+            sender.execute(() -> send(subscription, SseEmitter.event()
+                    .id(Long.toString(postId))
+                    .name("post")
+                    .data(json, MediaType.APPLICATION_JSON)));
+        }
+    }
+
+    private void send(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        try {
+            subscription.emitter().send(event);
+        } catch (IOException | IllegalStateException e) {
+            subscription.emitter().completeWithError(e);
+            unregister(subscription);
+        }
+    }
+
+    private void unregister(Subscription subscription) {
+        boolean removed = remove(byUser, subscription.userId(), subscription);
+        for (long author : subscription.exemptAuthors()) {
+            remove(byExemptAuthor, author, subscription);
+        }
+        if (removed) {
+            subscribers.decrementAndGet();
+        }
+    }
+
+    private static boolean remove(ConcurrentHashMap<Long, Set<Subscription>> map, long key, Subscription subscription) {
+        boolean[] removed = {false};
+        map.computeIfPresent(key, (k, set) -> {
+            removed[0] = set.remove(subscription);
+            return set.isEmpty() ? null : set;
+        });
+        return removed[0];
+    }
+
+    private record Subscription(long userId, long[] exemptAuthors, SseEmitter emitter) {
+        // Identity semantics: two subscriptions of the same user are distinct.
+        @Override
+        public boolean equals(Object o) {
+            return this == o;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
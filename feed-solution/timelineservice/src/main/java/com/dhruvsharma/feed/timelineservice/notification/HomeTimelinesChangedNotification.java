@@ -0,0 +1,7 @@
+package com.dhruvsharma.feed.timelineservice.notification;
+
+/**
+ * Fan-out added postId to these users' home timelines (NOTIFY on channel home_timeline_changed).
+ */
+public record HomeTimelinesChangedNotification(long postId, long[] userIds) {
+}
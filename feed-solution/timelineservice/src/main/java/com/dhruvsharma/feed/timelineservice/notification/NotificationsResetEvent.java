@@ -0,0 +1,8 @@
+package com.dhruvsharma.feed.timelineservice.notification;
+
+/**
+ * The LISTEN connection was (re)established; notifications sent while it was down are lost,
+ * so anything derived from them must be treated as stale.
+ */
+public record NotificationsResetEvent() {
+}
@@ -0,0 +1,8 @@
+package com.dhruvsharma.feed.timelineservice.notification;
+
+/**
+ * A post was committed to postsdb (postservice NOTIFY on channel post_created).
+ * authorSub is the author's Keycloak subject, or null if the sender did not include it.
+ */
+public record PostCreatedNotification(long postId, long authorId, String authorSub) {
+}
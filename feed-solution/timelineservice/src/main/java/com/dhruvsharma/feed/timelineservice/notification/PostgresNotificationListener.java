@@ -0,0 +1,175 @@
+package com.dhruvsharma.feed.timelineservice.notification;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Holds one dedicated LISTEN connection per postsdb shard per pod and republishes postservice
+ * notifications as Spring application events. post_created is sent in the insert's transaction,
+ * so it arrives on the shard the post was written to; home_timeline_changed comes from shard 0.
+ * The connections are opened outside the pool because they are held for the lifetime of the
+ * process.
+ */
+@Component
+public class PostgresNotificationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresNotificationListener.class);
+
+    static final String POST_CREATED_CHANNEL = "post_created";
+    static final String HOME_TIMELINE_CHANGED_CHANNEL = "home_timeline_changed";
+
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final List<String> urls;
+    private final String username;
+    private final String password;
+    private final boolean enabled;
+
+    private volatile boolean running;
+    private final List<Thread> threads = new ArrayList<>();
+
+    public PostgresNotificationListener(ApplicationEventPublisher eventPublisher,
+                                        @Value("${spring.datasource.url}") String url,
+                                        @Value("${feed.posts.shards.urls:}") List<String> shardUrls,
+                                        @Value("${spring.datasource.username}") String username,
+                                        @Value("${spring.datasource.password}") String password,
+                                        @Value("${feed.notifications.enabled:true}") boolean enabled) {
+        this.eventPublisher = eventPublisher;
+        List<String> urls = new ArrayList<>();
+        urls.add(url);
+        for (String shardUrl : shardUrls) {
+            if (!shardUrl.isBlank()) {
+                urls.add(shardUrl.trim());
+            }
+        }
+        this.urls = List.copyOf(urls);
+        this.username = username;
+        this.password = password;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (int shard = 0; shard < urls.size(); shard++) {
+            String url = urls.get(shard);
+            threads.add(Thread.ofPlatform().name("pg-notify-listener-" + shard).daemon().start(() -> run(url)));
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
+            thread.join(POLL_TIMEOUT_MS * 2L);
+        }
+    }
+
+    private void run(String url) {
+        long backoff = 500;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + POST_CREATED_CHANNEL);
+                    statement.execute("LISTEN " + HOME_TIMELINE_CHANGED_CHANNEL);
+                }
+                eventPublisher.publishEvent(new NotificationsResetEvent());
+                backoff = 500;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification);
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("LISTEN connection lost, reconnecting in {} ms", backoff, e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void dispatch(PGNotification notification) {
+        try {
+            String payload = notification.getParameter();
+            switch (notification.getName()) {
+                case POST_CREATED_CHANNEL -> {
+                    int comma = payload.indexOf(',');
+                    int second = payload.indexOf(',', comma + 1);
+                    int authorEnd = second < 0 ? payload.length() : second;
+                    eventPublisher.publishEvent(new PostCreatedNotification(
+                            Long.parseLong(payload, 0, comma, 10),
+                            Long.parseLong(payload, comma + 1, authorEnd, 10),
+                            second < 0 ? null : payload.substring(second + 1)));
+                }
+                case HOME_TIMELINE_CHANGED_CHANNEL -> {
+                    int colon = payload.indexOf(':');
+                    eventPublisher.publishEvent(new HomeTimelinesChangedNotification(
+                            Long.parseLong(payload, 0, colon, 10),
+                            parseIds(payload, colon + 1)));
+                }
+                default -> log.debug("Ignoring notification on channel {}", notification.getName());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to handle notification on channel {}", notification.getName(), e);
+        }
+    }
+
+    private static long[] parseIds(String payload, int from) {
+        if (from >= payload.length()) {
+            return new long[0];
+        }
+        int count = 1;
+        for (int i = from; i < payload.length(); i++) {
+            if (payload.charAt(i) == ',') {
+                count++;
+            }
+        }
+        long[] ids = new long[count];
+        int start = from;
+        for (int i = 0; i < count; i++) {
+            int end = payload.indexOf(',', start);
+            if (end < 0) {
+                end = payload.length();
+            }
+            ids[i] = Long.parseLong(payload, start, end, 10);
+            start = end + 1;
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,48 @@
+package com.dhruvsharma.feed.timelineservice.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Opaque keyset cursor for timeline pagination: the (created_at, id) of the last
+ * post on the previous page. Encoded as URL-safe base64 so clients treat it as a token
+ * and never build it themselves.
+ */
+public record TimelineCursor(Instant createdAt, long id) {
+
+    /** Sorts after every stored post, for queries that always take a keyset bound. */
+    public static final TimelineCursor NEWEST = new TimelineCursor(Instant.parse("9999-12-31T23:59:59Z"), Long.MAX_VALUE);
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Parses a cursor previously returned as nextCursor. Returns null for a missing cursor
+     * (first page); rejects anything malformed with 400.
+     */
+    public static TimelineCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(DECODER.decode(token), StandardCharsets.US_ASCII);
+            String[] parts = raw.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Expected 3 cursor parts");
+            }
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new TimelineCursor(createdAt, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | java.time.DateTimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid timeline cursor");
+        }
+    }
+}
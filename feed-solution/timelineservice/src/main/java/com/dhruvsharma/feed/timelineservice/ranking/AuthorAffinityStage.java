@@ -0,0 +1,42 @@
+package com.dhruvsharma.feed.timelineservice.ranking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Affinity from the follow graph: mutual follows rank above one-way follows, which rank above
+ * authors the viewer only sees through merged or own posts.
+ */
+@Component
+@Order(20)
+public class AuthorAffinityStage implements ScoringStage {
+
+    private final double weight;
+
+    public AuthorAffinityStage(@Value("${feed.timeline.ranking.affinity.weight:0.5}") double weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String name() {
+        return "affinity";
+    }
+
+    @Override
+    public double weight() {
+        return weight;
+    }
+
+    @Override
+    public double score(Candidates candidates, int index, RankingContext context) {
+        long author = candidates.authorId(index);
+        if (author == context.viewerId()) {
+            return 0.25;
+        }
+        if (!context.viewerFollows(author)) {
+            return 0.0;
+        }
+        return context.followsViewer(author) ? 1.0 : 0.5;
+    }
+}
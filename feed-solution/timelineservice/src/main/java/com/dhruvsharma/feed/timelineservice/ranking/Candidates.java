@@ -0,0 +1,54 @@
+package com.dhruvsharma.feed.timelineservice.ranking;
+
+import java.util.List;
+
+import com.dhruvsharma.feed.timelineservice.repository.entity.Post;
+
+/**
+ * Candidate posts in struct-of-arrays form. Stages read primitive columns by index and the
+ * pipeline accumulates into {@link #scores}, so scoring allocates nothing per candidate.
+ */
+public final class Candidates {
+
+    private final List<Post> posts;
+    private final long[] authorIds;
+    private final long[] createdAtMillis;
+    private final double[] scores;
+
+    private Candidates(List<Post> posts) {
+        int n = posts.size();
+        this.posts = posts;
+        this.authorIds = new long[n];
+        this.createdAtMillis = new long[n];
+        this.scores = new double[n];
+        for (int i = 0; i < n; i++) {
+            Post post = posts.get(i);
+            authorIds[i] = post.getAuthorId();
+            createdAtMillis[i] = post.getCreatedAt().toEpochMilli();
+        }
+    }
+
+    public static Candidates of(List<Post> posts) {
+        return new Candidates(posts);
+    }
+
+    public int size() {
+        return scores.length;
+    }
+
+    public long authorId(int index) {
+        return authorIds[index];
+    }
+
+    public long createdAtMillis(int index) {
+        return createdAtMillis[index];
+    }
+
+    public Post post(int index) {
+        return posts.get(index);
+    }
+
+    double[] scores() {
+        return scores;
+    }
+}
@@ -0,0 +1,64 @@
+package com.dhruvsharma.feed.timelineservice.ranking;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.dhruvsharma.feed.timelineservice.repository.entity.Post;
+
+/**
+ * Quality of the post itself: substance (words, up to {@value #FULL_WORDS}) and media, scaled
+ * down when hashtags and mentions make up more than half of the words. Posts carry no
+ * engagement counts (likes, replies) to rank by; this is the signal the rows do have.
+ */
+@Component
+@Order(30)
+public class ContentQualityStage implements ScoringStage {
+
+    /** Words at which a post counts as fully substantive. */
+    static final int FULL_WORDS = 12;
+
+    private final double weight;
+
+    public ContentQualityStage(@Value("${feed.timeline.ranking.quality.weight:0.3}") double weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String name() {
+        return "quality";
+    }
+
+    @Override
+    public double weight() {
+        return weight;
+    }
+
+    @Override
+    public double score(Candidates candidates, int index, RankingContext context) {
+        Post post = candidates.post(index);
+        String content = post.getContent();
+        int words = 0;
+        int tags = 0;
+        boolean inWord = false;
+        for (int i = 0, n = content == null ? 0 : content.length(); i < n; i++) {
+            char c = content.charAt(i);
+            if (Character.isWhitespace(c)) {
+                inWord = false;
+            } else if (!inWord) {
+                inWord = true;
+                words++;
+                if (c == '#' || c == '@') {
+                    tags++;
+                }
+            }
+        }
+        List<Long> attachments = post.getAttachmentIds();
+        double media = attachments == null || attachments.isEmpty() ? 0.0 : 1.0;
+        double score = 0.7 * Math.min(1.0, words / (double) FULL_WORDS) + 0.3 * media;
+        double tagShare = words == 0 ? 0.0 : tags / (double) words;
+        return tagShare > 0.5 ? score * 2 * (1 - tagShare) : score;
+    }
+}
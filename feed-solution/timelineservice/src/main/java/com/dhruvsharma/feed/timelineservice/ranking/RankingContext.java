@@ -0,0 +1,20 @@
+package com.dhruvsharma.feed.timelineservice.ranking;
+
+import java.util.Arrays;
+
+/**
+ * Per-request inputs shared by all scoring stages.
+ *
+ * @param viewerFollowees ids the viewer follows, ascending
+ * @param viewerFollowers ids following the viewer, ascending (possibly truncated for very large accounts)
+ */
+public record RankingContext(long viewerId, long nowMillis, long[] viewerFollowees, long[] viewerFollowers) {
+
+    public boolean viewerFollows(long userId) {
+        return Arrays.binarySearch(viewerFollowees, userId) >= 0;
+    }
+
+    public boolean followsViewer(long userId) {
+        return Arrays.binarySearch(viewerFollowers, userId) >= 0;
+    }
+}
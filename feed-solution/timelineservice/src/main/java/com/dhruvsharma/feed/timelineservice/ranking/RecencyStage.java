@@ -0,0 +1,40 @@
+package com.dhruvsharma.feed.timelineservice.ranking;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exponential time decay: 1.0 for a brand-new post, 0.5 after one half-life.
+ */
+@Component
+@Order(10)
+public class RecencyStage implements ScoringStage {
+
+    private final double weight;
+    private final double decayPerMilli;
+
+    public RecencyStage(@Value("${feed.timeline.ranking.recency.weight:1.0}") double weight,
+                        @Value("${feed.timeline.ranking.recency.half-life:PT6H}") Duration halfLife) {
+        this.weight = weight;
+        this.decayPerMilli = Math.log(2) / halfLife.toMillis();
+    }
+
+    @Override
+    public String name() {
+        return "recency";
+    }
+
+    @Override
+    public double weight() {
+        return weight;
+    }
+
+    @Override
+    public double score(Candidates candidates, int index, RankingContext context) {
+        long age = Math.max(0, context.nowMillis() - candidates.createdAtMillis(index));
+        return Math.exp(-decayPerMilli * age);
+    }
+}
@@ -0,0 +1,19 @@
+package com.dhruvsharma.feed.timelineservice.ranking;
+
+/**
+ * One step of the ranking pipeline. Every {@code ScoringStage} bean is picked up by
+ * {@link RankingPipeline} in {@code @Order} order; its weighted score is added to each
+ * candidate's total.
+ *
+ * Implementations are called concurrently for different indices and must be stateless
+ * and allocation-free per call.
+ */
+public interface ScoringStage {
+
+    /** Short name used in metrics tags and timing output. */
+    String name();
+
+    double weight();
+
+    double score(Candidates candidates, int index, RankingContext context);
+}
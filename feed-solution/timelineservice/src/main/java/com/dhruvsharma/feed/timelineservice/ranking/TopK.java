@@ -0,0 +1,82 @@
+package com.dhruvsharma.feed.timelineservice.ranking;
+
+/**
+ * Selects the k highest-scoring indices with a bounded min-heap over primitive ints:
+ * O(n log k) time and O(k) space instead of sorting all n candidates.
+ */
+final class TopK {
+
+    private TopK() {
+    }
+
+    /**
+     * Returns indices of the k largest scores, highest first. Ties keep the lower index
+     * (candidates arrive newest first, so ties favour newer posts).
+     */
+    static int[] select(double[] scores, int k) {
+        int n = scores.length;
+        k = Math.min(k, n);
+        if (k <= 0) {
+            return new int[0];
+        }
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (size < k) {
+                heap[size] = i;
+                siftUp(heap, size++, scores);
+            } else if (worse(heap[0], i, scores)) {
+                heap[0] = i;
+                siftDown(heap, size, scores);
+            }
+        }
+        // Pop the min repeatedly, filling from the back, to get highest-first order.
+        int[] result = new int[size];
+        for (int out = size - 1; out >= 0; out--) {
+            result[out] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, scores);
+        }
+        return result;
+    }
+
+    /** True if a ranks below b. */
+    private static boolean worse(int a, int b, double[] scores) {
+        return scores[a] < scores[b] || (scores[a] == scores[b] && a > b);
+    }
+
+    private static void siftUp(int[] heap, int pos, double[] scores) {
+        int item = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!worse(item, heap[parent], scores)) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+        heap[pos] = item;
+    }
+
+    private static void siftDown(int[] heap, int size, double[] scores) {
+        if (size == 0) {
+            return;
+        }
+        int item = heap[0];
+        int pos = 0;
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < size && worse(heap[right], heap[child], scores)) {
+                child = right;
+            }
+            if (!worse(heap[child], item, scores)) {
+                break;
+            }
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = item;
+    }
+}
@@ -0,0 +1,283 @@
+package com.dhruvsharma.feed.timelineservice.repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.dhruvsharma.feed.timelineservice.repository.entity.HomeTimelineEntry;
+import com.dhruvsharma.feed.timelineservice.repository.entity.Post;
+import com.dhruvsharma.feed.timelineservice.sharding.KWayMerge;
+import com.dhruvsharma.feed.timelineservice.sharding.ScatterGather;
+import com.dhruvsharma.feed.timelineservice.sharding.ShardRouter;
+
+/**
+ * Timeline reads over all postsdb shards. Posts are placed by author hash (postservice), and
+ * posts written before sharding and all imports stay on shard 0, so a query not limited to
+ * known authors goes to every shard: each shard returns its own newest limit rows in
+ * (created_at, id) order and a k-way merge keeps the overall newest limit. Queries by author go
+ * to shard 0 and to the authors' own shards only, each asked just for its authors. Home
+ * timeline entries live on shard 0 only; with more than one shard their posts are looked up by
+ * id and created_at on every shard instead of joined, so each shard only probes the
+ * partitions the page falls in.
+ *
+ * With a single shard every method is the plain {@link TimelineRepository} query.
+ */
+@Repository
+public class ShardedTimelineRepository {
+
+    /** Newest first, same order as the (created_at, id) keyset. */
+    public static final Comparator<Post> NEWEST_FIRST = Comparator
+            .comparing(Post::getCreatedAt)
+            .thenComparing(Post::getId)
+            .reversed();
+
+    /** Rows per shard and round trip when streaming. */
+    private static final int STREAM_PAGE = 500;
+
+    private static final String STREAM_OLDER_THAN_SQL = """
+            SELECT id, content, author_id, created_at, attachment_ids FROM posts
+            WHERE created_at <= ? AND (created_at, id) < (?, ?)
+            ORDER BY created_at DESC, id DESC
+            LIMIT ?""";
+
+    private final TimelineRepository timelineRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ScatterGather scatterGather;
+    private final ShardRouter shardRouter;
+
+    public ShardedTimelineRepository(TimelineRepository timelineRepository, JdbcTemplate jdbcTemplate,
+                                     ScatterGather scatterGather, ShardRouter shardRouter) {
+        this.timelineRepository = timelineRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.scatterGather = scatterGather;
+        this.shardRouter = shardRouter;
+    }
+
+    private boolean sharded() {
+        return scatterGather.shardCount() > 1;
+    }
+
+    public List<Post> findLatest(int limit) {
+        if (!sharded()) {
+            return timelineRepository.findLatest(limit);
+        }
+        return KWayMerge.merge(scatterGather.scatter(shard -> timelineRepository.findLatest(limit)), NEWEST_FIRST, limit);
+    }
+
+    public List<Post> findOlderThan(Instant createdAt, long id, int limit) {
+        if (!sharded()) {
+            return timelineRepository.findOlderThan(createdAt, id, limit);
+        }
+        return KWayMerge.merge(scatterGather.scatter(shard -> timelineRepository.findOlderThan(createdAt, id, limit)),
+                NEWEST_FIRST, limit);
+    }
+
+    public List<Post> findHomeLatest(long userId, int limit) {
+        if (!sharded()) {
+            return timelineRepository.findHomeLatest(userId, limit);
+        }
+        return findHomePosts(timelineRepository.findHomeEntries(userId, limit));
+    }
+
+    public List<Post> findHomeOlderThan(long userId, Instant createdAt, long id, int limit) {
+        if (!sharded()) {
+            return timelineRepository.findHomeOlderThan(userId, createdAt, id, limit);
+        }
+        return findHomePosts(timelineRepository.findHomeEntriesOlderThan(userId, createdAt, id, limit));
+    }
+
+    public List<Post> findLatestByAuthors(Collection<Long> authorIds, int limit) {
+        if (!sharded()) {
+            return timelineRepository.findLatestByAuthors(authorIds, limit);
+        }
+        Map<Integer, List<Long>> byShard = authorsByShard(authorIds);
+        return KWayMerge.merge(scatterGather.scatter(shards(byShard),
+                        shard -> timelineRepository.findLatestByAuthors(byShard.get(shard), limit)),
+                NEWEST_FIRST, limit);
+    }
+
+    public List<Post> findOlderThanByAuthors(Collection<Long> authorIds, Instant createdAt, long id, int limit) {
+        if (!sharded()) {
+            return timelineRepository.findOlderThanByAuthors(authorIds, createdAt, id, limit);
+        }
+        Map<Integer, List<Long>> byShard = authorsByShard(authorIds);
+        return KWayMerge.merge(scatterGather.scatter(shards(byShard),
+                        shard -> timelineRepository.findOlderThanByAuthors(byShard.get(shard), createdAt, id, limit)),
+                NEWEST_FIRST, limit);
+    }
+
+    public Optional<Post> findById(long id) {
+        if (!sharded()) {
+            return timelineRepository.findById(id);
+        }
+        return scatterGather.scatter(shard -> timelineRepository.findById(id)).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    /**
+     * A post postservice has just written: it is on its author's shard, so only that shard is
+     * asked. Shard 0 runs on the calling thread and keeps its replica routing.
+     */
+    public Optional<Post> findNewById(long id, long authorId) {
+        return scatterGather.on(shardRouter.shardFor(authorId), () -> timelineRepository.findById(id));
+    }
+
+    /**
+     * Streams posts older than the keyset, newest first, at most limit rows. Single shard: a
+     * server-side cursor read {@value #STREAM_PAGE} rows per round trip (the PostgreSQL driver
+     * only honours the fetch size with auto-commit off), so consume inside a read-only
+     * transaction and close the stream. Sharded: each shard is read in keyset pages of
+     * {@value #STREAM_PAGE} and merged lazily, so memory stays at one page per shard however
+     * many rows are streamed.
+     */
+    public Stream<Post> streamOlderThan(Instant createdAt, long id, int limit) {
+        if (!sharded()) {
+            Timestamp bound = Timestamp.from(createdAt);
+            return jdbcTemplate.queryForStream(con -> {
+                PreparedStatement ps = con.prepareStatement(STREAM_OLDER_THAN_SQL);
+                ps.setFetchSize(STREAM_PAGE);
+                ps.setTimestamp(1, bound);
+                ps.setTimestamp(2, bound);
+                ps.setLong(3, id);
+                ps.setInt(4, limit);
+                return ps;
+            }, (rs, rowNum) -> post(rs));
+        }
+        int page = Math.min(limit, STREAM_PAGE);
+        List<List<Post>> firstPages = scatterGather.scatter(shard -> timelineRepository.findOlderThan(createdAt, id, page));
+        List<Iterator<Post>> pagers = new ArrayList<>(firstPages.size());
+        for (int shard = 0; shard < firstPages.size(); shard++) {
+            pagers.add(new ShardPager(shard, firstPages.get(shard), page));
+        }
+        Iterator<Post> merged = KWayMerge.merge(pagers, NEWEST_FIRST);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+                .limit(limit);
+    }
+
+    private static Post post(ResultSet rs) throws SQLException {
+        Array attachments = rs.getArray(5);
+        List<Long> attachmentIds = attachments == null ? List.of() : Arrays.asList((Long[]) attachments.getArray());
+        return new Post(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getTimestamp(4).toInstant(), attachmentIds);
+    }
+
+    /** Posts with the given ids, in the order of ids; ids that no shard has are skipped. */
+    public List<Post> findByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return inOrder(ids, scatterGather.scatter(shard -> timelineRepository.findByIds(ids)));
+    }
+
+    /** The entries' posts in entry order; posts no shard has (e.g. expired) are skipped. */
+    private List<Post> findHomePosts(List<HomeTimelineEntry> entries) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(entries.size());
+        Set<Instant> createdAts = new HashSet<>();
+        for (HomeTimelineEntry entry : entries) {
+            ids.add(entry.getPostId());
+            createdAts.add(entry.getCreatedAt());
+        }
+        return inOrder(ids, scatterGather.scatter(shard -> timelineRepository.findByIdsCreatedAt(ids, createdAts)));
+    }
+
+    private static List<Post> inOrder(List<Long> ids, List<List<Post>> perShard) {
+        Map<Long, Post> byId = new HashMap<>(ids.size() * 2);
+        for (List<Post> found : perShard) {
+            for (Post post : found) {
+                byId.put(post.getId(), post);
+            }
+        }
+        List<Post> ordered = new ArrayList<>(ids.size());
+        for (Long postId : ids) {
+            Post post = byId.get(postId);
+            if (post != null) {
+                ordered.add(post);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Authors by the shards that can hold their posts: shard 0 gets all of them (posts from
+     * before sharding and imports), every other shard only those the router places there.
+     */
+    private Map<Integer, List<Long>> authorsByShard(Collection<Long> authorIds) {
+        Map<Integer, List<Long>> byShard = new TreeMap<>();
+        byShard.put(0, List.copyOf(authorIds));
+        for (Long authorId : authorIds) {
+            int shard = shardRouter.shardFor(authorId);
+            if (shard != 0) {
+                byShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(authorId);
+            }
+        }
+        return byShard;
+    }
+
+    private static int[] shards(Map<Integer, List<Long>> byShard) {
+        return byShard.keySet().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /** One shard's posts in keyset pages; the next page is fetched when the current one runs out. */
+    private final class ShardPager implements Iterator<Post> {
+
+        private final int shard;
+        private final int pageSize;
+        private List<Post> page;
+        private int index;
+
+        ShardPager(int shard, List<Post> firstPage, int pageSize) {
+            this.shard = shard;
+            this.page = firstPage;
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (index < page.size()) {
+                return true;
+            }
+            if (page.size() < pageSize) {
+                return false;
+            }
+            Post last = page.get(page.size() - 1);
+            page = scatterGather.on(shard,
+                    () -> timelineRepository.findOlderThan(last.getCreatedAt(), last.getId(), pageSize));
+            index = 0;
+            return !page.isEmpty();
+        }
+
+        @Override
+        public Post next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.get(index++);
+        }
+    }
+}
@@ -1,8 +1,130 @@
 package com.dhruvsharma.feed.timelineservice.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.dhruvsharma.feed.timelineservice.repository.entity.HomeTimelineEntry;
 import com.dhruvsharma.feed.timelineservice.repository.entity.Post;
 
+/**
+ * Queries against one postsdb shard (the one bound by ShardRouting, else shard 0); callers go
+ * through {@link ShardedTimelineRepository}, which fans them out across shards.
+ * Read-only: every query may be served by a replica (see ReplicaRoutingDataSource).
+ *
+ * posts is range-partitioned by created_at. Queries are written so the planner skips partitions:
+ * newest-first scans with a LIMIT read partitions newest first and stop once the limit is met,
+ * keyset pages repeat the bound as a plain created_at <= :createdAt (row comparisons do not prune),
+ * and home timeline lookups match on created_at as well as id, so each lookup goes to one
+ * partition. Lookups by id alone probe every partition's primary key.
+ */
+@Transactional(readOnly = true)
 public interface TimelineRepository extends CrudRepository<Post, Long> {
+
+    /**
+     * First page of the timeline, newest first. Served by idx_posts_created_at_id.
+     */
+    @Query("""
+            SELECT id, content, author_id, created_at, attachment_ids FROM posts
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit""")
+    List<Post> findLatest(@Param("limit") int limit);
+
+    /**
+     * Next page strictly after the (createdAt, id) keyset of the last row already returned.
+     * The row-value comparison lets Postgres seek directly into the index, so cost depends
+     * on page size only, not on how deep the client has paged.
+     */
+    @Query("""
+            SELECT id, content, author_id, created_at, attachment_ids FROM posts
+            WHERE created_at <= :createdAt AND (created_at, id) < (:createdAt, :id)
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit""")
+    List<Post> findOlderThan(@Param("createdAt") Instant createdAt,
+                             @Param("id") long id,
+                             @Param("limit") int limit);
+
+    /**
+     * First page of a materialized home timeline (fan-out on write). Range scan on the
+     * home_timeline_entries primary key, then a primary-key lookup per post in the partition of
+     * its created_at (entries carry their post's created_at).
+     */
+    @Query("""
+            SELECT p.id, p.content, p.author_id, p.created_at, p.attachment_ids
+            FROM home_timeline_entries h JOIN posts p ON p.id = h.post_id AND p.created_at = h.created_at
+            WHERE h.user_id = :userId
+            ORDER BY h.created_at DESC, h.post_id DESC
+            LIMIT :limit""")
+    List<Post> findHomeLatest(@Param("userId") long userId, @Param("limit") int limit);
+
+    @Query("""
+            SELECT p.id, p.content, p.author_id, p.created_at, p.attachment_ids
+            FROM home_timeline_entries h JOIN posts p ON p.id = h.post_id AND p.created_at = h.created_at
+            WHERE h.user_id = :userId AND (h.created_at, h.post_id) < (:createdAt, :id)
+            ORDER BY h.created_at DESC, h.post_id DESC
+            LIMIT :limit""")
+    List<Post> findHomeOlderThan(@Param("userId") long userId,
+                                 @Param("createdAt") Instant createdAt,
+                                 @Param("id") long id,
+                                 @Param("limit") int limit);
+
+    /**
+     * Entries (post id and created_at) of a home timeline page, for when posts are sharded and
+     * cannot be joined to home_timeline_entries (which live on shard 0).
+     */
+    @Query("""
+            SELECT post_id, created_at FROM home_timeline_entries
+            WHERE user_id = :userId
+            ORDER BY created_at DESC, post_id DESC
+            LIMIT :limit""")
+    List<HomeTimelineEntry> findHomeEntries(@Param("userId") long userId, @Param("limit") int limit);
+
+    @Query("""
+            SELECT post_id, created_at FROM home_timeline_entries
+            WHERE user_id = :userId AND (created_at, post_id) < (:createdAt, :id)
+            ORDER BY created_at DESC, post_id DESC
+            LIMIT :limit""")
+    List<HomeTimelineEntry> findHomeEntriesOlderThan(@Param("userId") long userId,
+                                                     @Param("createdAt") Instant createdAt,
+                                                     @Param("id") long id,
+                                                     @Param("limit") int limit);
+
+    @Query("SELECT id, content, author_id, created_at, attachment_ids FROM posts WHERE id IN (:ids)")
+    List<Post> findByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Posts by id whose created_at is one of createdAts: only the partitions holding those
+     * timestamps are probed. For home timeline entries, which carry their post's created_at.
+     */
+    @Query("""
+            SELECT id, content, author_id, created_at, attachment_ids FROM posts
+            WHERE id IN (:ids) AND created_at IN (:createdAts)""")
+    List<Post> findByIdsCreatedAt(@Param("ids") Collection<Long> ids,
+                                  @Param("createdAts") Collection<Instant> createdAts);
+
+    /**
+     * Newest posts by the given (fan-out-exempt) authors, merged into home timelines at read time.
+     * Served by idx_posts_author_created_at_id.
+     */
+    @Query("""
+            SELECT id, content, author_id, created_at, attachment_ids FROM posts
+            WHERE author_id IN (:authorIds)
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit""")
+    List<Post> findLatestByAuthors(@Param("authorIds") Collection<Long> authorIds, @Param("limit") int limit);
+
+    @Query("""
+            SELECT id, content, author_id, created_at, attachment_ids FROM posts
+            WHERE author_id IN (:authorIds) AND created_at <= :createdAt AND (created_at, id) < (:createdAt, :id)
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit""")
+    List<Post> findOlderThanByAuthors(@Param("authorIds") Collection<Long> authorIds,
+                                      @Param("createdAt") Instant createdAt,
+                                      @Param("id") long id,
+                                      @Param("limit") int limit);
 }
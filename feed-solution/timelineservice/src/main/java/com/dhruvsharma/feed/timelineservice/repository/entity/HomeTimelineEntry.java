@@ -0,0 +1,21 @@
+package com.dhruvsharma.feed.timelineservice.repository.entity;
+
+import java.time.Instant;
+
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("home_timeline_entries")
+public class HomeTimelineEntry {
+    private Long postId;
+    /** The post's created_at, copied at fan-out; names the posts partition the post is in. */
+    private Instant createdAt;
+}
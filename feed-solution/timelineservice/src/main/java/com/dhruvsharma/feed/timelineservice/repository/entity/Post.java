@@ -1,5 +1,8 @@
 package com.dhruvsharma.feed.timelineservice.repository.entity;
 
+import java.time.Instant;
+import java.util.List;
+
 import org.springframework.data.annotation.Id;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -17,6 +20,10 @@ public class Post {
     @Id
     private Long id;
     private String content;
-    /** Internal user id (users.id). Resolve display name via GET /api/v1/users/{id}. */
+    /** Internal user id (users.id). Display name is hydrated via GET /api/v1/users/batch. */
     private Long authorId;
+    /** Insert time; together with id forms the keyset used for timeline pagination. */
+    private Instant createdAt;
+    /** Media attachment ids; bytes are served by postservice at /api/v1/posts/attachments/{id}. */
+    private List<Long> attachmentIds;
 }
@@ -0,0 +1,237 @@
+package com.dhruvsharma.feed.timelineservice.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory inverted index from term ({@link Tokenizer}) to the ids of the posts containing it.
+ *
+ * The index is split into segments, one per posts partition on each shard (named by
+ * {@link SearchIndexLoader}), so posts removed by partition retention are dropped with their
+ * segment instead of one id at a time. A query is answered in every segment and the results are
+ * merged newest first.
+ *
+ * Within a segment, each term maps to an immutable compressed {@link PostingList} plus a small sorted tail of
+ * recent additions. A new post copies only the tail of each of its terms; once a tail outgrows
+ * about a sixteenth of its list (at least {@value #MIN_TAIL}, at most {@value #MAX_TAIL} ids)
+ * it is folded into a re-encoded list. Updates go through ConcurrentHashMap.compute, so readers
+ * never lock and always see a consistent (list, tail) pair. Adding a post twice is harmless.
+ *
+ * Post ids are time-ordered (SnowflakeIdGenerator), so id order is recency order and a query is
+ * answered by walking its terms' lists from the newest id down: a leapfrog intersection that
+ * starts from the rarest term and skips whole blocks of the others, stopping after limit hits.
+ * Imported posts keep the id they were given on import and rank by import time.
+ */
+@Component
+public class PostSearchIndex {
+
+    static final int MIN_TAIL = 128;
+    static final int MAX_TAIL = 8192;
+
+    private static final long[] NO_IDS = new long[0];
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Postings>> segments = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public PostSearchIndex(MeterRegistry meterRegistry) {
+        Gauge.builder("feed.search.terms", segments,
+                        all -> all.values().stream().mapToLong(Map::size).sum())
+                .description("Terms in the post search index, counted once per segment")
+                .register(meterRegistry);
+        Gauge.builder("feed.search.segments", segments, Map::size)
+                .description("Segments (posts partitions) in the post search index")
+                .register(meterRegistry);
+        Gauge.builder("feed.search.ready", this, index -> index.ready ? 1 : 0)
+                .description("1 once the post search index has been rebuilt from postsdb")
+                .register(meterRegistry);
+    }
+
+    /** False until the startup rebuild has finished; until then results would be incomplete. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    void markReady() {
+        ready = true;
+    }
+
+    /** Indexes one post of the given segment under every term of its content. */
+    public void add(String segment, long postId, String content) {
+        ConcurrentHashMap<String, Postings> terms = segment(segment);
+        for (String term : Tokenizer.documentTerms(content)) {
+            terms.compute(term, (t, postings) -> postings == null
+                    ? new Postings(PostingList.EMPTY, new long[] {postId})
+                    : postings.with(postId));
+        }
+    }
+
+    /**
+     * Folds a batch of postings built elsewhere (one chunk of a rebuild task) into a segment.
+     * Each array must be ascending and distinct; ids the segment already has are kept once.
+     * Batches of ids newer than the segment's so far only re-encode its lists' last blocks.
+     */
+    void addAll(String segment, Map<String, long[]> batch) {
+        ConcurrentHashMap<String, Postings> terms = segment(segment);
+        batch.forEach((term, ids) -> terms.compute(term, (t, postings) -> postings == null
+                ? new Postings(PostingList.of(ids, ids.length), NO_IDS)
+                : postings.union(ids)));
+    }
+
+    /** Names of the segments currently held. */
+    Set<String> segments() {
+        return Set.copyOf(segments.keySet());
+    }
+
+    /** Drops a segment and every posting in it; returns whether it was held. */
+    boolean dropSegment(String segment) {
+        return segments.remove(segment) != null;
+    }
+
+    private ConcurrentHashMap<String, Postings> segment(String segment) {
+        return segments.computeIfAbsent(segment, s -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Ids of the newest posts containing every term, strictly older than before (an id), newest
+     * first, at most limit. Pass Long.MAX_VALUE for the first page.
+     */
+    public long[] search(List<String> queryTerms, long before, int limit) {
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return NO_IDS;
+        }
+        long[] merged = NO_IDS;
+        for (ConcurrentHashMap<String, Postings> terms : segments.values()) {
+            long[] found = search(terms, queryTerms, before, limit);
+            if (found.length > 0) {
+                merged = newestFirst(merged, found, limit);
+            }
+        }
+        return merged;
+    }
+
+    /** The newest limit ids of two newest-first arrays; a post lives in one segment only. */
+    private static long[] newestFirst(long[] a, long[] b, int limit) {
+        long[] out = new long[Math.min(limit, a.length + b.length)];
+        int i = 0;
+        int j = 0;
+        for (int n = 0; n < out.length; n++) {
+            out[n] = j >= b.length || (i < a.length && a[i] > b[j]) ? a[i++] : b[j++];
+        }
+        return out;
+    }
+
+    private static long[] search(Map<String, Postings> terms, List<String> queryTerms, long before, int limit) {
+        Postings[] lists = new Postings[queryTerms.size()];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = terms.get(queryTerms.get(i));
+            if (lists[i] == null) {
+                return NO_IDS;
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(Postings::size));
+        Postings.Cursor[] cursors = new Postings.Cursor[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            cursors[i] = lists[i].cursor();
+        }
+
+        long[] out = new long[Math.min(limit, lists[0].size())];
+        int n = 0;
+        long target = before - 1;
+        candidates:
+        while (n < out.length && target >= 0) {
+            long candidate = cursors[0].atMost(target);
+            if (candidate < 0) {
+                break;
+            }
+            for (int i = 1; i < cursors.length; i++) {
+                long found = cursors[i].atMost(candidate);
+                if (found < 0) {
+                    break candidates;
+                }
+                if (found != candidate) {
+                    // No list holds anything between found and candidate for every term; jump.
+                    target = found;
+                    continue candidates;
+                }
+            }
+            out[n++] = candidate;
+            target = candidate - 1;
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /** Compressed bytes held by the index; walks every term, so for diagnostics only. */
+    long encodedBytes() {
+        long bytes = 0;
+        for (ConcurrentHashMap<String, Postings> terms : segments.values()) {
+            for (Postings postings : terms.values()) {
+                bytes += postings.base().encodedBytes() + postings.tail().length * 8L;
+            }
+        }
+        return bytes;
+    }
+
+    /** A term's postings: the compressed list and the sorted ids added since it was encoded. */
+    private record Postings(PostingList base, long[] tail) {
+
+        int size() {
+            return base.size() + tail.length;
+        }
+
+        Postings with(long postId) {
+            int idx = Arrays.binarySearch(tail, postId);
+            if (idx >= 0 || base.contains(postId)) {
+                return this;
+            }
+            int at = -idx - 1;
+            long[] grown = new long[tail.length + 1];
+            System.arraycopy(tail, 0, grown, 0, at);
+            grown[at] = postId;
+            System.arraycopy(tail, at, grown, at + 1, tail.length - at);
+            if (grown.length >= Math.max(MIN_TAIL, Math.min(base.size() >> 4, MAX_TAIL))) {
+                return new Postings(base.union(grown, grown.length), NO_IDS);
+            }
+            return new Postings(base, grown);
+        }
+
+        Postings union(long[] ids) {
+            long[] adds = ids;
+            if (tail.length > 0) {
+                adds = Arrays.copyOf(ids, ids.length + tail.length);
+                System.arraycopy(tail, 0, adds, ids.length, tail.length);
+                Arrays.sort(adds);
+                int n = 0;
+                for (int i = 0; i < adds.length; i++) {
+                    if (n == 0 || adds[i] != adds[n - 1]) {
+                        adds[n++] = adds[i];
+                    }
+                }
+                adds = Arrays.copyOf(adds, n);
+            }
+            return new Postings(base.union(adds, adds.length), NO_IDS);
+        }
+
+        Cursor cursor() {
+            return new Cursor(base.cursor(), tail);
+        }
+
+        /** Largest id <= target across the list and the tail. */
+        record Cursor(PostingList.Cursor base, long[] tail) {
+            long atMost(long target) {
+                int idx = Arrays.binarySearch(tail, target);
+                int at = idx >= 0 ? idx : -idx - 2;
+                long fromTail = at >= 0 ? tail[at] : -1;
+                return Math.max(fromTail, base.atMost(target));
+            }
+        }
+    }
+}
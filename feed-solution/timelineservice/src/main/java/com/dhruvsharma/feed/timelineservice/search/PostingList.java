@@ -0,0 +1,196 @@
+package com.dhruvsharma.feed.timelineservice.search;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, sorted, duplicate-free list of post ids stored as varint-encoded deltas.
+ *
+ * Ids are grouped into blocks of {@value #BLOCK_SIZE}; each block starts with its first id
+ * written in full so it can be decoded on its own, and a skip table (first id and byte offset
+ * per block) lets {@link Cursor#atMost} jump to the one block that can hold the answer. Post
+ * ids are time-ordered (Snowflake), so neighbouring ids of a term differ by far less than the
+ * full 64 bits: a posting costs about 3-6 bytes against roughly 24 for a boxed Long.
+ */
+final class PostingList {
+
+    static final int BLOCK_SIZE = 128;
+
+    static final PostingList EMPTY = new PostingList(new byte[0], 0, new long[0], new int[0]);
+
+    private final byte[] data;
+    private final int size;
+    private final long[] blockFirst;
+    private final int[] blockOffset;
+
+    private PostingList(byte[] data, int size, long[] blockFirst, int[] blockOffset) {
+        this.data = data;
+        this.size = size;
+        this.blockFirst = blockFirst;
+        this.blockOffset = blockOffset;
+    }
+
+    /**
+     * Encodes the first length entries of ids, which must be ascending and distinct.
+     */
+    static PostingList of(long[] ids, int length) {
+        if (length == 0) {
+            return EMPTY;
+        }
+        return encode(EMPTY, 0, ids, length);
+    }
+
+    /**
+     * The first keptBlocks blocks of kept, copied byte for byte, followed by the first length
+     * entries of ids, which must be ascending, distinct and greater than every kept id.
+     */
+    private static PostingList encode(PostingList kept, int keptBlocks, long[] ids, int length) {
+        int keptIds = keptBlocks * BLOCK_SIZE;
+        int keptBytes = keptBlocks == 0 ? 0 : kept.blockOffset[keptBlocks];
+        int total = keptIds + length;
+        int blocks = (total + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        long[] blockFirst = Arrays.copyOf(kept.blockFirst, blocks);
+        int[] blockOffset = Arrays.copyOf(kept.blockOffset, blocks);
+        byte[] buf = new byte[keptBytes + Math.max(16, length * 4)];
+        System.arraycopy(kept.data, 0, buf, 0, keptBytes);
+        int pos = keptBytes;
+        long previous = 0;
+        for (int i = 0; i < length; i++) {
+            long id = ids[i];
+            long value;
+            if ((keptIds + i) % BLOCK_SIZE == 0) {
+                int block = (keptIds + i) / BLOCK_SIZE;
+                blockFirst[block] = id;
+                blockOffset[block] = pos;
+                value = id;
+            } else {
+                if (id <= previous) {
+                    throw new IllegalArgumentException("Ids must be ascending and distinct");
+                }
+                value = id - previous;
+            }
+            if (pos + 10 > buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            pos = writeVarLong(buf, pos, value);
+            previous = id;
+        }
+        return new PostingList(Arrays.copyOf(buf, pos), total, blockFirst, blockOffset);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Encoded size in bytes, including the skip table. */
+    long encodedBytes() {
+        return data.length + blockFirst.length * 12L;
+    }
+
+    boolean contains(long id) {
+        return cursor().atMost(id) == id;
+    }
+
+    /** All ids, ascending. */
+    long[] toArray() {
+        long[] out = new long[size];
+        for (int block = 0; block < blockFirst.length; block++) {
+            decode(block, out, block * BLOCK_SIZE);
+        }
+        return out;
+    }
+
+    /**
+     * Returns a new list holding the union of this list and the first addCount entries of adds,
+     * which must be ascending and distinct; ids already present are kept once. Blocks wholly
+     * before the first add are copied as they are, so adding ids newer than the list (the usual
+     * case: ids are time-ordered) re-encodes only the last block and the adds.
+     */
+    PostingList union(long[] adds, int addCount) {
+        if (addCount == 0) {
+            return this;
+        }
+        // Every block before the one that can hold adds[0] is full and holds only smaller ids.
+        int keptBlocks = Math.max(0, blockFor(adds[0]));
+        int keptIds = keptBlocks * BLOCK_SIZE;
+        int restSize = size - keptIds;
+        long[] current = new long[restSize];
+        for (int block = keptBlocks; block < blockFirst.length; block++) {
+            decode(block, current, (block - keptBlocks) * BLOCK_SIZE);
+        }
+        long[] out = new long[restSize + addCount];
+        int n = 0;
+        int i = 0;
+        int a = 0;
+        while (i < restSize || a < addCount) {
+            if (a >= addCount || (i < restSize && current[i] < adds[a])) {
+                out[n++] = current[i++];
+            } else if (i >= restSize || adds[a] < current[i]) {
+                out[n++] = adds[a++];
+            } else {
+                out[n++] = current[i++];
+                a++;
+            }
+        }
+        return encode(this, keptBlocks, out, n);
+    }
+
+    /** A reader positioned by value; it keeps the last decoded block, so nearby lookups are cheap. */
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    /** Index of the last block whose first id is <= id, or -1 if id precedes every block. */
+    private int blockFor(long id) {
+        int idx = Arrays.binarySearch(blockFirst, id);
+        return idx >= 0 ? idx : -idx - 2;
+    }
+
+    /** Decodes one block into out starting at offset; returns the number of ids written. */
+    private int decode(int block, long[] out, int offset) {
+        int count = Math.min(BLOCK_SIZE, size - block * BLOCK_SIZE);
+        int pos = blockOffset[block];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            previous = i == 0 ? value : previous + value;
+            out[offset + i] = previous;
+        }
+        return count;
+    }
+
+    private static int writeVarLong(byte[] buf, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+        return pos;
+    }
+
+    final class Cursor {
+        private final long[] decoded = new long[BLOCK_SIZE];
+        private int decodedBlock = -1;
+        private int decodedCount;
+
+        /** Largest id <= target, or -1 if there is none. */
+        long atMost(long target) {
+            int block = blockFor(target);
+            if (block < 0) {
+                return -1;
+            }
+            if (block != decodedBlock) {
+                decodedCount = decode(block, decoded, 0);
+                decodedBlock = block;
+            }
+            int idx = Arrays.binarySearch(decoded, 0, decodedCount, target);
+            return decoded[idx >= 0 ? idx : -idx - 2];
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.dhruvsharma.feed.timelineservice.search;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.dhruvsharma.feed.timelineservice.datasource.ReplicaRouting;
+import com.dhruvsharma.feed.timelineservice.notification.NotificationsResetEvent;
+import com.dhruvsharma.feed.timelineservice.notification.PostCreatedNotification;
+import com.dhruvsharma.feed.timelineservice.repository.TimelineRepository;
+import com.dhruvsharma.feed.timelineservice.repository.entity.Post;
+import com.dhruvsharma.feed.timelineservice.sharding.ScatterGather;
+import com.dhruvsharma.feed.timelineservice.sharding.ShardRouter;
+import com.dhruvsharma.feed.timelineservice.sharding.ShardRouting;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fills and maintains the {@link PostSearchIndex}, all on one "search-indexer" thread.
+ *
+ * Every partition of posts on every shard is one segment of the index, named shard:partition.
+ * Once the application is ready the index is rebuilt from postsdb: one task per segment, run on
+ * feed.search.rebuild-threads threads. Each task streams id and content in id order through a
+ * server-side cursor (read-only transaction, so a replica when there is one) and hands the
+ * postings to the index every feed.search.rebuild-chunk-rows rows, so a large partition such
+ * as posts_legacy never sits in memory twice and each chunk only appends to the lists. A
+ * failed rebuild is retried with backoff; searches answer 503 until one completes.
+ *
+ * New posts arrive as post_created notifications. They queue up during the rebuild, then are
+ * loaded in batches by id from the primary of their author's shard (the post was committed a
+ * moment ago) and go to the segment of the partition their created_at falls in. When the
+ * LISTEN connection is re-established, notifications sent while it was down are lost, so posts
+ * created since the last indexed notification, less feed.search.catch-up-slack for clock skew
+ * and commit delay, are read again. Re-adding a post is a no-op.
+ *
+ * Partitions are listed again every feed.search.partition-refresh-interval. Segments whose
+ * partition is gone or being detached (PostPartitionMaintenance expiring it) are dropped, so
+ * expired posts stop matching.
+ *
+ * Posts loaded by the bulk importer send no notification; they become searchable at the next
+ * rebuild (pod restart).
+ */
+@Component
+public class SearchIndexLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexLoader.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final int FETCH_SIZE = 1_000;
+    private static final long POLL_TIMEOUT_MS = 500;
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    /**
+     * Attached partitions of posts on the current shard with their created_at range; detaching
+     * ones are being expired. A MINVALUE lower bound (posts_legacy) comes back as null.
+     */
+    private static final String PARTITIONS_SQL = """
+            SELECT i.inhrelid::regclass::text,
+                   substring(pg_get_expr(c.relpartbound, c.oid) FROM 'FROM \\(''([^'']+)''\\)')::timestamptz,
+                   substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \\(''([^'']+)''\\)')::timestamptz
+            FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'posts'::regclass AND NOT i.inhdetachpending
+            ORDER BY 1
+            """;
+
+    private final PostSearchIndex index;
+    private final TimelineRepository timelineRepository;
+    private final ScatterGather scatterGather;
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnly;
+    private final boolean enabled;
+    private final int rebuildThreads;
+    private final int rebuildChunkRows;
+    private final Duration catchUpSlack;
+    private final Duration partitionRefreshInterval;
+
+    private final BlockingQueue<PostCreatedNotification> pending = new LinkedBlockingQueue<>();
+    /** Partitions by shard as last listed; read and written on the indexer thread only. */
+    private final Map<Integer, List<Partition>> partitions = new HashMap<>();
+    private volatile boolean catchUpRequested;
+    private volatile boolean running;
+    private Instant indexedUpTo;
+    private long nextRefreshNanos;
+    private Thread thread;
+
+    public SearchIndexLoader(PostSearchIndex index,
+                             TimelineRepository timelineRepository,
+                             ScatterGather scatterGather,
+                             ShardRouter shardRouter,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${feed.search.enabled:true}") boolean enabled,
+                             @Value("${feed.search.rebuild-threads:4}") int rebuildThreads,
+                             @Value("${feed.search.rebuild-chunk-rows:200000}") int rebuildChunkRows,
+                             @Value("${feed.search.catch-up-slack:PT1M}") Duration catchUpSlack,
+                             @Value("${feed.search.partition-refresh-interval:PT5M}") Duration partitionRefreshInterval) {
+        this.index = index;
+        this.timelineRepository = timelineRepository;
+        this.scatterGather = scatterGather;
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.enabled = enabled;
+        this.rebuildThreads = rebuildThreads;
+        this.rebuildChunkRows = Math.max(1, rebuildChunkRows);
+        this.catchUpSlack = catchUpSlack;
+        this.partitionRefreshInterval = partitionRefreshInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("search-indexer").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @EventListener
+    public void onPostCreated(PostCreatedNotification notification) {
+        if (running) {
+            pending.add(notification);
+        }
+    }
+
+    @EventListener
+    public void onNotificationsReset(NotificationsResetEvent event) {
+        // Requests during the rebuild are served once it completes: the connection may have
+        // dropped after a partition was scanned. The startup LISTEN costs one short catch-up.
+        catchUpRequested = true;
+    }
+
+    private void run() {
+        long backoff = 1_000;
+        while (running && !index.isReady()) {
+            try {
+                rebuild();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException | ExecutionException e) {
+                log.warn("Search index rebuild failed, retrying in {} ms", backoff, e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+        backoff = 1_000;
+        nextRefreshNanos = System.nanoTime() + partitionRefreshInterval.toNanos();
+        while (running) {
+            try {
+                if (System.nanoTime() - nextRefreshNanos >= 0) {
+                    nextRefreshNanos = System.nanoTime() + partitionRefreshInterval.toNanos();
+                    refreshPartitions();
+                }
+                if (catchUpRequested) {
+                    catchUpRequested = false;
+                    catchUp();
+                }
+                PostCreatedNotification first = pending.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    indexNotified(first);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // The ids of this batch are lost until the next catch-up; ask for one.
+                log.warn("Indexing new posts failed", e);
+                catchUpRequested = true;
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void rebuild() throws InterruptedException, ExecutionException {
+        long started = System.nanoTime();
+        Instant startedAt = Instant.now();
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int shard = 0; shard < scatterGather.shardCount(); shard++) {
+            int target = shard;
+            for (Partition partition : listPartitions(target)) {
+                String segment = segment(target, partition);
+                tasks.add(() -> ShardRouting.onShard(target, () -> scan(partition.table(), segment)));
+            }
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, rebuildThreads),
+                Thread.ofPlatform().name("search-rebuild-", 0).daemon().factory());
+        long posts = 0;
+        try {
+            ExecutorCompletionService<Long> completion = new ExecutorCompletionService<>(pool);
+            tasks.forEach(completion::submit);
+            for (int i = 0; i < tasks.size(); i++) {
+                posts += completion.take().get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        indexedUpTo = startedAt;
+        index.markReady();
+        log.info("Search index rebuilt from {} posts in {} partitions in {} ms ({} bytes of postings)", posts,
+                tasks.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), index.encodedBytes());
+    }
+
+    /**
+     * Tokenizes one table (a partition on the bound shard) into a segment, one chunk of rows at
+     * a time. Rows come in id order, so every chunk's ids are newer than the segment's so far.
+     */
+    private long scan(String table, String segment) {
+        Map<String, IdBuffer> postings = new HashMap<>();
+        long[] rows = {0};
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            // table comes from regclass::text, which quotes it where needed.
+            PreparedStatement ps = con.prepareStatement("SELECT id, content FROM " + table + " ORDER BY id");
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            long id = rs.getLong(1);
+            for (String term : Tokenizer.documentTerms(rs.getString(2))) {
+                postings.computeIfAbsent(term, t -> new IdBuffer()).add(id);
+            }
+            if (++rows[0] % rebuildChunkRows == 0) {
+                flush(segment, postings);
+            }
+        }));
+        flush(segment, postings);
+        return rows[0];
+    }
+
+    private void flush(String segment, Map<String, IdBuffer> postings) {
+        Map<String, long[]> sorted = new HashMap<>(postings.size() * 2);
+        postings.forEach((term, ids) -> sorted.put(term, ids.toSortedArray()));
+        postings.clear();
+        index.addAll(segment, sorted);
+    }
+
+    private void indexNotified(PostCreatedNotification first) {
+        Instant drainedAt = Instant.now();
+        List<PostCreatedNotification> batch = new ArrayList<>(BATCH_SIZE);
+        batch.add(first);
+        pending.drainTo(batch, BATCH_SIZE - 1);
+        // New posts are on their author's shard; ask only those, on the primary.
+        Map<Integer, List<Long>> idsByShard = new TreeMap<>();
+        for (PostCreatedNotification notification : batch) {
+            idsByShard.computeIfAbsent(shardRouter.shardFor(notification.authorId()), shard -> new ArrayList<>())
+                    .add(notification.postId());
+        }
+        idsByShard.forEach((shard, ids) -> {
+            List<Post> posts = ShardRouting.onShard(shard,
+                    () -> ReplicaRouting.onPrimary(() -> timelineRepository.findByIds(ids)));
+            for (Post post : posts) {
+                add(shard, post.getId(), post.getContent(), post.getCreatedAt());
+            }
+        });
+        indexedUpTo = drainedAt;
+    }
+
+    /** Re-reads posts created since the last indexed notification on every shard's primary. */
+    private void catchUp() {
+        Instant since = indexedUpTo.minus(catchUpSlack);
+        Instant startedAt = Instant.now();
+        int[] posts = {0};
+        for (int shard = 0; shard < scatterGather.shardCount(); shard++) {
+            int target = shard;
+            ShardRouting.onShard(target, () -> ReplicaRouting.onPrimary(() -> readOnly.executeWithoutResult(
+                    status -> jdbcTemplate.query(con -> {
+                        PreparedStatement ps = con.prepareStatement(
+                                "SELECT id, content, created_at FROM posts WHERE created_at >= ?");
+                        ps.setTimestamp(1, Timestamp.from(since));
+                        ps.setFetchSize(FETCH_SIZE);
+                        return ps;
+                    }, (RowCallbackHandler) rs -> {
+                        add(target, rs.getLong(1), rs.getString(2), rs.getTimestamp(3).toInstant());
+                        posts[0]++;
+                    }))));
+        }
+        indexedUpTo = startedAt;
+        log.info("Search index caught up on {} posts created since {}", posts[0], since);
+    }
+
+    /**
+     * Indexes a post into the segment of its partition. A partition created since the last
+     * listing is found by listing again; a post whose partition is no longer listed is being
+     * expired and is skipped.
+     */
+    private void add(int shard, long postId, String content, Instant createdAt) {
+        Partition partition = partitionFor(shard, createdAt);
+        if (partition == null) {
+            listPartitions(shard);
+            partition = partitionFor(shard, createdAt);
+        }
+        if (partition == null) {
+            log.debug("Post {} on shard {} is in no attached partition; not indexed", postId, shard);
+            return;
+        }
+        index.add(segment(shard, partition), postId, content);
+    }
+
+    private Partition partitionFor(int shard, Instant createdAt) {
+        for (Partition partition : partitions.getOrDefault(shard, List.of())) {
+            if (partition.holds(createdAt)) {
+                return partition;
+            }
+        }
+        return null;
+    }
+
+    /** Lists every shard's partitions again and drops the segments of those no longer attached. */
+    private void refreshPartitions() {
+        Set<String> live = new HashSet<>();
+        for (int shard = 0; shard < scatterGather.shardCount(); shard++) {
+            for (Partition partition : listPartitions(shard)) {
+                live.add(segment(shard, partition));
+            }
+        }
+        for (String segment : index.segments()) {
+            if (!live.contains(segment) && index.dropSegment(segment)) {
+                log.info("Dropped search index segment {}: its partition was expired", segment);
+            }
+        }
+    }
+
+    /** Lists and remembers a shard's attached partitions; an unpartitioned posts is one. */
+    private List<Partition> listPartitions(int shard) {
+        List<Partition> listed = ShardRouting.onShard(shard, () -> jdbcTemplate.query(PARTITIONS_SQL,
+                (rs, i) -> new Partition(rs.getString(1), instant(rs.getTimestamp(2)), instant(rs.getTimestamp(3)))));
+        if (listed.isEmpty()) {
+            listed = List.of(new Partition("posts", null, null));
+        }
+        partitions.put(shard, listed);
+        return listed;
+    }
+
+    private static String segment(int shard, Partition partition) {
+        return shard + ":" + partition.table();
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    /** A partition of posts and its created_at range [from, to); null bounds are unbounded. */
+    private record Partition(String table, Instant from, Instant to) {
+
+        boolean holds(Instant createdAt) {
+            return (from == null || !createdAt.isBefore(from)) && (to == null || createdAt.isBefore(to));
+        }
+    }
+
+    /** Growable long array for one term's ids during a scan. */
+    private static final class IdBuffer {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        long[] toSortedArray() {
+            long[] out = Arrays.copyOf(ids, size);
+            Arrays.sort(out);
+            int n = 0;
+            for (int i = 0; i < out.length; i++) {
+                if (n == 0 || out[i] != out[n - 1]) {
+                    out[n++] = out[i];
+                }
+            }
+            return n == out.length ? out : Arrays.copyOf(out, n);
+        }
+    }
+}
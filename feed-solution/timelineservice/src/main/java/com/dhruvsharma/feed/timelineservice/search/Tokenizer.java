@@ -0,0 +1,106 @@
+package com.dhruvsharma.feed.timelineservice.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits post content and search queries into index terms.
+ *
+ * Text is NFKC-normalized and lower-cased; a word is a run of letters, digits and underscores.
+ * Plain words shorter than two characters are dropped and every term is cut at
+ * {@value #MAX_TERM_LENGTH} characters. A word directly after '#' or '@' (and not inside
+ * another word, so e-mail addresses are not mentions) is a hashtag or mention: a post indexes
+ * it both as "#tag" / "@name" and as the plain word, so "java" finds "#java" while "#java"
+ * finds only the hashtag. Query terms are not expanded.
+ */
+public final class Tokenizer {
+
+    static final int MAX_TERM_LENGTH = 64;
+
+    private Tokenizer() {
+    }
+
+    /** Distinct terms to index a post under, in order of first appearance. */
+    public static Set<String> documentTerms(String content) {
+        Set<String> terms = new LinkedHashSet<>();
+        scan(content, (marker, word) -> {
+            if (marker != 0) {
+                terms.add(marker + word);
+            }
+            if (word.length() >= 2) {
+                terms.add(word);
+            }
+        });
+        return terms;
+    }
+
+    /** Distinct terms a post must contain to match the query, in order of first appearance. */
+    public static List<String> queryTerms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        scan(query, (marker, word) -> {
+            if (marker != 0) {
+                terms.add(marker + word);
+            } else if (word.length() >= 2) {
+                terms.add(word);
+            }
+        });
+        return new ArrayList<>(terms);
+    }
+
+    private interface WordSink {
+        /** marker is '#', '@' or 0 for a plain word. */
+        void accept(char marker, String word);
+    }
+
+    private static void scan(String text, WordSink sink) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        int length = normalized.length();
+        int i = 0;
+        int previous = -1;
+        while (i < length) {
+            int cp = normalized.codePointAt(i);
+            if (!isWordChar(cp)) {
+                previous = cp;
+                i += Character.charCount(cp);
+                continue;
+            }
+            int start = i;
+            while (i < length && isWordChar(normalized.codePointAt(i))) {
+                i += Character.charCount(normalized.codePointAt(i));
+            }
+            char marker = 0;
+            if ((previous == '#' || previous == '@') && !precededByWord(normalized, start - 1)) {
+                marker = (char) previous;
+            }
+            sink.accept(marker, truncate(normalized.substring(start, i)));
+            previous = normalized.codePointBefore(i);
+        }
+    }
+
+    /** Whether the character before index is part of a word (e.g. the "user" in user@host). */
+    private static boolean precededByWord(String text, int index) {
+        return index > 0 && isWordChar(text.codePointBefore(index));
+    }
+
+    private static boolean isWordChar(int cp) {
+        return Character.isLetterOrDigit(cp) || cp == '_';
+    }
+
+    private static String truncate(String word) {
+        if (word.length() <= MAX_TERM_LENGTH) {
+            return word;
+        }
+        int end = MAX_TERM_LENGTH;
+        if (Character.isHighSurrogate(word.charAt(end - 1))) {
+            end--;
+        }
+        return word.substring(0, end);
+    }
+}
@@ -1,7 +1,57 @@
 package com.dhruvsharma.feed.timelineservice.service;
 
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.dhruvsharma.feed.timelineservice.dto.PostDTO;
+import com.dhruvsharma.feed.timelineservice.dto.RankedTimelineResponse;
 import com.dhruvsharma.feed.timelineservice.dto.TimelineResponse;
 
 public interface TimelineService {
-    TimelineResponse getTimeline(String userId);
+    /**
+     * Returns one page of the caller's home timeline (own posts and posts by followed users),
+     * newest first. Reads the materialized home timeline and merges in posts by fan-out-exempt
+     * authors the caller follows.
+     *
+     * @param cursor opaque nextCursor from the previous page, or null for the first page
+     * @param limit  requested page size; clamped to the configured maximum
+     * @param notModified given the page's ETag before the response is built; returning true
+     *                    (client copy is current) makes this method return empty
+     */
+    Optional<TimelineResponse> getTimeline(String userId, String authorizationHeader, String cursor, int limit,
+                                           Predicate<String> notModified);
+
+    /**
+     * Returns the top limit posts of the caller's home timeline by score rather than by time.
+     * Candidates are the newest home timeline posts; see {@code RankingPipeline}.
+     */
+    RankedTimelineResponse getRankedTimeline(String userId, String authorizationHeader, int limit);
+
+    /**
+     * Returns one page of the global timeline (all posts), newest first.
+     */
+    Optional<TimelineResponse> getGlobalTimeline(String cursor, int limit, String authorizationHeader,
+                                                 Predicate<String> notModified);
+
+    /**
+     * Returns one page of the posts containing every term of the query (words, #hashtags,
+     * @mentions), newest first. Fails with 400 for a query without terms and 503 while the
+     * search index is still being built.
+     */
+    TimelineResponse search(String query, String cursor, int limit, String authorizationHeader);
+
+    /**
+     * Streams up to limit posts of the global timeline, newest first, to the sink as rows are
+     * read from the database cursor. Nothing is accumulated, so heap use is independent of limit.
+     */
+    void streamGlobalTimeline(String cursor, int limit, Consumer<PostDTO> sink);
+
+    /**
+     * Opens a server-sent event subscription that receives each new post added to the caller's
+     * home timeline, including posts by fan-out-exempt followees.
+     */
+    SseEmitter subscribe(String userId, String authorizationHeader);
 }
@@ -1,33 +1,362 @@
 package com.dhruvsharma.feed.timelineservice.service.impl;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.StreamSupport;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.dhruvsharma.feed.timelineservice.cache.AuthorCache;
+import com.dhruvsharma.feed.timelineservice.cache.TimelineCache;
+import com.dhruvsharma.feed.timelineservice.cache.TimelineHead;
+import com.dhruvsharma.feed.timelineservice.client.UserServiceClient;
+import com.dhruvsharma.feed.timelineservice.client.dto.FollowPageResponse;
+import com.dhruvsharma.feed.timelineservice.datasource.ReadYourWrites;
+import com.dhruvsharma.feed.timelineservice.datasource.ReplicaRouting;
 import com.dhruvsharma.feed.timelineservice.dto.PostDTO;
+import com.dhruvsharma.feed.timelineservice.dto.RankedTimelineResponse;
+import com.dhruvsharma.feed.timelineservice.live.LiveTimelineHub;
 import com.dhruvsharma.feed.timelineservice.dto.TimelineResponse;
-import com.dhruvsharma.feed.timelineservice.repository.TimelineRepository;
+import com.dhruvsharma.feed.timelineservice.pagination.TimelineCursor;
+import com.dhruvsharma.feed.timelineservice.ranking.Candidates;
+import com.dhruvsharma.feed.timelineservice.ranking.RankingContext;
+import com.dhruvsharma.feed.timelineservice.ranking.RankingPipeline;
+import com.dhruvsharma.feed.timelineservice.repository.ShardedTimelineRepository;
 import com.dhruvsharma.feed.timelineservice.repository.entity.Post;
+import com.dhruvsharma.feed.timelineservice.search.PostSearchIndex;
+import com.dhruvsharma.feed.timelineservice.search.Tokenizer;
 import com.dhruvsharma.feed.timelineservice.service.TimelineService;
 
 @Service
 public class TimelineServiceImpl implements TimelineService {
-    private final TimelineRepository timelineRepository;
 
-    public TimelineServiceImpl(TimelineRepository timelineRepository) {
+    /** Newest first, same order as the (created_at, id) keyset. */
+    private static final Comparator<Post> NEWEST_FIRST = Comparator
+            .comparing(Post::getCreatedAt)
+            .thenComparing(Post::getId)
+            .reversed();
+
+    private final ShardedTimelineRepository timelineRepository;
+    private final UserServiceClient userServiceClient;
+    private final TimelineCache timelineCache;
+    private final AuthorCache authorCache;
+    private final LiveTimelineHub liveTimelineHub;
+    private final RankingPipeline rankingPipeline;
+    private final PostSearchIndex searchIndex;
+    private final ReadYourWrites readYourWrites;
+    private final int maxPageSize;
+    private final long celebrityThreshold;
+    private final int maxMergedAuthors;
+    private final int maxStreamRows;
+    private final int rankingCandidates;
+    private final int rankingGraphLimit;
+    private final int maxSearchTerms;
+
+    public TimelineServiceImpl(ShardedTimelineRepository timelineRepository,
+                               UserServiceClient userServiceClient,
+                               TimelineCache timelineCache,
+                               AuthorCache authorCache,
+                               LiveTimelineHub liveTimelineHub,
+                               RankingPipeline rankingPipeline,
+                               PostSearchIndex searchIndex,
+                               ReadYourWrites readYourWrites,
+                               @Value("${feed.timeline.max-page-size:100}") int maxPageSize,
+                               @Value("${feed.timeline.celebrity-threshold:10000}") long celebrityThreshold,
+                               @Value("${feed.timeline.max-merged-authors:200}") int maxMergedAuthors,
+                               @Value("${feed.timeline.stream.max-rows:100000}") int maxStreamRows,
+                               @Value("${feed.timeline.ranking.candidates:500}") int rankingCandidates,
+                               @Value("${feed.timeline.ranking.graph-limit:10000}") int rankingGraphLimit,
+                               @Value("${feed.search.max-terms:8}") int maxSearchTerms) {
         this.timelineRepository = timelineRepository;
+        this.userServiceClient = userServiceClient;
+        this.timelineCache = timelineCache;
+        this.authorCache = authorCache;
+        this.liveTimelineHub = liveTimelineHub;
+        this.rankingPipeline = rankingPipeline;
+        this.searchIndex = searchIndex;
+        this.readYourWrites = readYourWrites;
+        this.maxPageSize = maxPageSize;
+        this.celebrityThreshold = celebrityThreshold;
+        this.maxMergedAuthors = maxMergedAuthors;
+        this.maxStreamRows = maxStreamRows;
+        this.rankingCandidates = rankingCandidates;
+        this.rankingGraphLimit = rankingGraphLimit;
+        this.maxSearchTerms = maxSearchTerms;
+    }
+
+    @Override
+    public Optional<TimelineResponse> getTimeline(String userId, String authorizationHeader, String cursor, int limit,
+                                                  Predicate<String> notModified) {
+        int pageSize = pageSize(limit);
+        TimelineCursor after = TimelineCursor.decode(cursor);
+        long internalUserId = resolveUserId(userId, authorizationHeader);
+
+        if (after == null) {
+            TimelineHead head = timelineCache.home(internalUserId, id -> loadHomeHead(id, authorizationHeader));
+            return toConditionalPage(head.posts(), pageSize, authorizationHeader, notModified);
+        }
+        List<Post> home = timelineRepository.findHomeOlderThan(internalUserId, after.createdAt(), after.id(), pageSize + 1);
+        long[] exemptAuthors = exemptAuthors(internalUserId, authorizationHeader);
+        if (exemptAuthors.length == 0) {
+            return toConditionalPage(home, pageSize, authorizationHeader, notModified);
+        }
+        List<Post> pulled = timelineRepository.findOlderThanByAuthors(
+                boxed(exemptAuthors), after.createdAt(), after.id(), pageSize + 1);
+        return toConditionalPage(merge(home, pulled, pageSize + 1), pageSize, authorizationHeader, notModified);
     }
 
     @Override
-    public TimelineResponse getTimeline(String userId) {
-        List<PostDTO> posts = StreamSupport.stream(timelineRepository.findAll().spliterator(), false)
-                .map(this::toPostDTO)
+    public RankedTimelineResponse getRankedTimeline(String userId, String authorizationHeader, int limit) {
+        int k = pageSize(limit);
+        long internalUserId = resolveUserId(userId, authorizationHeader);
+        List<Post> home = timelineRepository.findHomeLatest(internalUserId, rankingCandidates);
+        long[] exemptAuthors = exemptAuthors(internalUserId, authorizationHeader);
+        List<Post> candidatePosts = exemptAuthors.length == 0
+                ? home
+                : merge(home, timelineRepository.findLatestByAuthors(boxed(exemptAuthors), rankingCandidates),
+                        rankingCandidates);
+
+        RankingContext context = new RankingContext(internalUserId, System.currentTimeMillis(),
+                followIds(userServiceClient.getFollowees(internalUserId, rankingGraphLimit, authorizationHeader)),
+                followIds(userServiceClient.getFollowers(internalUserId, rankingGraphLimit, authorizationHeader)));
+        Candidates candidates = Candidates.of(candidatePosts);
+        RankingPipeline.Ranked ranked = rankingPipeline.rank(candidates, context, k);
+
+        List<Post> top = new ArrayList<>(ranked.order().length);
+        for (int index : ranked.order()) {
+            top.add(candidates.post(index));
+        }
+        return new RankedTimelineResponse(toPage(top, top.size(), authorizationHeader).getPosts(),
+                ranked.stageMicros());
+    }
+
+    private static long[] followIds(Optional<FollowPageResponse> page) {
+        return page.map(FollowPageResponse::getIds).orElse(new long[0]);
+    }
+
+    @Override
+    public Optional<TimelineResponse> getGlobalTimeline(String cursor, int limit, String authorizationHeader,
+                                                        Predicate<String> notModified) {
+        int pageSize = pageSize(limit);
+        TimelineCursor after = TimelineCursor.decode(cursor);
+        if (after == null) {
+            TimelineHead head = timelineCache.global(() -> new TimelineHead(
+                    freshRead(readYourWrites.isPinned(ReadYourWrites.GLOBAL_TIMELINE),
+                            () -> timelineRepository.findLatest(maxPageSize + 1)),
+                    new long[0]));
+            return toConditionalPage(head.posts(), pageSize, authorizationHeader, notModified);
+        }
+        // Fetch one extra row to learn whether another page exists without a COUNT(*).
+        return toConditionalPage(timelineRepository.findOlderThan(after.createdAt(), after.id(), pageSize + 1),
+                pageSize, authorizationHeader, notModified);
+    }
+
+    /**
+     * The index yields matching ids newest first (ids are time-ordered); only the page is then
+     * loaded from postsdb. The cursor is the usual (created_at, id) token; its id is the bound.
+     */
+    @Override
+    public TimelineResponse search(String query, String cursor, int limit, String authorizationHeader) {
+        List<String> terms = Tokenizer.queryTerms(query);
+        if (terms.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query has no searchable terms");
+        }
+        if (terms.size() > maxSearchTerms) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Search query has more than " + maxSearchTerms + " terms");
+        }
+        if (!searchIndex.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Search index is being built");
+        }
+        int pageSize = pageSize(limit);
+        TimelineCursor after = TimelineCursor.decode(cursor);
+        long[] ids = searchIndex.search(terms, after == null ? Long.MAX_VALUE : after.id(), pageSize + 1);
+        // Whether more match is the index's answer: posts it still lists may be gone from postsdb
+        // (expired before the segment was dropped), and a short page must not end the results.
+        boolean hasMore = ids.length > pageSize;
+        long[] pageIds = hasMore ? Arrays.copyOf(ids, pageSize) : ids;
+        List<Post> page = timelineRepository.findByIds(boxed(pageIds));
+        TimelineCursor next = null;
+        if (hasMore) {
+            // Only the id bounds the next search.
+            Instant createdAt = page.isEmpty() ? Instant.EPOCH : page.get(page.size() - 1).getCreatedAt();
+            next = new TimelineCursor(createdAt, pageIds[pageIds.length - 1]);
+        }
+        return toPage(page, next, usernames(page, authorizationHeader));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamGlobalTimeline(String cursor, int limit, Consumer<PostDTO> sink) {
+        TimelineCursor decoded = TimelineCursor.decode(cursor);
+        TimelineCursor after = decoded == null ? TimelineCursor.NEWEST : decoded;
+        int rows = Math.max(1, Math.min(limit, maxStreamRows));
+        try (Stream<Post> posts = timelineRepository.streamOlderThan(after.createdAt(), after.id(), rows)) {
+            posts.map(this::toPostDTO).forEach(sink);
+        }
+    }
+
+    @Override
+    public SseEmitter subscribe(String userId, String authorizationHeader) {
+        long internalUserId = resolveUserId(userId, authorizationHeader);
+        return liveTimelineHub.subscribe(internalUserId, exemptAuthors(internalUserId, authorizationHeader));
+    }
+
+    private long resolveUserId(String userId, String authorizationHeader) {
+        Long internalUserId = timelineCache.userId(userId, sub -> userServiceClient.getCurrentUser(authorizationHeader)
+                .map(u -> u.getId())
+                .orElse(null));
+        if (internalUserId == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "User not registered. Please log in again to complete registration.");
+        }
+        return internalUserId;
+    }
+
+    /**
+     * Loads the newest maxPageSize + 1 home timeline posts, so the cached head can serve any
+     * page size. Heads are read from a replica unless the data behind them was written within
+     * the read-your-writes window (see {@link #freshRead}).
+     */
+    private TimelineHead loadHomeHead(long internalUserId, String authorizationHeader) {
+        List<Post> home = freshRead(readYourWrites.isPinned(ReadYourWrites.homeTimeline(internalUserId)),
+                () -> timelineRepository.findHomeLatest(internalUserId, maxPageSize + 1));
+        long[] exemptAuthors = exemptAuthors(internalUserId, authorizationHeader);
+        if (exemptAuthors.length == 0) {
+            return new TimelineHead(home, exemptAuthors);
+        }
+        boolean authorWrote = false;
+        for (long author : exemptAuthors) {
+            authorWrote |= readYourWrites.isPinned(ReadYourWrites.author(author));
+        }
+        List<Post> pulled = freshRead(authorWrote,
+                () -> timelineRepository.findLatestByAuthors(boxed(exemptAuthors), maxPageSize + 1));
+        return new TimelineHead(merge(home, pulled, maxPageSize + 1), exemptAuthors);
+    }
+
+    /**
+     * Runs a head load on the primary when justWritten, otherwise wherever the replica routing
+     * sends read-only queries. A head reload usually follows a NOTIFY-driven invalidation, and a
+     * replica that has not replayed that write yet would put the stale head back in the cache
+     * until the TTL; outside that window a replica within the lag tolerance is good enough.
+     */
+    private static <T> T freshRead(boolean justWritten, Supplier<T> load) {
+        return justWritten ? ReplicaRouting.onPrimary(load) : load.get();
+    }
+
+    private long[] exemptAuthors(long internalUserId, String authorizationHeader) {
+        return userServiceClient
+                .getFolloweesWithMinFollowers(internalUserId, celebrityThreshold + 1, maxMergedAuthors, authorizationHeader)
+                .map(FollowPageResponse::getIds)
+                .orElse(new long[0]);
+    }
+
+    private static List<Long> boxed(long[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+
+    private int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    /**
+     * Merges two newest-first lists into one of at most max rows, dropping duplicate post ids
+     * (a post can be in both when its author crossed the fan-out threshold).
+     */
+    private static List<Post> merge(List<Post> a, List<Post> b, int max) {
+        List<Post> merged = new ArrayList<>(Math.min(max, a.size() + b.size()));
+        int i = 0;
+        int j = 0;
+        Post previous = null;
+        while (merged.size() < max && (i < a.size() || j < b.size())) {
+            Post next;
+            if (j >= b.size() || (i < a.size() && NEWEST_FIRST.compare(a.get(i), b.get(j)) <= 0)) {
+                next = a.get(i++);
+            } else {
+                next = b.get(j++);
+            }
+            if (previous == null || !previous.getId().equals(next.getId())) {
+                merged.add(next);
+                previous = next;
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Derives a weak ETag from the page's rows: the post ids (posts are immutable, so an id
+     * stands for its content, timestamp and attachments), their author ids, and whether a next
+     * page exists. Weak, because the same page is sent as JSON or CBOR and the two bodies differ
+     * byte for byte. The check runs before usernames are resolved, so a 304 costs no author
+     * lookup; returns empty when the client's copy is current. An author's rename therefore
+     * reaches a revalidating client with the next change to the page.
+     */
+    private Optional<TimelineResponse> toConditionalPage(List<Post> rows, int pageSize, String authorizationHeader,
+                                                         Predicate<String> notModified) {
+        boolean hasMore = rows.size() > pageSize;
+        List<Post> page = hasMore ? rows.subList(0, pageSize) : rows;
+        long hash = 0xcbf29ce484222325L;
+        for (Post post : page) {
+            hash = (hash ^ post.getId()) * 0x100000001b3L;
+            hash = (hash ^ post.getAuthorId()) * 0x100000001b3L;
+        }
+        hash = (hash ^ (hasMore ? 1 : 0)) * 0x100000001b3L;
+        String etag = "W/\"t" + Long.toHexString(hash) + "\"";
+        if (notModified.test(etag)) {
+            return Optional.empty();
+        }
+        return Optional.of(toPage(page, hasMore, usernames(page, authorizationHeader)));
+    }
+
+    private TimelineResponse toPage(List<Post> rows, int pageSize, String authorizationHeader) {
+        boolean hasMore = rows.size() > pageSize;
+        List<Post> page = hasMore ? rows.subList(0, pageSize) : rows;
+        return toPage(page, hasMore, usernames(page, authorizationHeader));
+    }
+
+    private TimelineResponse toPage(List<Post> page, boolean hasMore, Map<Long, String> usernames) {
+        Post last = hasMore ? page.get(page.size() - 1) : null;
+        return toPage(page, last == null ? null : new TimelineCursor(last.getCreatedAt(), last.getId()), usernames);
+    }
+
+    private TimelineResponse toPage(List<Post> page, TimelineCursor next, Map<Long, String> usernames) {
+        String nextCursor = next == null ? null : next.encode();
+        List<PostDTO> posts = page.stream()
+                .map(post -> {
+                    PostDTO dto = toPostDTO(post);
+                    dto.setAuthorUsername(usernames.get(post.getAuthorId()));
+                    return dto;
+                })
                 .toList();
-        return new TimelineResponse(posts);
+        return new TimelineResponse(posts, nextCursor);
+    }
+
+    /** One batch lookup for the page's distinct authors instead of one request per post. */
+    private Map<Long, String> usernames(List<Post> page, String authorizationHeader) {
+        Set<Long> authorIds = new HashSet<>();
+        for (Post post : page) {
+            authorIds.add(post.getAuthorId());
+        }
+        return authorCache.usernames(authorIds, authorizationHeader);
     }
 
     private PostDTO toPostDTO(Post post) {
-        return new PostDTO(post.getId(), post.getContent(), post.getAuthorId());
+        return new PostDTO(post.getId(), post.getContent(), post.getAuthorId(), null, post.getCreatedAt(),
+                post.getAttachmentIds());
     }
 }
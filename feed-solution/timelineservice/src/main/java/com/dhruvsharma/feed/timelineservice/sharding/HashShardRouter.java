@@ -0,0 +1,33 @@
+package com.dhruvsharma.feed.timelineservice.sharding;
+
+/**
+ * Shard = mixed hash of the author id modulo the shard count; the same function as
+ * postservice's HashShardRouter, which decides where posts are written. Both services must be
+ * given the same shard list in the same order.
+ */
+public class HashShardRouter implements ShardRouter {
+
+    private final int shardCount;
+
+    public HashShardRouter(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shardCount = shardCount;
+    }
+
+    @Override
+    public int shardFor(long authorId) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        // MurmurHash3 fmix64 finalizer.
+        long h = authorId;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) Math.floorMod(h, (long) shardCount);
+    }
+}
@@ -0,0 +1,84 @@
+package com.dhruvsharma.feed.timelineservice.sharding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges k individually sorted sources into one sorted sequence with a heap of the sources'
+ * current heads: O(n log k) comparisons, and only one element per source is held at a time.
+ * Ties keep source order (lower source index first), so merging is deterministic.
+ */
+public final class KWayMerge {
+
+    private KWayMerge() {
+    }
+
+    /** First limit elements of the merge of the sorted lists. */
+    public static <T> List<T> merge(List<? extends List<T>> sources, Comparator<? super T> order, int limit) {
+        List<Iterator<T>> iterators = new ArrayList<>(sources.size());
+        int total = 0;
+        for (List<T> source : sources) {
+            iterators.add(source.iterator());
+            total += source.size();
+        }
+        List<T> merged = new ArrayList<>(Math.min(total, limit));
+        Iterator<T> it = merge(iterators, order);
+        while (merged.size() < limit && it.hasNext()) {
+            merged.add(it.next());
+        }
+        return merged;
+    }
+
+    /**
+     * Lazy merge of the sorted iterators. A source is advanced only when its current head is
+     * taken, so sources backed by paged queries fetch little more than what is consumed.
+     */
+    public static <T> Iterator<T> merge(List<? extends Iterator<T>> sources, Comparator<? super T> order) {
+        return new MergingIterator<>(sources, order);
+    }
+
+    private record Head<T>(T value, int source) {
+    }
+
+    private static final class MergingIterator<T> implements Iterator<T> {
+
+        private final List<? extends Iterator<T>> sources;
+        private final PriorityQueue<Head<T>> heads;
+
+        MergingIterator(List<? extends Iterator<T>> sources, Comparator<? super T> order) {
+            this.sources = sources;
+            Comparator<Head<T>> byValue = (a, b) -> order.compare(a.value(), b.value());
+            this.heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                    byValue.thenComparingInt(Head::source));
+            for (int i = 0; i < sources.size(); i++) {
+                advance(i);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            Head<T> head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            advance(head.source());
+            return head.value();
+        }
+
+        private void advance(int source) {
+            Iterator<T> it = sources.get(source);
+            if (it.hasNext()) {
+                heads.add(new Head<>(it.next(), source));
+            }
+        }
+    }
+}
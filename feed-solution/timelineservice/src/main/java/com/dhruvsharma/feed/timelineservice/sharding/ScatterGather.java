@@ -0,0 +1,106 @@
+package com.dhruvsharma.feed.timelineservice.sharding;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * Runs a shard-local query on every postsdb shard, or on a chosen few, in parallel and returns
+ * the results by shard index; merging them is the caller's business (see {@link KWayMerge}).
+ *
+ * Shard 0 runs on the calling thread so it keeps the caller's transaction, replica routing
+ * and read-your-writes pinning; the other shards run on the executor, each in its own
+ * transaction bound to its shard. With a single shard nothing leaves the calling thread.
+ */
+public class ScatterGather {
+
+    private final int shardCount;
+    private final int[] allShards;
+    private final Executor executor;
+    private final long timeoutMillis;
+
+    public ScatterGather(int shardCount, Executor executor, Duration timeout) {
+        this.shardCount = shardCount;
+        this.allShards = IntStream.range(0, shardCount).toArray();
+        this.executor = executor;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /** Result i is query.apply(i) run against shard i. */
+    public <T> List<T> scatter(IntFunction<T> query) {
+        if (shardCount == 1) {
+            return List.of(query.apply(0));
+        }
+        return scatter(allShards, query);
+    }
+
+    /**
+     * Result i is query.apply(shards[i]) run against shards[i]; shards must be distinct and in
+     * ascending order. For queries that only some shards can answer.
+     */
+    public <T> List<T> scatter(int[] shards, IntFunction<T> query) {
+        boolean local = shards.length > 0 && shards[0] == 0;
+        List<CompletableFuture<T>> remote = new ArrayList<>(shards.length);
+        for (int i = local ? 1 : 0; i < shards.length; i++) {
+            int target = shards[i];
+            remote.add(CompletableFuture.supplyAsync(
+                    () -> ShardRouting.onShard(target, () -> query.apply(target)), executor));
+        }
+        List<T> results = new ArrayList<>(shards.length);
+        if (local) {
+            try {
+                results.add(query.apply(0));
+            } catch (RuntimeException e) {
+                remote.forEach(f -> f.cancel(true));
+                throw e;
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (CompletableFuture<T> future : remote) {
+            results.add(await(future, deadline));
+        }
+        return results;
+    }
+
+    /** Runs one query against one shard: inline for shard 0, on the executor otherwise. */
+    public <T> T on(int shard, Supplier<T> query) {
+        if (shard == 0) {
+            return query.get();
+        }
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(
+                () -> ShardRouting.onShard(shard, query), executor);
+        return await(future, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+
+    private static <T> T await(CompletableFuture<T> future, long deadlineNanos) {
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new QueryTimeoutException("Shard query timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("Interrupted waiting for shard query", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.dhruvsharma.feed.timelineservice.sharding;
+
+/**
+ * The postsdb shard postservice writes an author's new posts to. Readers use it to skip shards
+ * that cannot hold an author's posts, so it must place authors exactly as postservice's router
+ * does.
+ */
+public interface ShardRouter {
+
+    int shardFor(long authorId);
+}
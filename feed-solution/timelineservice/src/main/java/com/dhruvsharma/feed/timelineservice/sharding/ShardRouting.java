@@ -0,0 +1,45 @@
+package com.dhruvsharma.feed.timelineservice.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread shard binding for {@link ShardRoutingDataSource}: connections taken inside
+ * {@link #onShard(int, Supplier)} come from that postsdb shard; everything else uses shard 0,
+ * which also holds the unsharded tables (home_timeline_entries, outbox, imports).
+ *
+ * The binding only affects connections fetched while it is active, so it must wrap a whole
+ * transaction, not a statement inside one.
+ */
+public final class ShardRouting {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private ShardRouting() {
+    }
+
+    public static <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                SHARD.remove();
+            } else {
+                SHARD.set(previous);
+            }
+        }
+    }
+
+    public static void onShard(int shard, Runnable work) {
+        onShard(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    static int currentShard() {
+        Integer shard = SHARD.get();
+        return shard != null ? shard : 0;
+    }
+}
@@ -0,0 +1,125 @@
+package com.dhruvsharma.feed.timelineservice.benchmark;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.dhruvsharma.feed.timelineservice.dto.PostDTO;
+import com.dhruvsharma.feed.timelineservice.dto.TimelineResponse;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * Encoding and decoding a 100-post TimelineResponse as JSON and as CBOR (what a client gets
+ * with Accept: application/cbor). Posts are shaped like real ones: Snowflake ids, 40-280
+ * characters of text, a username, and attachments on every fifth post. Each benchmark also
+ * reports the size of the payload it writes or reads, as the "bytes" row under it in the
+ * JMH results.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=com.dhruvsharma.feed.timelineservice.benchmark.WireFormatBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final int POSTS = 100;
+    private static final String WORDS = "the a feed post timeline java spring kafka postgres latency #java #systemdesign "
+            + "@alice @bob today launch review shipping coffee weekend cache shard replica index";
+
+    private final ObjectMapper json = JsonMapper.builder().build();
+    private final ObjectMapper cbor = CBORMapper.builder().build();
+
+    private TimelineResponse page;
+    private byte[] jsonBytes;
+    private byte[] cborBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String[] words = WORDS.split(" ");
+        long id = 7_300_000_000_000_000_000L;
+        Instant createdAt = Instant.parse("2026-10-01T12:00:00Z");
+        List<PostDTO> posts = new ArrayList<>(POSTS);
+        for (int i = 0; i < POSTS; i++) {
+            StringBuilder content = new StringBuilder();
+            int length = 40 + random.nextInt(240);
+            while (content.length() < length) {
+                content.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            List<Long> attachments = i % 5 == 0 ? List.of(id - 17, id - 16) : List.of();
+            long authorId = 7_200_000_000_000_000_000L + random.nextInt(1_000_000);
+            posts.add(new PostDTO(id, content.toString().trim(), authorId, "user" + (authorId % 100_000),
+                    createdAt, attachments));
+            id -= 1 + random.nextInt(1 << 30);
+            createdAt = createdAt.minusSeconds(1 + random.nextInt(600));
+        }
+        page = new TimelineResponse(posts, Long.toString(id));
+        jsonBytes = json.writeValueAsBytes(page);
+        cborBytes = cbor.writeValueAsBytes(page);
+    }
+
+    /**
+     * Payload size in bytes. EVENTS counters are reported as is, not per second, and the value
+     * is assigned rather than added to, so the row shows one page's size.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        public long bytes;
+    }
+
+    @Benchmark
+    public byte[] writeJson(Payload payload) {
+        byte[] bytes = json.writeValueAsBytes(page);
+        payload.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public byte[] writeCbor(Payload payload) {
+        byte[] bytes = cbor.writeValueAsBytes(page);
+        payload.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public TimelineResponse readJson(Payload payload) {
+        payload.bytes = jsonBytes.length;
+        return json.readValue(jsonBytes, TimelineResponse.class);
+    }
+
+    @Benchmark
+    public TimelineResponse readCbor(Payload payload) {
+        payload.bytes = cborBytes.length;
+        return cbor.readValue(cborBytes, TimelineResponse.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(WireFormatBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,67 @@
+package com.dhruvsharma.feed.timelineservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.dhruvsharma.feed.timelineservice.notification.PostCreatedNotification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Invalidation of cached home heads by post_created events, including events that arrive while
+ * the head is still loading; no database needed.
+ */
+class TimelineCacheTests {
+
+    private static final long USER = 7L;
+    private static final long EXEMPT_AUTHOR = 9L;
+
+    private final TimelineCache cache = new TimelineCache(new SimpleMeterRegistry(), 1 << 20,
+            Duration.ofMinutes(10), Duration.ofMinutes(1), 100);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void postByAMergedExemptAuthorInvalidatesTheHead() {
+        cache.home(USER, id -> load(null));
+        cache.home(USER, id -> load(null));
+        assertEquals(1, loads.get());
+
+        cache.onPostCreated(new PostCreatedNotification(100L, EXEMPT_AUTHOR, "sub-9"));
+        cache.home(USER, id -> load(null));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void postByAMergedExemptAuthorDuringTheLoadIsNotLost() {
+        // The head was read before the post committed; its NOTIFY lands before readers are known.
+        TimelineHead head = cache.home(USER, id -> load(EXEMPT_AUTHOR));
+        assertArrayEquals(new long[] {EXEMPT_AUTHOR}, head.exemptAuthors());
+
+        cache.home(USER, id -> load(null));
+        assertEquals(2, loads.get());
+        cache.home(USER, id -> load(null));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void postByAnotherAuthorDuringTheLoadKeepsTheHead() {
+        cache.home(USER, id -> load(EXEMPT_AUTHOR + 1));
+        cache.home(USER, id -> load(null));
+        assertEquals(1, loads.get());
+    }
+
+    /** A head merging EXEMPT_AUTHOR; announces a post by postedBy while loading, if not null. */
+    private TimelineHead load(Long postedBy) {
+        loads.incrementAndGet();
+        if (postedBy != null) {
+            cache.onPostCreated(new PostCreatedNotification(100L, postedBy, "sub-" + postedBy));
+        }
+        return new TimelineHead(List.of(), new long[] {EXEMPT_AUTHOR});
+    }
+}
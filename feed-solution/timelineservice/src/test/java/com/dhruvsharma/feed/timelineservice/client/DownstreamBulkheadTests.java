@@ -0,0 +1,102 @@
+package com.dhruvsharma.feed.timelineservice.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.web.client.ResourceAccessException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Concurrency caps per downstream, with executions that block until released; no network.
+ */
+class DownstreamBulkheadTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DownstreamBulkhead bulkhead = new DownstreamBulkhead(2, Duration.ofMillis(50), meterRegistry);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final ClientHttpResponse ok = mock(ClientHttpResponse.class);
+
+    @AfterEach
+    void shutdown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void rejectsCallsBeyondTheCapAfterMaxWait() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        Future<?> first = callers.submit(() -> call("userservice:8080", blocking(started, release)));
+        Future<?> second = callers.submit(() -> call("userservice:8080", blocking(started, release)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        long before = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> call("userservice:8080", (request, body) -> ok));
+        assertTrue(System.nanoTime() - before >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertEquals(1.0, meterRegistry.get("http.client.bulkhead.rejected")
+                .tag("downstream", "userservice:8080").counter().count());
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertSame(ok, call("userservice:8080", (request, body) -> ok));
+    }
+
+    @Test
+    void downstreamsHaveSeparateCaps() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        callers.submit(() -> call("userservice:8080", blocking(started, release)));
+        callers.submit(() -> call("userservice:8080", blocking(started, release)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertSame(ok, call("postservice:8080", (request, body) -> ok));
+        release.countDown();
+    }
+
+    @Test
+    void failedCallsReleaseTheirSlot() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IOException.class, () -> call("userservice:8080", (request, body) -> {
+                throw new IOException("connection reset");
+            }));
+        }
+        assertSame(ok, call("userservice:8080", (request, body) -> ok));
+    }
+
+    private ClientHttpResponse call(String authority, ClientHttpRequestExecution execution) throws IOException {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+                URI.create("http://" + authority + "/api/v1/users/me"));
+        return bulkhead.intercept(request, new byte[0], execution);
+    }
+
+    private ClientHttpRequestExecution blocking(CountDownLatch started, CountDownLatch release) {
+        return (request, body) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ok;
+        };
+    }
+}
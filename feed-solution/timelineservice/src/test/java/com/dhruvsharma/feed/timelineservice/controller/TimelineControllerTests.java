@@ -0,0 +1,82 @@
+package com.dhruvsharma.feed.timelineservice.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.dhruvsharma.feed.timelineservice.dto.PostDTO;
+import com.dhruvsharma.feed.timelineservice.dto.TimelineResponse;
+import com.dhruvsharma.feed.timelineservice.service.TimelineService;
+
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * Body negotiation and cache headers of timeline pages, with a stand-in TimelineService and
+ * Spring MVC's default converters; no database needed.
+ */
+class TimelineControllerTests {
+
+    private static final String GLOBAL = "/api/v1/timelines/global";
+
+    private final TimelineService timelineService = mock(TimelineService.class);
+    private final MockMvc mvc = MockMvcBuilders
+            .standaloneSetup(new TimelineController(timelineService, JsonMapper.builder().build()))
+            .build();
+
+    TimelineControllerTests() {
+        PostDTO post = new PostDTO(7L, "hello #java", 3L, "alice", Instant.parse("2026-10-01T12:00:00Z"), List.of());
+        TimelineResponse page = new TimelineResponse(List.of(post), "next");
+        when(timelineService.getGlobalTimeline(any(), anyInt(), any(), any())).thenReturn(Optional.of(page));
+    }
+
+    @Test
+    void acceptCborGetsCbor() throws Exception {
+        MvcResult result = mvc.perform(get(GLOBAL)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer t")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=1"))
+                .andReturn();
+
+        TimelineResponse page = CBORMapper.builder().build()
+                .readValue(result.getResponse().getContentAsByteArray(), TimelineResponse.class);
+        assertEquals("hello #java", page.getPosts().get(0).getContent());
+        assertEquals(Instant.parse("2026-10-01T12:00:00Z"), page.getPosts().get(0).getCreatedAt());
+        assertEquals("next", page.getNextCursor());
+    }
+
+    @Test
+    void jsonIsTheDefault() throws Exception {
+        for (MediaType accept : List.of(MediaType.ALL, MediaType.APPLICATION_JSON)) {
+            mvc.perform(get(GLOBAL).header(HttpHeaders.AUTHORIZATION, "Bearer t").accept(accept))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.posts[0].authorUsername").value("alice"));
+        }
+        mvc.perform(get(GLOBAL).header(HttpHeaders.AUTHORIZATION, "Bearer t"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+}
@@ -0,0 +1,58 @@
+package com.dhruvsharma.feed.timelineservice.ranking;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.dhruvsharma.feed.timelineservice.repository.entity.Post;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Content quality scores and their effect on the ranked order, with in-memory candidates.
+ */
+class ContentQualityStageTests {
+
+    private static final Instant NOW = Instant.parse("2026-10-01T12:00:00Z");
+    private static final RankingContext VIEWER = new RankingContext(1L, NOW.toEpochMilli(), new long[] {2L},
+            new long[0]);
+
+    private final ContentQualityStage stage = new ContentQualityStage(0.3);
+
+    @Test
+    void substanceAndMediaRaiseTheScoreAndTagSpamLowersIt() {
+        Candidates candidates = Candidates.of(List.of(
+                post(1, "a b c d e f g h i j k l", List.of()),
+                post(2, "a b c d e f g h i j k l", List.of(5L)),
+                post(3, "short", List.of()),
+                post(4, "#a #b #c #d @e f", List.of()),
+                post(5, null, List.of())));
+
+        assertEquals(0.7, stage.score(candidates, 0, VIEWER), 1e-9);
+        assertEquals(1.0, stage.score(candidates, 1, VIEWER), 1e-9);
+        assertEquals(0.7 / ContentQualityStage.FULL_WORDS, stage.score(candidates, 2, VIEWER), 1e-9);
+        assertEquals(0.7 * 6 / ContentQualityStage.FULL_WORDS * 2 * (1 - 5 / 6.0),
+                stage.score(candidates, 3, VIEWER), 1e-9);
+        assertEquals(0.0, stage.score(candidates, 4, VIEWER), 1e-9);
+    }
+
+    @Test
+    void betweenEquallyRecentPostsOfOneAuthorTheBetterOneRanksFirst() {
+        RankingPipeline pipeline = new RankingPipeline(List.of(new RecencyStage(1.0, Duration.ofHours(6)),
+                new AuthorAffinityStage(0.5), stage), new SimpleMeterRegistry(), 256);
+        Candidates candidates = Candidates.of(List.of(
+                post(1, "#follow #me #now", List.of()),
+                post(2, "Notes from the conference: keyset pagination beats offsets past page ten", List.of(9L))));
+
+        assertArrayEquals(new int[] {1, 0}, pipeline.rank(candidates, VIEWER, 2).order());
+    }
+
+    private static Post post(long id, String content, List<Long> attachmentIds) {
+        return new Post(id, content, 2L, NOW, attachmentIds);
+    }
+}
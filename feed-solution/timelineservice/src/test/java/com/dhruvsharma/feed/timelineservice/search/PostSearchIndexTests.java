@@ -0,0 +1,151 @@
+package com.dhruvsharma.feed.timelineservice.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tokenization, posting list encoding and query evaluation of the in-memory search index.
+ */
+class PostSearchIndexTests {
+
+    private static final String SEGMENT = "0:posts_p20261001";
+
+    @Test
+    void tokenizerExtractsWordsHashtagsAndMentions() {
+        // NFKC folds the "fi" ligature; single-letter words are dropped.
+        assertEquals(List.of("@alice", "alice", "loves", "#java", "java", "file"),
+                List.copyOf(Tokenizer.documentTerms("@Alice loves #Java \uFB01le a")));
+        // Not a mention: the @ is inside a word.
+        assertEquals(List.of("bob", "example", "com"), List.copyOf(Tokenizer.documentTerms("bob@example.com")));
+        assertEquals(List.of("#java", "spring"), Tokenizer.queryTerms("#Java  spring #java x"));
+        assertTrue(Tokenizer.queryTerms("  !? ").isEmpty());
+        assertEquals(Tokenizer.MAX_TERM_LENGTH, Tokenizer.queryTerms("a".repeat(200)).get(0).length());
+    }
+
+    @Test
+    void postingListRoundTripsAndFindsPredecessors() {
+        long[] ids = randomIds(new Random(7), 1_000);
+        PostingList list = PostingList.of(ids, ids.length);
+        assertArrayEquals(ids, list.toArray());
+        assertTrue(list.encodedBytes() < ids.length * 8L / 2);
+
+        PostingList.Cursor cursor = list.cursor();
+        assertEquals(-1, cursor.atMost(ids[0] - 1));
+        for (int i = ids.length - 1; i > 0; i--) {
+            assertEquals(ids[i], cursor.atMost(ids[i]));
+            assertEquals(ids[i - 1], cursor.atMost(ids[i] - 1));
+        }
+        assertTrue(list.contains(ids[500]));
+        assertFalse(list.contains(ids[500] + 1));
+
+        PostingList merged = list.union(new long[] {ids[0], ids[0] + 1, Long.MAX_VALUE - 1}, 3);
+        assertEquals(ids.length + 2, merged.size());
+        assertTrue(merged.contains(ids[0] + 1));
+    }
+
+    @Test
+    void searchIntersectsTermsNewestFirstAndPaginates() {
+        PostSearchIndex index = new PostSearchIndex(new SimpleMeterRegistry());
+        for (long id = 1; id <= 1_000; id++) {
+            StringBuilder content = new StringBuilder("post");
+            if (id % 2 == 0) {
+                content.append(" even");
+            }
+            if (id % 3 == 0) {
+                content.append(" #three");
+            }
+            index.add(SEGMENT, id, content.toString());
+        }
+        // Re-adding is a no-op.
+        index.add(SEGMENT, 996, "post even #three");
+
+        assertArrayEquals(new long[] {996, 990, 984}, index.search(List.of("even", "#three"), Long.MAX_VALUE, 3));
+        assertArrayEquals(new long[] {978, 972}, index.search(List.of("#three", "even"), 984, 2));
+        assertArrayEquals(new long[] {999, 996}, index.search(List.of("three"), Long.MAX_VALUE, 2));
+        assertArrayEquals(new long[] {6}, index.search(List.of("even", "three"), 12, 10));
+        assertEquals(0, index.search(List.of("even", "missing"), Long.MAX_VALUE, 10).length);
+        assertEquals(500, index.search(List.of("even"), Long.MAX_VALUE, 10_000).length);
+    }
+
+    @Test
+    void rebuildBatchesMergeWithLiveAdds() {
+        PostSearchIndex index = new PostSearchIndex(new SimpleMeterRegistry());
+        index.add(SEGMENT, 50, "hello world");
+        index.add(SEGMENT, 7, "hello");
+        index.addAll(SEGMENT, Map.of("hello", new long[] {1, 7, 20}, "world", new long[] {20}));
+        index.addAll(SEGMENT, Map.of("hello", new long[] {3, 60}));
+
+        assertArrayEquals(new long[] {60, 50, 20, 7, 3, 1}, index.search(List.of("hello"), Long.MAX_VALUE, 10));
+        assertArrayEquals(new long[] {50, 20}, index.search(List.of("hello", "world"), Long.MAX_VALUE, 10));
+        assertFalse(index.isReady());
+    }
+
+    @Test
+    void unionReencodesOnlyFromTheFirstAffectedBlock() {
+        long[] ids = randomIds(new Random(11), 1_000);
+        PostingList list = PostingList.of(ids, ids.length);
+
+        // Newer ids: appended after the last (partial) block.
+        long[] newer = {ids[ids.length - 1] + 5, ids[ids.length - 1] + 9};
+        PostingList appended = list.union(newer, newer.length);
+        long[] expected = Arrays.copyOf(ids, ids.length + 2);
+        expected[ids.length] = newer[0];
+        expected[ids.length + 1] = newer[1];
+        assertArrayEquals(expected, appended.toArray());
+
+        // An id inside block 3 keeps blocks 0-2 and re-encodes the rest.
+        long inside = ids[3 * PostingList.BLOCK_SIZE + 10] + 1;
+        PostingList inserted = appended.union(new long[] {inside, ids[900]}, 2);
+        TreeSet<Long> all = new TreeSet<>();
+        Arrays.stream(expected).forEach(all::add);
+        all.add(inside);
+        assertArrayEquals(all.stream().mapToLong(Long::longValue).toArray(), inserted.toArray());
+        PostingList.Cursor cursor = inserted.cursor();
+        assertEquals(inside, cursor.atMost(inside));
+        assertEquals(ids[3 * PostingList.BLOCK_SIZE + 10], cursor.atMost(inside - 1));
+
+        // An id before every block re-encodes everything.
+        PostingList prepended = list.union(new long[] {1}, 1);
+        assertEquals(1, prepended.cursor().atMost(ids[0] - 1));
+        assertEquals(ids.length + 1, prepended.size());
+    }
+
+    @Test
+    void searchMergesSegmentsNewestFirstAndDroppedSegmentsStopMatching() {
+        PostSearchIndex index = new PostSearchIndex(new SimpleMeterRegistry());
+        index.addAll("0:posts_legacy", Map.of("java", new long[] {1, 4, 9}));
+        index.addAll("0:posts_p20261001", Map.of("java", new long[] {20, 30}));
+        index.add("1:posts_p20261001", 25, "java spring");
+
+        assertArrayEquals(new long[] {30, 25, 20, 9}, index.search(List.of("java"), Long.MAX_VALUE, 4));
+        assertArrayEquals(new long[] {20, 9, 4}, index.search(List.of("java"), 25, 3));
+        assertEquals(Set.of("0:posts_legacy", "0:posts_p20261001", "1:posts_p20261001"), index.segments());
+
+        assertTrue(index.dropSegment("0:posts_legacy"));
+        assertFalse(index.dropSegment("0:posts_legacy"));
+        assertArrayEquals(new long[] {30, 25, 20}, index.search(List.of("java"), Long.MAX_VALUE, 10));
+    }
+
+    private static long[] randomIds(Random random, int count) {
+        TreeSet<Long> ids = new TreeSet<>();
+        long next = 1L << 40;
+        while (ids.size() < count) {
+            next += 1 + random.nextInt(1 << 20);
+            ids.add(next);
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
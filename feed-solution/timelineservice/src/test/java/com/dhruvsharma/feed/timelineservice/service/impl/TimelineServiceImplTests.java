@@ -0,0 +1,144 @@
+package com.dhruvsharma.feed.timelineservice.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.dhruvsharma.feed.timelineservice.cache.AuthorCache;
+import com.dhruvsharma.feed.timelineservice.cache.TimelineCache;
+import com.dhruvsharma.feed.timelineservice.cache.TimelineHead;
+import com.dhruvsharma.feed.timelineservice.client.UserServiceClient;
+import com.dhruvsharma.feed.timelineservice.datasource.ReadYourWrites;
+import com.dhruvsharma.feed.timelineservice.dto.PostDTO;
+import com.dhruvsharma.feed.timelineservice.dto.TimelineResponse;
+import com.dhruvsharma.feed.timelineservice.live.LiveTimelineHub;
+import com.dhruvsharma.feed.timelineservice.pagination.TimelineCursor;
+import com.dhruvsharma.feed.timelineservice.ranking.RankingPipeline;
+import com.dhruvsharma.feed.timelineservice.repository.ShardedTimelineRepository;
+import com.dhruvsharma.feed.timelineservice.repository.entity.Post;
+import com.dhruvsharma.feed.timelineservice.search.PostSearchIndex;
+
+/**
+ * Page assembly and validators with stand-in repositories and caches; no database needed.
+ */
+class TimelineServiceImplTests {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final ShardedTimelineRepository repository = mock(ShardedTimelineRepository.class);
+    private final TimelineCache timelineCache = mock(TimelineCache.class);
+    private final AuthorCache authorCache = mock(AuthorCache.class);
+    private final PostSearchIndex searchIndex = mock(PostSearchIndex.class);
+
+    private TimelineServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new TimelineServiceImpl(repository, mock(UserServiceClient.class), timelineCache, authorCache,
+                mock(LiveTimelineHub.class), mock(RankingPipeline.class), searchIndex,
+                new ReadYourWrites(Duration.ofSeconds(5)), 100, 10_000, 200, 100_000, 500, 10_000, 8);
+        when(timelineCache.global(any())).thenAnswer(call -> ((Supplier<TimelineHead>) call.getArgument(0)).get());
+        when(repository.findLatest(101)).thenReturn(List.of(post(3, 1), post(2, 2), post(1, 1)));
+    }
+
+    @Test
+    void etagIsStableWhileThePageIsUnchangedAndWeak() {
+        when(authorCache.usernames(any(), any())).thenReturn(Map.of(1L, "alice", 2L, "bob"));
+
+        assertEquals(globalEtag(), globalEtag());
+        // The same page is sent as JSON or CBOR, so the tag cannot promise identical bytes.
+        assertTrue(globalEtag().startsWith("W/\""), globalEtag());
+    }
+
+    @Test
+    void etagCoversWhetherANextPageExists() {
+        String lastPage = globalEtag(3);
+        when(repository.findLatest(101)).thenReturn(List.of(post(3, 1), post(2, 2), post(1, 1), post(0, 1)));
+
+        assertNotEquals(lastPage, globalEtag(3));
+    }
+
+    @Test
+    void matchingEtagSkipsTheUsernameLookupAndThePage() {
+        when(authorCache.usernames(any(), any())).thenReturn(Map.of(1L, "alice", 2L, "bob"));
+        String etag = globalEtag();
+        clearInvocations(authorCache);
+
+        assertTrue(service.getGlobalTimeline(null, 20, "Bearer t", etag::equals).isEmpty());
+        verify(authorCache, never()).usernames(any(), any());
+    }
+
+    @Test
+    void pageCarriesHydratedUsernames() {
+        when(authorCache.usernames(any(), any())).thenReturn(Map.of(1L, "alice", 2L, "bob"));
+
+        TimelineResponse page = service.getGlobalTimeline(null, 2, "Bearer t", etag -> false).orElseThrow();
+
+        assertEquals(List.of("alice", "bob"), page.getPosts().stream().map(PostDTO::getAuthorUsername).toList());
+        assertNotNull(page.getNextCursor());
+    }
+
+    @Test
+    void searchPageKeepsGoingPastPostsMissingFromPostsdb() {
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search(List.of("java"), Long.MAX_VALUE, 3)).thenReturn(new long[] {5, 4, 3});
+        // Post 4 expired after it was indexed.
+        when(repository.findByIds(List.of(5L, 4L))).thenReturn(List.of(post(5, 1)));
+        when(authorCache.usernames(any(), any())).thenReturn(Map.of(1L, "alice"));
+
+        TimelineResponse page = service.search("java", null, 2, "Bearer t");
+
+        assertEquals(List.of(5L), page.getPosts().stream().map(PostDTO::getId).toList());
+        assertNotNull(page.getNextCursor());
+        assertEquals(4L, TimelineCursor.decode(page.getNextCursor()).id());
+    }
+
+    @Test
+    void searchPageEndsWhenTheIndexHasNoMore() {
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search(List.of("java"), Long.MAX_VALUE, 3)).thenReturn(new long[] {5, 4});
+        when(repository.findByIds(List.of(5L, 4L))).thenReturn(List.of(post(5, 1), post(4, 1)));
+        when(authorCache.usernames(any(), any())).thenReturn(Map.of(1L, "alice"));
+
+        assertNull(service.search("java", null, 2, "Bearer t").getNextCursor());
+    }
+
+    private String globalEtag() {
+        return globalEtag(20);
+    }
+
+    private String globalEtag(int limit) {
+        List<String> etags = new ArrayList<>();
+        Optional<TimelineResponse> page = service.getGlobalTimeline(null, limit, "Bearer t", etag -> {
+            etags.add(etag);
+            return false;
+        });
+        assertTrue(page.isPresent());
+        assertEquals(1, etags.size());
+        return etags.get(0);
+    }
+
+    private static Post post(long id, long authorId) {
+        return new Post(id, "post " + id, authorId, T0.plusSeconds(id), List.of());
+    }
+}
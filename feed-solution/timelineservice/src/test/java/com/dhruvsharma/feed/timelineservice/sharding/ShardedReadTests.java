@@ -0,0 +1,291 @@
+package com.dhruvsharma.feed.timelineservice.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import com.dhruvsharma.feed.timelineservice.repository.ShardedTimelineRepository;
+import com.dhruvsharma.feed.timelineservice.repository.TimelineRepository;
+import com.dhruvsharma.feed.timelineservice.repository.entity.HomeTimelineEntry;
+import com.dhruvsharma.feed.timelineservice.repository.entity.Post;
+
+/**
+ * Merge, scatter-gather and shard selection behaviour with in-memory shards, plus an end-to-end run against
+ * several local Postgres instances when FEED_TEST_SHARD_URLS is set, e.g.
+ * {@code FEED_TEST_SHARD_URLS=jdbc:postgresql://localhost:5433/postsdb?user=feedsvc&password=feedsvcpass,jdbc:postgresql://localhost:5434/postsdb?user=feedsvc&password=feedsvcpass}
+ */
+class ShardedReadTests {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void mergeInterleavesSortedSourcesUpToLimit() {
+        List<List<Integer>> sources = List.of(List.of(9, 6, 3), List.of(8, 5, 2), List.of(), List.of(7, 4, 1));
+
+        assertEquals(List.of(9, 8, 7, 6, 5), KWayMerge.merge(sources, Comparator.reverseOrder(), 5));
+        assertEquals(List.of(9, 8, 7, 6, 5, 4, 3, 2, 1), KWayMerge.merge(sources, Comparator.reverseOrder(), 100));
+    }
+
+    @Test
+    void mergeOrdersPostsByKeysetAndBreaksTimestampTiesById() {
+        List<Post> shard0 = List.of(post(4, 10), post(1, 5));
+        List<Post> shard1 = List.of(post(7, 10), post(3, 5), post(2, 1));
+
+        List<Post> merged = KWayMerge.merge(List.of(shard0, shard1), ShardedTimelineRepository.NEWEST_FIRST, 10);
+
+        assertEquals(List.of(7L, 4L, 3L, 1L, 2L), merged.stream().map(Post::getId).toList());
+    }
+
+    @Test
+    void lazyMergePullsEachSourceOnlyAsFarAsConsumed() {
+        CountingIterator a = new CountingIterator(10, 8, 6);
+        CountingIterator b = new CountingIterator(9, 7, 5);
+        Iterator<Integer> merged = KWayMerge.merge(List.of(a, b), Comparator.reverseOrder());
+
+        assertEquals(10, merged.next());
+        assertEquals(9, merged.next());
+        assertEquals(2, a.taken);
+        assertEquals(2, b.taken);
+    }
+
+    @Test
+    void scatterRunsEveryShardWithItsBindingAndKeepsShardOrder() {
+        ScatterGather scatterGather = new ScatterGather(3, executor, Duration.ofSeconds(5));
+
+        List<String> results = scatterGather.scatter(shard -> shard + ":" + ShardRouting.currentShard());
+
+        assertEquals(List.of("0:0", "1:1", "2:2"), results);
+    }
+
+    @Test
+    void scatterToChosenShardsRunsOnlyThose() {
+        ScatterGather scatterGather = new ScatterGather(4, executor, Duration.ofSeconds(5));
+
+        assertEquals(List.of("0:0", "2:2"),
+                scatterGather.scatter(new int[] {0, 2}, shard -> shard + ":" + ShardRouting.currentShard()));
+        assertEquals(List.of("1:1", "3:3"),
+                scatterGather.scatter(new int[] {1, 3}, shard -> shard + ":" + ShardRouting.currentShard()));
+    }
+
+    @Test
+    void byAuthorQueriesGoToShardZeroAndTheAuthorsOwnShards() {
+        TimelineRepository timelineRepository = mock(TimelineRepository.class);
+        Map<Integer, Collection<Long>> asked = new ConcurrentHashMap<>();
+        when(timelineRepository.findLatestByAuthors(anyCollection(), anyInt())).thenAnswer(call -> {
+            asked.put(ShardRouting.currentShard(), call.getArgument(0));
+            return List.of();
+        });
+        ShardedTimelineRepository repository = new ShardedTimelineRepository(timelineRepository,
+                mock(JdbcTemplate.class), new ScatterGather(4, executor, Duration.ofSeconds(5)), new HashShardRouter(4));
+
+        // Authors 2 and 3 live on shards 3 and 2; 11 on shard 0. Shard 1 has none of them.
+        repository.findLatestByAuthors(List.of(2L, 3L, 11L), 20);
+
+        assertEquals(Map.of(0, List.of(2L, 3L, 11L), 2, List.of(3L), 3, List.of(2L)), asked);
+    }
+
+    @Test
+    void newPostIsLookedUpOnItsAuthorsShardOnly() {
+        TimelineRepository timelineRepository = mock(TimelineRepository.class);
+        List<Integer> asked = new CopyOnWriteArrayList<>();
+        when(timelineRepository.findById(anyLong())).thenAnswer(call -> {
+            asked.add(ShardRouting.currentShard());
+            return Optional.of(post(call.<Long>getArgument(0), 0));
+        });
+        ShardedTimelineRepository repository = new ShardedTimelineRepository(timelineRepository,
+                mock(JdbcTemplate.class), new ScatterGather(4, executor, Duration.ofSeconds(5)), new HashShardRouter(4));
+
+        assertEquals(99L, repository.findNewById(99L, 4L).orElseThrow().getId());
+        assertEquals(List.of(1), asked);
+    }
+
+    @Test
+    void shardedHomePageLooksUpPostsByIdAndCreatedAtInEntryOrder() {
+        TimelineRepository timelineRepository = mock(TimelineRepository.class);
+        when(timelineRepository.findHomeEntries(7L, 3)).thenReturn(List.of(
+                new HomeTimelineEntry(30L, T0.plusSeconds(3)), new HomeTimelineEntry(20L, T0.plusSeconds(2)),
+                new HomeTimelineEntry(10L, T0.plusSeconds(1))));
+        Map<Integer, Collection<Instant>> asked = new ConcurrentHashMap<>();
+        when(timelineRepository.findByIdsCreatedAt(anyCollection(), anyCollection())).thenAnswer(call -> {
+            int shard = ShardRouting.currentShard();
+            asked.put(shard, Set.copyOf(call.<Collection<Instant>>getArgument(1)));
+            // Post 20 has expired; 10 and 30 are on different shards.
+            return shard == 0 ? List.of(post(10, 1)) : shard == 1 ? List.of(post(30, 3)) : List.of();
+        });
+        ShardedTimelineRepository repository = new ShardedTimelineRepository(timelineRepository,
+                mock(JdbcTemplate.class), new ScatterGather(2, executor, Duration.ofSeconds(5)), new HashShardRouter(2));
+
+        assertEquals(List.of(30L, 10L), repository.findHomeLatest(7L, 3).stream().map(Post::getId).toList());
+        Set<Instant> createdAts = Set.of(T0.plusSeconds(1), T0.plusSeconds(2), T0.plusSeconds(3));
+        assertEquals(Map.of(0, createdAts, 1, createdAts), asked);
+        verify(timelineRepository, never()).findByIds(anyCollection());
+    }
+
+    @Test
+    void singleShardStreamReadsFromACursorInFetchSizeRounds() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true, false);
+        when(rs.getLong(1)).thenReturn(9L);
+        when(rs.getString(2)).thenReturn("post 9");
+        when(rs.getLong(3)).thenReturn(2L);
+        when(rs.getTimestamp(4)).thenReturn(Timestamp.from(T0));
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(ps.executeQuery()).thenReturn(rs);
+        Connection con = mock(Connection.class);
+        when(con.prepareStatement(anyString())).thenReturn(ps);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(con);
+        ShardedTimelineRepository repository = new ShardedTimelineRepository(mock(TimelineRepository.class),
+                new JdbcTemplate(dataSource), new ScatterGather(1, executor, Duration.ofSeconds(5)),
+                new HashShardRouter(1));
+
+        try (Stream<Post> posts = repository.streamOlderThan(T0.plusSeconds(60), Long.MAX_VALUE, 1000)) {
+            Post post = posts.findFirst().orElseThrow();
+            assertEquals(9L, post.getId());
+            assertEquals(List.of(), post.getAttachmentIds());
+        }
+        verify(ps).setFetchSize(500);
+        verify(ps).setInt(4, 1000);
+        verify(rs).close();
+    }
+
+    @Test
+    void scatterPropagatesShardFailures() {
+        ScatterGather scatterGather = new ScatterGather(2, executor, Duration.ofSeconds(5));
+
+        assertThrows(IllegalStateException.class, () -> scatterGather.scatter(shard -> {
+            if (shard == 1) {
+                throw new IllegalStateException("shard 1 down");
+            }
+            return shard;
+        }));
+    }
+
+    @Test
+    void scatterTimesOutSlowShards() {
+        ScatterGather scatterGather = new ScatterGather(2, executor, Duration.ofMillis(50));
+
+        assertThrows(QueryTimeoutException.class, () -> scatterGather.scatter(shard -> {
+            if (shard == 1) {
+                sleep(2_000);
+            }
+            return shard;
+        }));
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "FEED_TEST_SHARD_URLS", matches = ".+")
+    void scatterGatherAcrossLocalPostgresShards() {
+        List<DataSource> shards = Arrays.stream(System.getenv("FEED_TEST_SHARD_URLS").split(","))
+                .map(url -> (DataSource) new SingleConnectionDataSource(url.trim(), true))
+                .toList();
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shards);
+        JdbcTemplate jdbc = new JdbcTemplate(routing);
+        ScatterGather scatterGather = new ScatterGather(shards.size(), executor, Duration.ofSeconds(10));
+
+        // Session-local table per shard connection, so the test leaves the databases untouched.
+        List<Post> all = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int target = shard;
+            ShardRouting.onShard(target, () -> {
+                jdbc.execute("CREATE TEMP TABLE IF NOT EXISTS test_posts (id BIGINT PRIMARY KEY, content TEXT, "
+                        + "author_id BIGINT, created_at TIMESTAMPTZ)");
+                jdbc.execute("TRUNCATE test_posts");
+                for (int i = 0; i < 50; i++) {
+                    Post post = post(target * 1000L + i, (i * 7 + target * 3) % 40);
+                    jdbc.update("INSERT INTO test_posts VALUES (?, ?, ?, ?)", post.getId(), post.getContent(),
+                            post.getAuthorId(), Timestamp.from(post.getCreatedAt()));
+                    all.add(post);
+                }
+            });
+        }
+
+        List<List<Post>> perShard = scatterGather.scatter(shard -> jdbc.query(
+                "SELECT id, content, author_id, created_at FROM test_posts ORDER BY created_at DESC, id DESC LIMIT 20",
+                (rs, i) -> new Post(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getTimestamp(4).toInstant(),
+                        List.of())));
+        List<Post> merged = KWayMerge.merge(perShard, ShardedTimelineRepository.NEWEST_FIRST, 20);
+
+        List<Long> expected = all.stream().sorted(ShardedTimelineRepository.NEWEST_FIRST).limit(20).map(Post::getId).toList();
+        assertEquals(expected, merged.stream().map(Post::getId).toList());
+        shards.forEach(ds -> ((SingleConnectionDataSource) ds).destroy());
+    }
+
+    private static Post post(long id, int secondsAfterT0) {
+        return new Post(id, "post " + id, id % 7, T0.plusSeconds(secondsAfterT0), List.of());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class CountingIterator implements Iterator<Integer> {
+
+        private final Iterator<Integer> values;
+        private int taken;
+
+        CountingIterator(Integer... values) {
+            this.values = Stream.of(values).iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return values.hasNext();
+        }
+
+        @Override
+        public Integer next() {
+            taken++;
+            return values.next();
+        }
+    }
+}
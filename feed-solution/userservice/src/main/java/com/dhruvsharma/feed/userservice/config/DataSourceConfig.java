@@ -0,0 +1,92 @@
+package com.dhruvsharma.feed.userservice.config;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.dhruvsharma.feed.userservice.datasource.ReadYourWrites;
+import com.dhruvsharma.feed.userservice.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Primary plus optional read replicas (feed.datasource.replicas, comma-separated JDBC URLs using
+ * the primary's credentials). With no replicas configured every connection goes to the primary.
+ * Every pool takes the spring.datasource.hikari.* settings.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${feed.datasource.read-your-writes-window:PT5S}") Duration window) {
+        return new ReadYourWrites(window);
+    }
+
+    /**
+     * The primary's pool, built from spring.datasource.* with spring.datasource.hikari.* bound
+     * onto it as Spring Boot's own pool would be. Replica pools are copies of it.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryPool(DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("primary");
+        return pool;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryPool,
+            @Value("${feed.datasource.replicas:}") List<String> replicaUrls,
+            @Value("${feed.datasource.max-replica-lag:PT1S}") Duration maxLag,
+            ReadYourWrites readYourWrites) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String replicaUrl : replicaUrls) {
+            if (!replicaUrl.isBlank()) {
+                replicas.add(pool(primaryPool, "replica-" + replicas.size(), replicaUrl.trim()));
+            }
+        }
+        return new ReplicaRoutingDataSource(primaryPool, replicas, maxLag, readYourWrites, DataSourceConfig::currentSubject);
+    }
+
+    /**
+     * The DataSource everything else (repositories, JdbcTemplate, Flyway) uses. Defers fetching a
+     * physical connection until the first statement, by which point the transaction's read-only
+     * flag is bound and the routing decision can use it.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+
+    /** A pool with template's settings (credentials, sizes, timeouts) for another URL. */
+    private static HikariDataSource pool(HikariConfig template, String name, String url) {
+        HikariDataSource pool = new HikariDataSource();
+        template.copyStateTo(pool);
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        return pool;
+    }
+
+    private static String currentSubject() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+}
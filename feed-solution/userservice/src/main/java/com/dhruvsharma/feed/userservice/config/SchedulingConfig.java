@@ -0,0 +1,12 @@
+package com.dhruvsharma.feed.userservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled tasks (periodic follow graph rebuild).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
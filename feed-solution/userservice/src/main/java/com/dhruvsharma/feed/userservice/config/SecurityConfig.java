@@ -1,25 +1,26 @@
 package com.dhruvsharma.feed.userservice.config;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.time.Duration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.convert.converter.Converter;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import com.dhruvsharma.feed.security.CachingJwtDecoder;
+import com.dhruvsharma.feed.security.KeycloakRealmRoleConverter;
+import com.dhruvsharma.feed.security.VerifiedJwtCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Security configuration for the User Service.
  * Validates JWT from Keycloak and authorizes signup endpoint for authenticated users.
@@ -41,6 +42,9 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.POST, "/api/v1/users/signup").hasRole("feed_user")
                 .requestMatchers(HttpMethod.GET, "/api/v1/users/me").hasRole("feed_user")
                 .requestMatchers(HttpMethod.GET, "/api/v1/users/*").hasRole("feed_user")
+                .requestMatchers(HttpMethod.POST, "/api/v1/users/*/follow").hasRole("feed_user")
+                .requestMatchers(HttpMethod.DELETE, "/api/v1/users/*/follow").hasRole("feed_user")
+                .requestMatchers(HttpMethod.GET, "/api/v1/users/*/followers", "/api/v1/users/*/followees").hasRole("feed_user")
                 .anyRequest().authenticated()
             )
             .oauth2ResourceServer(oauth2 -> oauth2
@@ -57,18 +61,21 @@ public class SecurityConfig {
         return converter;
     }
 
-    static class KeycloakRealmRoleConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
-        @Override
-        @SuppressWarnings("unchecked")
-        public Collection<GrantedAuthority> convert(Jwt jwt) {
-            Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
-            if (realmAccess == null || !realmAccess.containsKey("roles")) {
-                return Collections.emptyList();
-            }
-            List<String> roles = (List<String>) realmAccess.get("roles");
-            return roles.stream()
-                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                    .collect(Collectors.toList());
-        }
+    /** Verified bearer tokens, shared by the decoder below (feed.security.jwt-cache.*). */
+    @Bean
+    public VerifiedJwtCache verifiedJwtCache(MeterRegistry meterRegistry,
+                                             @Value("${feed.security.jwt-cache.max-size:10000}") long maxSize,
+                                             @Value("${feed.security.jwt-cache.max-ttl:PT5M}") Duration maxTtl) {
+        return new VerifiedJwtCache(meterRegistry, maxSize, maxTtl);
+    }
+
+    /**
+     * The jwk-set-uri decoder Spring Boot would create (RS256, exp/nbf validation), behind the
+     * verified-token cache so a repeated bearer token skips signature verification.
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(@Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+                                 VerifiedJwtCache verifiedJwtCache) {
+        return new CachingJwtDecoder(NimbusJwtDecoder.withJwkSetUri(jwkSetUri).build(), verifiedJwtCache);
     }
 }
@@ -1,25 +1,47 @@
 package com.dhruvsharma.feed.userservice.controller;
 
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.dhruvsharma.feed.userservice.dto.FollowPageResponse;
+import com.dhruvsharma.feed.userservice.dto.UserBatchResponse;
 import com.dhruvsharma.feed.userservice.dto.UserResponse;
 import com.dhruvsharma.feed.userservice.dto.UserSignupRequest;
 import com.dhruvsharma.feed.userservice.dto.UserSignupResponse;
+import com.dhruvsharma.feed.userservice.service.FollowService;
 import com.dhruvsharma.feed.userservice.service.UserService;
 
 @RestController
 public class UserController {
 
+    /**
+     * Profiles may be reused for 10s by the caller's own caches (the gateway caches them per
+     * user). Private: they carry email and subject. Without an explicit value Spring Security
+     * sends no-store and nothing is cached.
+     */
+    private static final CacheControl PROFILE_CACHE = CacheControl.maxAge(10, TimeUnit.SECONDS).cachePrivate();
+
     private final UserService userService;
+    private final FollowService followService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, FollowService followService) {
         this.userService = userService;
+        this.followService = followService;
     }
 
     /**
@@ -38,22 +60,99 @@ public class UserController {
     /**
      * Returns the authenticated user (Pattern B: internal user id and profile).
      * Other services forward the caller's JWT to resolve token → internal user id.
+     * Supports If-None-Match (ETag is the row version).
      */
     @GetMapping("/api/v1/users/me")
-    public ResponseEntity<UserResponse> getCurrentUser(@AuthenticationPrincipal Jwt jwt) {
-        return userService.findByKeycloakSubId(jwt.getSubject())
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<UserResponse> getCurrentUser(@AuthenticationPrincipal Jwt jwt, WebRequest request) {
+        Optional<UserResponse> user = userService.findByKeycloakSubId(jwt.getSubject());
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return conditional(user.get(), request, CacheControl.empty());
+    }
+
+    /**
+     * Returns display info (id, username) for many users in one query:
+     * GET /api/v1/users/batch?ids=1,2,3. Lets clients render a page of posts with one
+     * request instead of one GET /api/v1/users/{id} per author.
+     */
+    @GetMapping("/api/v1/users/batch")
+    public UserBatchResponse getByIds(@RequestParam long[] ids) {
+        return userService.findByIds(ids);
     }
 
     /**
      * Returns user details by internal user id (Pattern B).
-     * Used when timeline/posts return author_user_id and client needs display name.
+     * For resolving many authors at once, use /api/v1/users/batch. Supports If-None-Match;
+     * cacheable privately for 10s.
      */
     @GetMapping("/api/v1/users/{id}")
-    public ResponseEntity<UserResponse> getById(@PathVariable Long id) {
-        return userService.findById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<UserResponse> getById(@PathVariable Long id, WebRequest request) {
+        Optional<UserResponse> user = userService.findById(id);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return conditional(user.get(), request, PROFILE_CACHE);
+    }
+
+    /**
+     * The authenticated user follows user {id}. Idempotent.
+     */
+    @PostMapping("/api/v1/users/{id}/follow")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void follow(@AuthenticationPrincipal Jwt jwt, @PathVariable Long id) {
+        followService.follow(jwt.getSubject(), id);
+    }
+
+    /**
+     * The authenticated user unfollows user {id}. Idempotent.
+     */
+    @DeleteMapping("/api/v1/users/{id}/follow")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void unfollow(@AuthenticationPrincipal Jwt jwt, @PathVariable Long id) {
+        followService.unfollow(jwt.getSubject(), id);
+    }
+
+    /**
+     * Returns a page of follower ids of user {id}, ascending. Served from the in-memory
+     * follow graph; postservice pages through this for home timeline fan-out.
+     */
+    @GetMapping("/api/v1/users/{id}/followers")
+    public FollowPageResponse getFollowers(@PathVariable Long id,
+                                           @RequestParam(required = false) Long after,
+                                           @RequestParam(defaultValue = "1000") int limit) {
+        return followService.getFollowers(id, after, limit);
+    }
+
+    /**
+     * Returns a page of ids user {id} follows, ascending. With minFollowers, only followees
+     * with at least that many followers (used by timelineservice to find fan-out-exempt authors).
+     */
+    @GetMapping("/api/v1/users/{id}/followees")
+    public FollowPageResponse getFollowees(@PathVariable Long id,
+                                           @RequestParam(required = false) Long after,
+                                           @RequestParam(defaultValue = "1000") int limit,
+                                           @RequestParam(required = false) Long minFollowers) {
+        return followService.getFollowees(id, after, limit, minFollowers);
+    }
+
+    /**
+     * Answers 304 (no body, nothing serialized) when If-None-Match carries the current
+     * W/"u{id}-v{version}" tag; otherwise 200 with that ETag and cacheControl. Returns null once
+     * the 304 has been written by checkNotModified. The body is JSON, or CBOR for
+     * Accept: application/cbor, so the response varies on Accept and the ETag is weak: it names
+     * the row version, not the bytes of one encoding.
+     */
+    private static ResponseEntity<UserResponse> conditional(UserResponse user, WebRequest request,
+                                                            CacheControl cacheControl) {
+        String etag = "W/\"u" + user.getId() + "-v" + user.getVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(user);
     }
 }
@@ -0,0 +1,53 @@
+package com.dhruvsharma.feed.userservice.datasource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers which callers (JWT subjects) wrote recently so their reads stay on the primary
+ * until replicas have had time to catch up, e.g. GET /me right after POST /signup.
+ */
+public class ReadYourWrites {
+
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+
+    public ReadYourWrites(Duration window) {
+        this(window, System::nanoTime);
+    }
+
+    ReadYourWrites(Duration window, LongSupplier nanoClock) {
+        this.windowNanos = window.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    public void wrote(String caller) {
+        if (caller != null && windowNanos > 0) {
+            pinnedUntil.put(caller, nanoClock.getAsLong() + windowNanos);
+        }
+    }
+
+    public boolean isPinned(String caller) {
+        if (caller == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(caller);
+        if (until == null) {
+            return false;
+        }
+        if (until - nanoClock.getAsLong() > 0) {
+            return true;
+        }
+        pinnedUntil.remove(caller, until);
+        return false;
+    }
+
+    /** Drops expired pins; called from the replica lag probe so the map stays small. */
+    void purgeExpired() {
+        long now = nanoClock.getAsLong();
+        pinnedUntil.values().removeIf(until -> until - now <= 0);
+    }
+}
@@ -0,0 +1,140 @@
+package com.dhruvsharma.feed.userservice.datasource;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections for read-only transactions to a replica and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy so the transaction's read-only flag is known
+ * when the physical connection is fetched.
+ *
+ * A read goes to the primary instead when:
+ * - the caller is inside {@link ReplicaRouting#onPrimary},
+ * - the caller wrote recently ({@link ReadYourWrites}); any connection taken outside a read-only
+ *   transaction counts as a write and pins the current caller,
+ * - no replica's last measured lag is within maxLag.
+ * Eligible replicas are used round-robin.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final int PRIMARY = -1;
+
+    /**
+     * Replay lag in ms; 0 when fully replayed or when the node is not a standby at all.
+     * A standby that has never replayed a transaction reports as unusable.
+     */
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE((EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::bigint,
+                              9223372036854775807)
+            END""";
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long maxLagMillis;
+    private final ReadYourWrites readYourWrites;
+    private final Supplier<String> caller;
+    private final AtomicLongArray lagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration maxLag,
+                                    ReadYourWrites readYourWrites, Supplier<String> caller) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLagMillis = maxLag.toMillis();
+        this.readYourWrites = readYourWrites;
+        this.caller = caller;
+        this.lagMillis = new AtomicLongArray(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            // Unusable until the first probe (scheduled right after startup) says otherwise.
+            lagMillis.set(i, Long.MAX_VALUE);
+        }
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String current = caller.get();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readYourWrites.wrote(current);
+            return PRIMARY;
+        }
+        if (ReplicaRouting.primaryRequired() || readYourWrites.isPinned(current)) {
+            return PRIMARY;
+        }
+        int n = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(n, 1));
+        for (int i = 0; i < n; i++) {
+            int candidate = (start + i) % n;
+            if (lagMillis.get(candidate) <= maxLagMillis) {
+                return candidate;
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Scheduled(fixedDelayString = "${feed.datasource.lag-check-interval-ms:1000}")
+    public void probeReplicas() {
+        for (int i = 0; i < replicas.size(); i++) {
+            long lag;
+            try {
+                Long measured = new JdbcTemplate(replicas.get(i)).queryForObject(LAG_SQL, Long.class);
+                lag = measured == null ? Long.MAX_VALUE : measured;
+            } catch (DataAccessException e) {
+                lag = Long.MAX_VALUE;
+                log.warn("Replica {} lag probe failed; routing its reads to other nodes", i, e);
+            }
+            recordLag(i, lag);
+        }
+        readYourWrites.purgeExpired();
+    }
+
+    void recordLag(int replica, long millis) {
+        long previous = lagMillis.getAndSet(replica, millis);
+        boolean wasUsable = previous <= maxLagMillis;
+        boolean usable = millis <= maxLagMillis;
+        if (wasUsable != usable) {
+            log.info("Replica {} is now {} (lag {} ms, tolerance {} ms)", replica,
+                    usable ? "serving reads" : "bypassed", millis == Long.MAX_VALUE ? "unknown" : millis, maxLagMillis);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.dhruvsharma.feed.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One page of follower or followee ids, ascending by id.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowPageResponse {
+    private long[] ids;
+    /** Pass as ?after= for the next page; null on the last page. */
+    private Long nextCursor;
+    /** Total follower/followee count for the user, independent of paging. */
+    private long total;
+}
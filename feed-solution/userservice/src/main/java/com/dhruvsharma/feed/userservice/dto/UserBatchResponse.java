@@ -0,0 +1,17 @@
+package com.dhruvsharma.feed.userservice.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchResponse {
+    /** Users found among the requested ids; unknown ids are omitted. */
+    private List<UserSummaryResponse> users;
+}
@@ -1,5 +1,7 @@
 package com.dhruvsharma.feed.userservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -14,4 +16,7 @@ public class UserResponse {
     private String keycloakSubId;
     private String username;
     private String email;
+    /** Row version; sent as the ETag header rather than in the body. */
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,18 @@
+package com.dhruvsharma.feed.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Public display fields of a user, as returned by batch lookups (no email or Keycloak subject).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryResponse {
+    private Long id;
+    private String username;
+}
@@ -0,0 +1,104 @@
+package com.dhruvsharma.feed.userservice.graph;
+
+import java.util.Arrays;
+
+/**
+ * One user's neighbour set (followers or followees): a compressed base list plus small sorted
+ * primitive arrays of pending adds and removes. Writes touch only the pending arrays; they are
+ * folded into a new base once they grow past a fraction of the base, or before a read, so the
+ * O(n) re-encode is amortized across many writes and never exceeds the cost of the read that
+ * triggered it.
+ */
+final class Adjacency {
+
+    private static final long[] NONE = new long[0];
+    private static final int MIN_PENDING = 64;
+
+    private CompressedIdList base;
+    private long[] adds = NONE;
+    private int addCount;
+    private long[] removes = NONE;
+    private int removeCount;
+
+    Adjacency(CompressedIdList base) {
+        this.base = base;
+    }
+
+    synchronized boolean add(long id) {
+        int r = Arrays.binarySearch(removes, 0, removeCount, id);
+        if (r >= 0) {
+            removeCount = deleteAt(removes, removeCount, r);
+            return true;
+        }
+        if (base.contains(id)) {
+            return false;
+        }
+        int a = Arrays.binarySearch(adds, 0, addCount, id);
+        if (a >= 0) {
+            return false;
+        }
+        adds = insertAt(adds, addCount, -a - 1, id);
+        addCount++;
+        compactIfLarge();
+        return true;
+    }
+
+    synchronized boolean remove(long id) {
+        int a = Arrays.binarySearch(adds, 0, addCount, id);
+        if (a >= 0) {
+            addCount = deleteAt(adds, addCount, a);
+            return true;
+        }
+        if (!base.contains(id)) {
+            return false;
+        }
+        int r = Arrays.binarySearch(removes, 0, removeCount, id);
+        if (r >= 0) {
+            return false;
+        }
+        removes = insertAt(removes, removeCount, -r - 1, id);
+        removeCount++;
+        compactIfLarge();
+        return true;
+    }
+
+    synchronized int size() {
+        return base.size() + addCount - removeCount;
+    }
+
+    /**
+     * Returns an immutable view including every pending write. Safe to iterate without locking.
+     */
+    synchronized CompressedIdList snapshot() {
+        if (addCount > 0 || removeCount > 0) {
+            compact();
+        }
+        return base;
+    }
+
+    private void compactIfLarge() {
+        if (addCount + removeCount >= Math.max(MIN_PENDING, base.size() / 8)) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        base = base.merge(adds, addCount, removes, removeCount);
+        adds = NONE;
+        addCount = 0;
+        removes = NONE;
+        removeCount = 0;
+    }
+
+    private static long[] insertAt(long[] array, int count, int index, long value) {
+        long[] target = count < array.length ? array : Arrays.copyOf(array, Math.max(8, array.length * 2));
+        System.arraycopy(target, index, target, index + 1, count - index);
+        target[index] = value;
+        return target;
+    }
+
+    private static int deleteAt(long[] array, int count, int index) {
+        System.arraycopy(array, index + 1, array, index, count - index - 1);
+        return count - 1;
+    }
+}
@@ -0,0 +1,199 @@
+package com.dhruvsharma.feed.userservice.graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Immutable, sorted, duplicate-free list of non-negative ids stored as varint-encoded deltas.
+ *
+ * Ids are grouped into blocks of {@value #BLOCK_SIZE}; each block starts with its first id
+ * written in full so it can be decoded independently, and a small skip table (first id and
+ * byte offset per block) lets {@link #contains} and {@link #iteratorAfter} jump straight to
+ * the right block. Dense follower ids typically cost 1-2 bytes each and time-ordered
+ * (SnowflakeIdGenerator) ids about 4-6, against roughly 24 bytes for a boxed Long in a List.
+ */
+public final class CompressedIdList {
+
+    static final int BLOCK_SIZE = 128;
+
+    public static final CompressedIdList EMPTY = new CompressedIdList(new byte[0], 0, new long[0], new int[0]);
+
+    private final byte[] data;
+    private final int size;
+    private final long[] blockFirst;
+    private final int[] blockOffset;
+
+    private CompressedIdList(byte[] data, int size, long[] blockFirst, int[] blockOffset) {
+        this.data = data;
+        this.size = size;
+        this.blockFirst = blockFirst;
+        this.blockOffset = blockOffset;
+    }
+
+    /**
+     * Encodes the first length entries of ids, which must be ascending and distinct.
+     */
+    public static CompressedIdList of(long[] ids, int length) {
+        if (length == 0) {
+            return EMPTY;
+        }
+        int blocks = (length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        long[] blockFirst = new long[blocks];
+        int[] blockOffset = new int[blocks];
+        byte[] buf = new byte[Math.max(16, length * 2)];
+        int pos = 0;
+        long previous = 0;
+        for (int i = 0; i < length; i++) {
+            long id = ids[i];
+            long value;
+            if (i % BLOCK_SIZE == 0) {
+                int block = i / BLOCK_SIZE;
+                blockFirst[block] = id;
+                blockOffset[block] = pos;
+                value = id;
+            } else {
+                if (id <= previous) {
+                    throw new IllegalArgumentException("Ids must be ascending and distinct");
+                }
+                value = id - previous;
+            }
+            if (pos + 10 > buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            pos = writeVarLong(buf, pos, value);
+            previous = id;
+        }
+        return new CompressedIdList(Arrays.copyOf(buf, pos), length, blockFirst, blockOffset);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Encoded size in bytes, excluding the skip table. */
+    public int encodedBytes() {
+        return data.length;
+    }
+
+    public boolean contains(long id) {
+        int block = blockFor(id);
+        if (block < 0) {
+            return false;
+        }
+        PrimitiveIterator.OfLong it = new BlockIterator(block, Long.MIN_VALUE);
+        while (it.hasNext()) {
+            long next = it.nextLong();
+            if (next >= id) {
+                return next == id;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Iterates ids strictly greater than after, ascending. Pass -1 to start from the beginning.
+     */
+    public PrimitiveIterator.OfLong iteratorAfter(long after) {
+        int block = Math.max(0, blockFor(after));
+        return new BlockIterator(block, after);
+    }
+
+    /**
+     * Returns a new list with adds inserted and removes dropped. Both arrays must be sorted.
+     */
+    public CompressedIdList merge(long[] adds, int addCount, long[] removes, int removeCount) {
+        long[] out = new long[size + addCount];
+        int n = 0;
+        int a = 0;
+        int r = 0;
+        PrimitiveIterator.OfLong it = iteratorAfter(-1);
+        long current = it.hasNext() ? it.nextLong() : Long.MAX_VALUE;
+        while (current != Long.MAX_VALUE || a < addCount) {
+            long next;
+            if (a < addCount && adds[a] <= current) {
+                next = adds[a++];
+                if (next == current) {
+                    current = it.hasNext() ? it.nextLong() : Long.MAX_VALUE;
+                }
+            } else {
+                next = current;
+                current = it.hasNext() ? it.nextLong() : Long.MAX_VALUE;
+            }
+            while (r < removeCount && removes[r] < next) {
+                r++;
+            }
+            if (r < removeCount && removes[r] == next) {
+                continue;
+            }
+            out[n++] = next;
+        }
+        return of(out, n);
+    }
+
+    /** Index of the last block whose first id is <= id, or -1 if id precedes every block. */
+    private int blockFor(long id) {
+        int idx = Arrays.binarySearch(blockFirst, id);
+        return idx >= 0 ? idx : -idx - 2;
+    }
+
+    private static int writeVarLong(byte[] buf, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+        return pos;
+    }
+
+    private final class BlockIterator implements PrimitiveIterator.OfLong {
+        private int index;
+        private int pos;
+        private long previous;
+        private long pending;
+        private boolean hasPending;
+
+        BlockIterator(int block, long after) {
+            this.index = block * BLOCK_SIZE;
+            this.pos = blockOffset.length == 0 ? 0 : blockOffset[block];
+            advance();
+            while (hasPending && pending <= after) {
+                advance();
+            }
+        }
+
+        private void advance() {
+            if (index >= size) {
+                hasPending = false;
+                return;
+            }
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            pending = index % BLOCK_SIZE == 0 ? value : previous + value;
+            previous = pending;
+            index++;
+            hasPending = true;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasPending;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasPending) {
+                throw new NoSuchElementException();
+            }
+            long result = pending;
+            advance();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.dhruvsharma.feed.userservice.graph;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.dhruvsharma.feed.userservice.repository.FollowRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory follow graph: for every user, followers and followees as compressed sorted id lists.
+ *
+ * Loaded from the follows table at startup and rebuilt periodically so edges written by other
+ * pods converge; local writes are applied immediately. Follower enumeration for fan-out is an
+ * iterator over a primitive byte-encoded list, so paging through millions of followers
+ * allocates nothing per id and never touches the database.
+ */
+@Component
+@DependsOn("databaseMigrationRunner")
+public class FollowGraphIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(FollowGraphIndex.class);
+
+    private final FollowRepository followRepository;
+
+    private volatile Map<Long, Adjacency> followers = new ConcurrentHashMap<>();
+    private volatile Map<Long, Adjacency> followees = new ConcurrentHashMap<>();
+
+    /** Writes that arrive while a rebuild is reading the table; replayed onto the new maps. */
+    private final Queue<long[]> writesDuringRebuild = new ConcurrentLinkedQueue<>();
+    private volatile boolean rebuilding;
+
+    public FollowGraphIndex(FollowRepository followRepository) {
+        this.followRepository = followRepository;
+    }
+
+    @PostConstruct
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${feed.follow-graph.rebuild-interval-ms:600000}",
+               initialDelayString = "${feed.follow-graph.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        rebuilding = true;
+        try {
+            Map<Long, Adjacency> newFollowers = new ConcurrentHashMap<>();
+            Map<Long, Adjacency> newFollowees = new ConcurrentHashMap<>();
+            followRepository.streamFollowersByFollowee(groupInto(newFollowers));
+            followRepository.streamFolloweesByFollower(groupInto(newFollowees));
+            followers = newFollowers;
+            followees = newFollowees;
+        } finally {
+            rebuilding = false;
+        }
+        long[] write;
+        while ((write = writesDuringRebuild.poll()) != null) {
+            apply(write[0], write[1], write[2] == 1);
+        }
+        log.info("Follow graph loaded: {} users with followers, {} users following, in {} ms",
+                followers.size(), followees.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Records follower -> followee. Returns false if the edge already existed. */
+    public boolean follow(long followerId, long followeeId) {
+        return apply(followerId, followeeId, true);
+    }
+
+    /** Removes follower -> followee. Returns false if there was no such edge. */
+    public boolean unfollow(long followerId, long followeeId) {
+        return apply(followerId, followeeId, false);
+    }
+
+    public int followerCount(long userId) {
+        Adjacency adjacency = followers.get(userId);
+        return adjacency == null ? 0 : adjacency.size();
+    }
+
+    public int followeeCount(long userId) {
+        Adjacency adjacency = followees.get(userId);
+        return adjacency == null ? 0 : adjacency.size();
+    }
+
+    /** Ascending follower ids of userId, strictly greater than after (-1 from the start). */
+    public PrimitiveIterator.OfLong followersAfter(long userId, long after) {
+        return snapshot(followers, userId).iteratorAfter(after);
+    }
+
+    /** Ascending followee ids of userId, strictly greater than after (-1 from the start). */
+    public PrimitiveIterator.OfLong followeesAfter(long userId, long after) {
+        return snapshot(followees, userId).iteratorAfter(after);
+    }
+
+    private boolean apply(long followerId, long followeeId, boolean add) {
+        if (rebuilding) {
+            writesDuringRebuild.add(new long[] {followerId, followeeId, add ? 1 : 0});
+        }
+        Adjacency out = followees.computeIfAbsent(followerId, k -> new Adjacency(CompressedIdList.EMPTY));
+        Adjacency in = followers.computeIfAbsent(followeeId, k -> new Adjacency(CompressedIdList.EMPTY));
+        boolean changed = add ? out.add(followeeId) : out.remove(followeeId);
+        if (add) {
+            in.add(followerId);
+        } else {
+            in.remove(followerId);
+        }
+        return changed;
+    }
+
+    private static CompressedIdList snapshot(Map<Long, Adjacency> map, long userId) {
+        Adjacency adjacency = map.get(userId);
+        return adjacency == null ? CompressedIdList.EMPTY : adjacency.snapshot();
+    }
+
+    /**
+     * Consumes (key, value) rows ordered by key then value and builds one compressed list per key,
+     * reusing a single growable primitive buffer.
+     */
+    private static FollowRepository.EdgeConsumer groupInto(Map<Long, Adjacency> target) {
+        return new FollowRepository.EdgeConsumer() {
+            private long currentKey = -1;
+            private long[] buffer = new long[1024];
+            private int count;
+
+            @Override
+            public void accept(long key, long value) {
+                if (key != currentKey) {
+                    flush();
+                    currentKey = key;
+                }
+                if (count == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                buffer[count++] = value;
+            }
+
+            @Override
+            public void end() {
+                flush();
+            }
+
+            private void flush() {
+                if (count > 0) {
+                    target.put(currentKey, new Adjacency(CompressedIdList.of(buffer, count)));
+                    count = 0;
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package com.dhruvsharma.feed.userservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.dhruvsharma.feed.userservice.datasource.ReplicaRouting;
+
+/**
+ * Access to the follows edge table. Plain JDBC: edges have a composite key, and the
+ * graph index needs to stream the whole table with a bounded fetch size instead of
+ * materializing entities.
+ */
+@Repository
+public class FollowRepository {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public FollowRepository(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /** Receives (key, value) id pairs in key order. */
+    public interface EdgeConsumer {
+        void accept(long key, long value);
+
+        void end();
+    }
+
+    /** Inserts follower -> followee. Returns true if the edge was new. */
+    public boolean insert(long followerId, long followeeId) {
+        return jdbcTemplate.update(
+                "INSERT INTO follows (follower_id, followee_id) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                followerId, followeeId) > 0;
+    }
+
+    /** Deletes follower -> followee. Returns true if the edge existed. */
+    public boolean delete(long followerId, long followeeId) {
+        return jdbcTemplate.update(
+                "DELETE FROM follows WHERE follower_id = ? AND followee_id = ?",
+                followerId, followeeId) > 0;
+    }
+
+    /** Streams (followee, follower) pairs ordered by followee, then follower. */
+    public void streamFollowersByFollowee(EdgeConsumer consumer) {
+        stream("SELECT followee_id, follower_id FROM follows ORDER BY followee_id, follower_id", consumer);
+    }
+
+    /** Streams (follower, followee) pairs ordered by follower, then followee. */
+    public void streamFolloweesByFollower(EdgeConsumer consumer) {
+        stream("SELECT follower_id, followee_id FROM follows ORDER BY follower_id, followee_id", consumer);
+    }
+
+    private void stream(String sql, EdgeConsumer consumer) {
+        // The Postgres driver only uses a server-side cursor (honouring fetch size) inside a transaction.
+        // Read from the primary: the graph index replays only writes made during the rebuild, so a
+        // lagging replica's snapshot would drop earlier edges until the next rebuild.
+        ReplicaRouting.onPrimary(() -> readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            consumer.accept(rs.getLong(1), rs.getLong(2));
+        })));
+        consumer.end();
+    }
+}
@@ -0,0 +1,19 @@
+package com.dhruvsharma.feed.userservice.repository;
+
+import java.util.List;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dhruvsharma.feed.userservice.repository.entity.User;
+
+/**
+ * Custom fragment of {@link UserRepository} for multi-id lookups.
+ */
+public interface UserBatchLookup {
+    /**
+     * Returns the users with the given ids in one round trip (WHERE id = ANY(?)).
+     * Unknown ids are skipped; order is unspecified.
+     */
+    @Transactional(readOnly = true)
+    List<User> findAllByIds(long[] ids);
+}
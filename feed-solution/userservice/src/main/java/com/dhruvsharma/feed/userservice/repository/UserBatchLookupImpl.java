@@ -0,0 +1,40 @@
+package com.dhruvsharma.feed.userservice.repository;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.dhruvsharma.feed.userservice.repository.entity.User;
+
+/**
+ * Binds the ids as a single bigint[] parameter so the statement text (and its cached plan)
+ * is the same for any batch size.
+ */
+class UserBatchLookupImpl implements UserBatchLookup {
+
+    private static final BeanPropertyRowMapper<User> ROW_MAPPER = new BeanPropertyRowMapper<>(User.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    UserBatchLookupImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<User> findAllByIds(long[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.query(con -> {
+            Long[] boxed = new Long[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                boxed[i] = ids[i];
+            }
+            var ps = con.prepareStatement(
+                    "SELECT id, keycloak_sub_id, username, email, created_at FROM users WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("bigint", boxed));
+            return ps;
+        }, ROW_MAPPER);
+    }
+}
@@ -3,9 +3,12 @@ package com.dhruvsharma.feed.userservice.repository;
 import java.util.Optional;
 
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.dhruvsharma.feed.userservice.repository.entity.User;
 
-public interface UserRepository extends CrudRepository<User, Long> {
+public interface UserRepository extends CrudRepository<User, Long>, UserBatchLookup {
+    /** Read-only so it may be served by a replica (see ReplicaRoutingDataSource). */
+    @Transactional(readOnly = true)
     Optional<User> findByKeycloakSubId(String keycloakSubId);
 }
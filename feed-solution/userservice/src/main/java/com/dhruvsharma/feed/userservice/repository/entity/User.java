@@ -3,6 +3,7 @@ package com.dhruvsharma.feed.userservice.repository.entity;
 import java.time.Instant;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Table;
 
 import lombok.AllArgsConstructor;
@@ -22,4 +23,7 @@ public class User {
     private String username;
     private String email;
     private Instant createdAt;
+    /** Bumped on every update; exposed to clients as the profile ETag. */
+    @Version
+    private Long version;
 }
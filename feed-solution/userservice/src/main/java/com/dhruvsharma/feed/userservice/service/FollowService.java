@@ -0,0 +1,26 @@
+package com.dhruvsharma.feed.userservice.service;
+
+import com.dhruvsharma.feed.userservice.dto.FollowPageResponse;
+
+public interface FollowService {
+    /**
+     * Makes the user identified by the Keycloak subject follow followeeId. Idempotent.
+     */
+    void follow(String keycloakSubId, Long followeeId);
+
+    /**
+     * Removes the follow edge if present. Idempotent.
+     */
+    void unfollow(String keycloakSubId, Long followeeId);
+
+    /**
+     * Returns follower ids of userId, ascending, after the given id. Used by postservice fan-out.
+     */
+    FollowPageResponse getFollowers(Long userId, Long after, int limit);
+
+    /**
+     * Returns ids userId follows, ascending, after the given id. When minFollowers is set,
+     * only followees with at least that many followers are returned.
+     */
+    FollowPageResponse getFollowees(Long userId, Long after, int limit, Long minFollowers);
+}
@@ -2,6 +2,7 @@ package com.dhruvsharma.feed.userservice.service;
 
 import java.util.Optional;
 
+import com.dhruvsharma.feed.userservice.dto.UserBatchResponse;
 import com.dhruvsharma.feed.userservice.dto.UserResponse;
 import com.dhruvsharma.feed.userservice.dto.UserSignupRequest;
 import com.dhruvsharma.feed.userservice.dto.UserSignupResponse;
@@ -24,4 +25,10 @@ public interface UserService {
      * store author_user_id and need to resolve to display name.
      */
     Optional<UserResponse> findById(Long id);
+
+    /**
+     * Returns display info for many users in one query. Used by timelineservice to hydrate
+     * post authors for a whole page at once.
+     */
+    UserBatchResponse findByIds(long[] ids);
 }
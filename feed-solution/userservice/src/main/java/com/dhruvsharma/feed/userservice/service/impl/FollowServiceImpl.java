@@ -0,0 +1,91 @@
+package com.dhruvsharma.feed.userservice.service.impl;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.dhruvsharma.feed.userservice.dto.FollowPageResponse;
+import com.dhruvsharma.feed.userservice.graph.FollowGraphIndex;
+import com.dhruvsharma.feed.userservice.repository.FollowRepository;
+import com.dhruvsharma.feed.userservice.repository.UserRepository;
+import com.dhruvsharma.feed.userservice.service.FollowService;
+
+@Service
+public class FollowServiceImpl implements FollowService {
+
+    private final FollowRepository followRepository;
+    private final UserRepository userRepository;
+    private final FollowGraphIndex followGraphIndex;
+    private final int maxPageSize;
+
+    public FollowServiceImpl(FollowRepository followRepository,
+                             UserRepository userRepository,
+                             FollowGraphIndex followGraphIndex,
+                             @Value("${feed.follow-graph.max-page-size:10000}") int maxPageSize) {
+        this.followRepository = followRepository;
+        this.userRepository = userRepository;
+        this.followGraphIndex = followGraphIndex;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Override
+    public void follow(String keycloakSubId, Long followeeId) {
+        long followerId = resolveCaller(keycloakSubId);
+        if (followerId == followeeId) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Users cannot follow themselves.");
+        }
+        if (!userRepository.existsById(followeeId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found.");
+        }
+        followRepository.insert(followerId, followeeId);
+        followGraphIndex.follow(followerId, followeeId);
+    }
+
+    @Override
+    public void unfollow(String keycloakSubId, Long followeeId) {
+        long followerId = resolveCaller(keycloakSubId);
+        followRepository.delete(followerId, followeeId);
+        followGraphIndex.unfollow(followerId, followeeId);
+    }
+
+    @Override
+    public FollowPageResponse getFollowers(Long userId, Long after, int limit) {
+        return page(followGraphIndex.followersAfter(userId, after == null ? -1 : after),
+                limit, followGraphIndex.followerCount(userId), 0);
+    }
+
+    @Override
+    public FollowPageResponse getFollowees(Long userId, Long after, int limit, Long minFollowers) {
+        return page(followGraphIndex.followeesAfter(userId, after == null ? -1 : after),
+                limit, followGraphIndex.followeeCount(userId), minFollowers == null ? 0 : minFollowers);
+    }
+
+    private FollowPageResponse page(PrimitiveIterator.OfLong it, int limit, long total, long minFollowers) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        long[] ids = new long[Math.min(pageSize, (int) Math.min(total, Integer.MAX_VALUE))];
+        int count = 0;
+        while (count < pageSize && it.hasNext()) {
+            long id = it.nextLong();
+            if (minFollowers > 0 && followGraphIndex.followerCount(id) < minFollowers) {
+                continue;
+            }
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, Math.min(pageSize, Math.max(8, ids.length * 2)));
+            }
+            ids[count++] = id;
+        }
+        Long nextCursor = count == pageSize && it.hasNext() ? ids[count - 1] : null;
+        return new FollowPageResponse(count == ids.length ? ids : Arrays.copyOf(ids, count), nextCursor, total);
+    }
+
+    private long resolveCaller(String keycloakSubId) {
+        return userRepository.findByKeycloakSubId(keycloakSubId)
+                .map(u -> u.getId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                        "User not registered. Please log in again to complete registration."));
+    }
+}
@@ -1,13 +1,20 @@
 package com.dhruvsharma.feed.userservice.service.impl;
 
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.dhruvsharma.feed.userservice.dto.UserBatchResponse;
 import com.dhruvsharma.feed.userservice.dto.UserResponse;
 import com.dhruvsharma.feed.userservice.dto.UserSignupRequest;
 import com.dhruvsharma.feed.userservice.dto.UserSignupResponse;
+import com.dhruvsharma.feed.userservice.dto.UserSummaryResponse;
+import com.dhruvsharma.feed.userservice.id.SnowflakeIdGenerator;
 import com.dhruvsharma.feed.userservice.repository.UserRepository;
 import com.dhruvsharma.feed.userservice.repository.entity.User;
 import com.dhruvsharma.feed.userservice.service.UserService;
@@ -16,9 +23,15 @@ import com.dhruvsharma.feed.userservice.service.UserService;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final SnowflakeIdGenerator idGenerator;
+    private final int maxBatchSize;
 
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository,
+                           SnowflakeIdGenerator idGenerator,
+                           @Value("${feed.users.max-batch-size:500}") int maxBatchSize) {
         this.userRepository = userRepository;
+        this.idGenerator = idGenerator;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @Override
@@ -29,6 +42,8 @@ public class UserServiceImpl implements UserService {
             return new UserSignupResponse(u.getKeycloakSubId(), u.getUsername(), false);
         }
         User user = new User();
+        // Still inserted by save(): a null @Version marks the entity as new even with an id set.
+        user.setId(idGenerator.nextId());
         user.setKeycloakSubId(userSignupRequest.getKeycloakSubId());
         user.setUsername(userSignupRequest.getUsername() != null ? userSignupRequest.getUsername() : userSignupRequest.getKeycloakSubId());
         user.setEmail(userSignupRequest.getEmail());
@@ -40,12 +55,24 @@ public class UserServiceImpl implements UserService {
     @Override
     public Optional<UserResponse> findByKeycloakSubId(String keycloakSubId) {
         return userRepository.findByKeycloakSubId(keycloakSubId)
-                .map(u -> new UserResponse(u.getId(), u.getKeycloakSubId(), u.getUsername(), u.getEmail()));
+                .map(u -> new UserResponse(u.getId(), u.getKeycloakSubId(), u.getUsername(), u.getEmail(), u.getVersion()));
     }
 
     @Override
     public Optional<UserResponse> findById(Long id) {
         return userRepository.findById(id)
-                .map(u -> new UserResponse(u.getId(), u.getKeycloakSubId(), u.getUsername(), u.getEmail()));
+                .map(u -> new UserResponse(u.getId(), u.getKeycloakSubId(), u.getUsername(), u.getEmail(), u.getVersion()));
+    }
+
+    @Override
+    public UserBatchResponse findByIds(long[] ids) {
+        long[] distinct = Arrays.stream(ids).distinct().toArray();
+        if (distinct.length > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxBatchSize + " ids per request.");
+        }
+        return new UserBatchResponse(userRepository.findAllByIds(distinct).stream()
+                .map(u -> new UserSummaryResponse(u.getId(), u.getUsername()))
+                .toList());
     }
 }
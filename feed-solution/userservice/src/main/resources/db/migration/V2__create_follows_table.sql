@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS follows (
+    follower_id BIGINT NOT NULL REFERENCES users (id),
+    followee_id BIGINT NOT NULL REFERENCES users (id),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (follower_id, followee_id),
+    CHECK (follower_id <> followee_id)
+);
+
+-- Reverse direction for loading follower lists ordered by followee.
+CREATE INDEX IF NOT EXISTS idx_follows_followee_follower ON follows (followee_id, follower_id);
@@ -0,0 +1,2 @@
+-- Row version for optimistic locking; also the ETag validator for GET /api/v1/users/{id} and /me.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
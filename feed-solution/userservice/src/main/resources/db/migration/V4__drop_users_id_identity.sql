@@ -0,0 +1,4 @@
+-- User ids are now issued by userservice (SnowflakeIdGenerator: time-ordered, per-node).
+-- Existing identity ids are far below any generated id, so ordering by id is preserved.
+-- Dropping the default makes an insert without an id fail instead of drawing from the old sequence.
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,80 @@
+package com.dhruvsharma.feed.userservice.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.dhruvsharma.feed.userservice.dto.UserResponse;
+import com.dhruvsharma.feed.userservice.service.FollowService;
+import com.dhruvsharma.feed.userservice.service.UserService;
+
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * Body negotiation, validators and cache headers of user profiles, with a stand-in UserService
+ * and Spring MVC's default converters; no database needed.
+ */
+class UserControllerTests {
+
+    private static final String PROFILE = "/api/v1/users/7";
+    private static final String ETAG = "W/\"u7-v3\"";
+
+    private final UserService userService = mock(UserService.class);
+    private final MockMvc mvc = MockMvcBuilders
+            .standaloneSetup(new UserController(userService, mock(FollowService.class)))
+            .build();
+
+    UserControllerTests() {
+        when(userService.findById(7L)).thenReturn(Optional.of(new UserResponse(7L, "sub-7", "alice",
+                "alice@example.com", 3L)));
+    }
+
+    @Test
+    void acceptCborGetsCborWithTheSameWeakEtag() throws Exception {
+        MvcResult result = mvc.perform(get(PROFILE).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=10, private"))
+                .andReturn();
+
+        UserResponse user = CBORMapper.builder().build()
+                .readValue(result.getResponse().getContentAsByteArray(), UserResponse.class);
+        assertEquals("alice", user.getUsername());
+        assertEquals(7L, user.getId());
+    }
+
+    @Test
+    void jsonIsTheDefault() throws Exception {
+        mvc.perform(get(PROFILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(jsonPath("$.username").value("alice"));
+        mvc.perform(get(PROFILE).accept(MediaType.ALL))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void etagFromEitherEncodingRevalidates() throws Exception {
+        mvc.perform(get(PROFILE).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified());
+        mvc.perform(get(PROFILE).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified());
+    }
+}
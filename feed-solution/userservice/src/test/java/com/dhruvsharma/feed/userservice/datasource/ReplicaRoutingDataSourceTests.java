@@ -0,0 +1,139 @@
+package com.dhruvsharma.feed.userservice.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Routing decisions against stand-in DataSources; no database needed.
+ */
+class ReplicaRoutingDataSourceTests {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final AtomicReference<String> caller = new AtomicReference<>();
+    private final AtomicLong nanos = new AtomicLong();
+
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), nanos::get);
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofSeconds(1),
+                readYourWrites, caller::get);
+        routing.recordLag(0, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void readOnlyTransactionUsesReplica() throws SQLException {
+        assertSame(replicaConnection, readOnly());
+    }
+
+    @Test
+    void writesUsePrimary() throws SQLException {
+        assertSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    void laggingReplicaIsBypassedUntilItCatchesUp() throws SQLException {
+        routing.recordLag(0, 1500);
+        assertSame(primaryConnection, readOnly());
+        routing.recordLag(0, 200);
+        assertSame(replicaConnection, readOnly());
+    }
+
+    @Test
+    void replicaIsUnusableBeforeFirstProbe() throws SQLException {
+        ReplicaRoutingDataSource fresh = new ReplicaRoutingDataSource(primary, List.of(replica),
+                Duration.ofSeconds(1), new ReadYourWrites(Duration.ZERO), caller::get);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(primaryConnection, fresh.getConnection());
+    }
+
+    @Test
+    void writerReadsFromPrimaryUntilWindowExpires() throws SQLException {
+        caller.set("alice");
+        routing.getConnection();
+        assertSame(primaryConnection, readOnly());
+
+        caller.set("bob");
+        assertSame(replicaConnection, readOnly());
+
+        caller.set("alice");
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+        assertSame(replicaConnection, readOnly());
+    }
+
+    @Test
+    void onPrimaryOverridesReadOnlyRouting() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(primaryConnection, ReplicaRouting.onPrimary(this::connection));
+        assertSame(replicaConnection, connection());
+    }
+
+    @Test
+    void readOnlyTransactionTemplateIsRoutedThroughLazyProxy() throws SQLException {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(routing);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(proxy));
+        readOnlyTransaction.setReadOnly(true);
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try {
+                DataSourceUtils.getConnection(proxy).createStatement();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        verify(replica).getConnection();
+        verify(primary, never()).getConnection();
+    }
+
+    private Connection readOnly() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            return routing.getConnection();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    private Connection connection() {
+        try {
+            return routing.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
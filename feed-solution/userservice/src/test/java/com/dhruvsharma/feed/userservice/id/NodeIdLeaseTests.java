@@ -0,0 +1,131 @@
+package com.dhruvsharma.feed.userservice.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Where the node id comes from and how a lease is taken and renewed, with stand-in advisory
+ * locks; no database needed.
+ */
+class NodeIdLeaseTests {
+
+    private final DataSource dataSource = mock(DataSource.class);
+    /** Node ids whose lock another process holds. */
+    private final Set<Integer> taken = new HashSet<>();
+
+    @Test
+    void nodeIdFromConfigThenPodOrdinal() {
+        assertEquals(7, NodeIdLease.resolveNodeId(7, "userservice-3"));
+        assertEquals(3, NodeIdLease.resolveNodeId(-1, "userservice-3"));
+        assertEquals(-1, NodeIdLease.resolveNodeId(-1, "userservice-6d8f9c7b5-x2k9z"));
+        assertEquals(-1, NodeIdLease.resolveNodeId(-1, "userservice-6d8f9c7b5-24567"));
+        assertEquals(-1, NodeIdLease.resolveNodeId(-1, null));
+    }
+
+    @Test
+    void statefulSetPodUsesItsOrdinalWithoutTheDatabase() {
+        assertEquals(2, new NodeIdLease(dataSource, -1, "userservice-2").nodeId());
+        verifyNoInteractions(dataSource);
+    }
+
+    @Test
+    void deploymentPodLeasesAnIdNobodyElseHolds() throws SQLException {
+        IntStream.rangeClosed(0, SnowflakeIdGenerator.MAX_NODE_ID).filter(id -> id != 517).forEach(taken::add);
+        Connection connection = connection();
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        assertEquals(517, new NodeIdLease(dataSource, -1, "userservice-6d8f9c7b5-x2k9z").nodeId());
+    }
+
+    @Test
+    void startupFailsWhenEveryIdIsLeased() throws SQLException {
+        IntStream.rangeClosed(0, SnowflakeIdGenerator.MAX_NODE_ID).forEach(taken::add);
+        Connection connection = connection();
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        assertThrows(IllegalStateException.class, () -> new NodeIdLease(dataSource, -1, "userservice-abcde-fghij"));
+        verify(connection).close();
+    }
+
+    @Test
+    void lostLeaseRefusesIdsUntilRenewedWithTheSameId() throws SQLException {
+        Connection first = connection();
+        when(dataSource.getConnection()).thenReturn(first);
+        NodeIdLease lease = new NodeIdLease(dataSource, -1, "userservice-abcde-fghij");
+        int id = lease.nodeId();
+
+        // The connection drops and the database is briefly unreachable.
+        when(first.isValid(anyInt())).thenReturn(false);
+        doThrow(new SQLTransientConnectionException("down")).when(dataSource).getConnection();
+        lease.check();
+        assertThrows(IllegalStateException.class, lease::nodeId);
+
+        Connection second = connection();
+        doReturn(second).when(dataSource).getConnection();
+        lease.check();
+        assertEquals(id, lease.nodeId());
+        verify(first).close();
+    }
+
+    @Test
+    void renewalTakesANewIdWhenTheOldOneWasLeasedMeanwhile() throws SQLException {
+        Connection first = connection();
+        when(dataSource.getConnection()).thenReturn(first);
+        NodeIdLease lease = new NodeIdLease(dataSource, -1, "userservice-abcde-fghij");
+        int id = lease.nodeId();
+
+        when(first.isValid(anyInt())).thenReturn(false);
+        taken.add(id);
+        Connection second = connection();
+        when(dataSource.getConnection()).thenReturn(second);
+        lease.check();
+
+        assertEquals((id + 1) % (SnowflakeIdGenerator.MAX_NODE_ID + 1), lease.nodeId());
+    }
+
+    /** A connection whose advisory lock attempts succeed for ids not in taken. */
+    private Connection connection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(connection.prepareStatement(anyString())).thenAnswer(call -> lockStatement());
+        return connection;
+    }
+
+    private PreparedStatement lockStatement() throws SQLException {
+        PreparedStatement ps = mock(PreparedStatement.class);
+        AtomicReference<String> key = new AtomicReference<>();
+        doAnswer(call -> {
+            key.set(call.getArgument(1));
+            return null;
+        }).when(ps).setString(eq(1), anyString());
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true);
+        when(rs.getBoolean(1)).thenAnswer(call -> !taken.contains(Integer.parseInt(key.get().replace("snowflake_node:", ""))));
+        when(ps.executeQuery()).thenReturn(rs);
+        return ps;
+    }
+}